@@ -0,0 +1,49 @@
+#include <benchmark/benchmark.h>
+
+#include <mbgl/style/style.hpp>
+#include <mbgl/storage/default_file_source.hpp>
+#include <mbgl/storage/network_status.hpp>
+#include <mbgl/util/io.hpp>
+#include <mbgl/util/rapidjson.hpp>
+#include <mbgl/util/run_loop.hpp>
+
+using namespace mbgl;
+
+namespace {
+
+class StyleBenchmark {
+public:
+    StyleBenchmark() {
+        NetworkStatus::Set(NetworkStatus::Status::Offline);
+        fileSource.setAccessToken("foobar");
+    }
+
+    util::RunLoop loop;
+    DefaultFileSource fileSource{ "benchmark/fixtures/api/cache.db", "." };
+    const std::string json = util::read_file("benchmark/fixtures/api/query_style.json");
+};
+
+} // end namespace
+
+// Loading a style from its JSON, as done before the first frame on every start
+static void Parse_StyleCold(::benchmark::State& state) {
+    StyleBenchmark bench;
+
+    while (state.KeepRunning()) {
+        style::Style style{ bench.fileSource, 1 };
+        style.setJSON(bench.json);
+    }
+}
+
+// The share of Parse_StyleCold spent tokenizing the JSON
+static void Parse_StyleTokenize(::benchmark::State& state) {
+    StyleBenchmark bench;
+
+    while (state.KeepRunning()) {
+        JSDocument document;
+        document.Parse<0>(bench.json.c_str());
+    }
+}
+
+BENCHMARK(Parse_StyleCold);
+BENCHMARK(Parse_StyleTokenize);
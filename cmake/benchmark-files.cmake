@@ -9,6 +9,7 @@ set(MBGL_BENCHMARK_FILES
 
     # parse
     benchmark/parse/filter.benchmark.cpp
+    benchmark/parse/style.benchmark.cpp
 
     # src
     benchmark/src/main.cpp
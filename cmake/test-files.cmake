@@ -79,6 +79,7 @@ set(MBGL_TEST_FILES
     test/style/functions.test.cpp
     test/style/source.test.cpp
     test/style/style.test.cpp
+    test/style/style_diff.test.cpp
     test/style/style_layer.test.cpp
     test/style/style_parser.test.cpp
     test/style/tile_source.test.cpp
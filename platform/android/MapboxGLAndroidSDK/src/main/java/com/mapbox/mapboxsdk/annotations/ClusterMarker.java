@@ -0,0 +1,43 @@
+package com.mapbox.mapboxsdk.annotations;
+
+/**
+ * Marker representing a cluster of markers added with
+ * {@link com.mapbox.mapboxsdk.maps.MapboxMap#setClusteredMarkers(java.util.List, MarkerClusterOptions)}.
+ * <p>
+ * Cluster markers are managed by the map, they are added and removed as the camera changes.
+ * </p>
+ */
+public final class ClusterMarker extends Marker {
+
+    private final int pointCount;
+    private final int expansionZoom;
+
+    /**
+     * Creates a instance of {@link ClusterMarker} using the builder of ClusterMarker.
+     *
+     * @param clusterMarkerOptions The builder used to construct the ClusterMarker.
+     */
+    public ClusterMarker(ClusterMarkerOptions clusterMarkerOptions) {
+        super(clusterMarkerOptions);
+        pointCount = clusterMarkerOptions.getPointCount();
+        expansionZoom = clusterMarkerOptions.getExpansionZoom();
+    }
+
+    /**
+     * Returns the amount of markers in this cluster.
+     *
+     * @return the amount of clustered markers.
+     */
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Returns the zoom level at which this cluster breaks up into smaller clusters or markers.
+     *
+     * @return the expansion zoom level.
+     */
+    public int getExpansionZoom() {
+        return expansionZoom;
+    }
+}
@@ -0,0 +1,136 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import android.graphics.Bitmap;
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import com.mapbox.mapboxsdk.exceptions.InvalidMarkerPositionException;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+/**
+ * Builder for composing {@link ClusterMarker} objects. Used internally by the SDK while clustering
+ * markers, see {@link MarkerClusterOptions}.
+ */
+public final class ClusterMarkerOptions extends BaseMarkerOptions<ClusterMarker, ClusterMarkerOptions>
+        implements Parcelable {
+
+    private int pointCount;
+    private int expansionZoom;
+
+    /**
+     * Defines options for a ClusterMarker.
+     */
+    public ClusterMarkerOptions() {
+    }
+
+    private ClusterMarkerOptions(Parcel in) {
+        position((LatLng) in.readParcelable(LatLng.class.getClassLoader()));
+        pointCount(in.readInt());
+        expansionZoom(in.readInt());
+        if (in.readByte() != 0) {
+            // this means we have an icon
+            String iconId = in.readString();
+            Bitmap iconBitmap = in.readParcelable(Bitmap.class.getClassLoader());
+            icon(new Icon(iconId, iconBitmap));
+        }
+    }
+
+    @Override
+    public ClusterMarkerOptions getThis() {
+        return this;
+    }
+
+    /**
+     * Sets the amount of markers in the cluster.
+     *
+     * @param pointCount the amount of clustered markers.
+     * @return This {@link ClusterMarkerOptions} object with a new point count set.
+     */
+    public ClusterMarkerOptions pointCount(int pointCount) {
+        this.pointCount = pointCount;
+        return this;
+    }
+
+    /**
+     * Gets the amount of markers in the cluster.
+     *
+     * @return the amount of clustered markers.
+     */
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Sets the zoom level at which the cluster breaks up.
+     *
+     * @param expansionZoom the expansion zoom level.
+     * @return This {@link ClusterMarkerOptions} object with a new expansion zoom set.
+     */
+    public ClusterMarkerOptions expansionZoom(int expansionZoom) {
+        this.expansionZoom = expansionZoom;
+        return this;
+    }
+
+    /**
+     * Gets the zoom level at which the cluster breaks up.
+     *
+     * @return the expansion zoom level.
+     */
+    public int getExpansionZoom() {
+        return expansionZoom;
+    }
+
+    /**
+     * Do not use this method. Used internally by the SDK.
+     *
+     * @return ClusterMarker The build marker
+     */
+    @Override
+    public ClusterMarker getMarker() {
+        if (position == null) {
+            throw new InvalidMarkerPositionException();
+        }
+        return new ClusterMarker(this);
+    }
+
+    /**
+     * Describe the kinds of special objects contained in this Parcelable's
+     * marshalled representation.
+     *
+     * @return integer 0.
+     */
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    /**
+     * Flatten this object in to a Parcel.
+     *
+     * @param out   The Parcel in which the object should be written.
+     * @param flags Additional flags about how the object should be written. May be 0 or
+     *              {@link #PARCELABLE_WRITE_RETURN_VALUE}.
+     */
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+        out.writeParcelable(position, flags);
+        out.writeInt(pointCount);
+        out.writeInt(expansionZoom);
+        out.writeByte((byte) (icon != null ? 1 : 0));
+        if (icon != null) {
+            out.writeString(icon.getId());
+            out.writeParcelable(icon.getBitmap(), flags);
+        }
+    }
+
+    public static final Parcelable.Creator<ClusterMarkerOptions> CREATOR
+            = new Parcelable.Creator<ClusterMarkerOptions>() {
+        public ClusterMarkerOptions createFromParcel(Parcel in) {
+            return new ClusterMarkerOptions(in);
+        }
+
+        public ClusterMarkerOptions[] newArray(int size) {
+            return new ClusterMarkerOptions[size];
+        }
+    };
+}
@@ -44,6 +44,16 @@ public class InfoWindow {
     @LayoutRes
     private int mLayoutRes;
 
+    // the adapter the view is released to when the info window closes, null for the default view
+    private MapboxMap.RecyclingInfoWindowAdapter mRecyclingAdapter;
+
+    // size of the view, valid as long as the view shows the same marker and content
+    private boolean mMeasured;
+    private long mMeasuredMarkerId;
+    private String mMeasuredContent;
+    private int mMeasuredWidth;
+    private int mMeasuredHeight;
+
     InfoWindow(MapView mapView, int layoutResId, MapboxMap mapboxMap) {
         mLayoutRes = layoutResId;
         View view = LayoutInflater.from(mapView.getContext()).inflate(layoutResId, mapView, false);
@@ -54,10 +64,16 @@ public class InfoWindow {
         initialize(view, mapboxMap);
     }
 
+    InfoWindow(View view, MapboxMap mapboxMap, MapboxMap.RecyclingInfoWindowAdapter recyclingAdapter) {
+        mRecyclingAdapter = recyclingAdapter;
+        initialize(view, mapboxMap);
+    }
+
     private void initialize(View view, MapboxMap mapboxMap) {
         mMapboxMap = new WeakReference<>(mapboxMap);
         mIsVisible = false;
         mView = new WeakReference<>(view);
+        mMeasured = false;
 
         view.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -113,87 +129,130 @@ public class InfoWindow {
         MapboxMap mapboxMap = mMapboxMap.get();
         View view = mView.get();
         if (view != null && mapboxMap != null) {
-            view.measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
+            measure(view, boundMarker);
+            layout(mapView, mapboxMap, view, position, offsetX, offsetY);
 
-            // Calculate y-offset for update method
-            mMarkerHeightOffset = -view.getMeasuredHeight() + offsetY;
-            mMarkerWidthOffset = -offsetX;
+            // an info window that is already open keeps its view attached and its marker bound
+            if (view.getParent() != mapView) {
+                if (view.getParent() != null) {
+                    ((ViewGroup) view.getParent()).removeView(view);
+                }
+                mapView.addView(view, lp);
+            }
+            mIsVisible = true;
+        }
+        return this;
+    }
 
-            // Calculate default Android x,y coordinate
-            mCoordinates = mapboxMap.getProjection().toScreenLocation(position);
-            float x = mCoordinates.x - (view.getMeasuredWidth() / 2) + offsetX;
-            float y = mCoordinates.y - view.getMeasuredHeight() + offsetY;
+    /**
+     * Moves this {@link InfoWindow} to new offsets from its marker, for example after the icon of
+     * the marker changed. The view is repositioned as is, it isn't adapted nor measured again.
+     *
+     * @param offsetX The offset of the view to the position of the marker, in pixels.
+     * @param offsetY The offset of the view to the position of the marker, in pixels.
+     * @return this {@link InfoWindow}.
+     */
+    InfoWindow updateOffset(MapView mapView, int offsetX, int offsetY) {
+        MapboxMap mapboxMap = mMapboxMap.get();
+        Marker marker = getBoundMarker();
+        View view = mView.get();
+        if (mIsVisible && mMeasured && mapboxMap != null && marker != null && view != null) {
+            layout(mapView, mapboxMap, view, marker.getPosition(), offsetX, offsetY);
+        }
+        return this;
+    }
 
-            if (view instanceof InfoWindowView) {
-                // only apply repositioning/margin for InfoWindowView
-                Resources resources = mapView.getContext().getResources();
-
-                // get right/left popup window
-                float rightSideInfowWindow = x + view.getMeasuredWidth();
-                float leftSideInfoWindow = x;
-
-                // get right/left map view
-                final float mapRight = mapView.getRight();
-                final float mapLeft = mapView.getLeft();
-
-                float marginHorizontal = resources.getDimension(R.dimen.mapbox_infowindow_margin);
-                float tipViewOffset = resources.getDimension(R.dimen.mapbox_infowindow_tipview_width) / 2;
-                float tipViewMarginLeft = view.getMeasuredWidth() / 2 - tipViewOffset;
-
-                boolean outOfBoundsLeft = false;
-                boolean outOfBoundsRight = false;
-
-                // only optimise margins if view is inside current viewport
-                if (mCoordinates.x >= 0 && mCoordinates.x <= mapView.getWidth()
-                        && mCoordinates.y >= 0 && mCoordinates.y <= mapView.getHeight()) {
-
-                    // if out of bounds right
-                    if (rightSideInfowWindow > mapRight) {
-                        outOfBoundsRight = true;
-                        x -= rightSideInfowWindow - mapRight;
-                        tipViewMarginLeft += rightSideInfowWindow - mapRight + tipViewOffset;
-                        rightSideInfowWindow = x + view.getMeasuredWidth();
-                    }
+    private void measure(View view, Marker marker) {
+        // the default view is keyed on its text, views of an adapter request a layout when their
+        // content changes
+        String content = mLayoutRes != 0 ? marker.getTitle() + '\n' + marker.getSnippet() : null;
+        if (mMeasured && mMeasuredMarkerId == marker.getId() && TextUtils.equals(mMeasuredContent, content)
+                && !view.isLayoutRequested()) {
+            return;
+        }
 
-                    // fit screen left
-                    if (leftSideInfoWindow < mapLeft) {
-                        outOfBoundsLeft = true;
-                        x += mapLeft - leftSideInfoWindow;
-                        tipViewMarginLeft -= mapLeft - leftSideInfoWindow + tipViewOffset;
-                        leftSideInfoWindow = x;
-                    }
+        view.measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
+        mMeasuredWidth = view.getMeasuredWidth();
+        mMeasuredHeight = view.getMeasuredHeight();
+        mMeasuredMarkerId = marker.getId();
+        mMeasuredContent = content;
+        mMeasured = true;
+    }
 
-                    // Add margin right
-                    if (outOfBoundsRight && mapRight - rightSideInfowWindow < marginHorizontal) {
-                        x -= marginHorizontal - (mapRight - rightSideInfowWindow);
-                        tipViewMarginLeft += marginHorizontal - (mapRight - rightSideInfowWindow) - tipViewOffset;
-                        leftSideInfoWindow = x;
-                    }
+    private void layout(MapView mapView, MapboxMap mapboxMap, View view, LatLng position, int offsetX, int offsetY) {
+        // Calculate y-offset for update method
+        mMarkerHeightOffset = -mMeasuredHeight + offsetY;
+        mMarkerWidthOffset = -offsetX;
+
+        // Calculate default Android x,y coordinate
+        mCoordinates = mapboxMap.getProjection().toScreenLocation(position);
+        float x = mCoordinates.x - (mMeasuredWidth / 2) + offsetX;
+        float y = mCoordinates.y - mMeasuredHeight + offsetY;
+
+        if (view instanceof InfoWindowView) {
+            // only apply repositioning/margin for InfoWindowView
+            Resources resources = mapView.getContext().getResources();
+
+            // get right/left popup window
+            float rightSideInfowWindow = x + mMeasuredWidth;
+            float leftSideInfoWindow = x;
+
+            // get right/left map view
+            final float mapRight = mapView.getRight();
+            final float mapLeft = mapView.getLeft();
+
+            float marginHorizontal = resources.getDimension(R.dimen.mapbox_infowindow_margin);
+            float tipViewOffset = resources.getDimension(R.dimen.mapbox_infowindow_tipview_width) / 2;
+            float tipViewMarginLeft = mMeasuredWidth / 2 - tipViewOffset;
+
+            boolean outOfBoundsLeft = false;
+            boolean outOfBoundsRight = false;
+
+            // only optimise margins if view is inside current viewport
+            if (mCoordinates.x >= 0 && mCoordinates.x <= mapView.getWidth()
+                    && mCoordinates.y >= 0 && mCoordinates.y <= mapView.getHeight()) {
+
+                // if out of bounds right
+                if (rightSideInfowWindow > mapRight) {
+                    outOfBoundsRight = true;
+                    x -= rightSideInfowWindow - mapRight;
+                    tipViewMarginLeft += rightSideInfowWindow - mapRight + tipViewOffset;
+                    rightSideInfowWindow = x + mMeasuredWidth;
+                }
 
-                    // Add margin left
-                    if (outOfBoundsLeft && leftSideInfoWindow - mapLeft < marginHorizontal) {
-                        x += marginHorizontal - (leftSideInfoWindow - mapLeft);
-                        tipViewMarginLeft -= (marginHorizontal - (leftSideInfoWindow - mapLeft)) - tipViewOffset;
-                    }
+                // fit screen left
+                if (leftSideInfoWindow < mapLeft) {
+                    outOfBoundsLeft = true;
+                    x += mapLeft - leftSideInfoWindow;
+                    tipViewMarginLeft -= mapLeft - leftSideInfoWindow + tipViewOffset;
+                    leftSideInfoWindow = x;
                 }
 
-                // Adjust tipView
-                InfoWindowView infoWindowView = (InfoWindowView) view;
-                infoWindowView.setTipViewMarginLeft((int) tipViewMarginLeft);
+                // Add margin right
+                if (outOfBoundsRight && mapRight - rightSideInfowWindow < marginHorizontal) {
+                    x -= marginHorizontal - (mapRight - rightSideInfowWindow);
+                    tipViewMarginLeft += marginHorizontal - (mapRight - rightSideInfowWindow) - tipViewOffset;
+                    leftSideInfoWindow = x;
+                }
+
+                // Add margin left
+                if (outOfBoundsLeft && leftSideInfoWindow - mapLeft < marginHorizontal) {
+                    x += marginHorizontal - (leftSideInfoWindow - mapLeft);
+                    tipViewMarginLeft -= (marginHorizontal - (leftSideInfoWindow - mapLeft)) - tipViewOffset;
+                }
             }
 
-            // set anchor popupwindowview
-            view.setX(x);
-            view.setY(y);
+            // Adjust tipView
+            InfoWindowView infoWindowView = (InfoWindowView) view;
+            infoWindowView.setTipViewMarginLeft((int) tipViewMarginLeft);
+        }
 
-            // Calculate x-offset for update method
-            mViewWidthOffset = x - mCoordinates.x - offsetX;
+        // set anchor popupwindowview
+        view.setX(x);
+        view.setY(y);
 
-            close(); //if it was already opened
-            mapView.addView(view, lp);
-            mIsVisible = true;
-        }
-        return this;
+        // Calculate x-offset for update method
+        mViewWidthOffset = x - mCoordinates.x - offsetX;
     }
 
     /**
@@ -210,6 +269,13 @@ public class InfoWindow {
                 ((ViewGroup) view.getParent()).removeView(view);
             }
 
+            if (view != null && mRecyclingAdapter != null) {
+                // the view may be handed to another marker from here on
+                mRecyclingAdapter.releaseView(view);
+                mView = new WeakReference<>(null);
+                mMeasured = false;
+            }
+
             Marker marker = getBoundMarker();
             MapboxMap.OnInfoWindowCloseListener listener = mapboxMap.getOnInfoWindowCloseListener();
             if (listener != null) {
@@ -234,10 +300,13 @@ public class InfoWindow {
             initialize(view, mapboxMap);
         }
         mMapboxMap = new WeakReference<>(mapboxMap);
+        // text is only set when it changed, setting text requests a layout of the view
         String title = overlayItem.getTitle();
         TextView titleTextView = ((TextView) view.findViewById(R.id.infowindow_title));
         if (!TextUtils.isEmpty(title)) {
-            titleTextView.setText(title);
+            if (!TextUtils.equals(title, titleTextView.getText())) {
+                titleTextView.setText(title);
+            }
             titleTextView.setVisibility(View.VISIBLE);
         } else {
             titleTextView.setVisibility(View.GONE);
@@ -246,7 +315,9 @@ public class InfoWindow {
         String snippet = overlayItem.getSnippet();
         TextView snippetTextView = ((TextView) view.findViewById(R.id.infowindow_description));
         if (!TextUtils.isEmpty(snippet)) {
-            snippetTextView.setText(snippet);
+            if (!TextUtils.equals(snippet, snippetTextView.getText())) {
+                snippetTextView.setText(snippet);
+            }
             snippetTextView.setVisibility(View.VISIBLE);
         } else {
             snippetTextView.setVisibility(View.GONE);
@@ -278,7 +349,7 @@ public class InfoWindow {
             if (view instanceof InfoWindowView) {
                 view.setX(mCoordinates.x + mViewWidthOffset - mMarkerWidthOffset);
             } else {
-                view.setX(mCoordinates.x - (view.getMeasuredWidth() / 2) - mMarkerWidthOffset);
+                view.setX(mCoordinates.x - (mMeasuredWidth / 2) - mMarkerWidthOffset);
             }
             view.setY(mCoordinates.y + mMarkerHeightOffset);
         }
@@ -297,4 +368,8 @@ public class InfoWindow {
         return mIsVisible;
     }
 
+    boolean isDefaultInfoWindow() {
+        return mLayoutRes != 0;
+    }
+
 }
@@ -219,7 +219,11 @@ public class Marker extends Annotation {
             // end developer is using a custom InfoWindowAdapter
             View content = infoWindowAdapter.getInfoWindow(this);
             if (content != null) {
-                infoWindow = new InfoWindow(content, mapboxMap);
+                if (infoWindow == null || infoWindow.getView() != content) {
+                    infoWindow = infoWindowAdapter instanceof MapboxMap.RecyclingInfoWindowAdapter
+                            ? new InfoWindow(content, mapboxMap, (MapboxMap.RecyclingInfoWindowAdapter) infoWindowAdapter)
+                            : new InfoWindow(content, mapboxMap);
+                }
                 showInfoWindow(infoWindow, mapView);
                 return infoWindow;
             }
@@ -238,8 +242,21 @@ public class Marker extends Annotation {
         return iw;
     }
 
+    /**
+     * Do not use this method, used internally by the SDK.
+     * <p>
+     * Moves the shown info window to the current offsets of the marker, without adapting or
+     * measuring its View again.
+     * </p>
+     */
+    public void updateInfoWindowOffset() {
+        if (infoWindowShown && infoWindow != null && mapView != null) {
+            infoWindow.updateOffset(mapView, rightOffsetPixels, topOffsetPixels);
+        }
+    }
+
     private InfoWindow getInfoWindow(@NonNull MapView mapView) {
-        if (infoWindow == null && mapView.getContext() != null) {
+        if ((infoWindow == null || !infoWindow.isDefaultInfoWindow()) && mapView.getContext() != null) {
             infoWindow = new InfoWindow(mapView, R.layout.mapbox_infowindow_view, getMapboxMap());
         }
         return infoWindow;
@@ -0,0 +1,106 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Builder for the clustering of markers added with
+ * {@link com.mapbox.mapboxsdk.maps.MapboxMap#setClusteredMarkers(java.util.List, MarkerClusterOptions)}.
+ * <p>
+ * Markers within the cluster radius of each other are shown as a single {@link ClusterMarker}
+ * up to the max zoom level, at higher zoom levels all markers are shown individually.
+ * </p>
+ */
+public final class MarkerClusterOptions {
+
+    private int radius = 50;
+    private int maxZoom = 16;
+    private int minPoints = 2;
+    private Icon icon;
+
+    /**
+     * Defines options for clustering markers.
+     */
+    public MarkerClusterOptions() {
+    }
+
+    /**
+     * Sets the radius in screen pixels within which markers are clustered. The default is 50.
+     *
+     * @param radius the cluster radius in screen pixels.
+     * @return This {@link MarkerClusterOptions} object with a new radius set.
+     */
+    public MarkerClusterOptions radius(int radius) {
+        this.radius = radius;
+        return this;
+    }
+
+    /**
+     * Gets the cluster radius set for this {@link MarkerClusterOptions} object.
+     *
+     * @return the cluster radius in screen pixels.
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Sets the highest zoom level at which markers are clustered. The default is 16.
+     *
+     * @param maxZoom the highest zoom level markers are clustered at.
+     * @return This {@link MarkerClusterOptions} object with a new max zoom set.
+     */
+    public MarkerClusterOptions maxZoom(int maxZoom) {
+        this.maxZoom = maxZoom;
+        return this;
+    }
+
+    /**
+     * Gets the max zoom level set for this {@link MarkerClusterOptions} object.
+     *
+     * @return the highest zoom level markers are clustered at.
+     */
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * Sets the minimum amount of markers forming a cluster. The default is 2.
+     *
+     * @param minPoints the minimum amount of markers in a cluster.
+     * @return This {@link MarkerClusterOptions} object with a new minimum set.
+     */
+    public MarkerClusterOptions minPoints(int minPoints) {
+        this.minPoints = minPoints;
+        return this;
+    }
+
+    /**
+     * Gets the minimum amount of markers in a cluster set for this {@link MarkerClusterOptions} object.
+     *
+     * @return the minimum amount of markers in a cluster.
+     */
+    public int getMinPoints() {
+        return minPoints;
+    }
+
+    /**
+     * Sets the icon of cluster markers, the default marker icon is used when not set.
+     *
+     * @param icon the icon of cluster markers.
+     * @return This {@link MarkerClusterOptions} object with a new icon set.
+     */
+    public MarkerClusterOptions icon(@Nullable Icon icon) {
+        this.icon = icon;
+        return this;
+    }
+
+    /**
+     * Gets the cluster icon set for this {@link MarkerClusterOptions} object.
+     *
+     * @return the icon of cluster markers, null if the default icon is used.
+     */
+    @Nullable
+    public Icon getIcon() {
+        return icon;
+    }
+}
@@ -1,9 +1,10 @@
 package com.mapbox.mapboxsdk.annotations;
 
 import android.content.Context;
-import android.graphics.PointF;
+import android.graphics.Rect;
 import android.graphics.RectF;
-import android.os.SystemClock;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.view.LayoutInflater;
@@ -13,14 +14,20 @@ import android.widget.ImageView;
 
 import com.mapbox.mapboxsdk.R;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 import com.mapbox.mapboxsdk.utils.AnimatorUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Interface for interacting with ViewMarkers objects inside of a MapView.
@@ -33,12 +40,22 @@ public class MarkerViewManager {
     private final ViewGroup markerViewContainer;
     private final Map<MarkerView, View> markerViewMap = new HashMap<>();
     private final List<MapboxMap.MarkerViewAdapter> markerViewAdapters = new ArrayList<>();
+    // adapters keyed on the MarkerView class they adapt, the last added adapter for a class wins
+    private final Map<Class, MapboxMap.MarkerViewAdapter> markerViewAdapterMap = new HashMap<>();
 
     // TODO refactor MapboxMap out for Projection and Transform
     // Requires removing MapboxMap from Annotations by using Peer model from #6912
     private MapboxMap mapboxMap;
 
-    private long viewMarkerBoundsUpdateTime;
+    // buffers reused to project the positioned MarkerViews in a single call, grown as needed
+    private MarkerView[] positionedMarkers = new MarkerView[0];
+    private View[] positionedViews = new View[0];
+    private double[] positionedCoordinates = new double[0];
+    private float[] positionedScreenLocations = new float[0];
+
+    // reused to hit test the positioned MarkerViews
+    private final Rect hitRect = new Rect();
+
     private MapboxMap.OnMarkerViewClickListener onMarkerViewClickListener;
 
     /**
@@ -48,7 +65,7 @@ public class MarkerViewManager {
      */
     public MarkerViewManager(@NonNull ViewGroup container) {
         this.markerViewContainer = container;
-        this.markerViewAdapters.add(new ImageMarkerViewAdapter(container.getContext()));
+        putMarkerViewAdapter(new ImageMarkerViewAdapter(container.getContext()));
     }
 
     // TODO refactor MapboxMap out for Projection and Transform
@@ -131,39 +148,82 @@ public class MarkerViewManager {
      * <p>
      * The collection of {@link MarkerView} will be iterated and each item position will be updated.
      * If an item is View state is not visible and its related flag is set to visible, the
-     * {@link MarkerView} will be animated to visible using alpha animation.
+     * {@link MarkerView} will be animated to visible using alpha animation. All positions are
+     * projected to screen locations in a single call.
      * </p>
      */
     public void update() {
-        for (final MarkerView marker : markerViewMap.keySet()) {
-            final View convertView = markerViewMap.get(marker);
-            if (convertView != null) {
-                PointF point = mapboxMap.getProjection().toScreenLocation(marker.getPosition());
-                if (marker.getOffsetX() == MapboxConstants.UNMEASURED) {
-                    // ensure view is measured first
-                    if (marker.getWidth() == 0) {
-                        convertView.measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
-                        if (convertView.getMeasuredWidth() != 0) {
-                            marker.setWidth(convertView.getMeasuredWidth());
-                            marker.setHeight(convertView.getMeasuredHeight());
-                        }
-                    }
-                }
-                if (marker.getWidth() != 0) {
-                    int x = (int) (marker.getAnchorU() * marker.getWidth());
-                    int y = (int) (marker.getAnchorV() * marker.getHeight());
-                    marker.setOffset(x, y);
-                }
+        if (markerViewMap.isEmpty()) {
+            return;
+        }
 
-                convertView.setX(point.x - marker.getOffsetX());
-                convertView.setY(point.y - marker.getOffsetY());
+        ensurePositionCapacity(markerViewMap.size());
+        int count = 0;
+        for (Map.Entry<MarkerView, View> entry : markerViewMap.entrySet()) {
+            if (entry.getValue() != null) {
+                addPosition(count++, entry.getKey(), entry.getValue());
+            }
+        }
+        updatePositions(count);
+    }
+
+    private void ensurePositionCapacity(int count) {
+        if (positionedMarkers.length < count) {
+            positionedMarkers = new MarkerView[count];
+            positionedViews = new View[count];
+            positionedCoordinates = new double[count * 2];
+            positionedScreenLocations = new float[count * 2];
+        }
+    }
 
-                // animate visibility
-                if (marker.isVisible() && convertView.getVisibility() == View.GONE) {
-                    animateVisible(marker, true);
+    private void addPosition(int index, MarkerView marker, View convertView) {
+        LatLng position = marker.getPosition();
+        positionedMarkers[index] = marker;
+        positionedViews[index] = convertView;
+        positionedCoordinates[index * 2] = position.getLatitude();
+        positionedCoordinates[index * 2 + 1] = position.getLongitude();
+    }
+
+    private void updatePositions(int count) {
+        if (count == 0) {
+            return;
+        }
+
+        mapboxMap.getProjection().toScreenLocations(positionedCoordinates, positionedScreenLocations, count);
+        for (int i = 0; i < count; i++) {
+            updatePosition(positionedMarkers[i], positionedViews[i],
+                    positionedScreenLocations[i * 2], positionedScreenLocations[i * 2 + 1]);
+        }
+
+        // don't hold on to markers and views after they are removed
+        Arrays.fill(positionedMarkers, 0, count, null);
+        Arrays.fill(positionedViews, 0, count, null);
+    }
+
+    private void updatePosition(MarkerView marker, View convertView, float screenX, float screenY) {
+        if (marker.getOffsetX() == MapboxConstants.UNMEASURED) {
+            // ensure view is measured first
+            if (marker.getWidth() == 0) {
+                convertView.measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
+                if (convertView.getMeasuredWidth() != 0) {
+                    marker.setWidth(convertView.getMeasuredWidth());
+                    marker.setHeight(convertView.getMeasuredHeight());
                 }
             }
         }
+        if (marker.getWidth() != 0) {
+            int x = (int) (marker.getAnchorU() * marker.getWidth());
+            int y = (int) (marker.getAnchorV() * marker.getHeight());
+            marker.setOffset(x, y);
+        }
+
+        convertView.setX(screenX - marker.getOffsetX());
+        convertView.setY(screenY - marker.getOffsetY());
+
+        // animate visibility
+        if (marker.isVisible() && convertView.getVisibility() == View.GONE) {
+            animateVisible(marker, true);
+        }
     }
 
     /**
@@ -222,10 +282,9 @@ public class MarkerViewManager {
     public void deselect(@NonNull MarkerView marker, boolean callbackToMap) {
         final View convertView = markerViewMap.get(marker);
         if (convertView != null) {
-            for (MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
-                if (adapter.getMarkerClass().equals(marker.getClass())) {
-                    adapter.onDeselect(marker, convertView);
-                }
+            MapboxMap.MarkerViewAdapter adapter = getViewAdapter(marker);
+            if (adapter != null) {
+                adapter.onDeselect(marker, convertView);
             }
         }
         if (callbackToMap) {
@@ -251,10 +310,9 @@ public class MarkerViewManager {
      */
     public void select(@NonNull MarkerView marker, boolean callbackToMap) {
         final View convertView = markerViewMap.get(marker);
-        for (MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
-            if (adapter.getMarkerClass().equals(marker.getClass())) {
-                select(marker, convertView, adapter, callbackToMap);
-            }
+        MapboxMap.MarkerViewAdapter adapter = getViewAdapter(marker);
+        if (adapter != null) {
+            select(marker, convertView, adapter, callbackToMap);
         }
     }
 
@@ -318,13 +376,7 @@ public class MarkerViewManager {
      */
     @Nullable
     public MapboxMap.MarkerViewAdapter getViewAdapter(MarkerView markerView) {
-        MapboxMap.MarkerViewAdapter adapter = null;
-        for (MapboxMap.MarkerViewAdapter a : markerViewAdapters) {
-            if (a.getMarkerClass().equals(markerView.getClass())) {
-                adapter = a;
-            }
-        }
-        return adapter;
+        return markerViewAdapterMap.get(markerView.getClass());
     }
 
     /**
@@ -341,14 +393,11 @@ public class MarkerViewManager {
     public void removeMarkerView(MarkerView marker) {
         final View viewHolder = markerViewMap.get(marker);
         if (viewHolder != null && marker != null) {
-            for (final MapboxMap.MarkerViewAdapter<?> adapter : markerViewAdapters) {
-                if (adapter.getMarkerClass().equals(marker.getClass())) {
-                    if (adapter.prepareViewForReuse(marker, viewHolder)) {
-                        // reset offset for reuse
-                        marker.setOffset(MapboxConstants.UNMEASURED, MapboxConstants.UNMEASURED);
-                        adapter.releaseView(viewHolder);
-                    }
-                }
+            MapboxMap.MarkerViewAdapter adapter = getViewAdapter(marker);
+            if (adapter != null && adapter.prepareViewForReuse(marker, viewHolder)) {
+                // reset offset for reuse
+                marker.setOffset(MapboxConstants.UNMEASURED, MapboxConstants.UNMEASURED);
+                adapter.releaseView(viewHolder);
             }
         }
         marker.setMapboxMap(null);
@@ -369,11 +418,16 @@ public class MarkerViewManager {
         }
 
         if (!markerViewAdapters.contains(markerViewAdapter)) {
-            markerViewAdapters.add(markerViewAdapter);
+            putMarkerViewAdapter(markerViewAdapter);
             invalidateViewMarkersInVisibleRegion();
         }
     }
 
+    private void putMarkerViewAdapter(MapboxMap.MarkerViewAdapter markerViewAdapter) {
+        markerViewAdapters.add(markerViewAdapter);
+        markerViewAdapterMap.put(markerViewAdapter.getMarkerClass(), markerViewAdapter);
+    }
+
     /**
      * Get all MarkerViewAdapters associated with this MarkerViewManager.
      *
@@ -383,6 +437,55 @@ public class MarkerViewManager {
         return markerViewAdapters;
     }
 
+    /**
+     * Creates Views for a MarkerViewAdapter ahead of time, so MarkerViews entering the viewport
+     * don't require Views to be inflated while the map is moving.
+     * <p>
+     * Views are created one at a time when the main thread is idle, using
+     * {@link MapboxMap.MarkerViewAdapter#createView(ViewGroup)}, and are added to the pool of
+     * reusable Views of the adapter. Creating Views stops when the pool is full or when the adapter
+     * doesn't create Views ahead of time.
+     * </p>
+     *
+     * @param markerViewAdapter the adapter to create Views for.
+     * @param count             the amount of Views to create.
+     */
+    public void preinflateViews(@NonNull final MapboxMap.MarkerViewAdapter markerViewAdapter, final int count) {
+        if (count <= 0) {
+            return;
+        }
+
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            private int remaining = count;
+
+            @Override
+            public boolean queueIdle() {
+                if (markerViewAdapter.getViewReusePoolCount() >= markerViewAdapter.getViewReusePoolSize()) {
+                    return false;
+                }
+
+                View view = markerViewAdapter.createView(markerViewContainer);
+                if (view == null) {
+                    return false;
+                }
+
+                markerViewContainer.addView(view);
+                markerViewAdapter.releaseView(view);
+                return --remaining > 0;
+            }
+        });
+    }
+
+    /**
+     * Removes the Views kept for reuse by all MarkerViewAdapters, to be called when the system is
+     * running low on memory. Views of MarkerViews in the viewport are retained.
+     */
+    public void onLowMemory() {
+        for (MapboxMap.MarkerViewAdapter markerViewAdapter : markerViewAdapters) {
+            markerViewAdapter.trimViewReusePool();
+        }
+    }
+
     /**
      * Register a callback to be invoked when this view is clicked.
      *
@@ -395,88 +498,164 @@ public class MarkerViewManager {
     /**
      * Schedule that ViewMarkers found in the viewport are invalidated.
      * <p>
-     * This method is rate limited, and {@link #invalidateViewMarkersInVisibleRegion} will only be called
-     * once each 250 ms.
+     * The map invalidates the ViewMarkers once per frame after the camera changed, this method
+     * invalidates them immediately.
      * </p>
+     *
+     * @deprecated use {@link #invalidateViewMarkersInVisibleRegion()} instead.
      */
+    @Deprecated
     public void scheduleViewMarkerInvalidation() {
-        if (!markerViewAdapters.isEmpty()) {
-            long currentTime = SystemClock.elapsedRealtime();
-            if (currentTime < viewMarkerBoundsUpdateTime) {
-                return;
-            }
-            invalidateViewMarkersInVisibleRegion();
-            viewMarkerBoundsUpdateTime = currentTime + 250;
-        }
+        invalidateViewMarkersInVisibleRegion();
     }
 
     /**
      * Invalidate the ViewMarkers found in the viewport.
      * <p>
      * This method will remove any markers that aren't in the viewport anymore and will add new
-     * ones for each found Marker in the changed viewport.
+     * ones for each found Marker in the changed viewport. Markers are compared on their annotation
+     * id, only the markers entering the viewport are adapted and positioned, markers that remain
+     * in the viewport are left untouched.
      * </p>
      */
     public void invalidateViewMarkersInVisibleRegion() {
+        invalidateViewMarkersInVisibleRegion(Long.MAX_VALUE);
+    }
+
+    /**
+     * Invalidate the ViewMarkers found in the viewport, within a time budget.
+     * <p>
+     * Markers that exited the viewport are always removed. Markers that entered the viewport are
+     * adapted until the deadline passed, at least one marker is adapted per call. Calling this
+     * method again introduces the remaining markers of the current viewport.
+     * </p>
+     *
+     * @param deadlineNanos the time in {@link System#nanoTime()} base after which no more markers
+     *                      are adapted.
+     * @return true if all markers in the viewport are shown, false if markers remain to be adapted.
+     */
+    public boolean invalidateViewMarkersInVisibleRegion(long deadlineNanos) {
         RectF mapViewRect = new RectF(0, 0, markerViewContainer.getWidth(), markerViewContainer.getHeight());
         List<MarkerView> markers = mapboxMap.getMarkerViewsInRect(mapViewRect);
-        View convertView;
 
-        // remove old markers
-        Iterator<MarkerView> iterator = markerViewMap.keySet().iterator();
+        // annotations are equal when their ids are, this is a set of the visible annotation ids
+        Set<MarkerView> visibleMarkers = new HashSet<>(markers);
+
+        // remove markers that exited the viewport
+        Iterator<Map.Entry<MarkerView, View>> iterator = markerViewMap.entrySet().iterator();
         while (iterator.hasNext()) {
-            MarkerView marker = iterator.next();
-            if (!markers.contains(marker)) {
-                // remove marker
-                convertView = markerViewMap.get(marker);
-                for (MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
-                    if (adapter.getMarkerClass().equals(marker.getClass())) {
-                        adapter.prepareViewForReuse(marker, convertView);
-                        adapter.releaseView(convertView);
-                        marker.setMapboxMap(null);
-                        iterator.remove();
-                    }
+            Map.Entry<MarkerView, View> entry = iterator.next();
+            MarkerView marker = entry.getKey();
+            if (!visibleMarkers.contains(marker)) {
+                MapboxMap.MarkerViewAdapter adapter = getViewAdapter(marker);
+                if (adapter != null) {
+                    adapter.prepareViewForReuse(marker, entry.getValue());
+                    adapter.releaseView(entry.getValue());
+                    marker.setMapboxMap(null);
+                    iterator.remove();
                 }
             }
         }
 
-        // introduce new markers
+        // introduce markers that entered the viewport
+        List<MarkerView> enteredMarkers = new ArrayList<>();
+        boolean complete = true;
+        View convertView;
         for (final MarkerView marker : markers) {
-            if (!markerViewMap.containsKey(marker)) {
-                for (final MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
-                    if (adapter.getMarkerClass().equals(marker.getClass())) {
-
-                        // Inflate View
-                        convertView = (View) adapter.getViewReusePool().acquire();
-                        final View adaptedView = adapter.getView(marker, convertView, markerViewContainer);
-                        if (adaptedView != null) {
-                            adaptedView.setRotationX(marker.getTilt());
-                            adaptedView.setRotation(marker.getRotation());
-                            adaptedView.setAlpha(marker.getAlpha());
-                            adaptedView.setVisibility(View.GONE);
-
-                            if (mapboxMap.getSelectedMarkers().contains(marker)) {
-                                // if a marker to be shown was selected
-                                // replay that animation with duration 0
-                                if (adapter.onSelect(marker, adaptedView, true)) {
-                                    mapboxMap.selectMarker(marker);
-                                }
-                            }
-
-                            marker.setMapboxMap(mapboxMap);
-                            markerViewMap.put(marker, adaptedView);
-                            if (convertView == null) {
-                                adaptedView.setVisibility(View.GONE);
-                                markerViewContainer.addView(adaptedView);
-                            }
-                        }
+            if (markerViewMap.containsKey(marker)) {
+                continue;
+            }
+
+            if (!enteredMarkers.isEmpty() && System.nanoTime() > deadlineNanos) {
+                complete = false;
+                break;
+            }
+
+            MapboxMap.MarkerViewAdapter adapter = getViewAdapter(marker);
+            if (adapter == null) {
+                continue;
+            }
+
+            // Inflate View
+            convertView = (View) adapter.getViewReusePool().acquire();
+            final View adaptedView = adapter.getView(marker, convertView, markerViewContainer);
+            if (adaptedView != null) {
+                adaptedView.setRotationX(marker.getTilt());
+                adaptedView.setRotation(marker.getRotation());
+                adaptedView.setAlpha(marker.getAlpha());
+                adaptedView.setVisibility(View.GONE);
+
+                if (mapboxMap.getSelectedMarkers().contains(marker)) {
+                    // if a marker to be shown was selected
+                    // replay that animation with duration 0
+                    if (adapter.onSelect(marker, adaptedView, true)) {
+                        mapboxMap.selectMarker(marker);
                     }
                 }
+
+                marker.setMapboxMap(mapboxMap);
+                markerViewMap.put(marker, adaptedView);
+                if (convertView == null) {
+                    markerViewContainer.addView(adaptedView);
+                }
+                enteredMarkers.add(marker);
+            }
+        }
+
+        // position the new ViewMarkers to make them visible, markers that remained in the
+        // viewport are positioned on every camera change
+        ensurePositionCapacity(enteredMarkers.size());
+        for (int i = 0; i < enteredMarkers.size(); i++) {
+            addPosition(i, enteredMarkers.get(i), markerViewMap.get(enteredMarkers.get(i)));
+        }
+        updatePositions(enteredMarkers.size());
+        return complete;
+    }
+
+    /**
+     * Returns the visible MarkerViews whose View contains a location on screen.
+     * <p>
+     * The hit rectangle of the View is used, which includes the anchor offset as well as any
+     * rotation or scale applied to the View.
+     * </p>
+     *
+     * @param x          the horizontal screen location in pixels
+     * @param y          the vertical screen location in pixels
+     * @param toleranceX the distance in pixels the location may be outside of the View horizontally
+     * @param toleranceY the distance in pixels the location may be outside of the View vertically
+     * @return the MarkerViews hit, the MarkerView drawn on top first
+     */
+    public List<MarkerView> getMarkerViewsAt(float x, float y, float toleranceX, float toleranceY) {
+        List<MarkerView> markerViews = new ArrayList<>();
+        if (markerViewMap.isEmpty()) {
+            return markerViews;
+        }
+
+        final Map<MarkerView, Integer> drawingOrder = new HashMap<>();
+        View view;
+        for (Map.Entry<MarkerView, View> entry : markerViewMap.entrySet()) {
+            view = entry.getValue();
+            if (view == null || view.getVisibility() != View.VISIBLE || !entry.getKey().isVisible()) {
+                continue;
+            }
+            view.getHitRect(hitRect);
+            if (x >= hitRect.left - toleranceX && x <= hitRect.right + toleranceX
+                    && y >= hitRect.top - toleranceY && y <= hitRect.bottom + toleranceY) {
+                markerViews.add(entry.getKey());
+                drawingOrder.put(entry.getKey(), markerViewContainer.indexOfChild(view));
             }
         }
-        // trigger update to make newly added ViewMarker visible,
-        // these would only be updated when the map is moved.
-        update();
+
+        if (markerViews.size() > 1) {
+            // children are drawn in order, the last child ends up on top
+            Collections.sort(markerViews, new Comparator<MarkerView>() {
+                @Override
+                public int compare(MarkerView first, MarkerView second) {
+                    return drawingOrder.get(second) - drawingOrder.get(first);
+                }
+            });
+        }
+        return markerViews;
     }
 
     /**
@@ -517,12 +696,10 @@ public class MarkerViewManager {
         if (markerViewMap.containsKey(marker)) {
             view = markerViewMap.get(marker);
         } else {
-            for (final MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
-                if (adapter.getMarkerClass().equals(marker.getClass())) {
-                    View convertView = (View) adapter.getViewReusePool().acquire();
-                    view = adapter.getView(marker, convertView, markerViewContainer);
-                    break;
-                }
+            MapboxMap.MarkerViewAdapter adapter = getViewAdapter(marker);
+            if (adapter != null) {
+                View convertView = (View) adapter.getViewReusePool().acquire();
+                view = adapter.getView(marker, convertView, markerViewContainer);
             }
         }
 
@@ -571,19 +748,24 @@ public class MarkerViewManager {
         @Nullable
         @Override
         public View getView(@NonNull MarkerView marker, @Nullable View convertView, @NonNull ViewGroup parent) {
-            ViewHolder viewHolder;
             if (convertView == null) {
-                viewHolder = new ViewHolder();
-                convertView = inflater.inflate(R.layout.mapbox_view_image_marker, parent, false);
-                viewHolder.imageView = (ImageView) convertView.findViewById(R.id.image);
-                convertView.setTag(viewHolder);
-            } else {
-                viewHolder = (ViewHolder) convertView.getTag();
+                convertView = createView(parent);
             }
+            ViewHolder viewHolder = (ViewHolder) convertView.getTag();
             viewHolder.imageView.setImageBitmap(marker.getIcon().getBitmap());
             return convertView;
         }
 
+        @NonNull
+        @Override
+        public View createView(@NonNull ViewGroup parent) {
+            ViewHolder viewHolder = new ViewHolder();
+            View view = inflater.inflate(R.layout.mapbox_view_image_marker, parent, false);
+            viewHolder.imageView = (ImageView) view.findViewById(R.id.image);
+            view.setTag(viewHolder);
+            return view;
+        }
+
         private static class ViewHolder {
             ImageView imageView;
         }
@@ -3,19 +3,36 @@ package com.mapbox.mapboxsdk.annotations;
 import com.mapbox.mapboxsdk.geometry.LatLng;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Multipoint is an abstract annotation for combining geographical locations.
+ * <p>
+ * Points are stored as packed latitude, longitude pairs in a primitive array, this keeps large
+ * geometries compact and lets them be handed to the map without converting every point. The
+ * {@link LatLng} points are created once, when they're first requested, and kept until the points
+ * change.
+ * </p>
+ * <p>
+ * {@link #getPoints()} returns the points that were set or added, including their altitude. Points
+ * set from packed coordinates, or kept by simplification, have no altitude.
+ * </p>
  */
 public abstract class MultiPoint extends Annotation {
 
+    private static final int INITIAL_CAPACITY = 16;
+
+    // latitude, longitude pairs, only the first pointCount pairs are valid
+    private double[] coordinates;
+    private int pointCount;
+    // the points as LatLng objects, null until requested or after packed coordinates changed
     private List<LatLng> points;
     private float alpha = 1.0f;
 
     protected MultiPoint() {
         super();
-        points = new ArrayList<>();
+        coordinates = new double[0];
     }
 
     /**
@@ -24,7 +41,7 @@ public abstract class MultiPoint extends Annotation {
      * @return A {@link List} of points.
      */
     public List<LatLng> getPoints() {
-        return new ArrayList<>(points);
+        return new ArrayList<>(ensurePoints());
     }
 
     /**
@@ -34,6 +51,14 @@ public abstract class MultiPoint extends Annotation {
      * @param points A {@link List} of {@link LatLng} points making up the polyline.
      */
     public void setPoints(List<LatLng> points) {
+        double[] coordinates = new double[points.size() * 2];
+        int index = 0;
+        for (LatLng point : points) {
+            coordinates[index++] = point.getLatitude();
+            coordinates[index++] = point.getLongitude();
+        }
+        this.coordinates = coordinates;
+        pointCount = points.size();
         this.points = new ArrayList<>(points);
         update();
     }
@@ -44,10 +69,46 @@ public abstract class MultiPoint extends Annotation {
      * @param point A {@link LatLng} point to be added.
      */
     public void addPoint(LatLng point) {
-        points.add(point);
+        ensureCapacity(pointCount + 1);
+        coordinates[pointCount * 2] = point.getLatitude();
+        coordinates[pointCount * 2 + 1] = point.getLongitude();
+        ensurePoints().add(point);
+        pointCount++;
+        update();
+    }
+
+    /**
+     * Returns a copy of the points as packed coordinates.
+     *
+     * @return An array of latitude, longitude pairs.
+     */
+    public double[] getCoordinates() {
+        return Arrays.copyOf(coordinates, pointCount * 2);
+    }
+
+    /**
+     * Sets the points of this polyline from packed coordinates. This method will take a copy of the
+     * array, so further mutations to it will have no effect on this polyline.
+     *
+     * @param coordinates An array of latitude, longitude pairs.
+     */
+    public void setCoordinates(double[] coordinates) {
+        checkCoordinates(coordinates);
+        this.coordinates = Arrays.copyOf(coordinates, coordinates.length);
+        pointCount = coordinates.length / 2;
+        points = null;
         update();
     }
 
+    /**
+     * Returns the amount of points, without copying them.
+     *
+     * @return the amount of points.
+     */
+    public int getPointCount() {
+        return pointCount;
+    }
+
     /**
      * Value between 0 and 1 defining the polyline alpha.
      *
@@ -67,5 +128,54 @@ public abstract class MultiPoint extends Annotation {
         update();
     }
 
+    void addCoordinates(double[] coordinates) {
+        appendCoordinates(coordinates);
+        update();
+    }
+
+    void appendCoordinates(double[] coordinates) {
+        checkCoordinates(coordinates);
+        int count = coordinates.length / 2;
+        ensureCapacity(pointCount + count);
+        System.arraycopy(coordinates, 0, this.coordinates, pointCount * 2, coordinates.length);
+        pointCount += count;
+        if (points != null) {
+            for (int i = 0; i < count; i++) {
+                points.add(new LatLng(coordinates[i * 2], coordinates[i * 2 + 1]));
+            }
+        }
+    }
+
+    void simplify(float tolerance, double zoom, boolean closed) {
+        coordinates = ShapeSimplifier.simplify(coordinates, pointCount,
+                ShapeSimplifier.toWorldTolerance(tolerance, zoom), closed);
+        pointCount = coordinates.length / 2;
+        points = null;
+        update();
+    }
+
+    private List<LatLng> ensurePoints() {
+        if (points == null) {
+            points = new ArrayList<>(pointCount);
+            for (int i = 0; i < pointCount; i++) {
+                points.add(new LatLng(coordinates[i * 2], coordinates[i * 2 + 1]));
+            }
+        }
+        return points;
+    }
+
+    private void ensureCapacity(int points) {
+        if (points * 2 > coordinates.length) {
+            int capacity = Math.max(Math.max(points, pointCount * 2), INITIAL_CAPACITY);
+            coordinates = Arrays.copyOf(coordinates, capacity * 2);
+        }
+    }
+
+    private static void checkCoordinates(double[] coordinates) {
+        if (coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException("Coordinates must be latitude, longitude pairs");
+        }
+    }
+
     abstract void update();
 }
@@ -6,7 +6,7 @@ import android.os.Parcelable;
 
 import com.mapbox.mapboxsdk.geometry.LatLng;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -27,9 +27,7 @@ public final class PolygonOptions implements Parcelable {
 
     private PolygonOptions(Parcel in) {
         polygon = new Polygon();
-        ArrayList<LatLng> pointsList = new ArrayList<>();
-        in.readList(pointsList, LatLng.class.getClassLoader());
-        addAll(pointsList);
+        addAll(in.createDoubleArray());
         alpha(in.readFloat());
         fillColor(in.readInt());
         strokeColor(in.readInt());
@@ -55,7 +53,7 @@ public final class PolygonOptions implements Parcelable {
      */
     @Override
     public void writeToParcel(Parcel out, int flags) {
-        out.writeList(getPoints());
+        out.writeDoubleArray(getCoordinates());
         out.writeFloat(getAlpha());
         out.writeInt(getFillColor());
         out.writeInt(getStrokeColor());
@@ -70,6 +68,16 @@ public final class PolygonOptions implements Parcelable {
         polygon = new Polygon();
     }
 
+    /**
+     * Defines options for a polygon with the given vertices.
+     *
+     * @param coordinates packed latitude, longitude pairs defining the polygon geometry.
+     */
+    public PolygonOptions(double[] coordinates) {
+        this();
+        addAll(coordinates);
+    }
+
     /**
      * Adds a vertex to the outline of the polygon being built.
      *
@@ -108,6 +116,35 @@ public final class PolygonOptions implements Parcelable {
         return this;
     }
 
+    /**
+     * Adds vertices to the end of the polygon being built.
+     *
+     * @param coordinates packed latitude, longitude pairs defining the polygon geometry.
+     * @return This {@link PolygonOptions} object with the given points added to the outline.
+     */
+    public PolygonOptions addAll(double[] coordinates) {
+        polygon.addCoordinates(coordinates);
+        return this;
+    }
+
+    /**
+     * Simplifies the vertices added so far, dropping vertices that can't be told apart from the
+     * polygon outline at the given zoom level and below.
+     * <p>
+     * The map simplifies shapes for lower zoom levels while tiling them. Simplifying up front for
+     * the highest zoom level the polygon is looked at reduces the vertices that are uploaded, tiled
+     * and kept in memory. The simplified vertices replace the ones added so far.
+     * </p>
+     *
+     * @param tolerance the maximum deviation from the original outline, in screen pixels.
+     * @param zoom      the zoom level the tolerance applies to.
+     * @return This {@link PolygonOptions} object with its vertices simplified.
+     */
+    public PolygonOptions simplify(float tolerance, double zoom) {
+        polygon.simplify(tolerance, zoom, true);
+        return this;
+    }
+
     /**
      * Set the alpha value of the polyline.
      *
@@ -182,6 +219,15 @@ public final class PolygonOptions implements Parcelable {
         return polygon.getPoints();
     }
 
+    /**
+     * Gets the points set for this {@link PolygonOptions} object as packed coordinates.
+     *
+     * @return latitude, longitude pairs specifying the vertices of the polygon.
+     */
+    public double[] getCoordinates() {
+        return polygon.getCoordinates();
+    }
+
     /**
      * Compares this {@link PolygonOptions} object with another {@link PolygonOptions} and
      * determines if their color, alpha, stroke color, and vertices match.
@@ -200,7 +246,7 @@ public final class PolygonOptions implements Parcelable {
         if (Float.compare(polygon.getAlpha(), getAlpha()) != 0) return false;
         if (getFillColor() != polygon.getFillColor()) return false;
         if (getStrokeColor() != polygon.getStrokeColor()) return false;
-        return !(getPoints() != null ? !getPoints().equals(polygon.getPoints()) : polygon.getPoints() != null);
+        return Arrays.equals(getCoordinates(), polygon.getCoordinates());
     }
 
     /**
@@ -217,7 +263,7 @@ public final class PolygonOptions implements Parcelable {
         result = 31 * result + (getAlpha() != +0.0f ? Float.floatToIntBits(getAlpha()) : 0);
         result = 31 * result + getFillColor();
         result = 31 * result + getStrokeColor();
-        result = 31 * result + (getPoints() != null ? getPoints().hashCode() : 0);
+        result = 31 * result + Arrays.hashCode(getCoordinates());
         return result;
     }
 }
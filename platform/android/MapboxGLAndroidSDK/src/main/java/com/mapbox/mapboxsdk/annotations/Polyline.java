@@ -54,6 +54,24 @@ public final class Polyline extends MultiPoint {
         update();
     }
 
+    /**
+     * Appends vertices to the end of the polyline.
+     * <p>
+     * Unlike {@link #addPoint(com.mapbox.mapboxsdk.geometry.LatLng)}, only the appended vertices are
+     * sent to the map instead of the full geometry. Use this to extend long polylines, e.g. a trail
+     * of location updates.
+     * </p>
+     *
+     * @param coordinates packed latitude, longitude pairs to append.
+     */
+    public void appendPoints(double[] coordinates) {
+        appendCoordinates(coordinates);
+        MapboxMap mapboxMap = getMapboxMap();
+        if (mapboxMap != null) {
+            mapboxMap.appendPolylinePoints(this, coordinates);
+        }
+    }
+
     @Override
     void update() {
         MapboxMap mapboxMap = getMapboxMap();
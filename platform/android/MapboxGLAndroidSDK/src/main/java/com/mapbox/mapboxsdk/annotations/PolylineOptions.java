@@ -5,7 +5,7 @@ import android.os.Parcelable;
 
 import com.mapbox.mapboxsdk.geometry.LatLng;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -27,9 +27,7 @@ public final class PolylineOptions implements Parcelable {
 
     private PolylineOptions(Parcel in) {
         polyline = new Polyline();
-        ArrayList<LatLng> pointsList = new ArrayList<>();
-        in.readList(pointsList, LatLng.class.getClassLoader());
-        addAll(pointsList);
+        addAll(in.createDoubleArray());
         alpha(in.readFloat());
         color(in.readInt());
         width(in.readFloat());
@@ -55,7 +53,7 @@ public final class PolylineOptions implements Parcelable {
      */
     @Override
     public void writeToParcel(Parcel out, int flags) {
-        out.writeList(getPoints());
+        out.writeDoubleArray(getCoordinates());
         out.writeFloat(getAlpha());
         out.writeInt(getColor());
         out.writeFloat(getWidth());
@@ -70,6 +68,16 @@ public final class PolylineOptions implements Parcelable {
         polyline = new Polyline();
     }
 
+    /**
+     * Defines options for a polyline with the given vertices.
+     *
+     * @param coordinates packed latitude, longitude pairs defining the polyline geometry.
+     */
+    public PolylineOptions(double[] coordinates) {
+        this();
+        addAll(coordinates);
+    }
+
     /**
      * Adds a vertex to the end of the polyline being built.
      *
@@ -108,6 +116,35 @@ public final class PolylineOptions implements Parcelable {
         return this;
     }
 
+    /**
+     * Adds vertices to the end of the polyline being built.
+     *
+     * @param coordinates packed latitude, longitude pairs defining the polyline geometry.
+     * @return This {@link PolylineOptions} object with the given points on the end.
+     */
+    public PolylineOptions addAll(double[] coordinates) {
+        polyline.addCoordinates(coordinates);
+        return this;
+    }
+
+    /**
+     * Simplifies the vertices added so far, dropping vertices that can't be told apart from the
+     * polyline outline at the given zoom level and below.
+     * <p>
+     * The map simplifies shapes for lower zoom levels while tiling them. Simplifying up front for
+     * the highest zoom level the polyline is looked at reduces the vertices that are uploaded, tiled
+     * and kept in memory. The simplified vertices replace the ones added so far.
+     * </p>
+     *
+     * @param tolerance the maximum deviation from the original outline, in screen pixels.
+     * @param zoom      the zoom level the tolerance applies to.
+     * @return This {@link PolylineOptions} object with its vertices simplified.
+     */
+    public PolylineOptions simplify(float tolerance, double zoom) {
+        polyline.simplify(tolerance, zoom, false);
+        return this;
+    }
+
     /**
      * Set the alpha value of the polyline.
      *
@@ -187,6 +224,15 @@ public final class PolylineOptions implements Parcelable {
         return polyline.getPoints();
     }
 
+    /**
+     * Gets the points set for this {@link PolylineOptions} object as packed coordinates.
+     *
+     * @return latitude, longitude pairs specifying the vertices of the polyline.
+     */
+    public double[] getCoordinates() {
+        return polyline.getCoordinates();
+    }
+
     /**
      * Compares this {@link PolylineOptions} object with another {@link PolylineOptions} and
      * determines if their color, alpha, width, and vertices match.
@@ -205,7 +251,7 @@ public final class PolylineOptions implements Parcelable {
         if (Float.compare(polyline.getAlpha(), getAlpha()) != 0) return false;
         if (getColor() != polyline.getColor()) return false;
         if (Float.compare(polyline.getWidth(), getWidth()) != 0) return false;
-        return !(getPoints() != null ? !getPoints().equals(polyline.getPoints()) : polyline.getPoints() != null);
+        return Arrays.equals(getCoordinates(), polyline.getCoordinates());
     }
 
     /**
@@ -222,7 +268,7 @@ public final class PolylineOptions implements Parcelable {
         result = 31 * result + (getAlpha() != +0.0f ? Float.floatToIntBits(getAlpha()) : 0);
         result = 31 * result + getColor();
         result = 31 * result + (getWidth() != +0.0f ? Float.floatToIntBits(getWidth()) : 0);
-        result = 31 * result + (getPoints() != null ? getPoints().hashCode() : 0);
+        result = 31 * result + Arrays.hashCode(getCoordinates());
         return result;
     }
 }
@@ -0,0 +1,134 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import com.mapbox.mapboxsdk.utils.MercatorUtils;
+
+import java.util.Arrays;
+
+/**
+ * Douglas-Peucker simplification of packed latitude, longitude coordinates.
+ * <p>
+ * Distances are measured in spherical mercator projected coordinates, the tolerance is expressed
+ * in screen pixels at a zoom level so a simplified shape is indistinguishable from the original
+ * up to and including that zoom level.
+ * </p>
+ */
+final class ShapeSimplifier {
+
+    // size of the world in screen pixels at zoom level 0
+    private static final double WORLD_SIZE = 512;
+
+    private ShapeSimplifier() {
+    }
+
+    /**
+     * Converts a tolerance in screen pixels at a zoom level to projected world units.
+     *
+     * @param tolerance the tolerance in screen pixels
+     * @param zoom      the zoom level the tolerance applies to
+     * @return the tolerance in world units, where the world is 1 wide
+     */
+    static double toWorldTolerance(float tolerance, double zoom) {
+        return tolerance / (WORLD_SIZE * Math.pow(2, zoom));
+    }
+
+    /**
+     * Simplifies packed coordinates.
+     *
+     * @param coordinates latitude, longitude pairs
+     * @param pointCount  the amount of valid pairs in coordinates
+     * @param tolerance   the tolerance in world units, see {@link #toWorldTolerance(float, double)}
+     * @param closed      true if the points form a ring, rings are never reduced below 3 points
+     * @return the simplified latitude, longitude pairs
+     */
+    static double[] simplify(double[] coordinates, int pointCount, double tolerance, boolean closed) {
+        if (pointCount < 3 || tolerance <= 0) {
+            return Arrays.copyOf(coordinates, pointCount * 2);
+        }
+
+        // rings are simplified as a line ending at its first point
+        int count = closed ? pointCount + 1 : pointCount;
+        double[] projected = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            int point = i % pointCount;
+            projected[i * 2] = MercatorUtils.projectX(coordinates[point * 2 + 1]);
+            projected[i * 2 + 1] = MercatorUtils.projectY(coordinates[point * 2]);
+        }
+
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+        double toleranceSquared = tolerance * tolerance;
+
+        // intervals left to split, there are never more open intervals than points
+        int[] stack = new int[count * 2];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+
+            double maxDistance = 0;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = segmentDistanceSquared(projected, i, first, last);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    index = i;
+                }
+            }
+
+            if (index != -1 && maxDistance > toleranceSquared) {
+                keep[index] = true;
+                stack[top++] = first;
+                stack[top++] = index;
+                stack[top++] = index;
+                stack[top++] = last;
+            }
+        }
+
+        int kept = 0;
+        for (int i = 0; i < pointCount; i++) {
+            if (keep[i]) {
+                kept++;
+            }
+        }
+
+        if (closed && kept < 3) {
+            // the ring would collapse, it is small enough to keep as is
+            return Arrays.copyOf(coordinates, pointCount * 2);
+        }
+
+        double[] simplified = new double[kept * 2];
+        int index = 0;
+        for (int i = 0; i < pointCount; i++) {
+            if (keep[i]) {
+                simplified[index++] = coordinates[i * 2];
+                simplified[index++] = coordinates[i * 2 + 1];
+            }
+        }
+        return simplified;
+    }
+
+    private static double segmentDistanceSquared(double[] projected, int point, int start, int end) {
+        double x = projected[start * 2];
+        double y = projected[start * 2 + 1];
+        double dx = projected[end * 2] - x;
+        double dy = projected[end * 2 + 1] - y;
+
+        if (dx != 0 || dy != 0) {
+            double t = ((projected[point * 2] - x) * dx + (projected[point * 2 + 1] - y) * dy) / (dx * dx + dy * dy);
+            if (t > 1) {
+                x = projected[end * 2];
+                y = projected[end * 2 + 1];
+            } else if (t > 0) {
+                x += dx * t;
+                y += dy * t;
+            }
+        }
+
+        dx = projected[point * 2] - x;
+        dy = projected[point * 2 + 1] - y;
+        return dx * dx + dy * dy;
+    }
+}
@@ -243,7 +243,7 @@ public final class CameraPosition implements Parcelable {
          */
         public Builder(double[] nativeCameraValues) {
             super();
-            if (nativeCameraValues != null && nativeCameraValues.length == 5) {
+            if (nativeCameraValues != null && nativeCameraValues.length >= 5) {
                 target(new LatLng(nativeCameraValues[0], nativeCameraValues[1]));
                 bearing(convertNativeBearing(nativeCameraValues[2]));
                 tilt(nativeCameraValues[3]);
@@ -0,0 +1,397 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Keeps track of the annotations added to a map, keyed on their id.
+ * <p>
+ * Ids are resolved through a {@link LongIntHashMap} to a location in one of three dense arrays,
+ * one for every type of annotation. This makes lookups, inserts and removals constant time and
+ * allows iterating a single type of annotation without visiting the others.
+ * </p>
+ * <p>
+ * Lists are in ascending id order, the order in which the annotations were added to the map. A
+ * removal moves the last entry of a type into the gap; the order is restored by sorting the type
+ * the next time a list of it is requested, which only happens once per batch of mutations.
+ * </p>
+ * <p>
+ * The lists returned by {@link #getMarkers()}, {@link #getPolylines()}, {@link #getPolygons()} and
+ * {@link #getAnnotations()} are read-only views on top of the dense arrays. A view is handed out
+ * without copying and stays valid as a snapshot; the first mutation after a view was handed out
+ * detaches the container from the shared array. Repeated reads without changes in between return
+ * the same view and don't allocate.
+ * </p>
+ * <p>
+ * Markers can also be provided by {@link LazyMarkers}, their Marker objects are only created when
+ * they're looked up by id, or when a list of all markers is requested.
+ * </p>
+ */
+final class AnnotationContainer {
+
+    private static final int TYPE_MARKER = 0;
+    private static final int TYPE_POLYLINE = 1;
+    private static final int TYPE_POLYGON = 2;
+    private static final int TYPE_COUNT = 3;
+    private static final int TYPE_BITS = 2;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+
+    private final LongIntHashMap locations = new LongIntHashMap();
+    private final Segment[] segments = new Segment[TYPE_COUNT];
+    private List<Annotation> annotationsView;
+    private LazyMarkers lazyMarkers;
+
+    AnnotationContainer() {
+        for (int i = 0; i < TYPE_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    void setLazyMarkers(@Nullable LazyMarkers lazyMarkers) {
+        this.lazyMarkers = lazyMarkers;
+    }
+
+    Annotation get(long id) {
+        int location = locations.get(id);
+        if (location == LongIntHashMap.NONE) {
+            return materialize(id);
+        }
+        return segments[location & TYPE_MASK].items[location >>> TYPE_BITS];
+    }
+
+    boolean contains(long id) {
+        return locations.containsKey(id) || (lazyMarkers != null && lazyMarkers.contains(id));
+    }
+
+    /**
+     * Adds an annotation or replaces the annotation stored with the same id.
+     *
+     * @param id         the id of the annotation
+     * @param annotation the annotation
+     */
+    void put(long id, @NonNull Annotation annotation) {
+        int type = typeOf(annotation);
+        int location = locations.get(id);
+        if (location != LongIntHashMap.NONE && (location & TYPE_MASK) == type) {
+            segments[type].set(location >>> TYPE_BITS, annotation);
+            annotationsView = null;
+            return;
+        }
+        if (location != LongIntHashMap.NONE) {
+            remove(id);
+        }
+        int index = segments[type].add(id, annotation);
+        locations.put(id, (index << TYPE_BITS) | type);
+        annotationsView = null;
+    }
+
+    /**
+     * Removes the annotation stored with an id.
+     *
+     * @param id the id of the annotation
+     * @return the removed annotation, or null if the id wasn't found
+     */
+    Annotation remove(long id) {
+        int location = locations.remove(id);
+        if (location == LongIntHashMap.NONE) {
+            return null;
+        }
+        Segment segment = segments[location & TYPE_MASK];
+        int index = location >>> TYPE_BITS;
+        Annotation removed = segment.items[index];
+        long movedId = segment.removeAt(index);
+        if (movedId != id) {
+            // the last entry of the segment was moved into the freed position
+            locations.put(movedId, (index << TYPE_BITS) | (location & TYPE_MASK));
+        }
+        annotationsView = null;
+        return removed;
+    }
+
+    void clear() {
+        locations.clear();
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        annotationsView = null;
+    }
+
+    int size() {
+        return locations.size() + (lazyMarkers != null ? lazyMarkers.size() : 0);
+    }
+
+    /**
+     * Returns the amount of markers, without creating the Marker objects of lazy markers.
+     *
+     * @return the amount of markers
+     */
+    int getMarkerCount() {
+        return segments[TYPE_MARKER].size + (lazyMarkers != null ? lazyMarkers.size() : 0);
+    }
+
+    /**
+     * Returns the ids of all annotations, grouped by type.
+     *
+     * @return a new array containing the ids
+     */
+    long[] getIds() {
+        materializeAll();
+        long[] ids = new long[size()];
+        int offset = 0;
+        for (Segment segment : segments) {
+            System.arraycopy(segment.ids, 0, ids, offset, segment.size);
+            offset += segment.size;
+        }
+        return ids;
+    }
+
+    /**
+     * Returns all annotations in ascending id order.
+     *
+     * @return a read-only view of the annotations
+     */
+    List<Annotation> getAnnotations() {
+        materializeAll();
+        if (annotationsView == null) {
+            Annotation[] merged = mergeSegments();
+            annotationsView = new ReadOnlyView<>(merged, merged.length);
+        }
+        return annotationsView;
+    }
+
+    List<Marker> getMarkers() {
+        materializeAll();
+        return sortedView(TYPE_MARKER);
+    }
+
+    /**
+     * Returns the markers that have a Marker object, without creating the Marker objects of lazy
+     * markers.
+     *
+     * @return the markers with a Marker object
+     */
+    List<Marker> getMarkerObjects() {
+        return sortedView(TYPE_MARKER);
+    }
+
+    List<Polyline> getPolylines() {
+        return sortedView(TYPE_POLYLINE);
+    }
+
+    List<Polygon> getPolygons() {
+        return sortedView(TYPE_POLYGON);
+    }
+
+    private <T extends Annotation> List<T> sortedView(int type) {
+        sort(type);
+        return segments[type].view();
+    }
+
+    // restores the id order of a segment after removals or out of order inserts
+    private void sort(int type) {
+        Segment segment = segments[type];
+        if (segment.sorted) {
+            return;
+        }
+        long[] ids = Arrays.copyOf(segment.ids, segment.ids.length);
+        Arrays.sort(ids, 0, segment.size);
+        Annotation[] items = new Annotation[segment.items.length];
+        for (int i = 0; i < segment.size; i++) {
+            items[i] = segment.items[locations.get(ids[i]) >>> TYPE_BITS];
+            locations.put(ids[i], (i << TYPE_BITS) | type);
+        }
+        segment.replace(ids, items);
+    }
+
+    // merges the sorted segments into one array in ascending id order
+    private Annotation[] mergeSegments() {
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            sort(type);
+        }
+        Annotation[] merged = new Annotation[locations.size()];
+        int[] positions = new int[TYPE_COUNT];
+        for (int i = 0; i < merged.length; i++) {
+            int next = -1;
+            for (int type = 0; type < TYPE_COUNT; type++) {
+                Segment segment = segments[type];
+                if (positions[type] < segment.size
+                        && (next == -1 || segment.ids[positions[type]] < segments[next].ids[positions[next]])) {
+                    next = type;
+                }
+            }
+            merged[i] = segments[next].items[positions[next]++];
+        }
+        return merged;
+    }
+
+    private Marker materialize(long id) {
+        if (lazyMarkers == null || !lazyMarkers.contains(id)) {
+            return null;
+        }
+        Marker marker = lazyMarkers.createMarker(id);
+        put(id, marker);
+        return marker;
+    }
+
+    private void materializeAll() {
+        if (lazyMarkers == null || lazyMarkers.size() == 0) {
+            return;
+        }
+        for (long id : lazyMarkers.getIds()) {
+            put(id, lazyMarkers.createMarker(id));
+        }
+    }
+
+    private static int typeOf(Annotation annotation) {
+        if (annotation instanceof Marker) {
+            return TYPE_MARKER;
+        } else if (annotation instanceof Polyline) {
+            return TYPE_POLYLINE;
+        } else if (annotation instanceof Polygon) {
+            return TYPE_POLYGON;
+        }
+        throw new IllegalArgumentException("Unsupported annotation type " + annotation.getClass().getName());
+    }
+
+    /**
+     * Provides markers of which the Marker object is created on request.
+     */
+    interface LazyMarkers {
+
+        boolean contains(long id);
+
+        int size();
+
+        long[] getIds();
+
+        /**
+         * Creates the Marker object of a marker, after which the marker is no longer provided.
+         *
+         * @param id the id of the marker
+         * @return the created marker
+         */
+        Marker createMarker(long id);
+    }
+
+    /**
+     * Dense storage of a single type of annotation, removal moves the last entry into the gap.
+     * Tracks whether the entries are still in ascending id order.
+     */
+    private static final class Segment {
+
+        private static final int INITIAL_CAPACITY = 8;
+
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private Annotation[] items = new Annotation[INITIAL_CAPACITY];
+        private int size;
+        private boolean sorted = true;
+
+        // view sharing the items array, the array is copied before the next write when set
+        private ReadOnlyView<?> view;
+
+        int add(long id, Annotation annotation) {
+            detach(size + 1);
+            if (size > 0 && id < ids[size - 1]) {
+                sorted = false;
+            }
+            ids[size] = id;
+            items[size] = annotation;
+            return size++;
+        }
+
+        void set(int index, Annotation annotation) {
+            detach(size);
+            items[index] = annotation;
+        }
+
+        /**
+         * Removes the entry at an index and returns the id of the entry that now occupies it.
+         */
+        long removeAt(int index) {
+            detach(size);
+            int last = --size;
+            if (index != last) {
+                sorted = false;
+            }
+            ids[index] = ids[last];
+            items[index] = items[last];
+            items[last] = null;
+            return ids[index];
+        }
+
+        void clear() {
+            if (view != null) {
+                items = new Annotation[INITIAL_CAPACITY];
+                ids = new long[INITIAL_CAPACITY];
+                view = null;
+            } else {
+                Arrays.fill(items, 0, size, null);
+            }
+            size = 0;
+            sorted = true;
+        }
+
+        // swaps in sorted copies of the arrays, views handed out keep the previous order
+        void replace(long[] sortedIds, Annotation[] sortedItems) {
+            ids = sortedIds;
+            items = sortedItems;
+            view = null;
+            sorted = true;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T extends Annotation> List<T> view() {
+            if (view == null) {
+                view = new ReadOnlyView<>(items, size);
+            }
+            return (List<T>) view;
+        }
+
+        private void detach(int requiredCapacity) {
+            int capacity = items.length;
+            if (requiredCapacity > capacity) {
+                capacity = Math.max(requiredCapacity, capacity * 2);
+            } else if (view == null) {
+                return;
+            }
+            items = Arrays.copyOf(items, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            view = null;
+        }
+    }
+
+    private static final class ReadOnlyView<T extends Annotation> extends AbstractList<T> implements RandomAccess {
+
+        private final Annotation[] items;
+        private final int size;
+
+        ReadOnlyView(Annotation[] items, int size) {
+            this.items = items;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return (T) items[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -4,23 +4,29 @@ import android.graphics.PointF;
 import android.graphics.RectF;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.support.v4.util.LongSparseArray;
 
 import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerViewOptions;
 import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.IconFactory;
 import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerClusterOptions;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
 import com.mapbox.mapboxsdk.annotations.MarkerView;
 import com.mapbox.mapboxsdk.annotations.MarkerViewManager;
 import com.mapbox.mapboxsdk.annotations.Polygon;
 import com.mapbox.mapboxsdk.annotations.PolygonOptions;
 import com.mapbox.mapboxsdk.annotations.Polyline;
 import com.mapbox.mapboxsdk.annotations.PolylineOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Responsible for managing and tracking state of Annotations linked to Map. All events related to
@@ -39,19 +45,35 @@ class AnnotationManager implements MapView.OnMapChangedListener {
     private final IconManager iconManager;
     private final InfoWindowManager infoWindowManager = new InfoWindowManager();
     private final MarkerViewManager markerViewManager;
-    private final LongSparseArray<Annotation> annotations = new LongSparseArray<>();
+    private final AnnotationContainer annotations = new AnnotationContainer();
+    private final MarkerSpatialIndex markerIndex = new MarkerSpatialIndex();
     private final List<Marker> selectedMarkers = new ArrayList<>();
+    private final MarkerClusterManager clusterManager = new MarkerClusterManager(this);
+    private final MarkerHitTester markerHitTester;
+    private final SymbolMarkerRenderer symbolMarkers;
+    private final PackedMarkerStore packedMarkers;
 
     private MapboxMap mapboxMap;
 
     private MapboxMap.OnMarkerClickListener onMarkerClickListener;
     private boolean isWaitingForRenderInvoke;
 
+    // changes collected while an annotation update is in progress, null otherwise
+    private AnnotationUpdate annotationUpdate;
+    private int annotationUpdateDepth;
+
+    // amount of markers above which markers are rendered by a symbol layer, 0 when disabled
+    private int symbolLayerMarkerThreshold;
+
     AnnotationManager(NativeMapView view, MapView mapView, MarkerViewManager markerViewManager) {
         this.nativeMapView = view;
         this.mapView = mapView;
         this.iconManager = new IconManager(nativeMapView);
         this.markerViewManager = markerViewManager;
+        this.markerHitTester = new MarkerHitTester(annotations, markerIndex, iconManager, markerViewManager);
+        this.symbolMarkers = new SymbolMarkerRenderer(nativeMapView);
+        this.packedMarkers = new PackedMarkerStore(iconManager);
+        annotations.setLazyMarkers(packedMarkers);
         if (view != null) {
             // null checking needed for unit tests
             view.addOnMapChangedListener(this);
@@ -72,6 +94,15 @@ class AnnotationManager implements MapView.OnMapChangedListener {
             isWaitingForRenderInvoke = false;
             markerViewManager.invalidateViewMarkersInVisibleRegion();
         }
+
+        if (change == MapView.DID_FINISH_LOADING_STYLE) {
+            symbolMarkers.onStyleLoaded();
+        }
+
+        if (mapboxMap != null
+                && (change == MapView.REGION_DID_CHANGE || change == MapView.REGION_DID_CHANGE_ANIMATED)) {
+            clusterManager.update(mapboxMap);
+        }
     }
 
     //
@@ -83,11 +114,7 @@ class AnnotationManager implements MapView.OnMapChangedListener {
     }
 
     List<Annotation> getAnnotations() {
-        List<Annotation> annotations = new ArrayList<>();
-        for (int i = 0; i < this.annotations.size(); i++) {
-            annotations.add(this.annotations.get(this.annotations.keyAt(i)));
-        }
-        return annotations;
+        return annotations.getAnnotations();
     }
 
     void removeAnnotation(@NonNull Annotation annotation) {
@@ -97,24 +124,57 @@ class AnnotationManager implements MapView.OnMapChangedListener {
             if (marker instanceof MarkerView) {
                 markerViewManager.removeMarkerView((MarkerView) marker);
             }
+            iconManager.releaseIcon(marker);
         }
         long id = annotation.getId();
-        if (nativeMapView != null) {
+        if (symbolMarkers.contains(id)) {
+            symbolMarkers.remove(id);
+        } else if (annotationUpdate != null) {
+            annotationUpdate.remove(annotation);
+        } else if (nativeMapView != null) {
             nativeMapView.removeAnnotation(id);
+            iconManager.removeUnusedIcons();
         }
         annotations.remove(id);
+        markerIndex.remove(id);
     }
 
     void removeAnnotation(long id) {
-        if (nativeMapView != null) {
+        if (packedMarkers.remove(id)) {
+            // no Marker object was created for this marker
+            if (symbolMarkers.contains(id)) {
+                symbolMarkers.remove(id);
+            } else if (annotationUpdate != null) {
+                annotationUpdate.remove(id);
+            } else if (nativeMapView != null) {
+                nativeMapView.removeAnnotation(id);
+                iconManager.removeUnusedIcons();
+            }
+            markerIndex.remove(id);
+            return;
+        }
+
+        Annotation annotation = annotations.get(id);
+        if (annotation instanceof Marker) {
+            iconManager.releaseIcon((Marker) annotation);
+        }
+        if (symbolMarkers.contains(id)) {
+            symbolMarkers.remove(id);
+        } else if (annotationUpdate != null) {
+            annotationUpdate.remove(id);
+        } else if (nativeMapView != null) {
             nativeMapView.removeAnnotation(id);
+            iconManager.removeUnusedIcons();
         }
         annotations.remove(id);
+        markerIndex.remove(id);
     }
 
     void removeAnnotations(@NonNull List<? extends Annotation> annotationList) {
         int count = annotationList.size();
         long[] ids = new long[count];
+        long[] coreIds = new long[count];
+        int coreCount = 0;
         for (int i = 0; i < count; i++) {
             Annotation annotation = annotationList.get(i);
             if (annotation instanceof Marker) {
@@ -123,40 +183,159 @@ class AnnotationManager implements MapView.OnMapChangedListener {
                 if (marker instanceof MarkerView) {
                     markerViewManager.removeMarkerView((MarkerView) marker);
                 }
+                iconManager.releaseIcon(marker);
             }
             ids[i] = annotationList.get(i).getId();
+            if (symbolMarkers.contains(ids[i])) {
+                symbolMarkers.remove(ids[i]);
+            } else if (annotationUpdate != null) {
+                annotationUpdate.remove(annotation);
+            } else {
+                coreIds[coreCount++] = ids[i];
+            }
         }
 
-        if (nativeMapView != null) {
-            nativeMapView.removeAnnotations(ids);
+        if (annotationUpdate == null && nativeMapView != null) {
+            if (coreCount > 0) {
+                nativeMapView.removeAnnotations(coreCount == count ? coreIds : Arrays.copyOf(coreIds, coreCount));
+            }
+            iconManager.removeUnusedIcons();
         }
 
         for (long id : ids) {
             annotations.remove(id);
+            markerIndex.remove(id);
         }
     }
 
     void removeAnnotations() {
-        Annotation annotation;
-        int count = annotations.size();
-        long[] ids = new long[count];
-        for (int i = 0; i < count; i++) {
-            ids[i] = annotations.keyAt(i);
-            annotation = annotations.get(ids[i]);
-            if (annotation instanceof Marker) {
-                Marker marker = (Marker) annotation;
-                marker.hideInfoWindow();
-                if (marker instanceof MarkerView) {
-                    markerViewManager.removeMarkerView((MarkerView) marker);
+        symbolMarkers.deactivate();
+        // markers without Marker objects are removed without creating them
+        long[] packedIds = packedMarkers.getIds();
+        packedMarkers.clear();
+        long[] ids = annotations.getIds();
+        if (packedIds.length > 0) {
+            long[] allIds = Arrays.copyOf(ids, ids.length + packedIds.length);
+            System.arraycopy(packedIds, 0, allIds, ids.length, packedIds.length);
+            ids = allIds;
+        }
+        for (Marker marker : annotations.getMarkers()) {
+            marker.hideInfoWindow();
+            if (marker instanceof MarkerView) {
+                markerViewManager.removeMarkerView((MarkerView) marker);
+            }
+            iconManager.releaseIcon(marker);
+        }
+
+        if (annotationUpdate != null) {
+            for (Marker marker : annotationUpdate.getAdditions()) {
+                iconManager.releaseIcon(marker);
+            }
+            annotationUpdate.getAdditions().clear();
+            annotationUpdate.getPackedAdditions().clear();
+            for (long id : ids) {
+                if (id < SymbolMarkerRenderer.FIRST_ID) {
+                    annotationUpdate.remove(id);
                 }
             }
+        } else if (nativeMapView != null) {
+            nativeMapView.removeAnnotations(coreIds(ids));
+            iconManager.removeUnusedIcons();
+        }
+
+        annotations.clear();
+        markerIndex.clear();
+        clusterManager.onAnnotationsRemoved();
+    }
+
+    //
+    // Annotation updates
+    //
+
+    void beginAnnotationUpdate() {
+        if (annotationUpdate == null) {
+            annotationUpdate = new AnnotationUpdate();
+        }
+        annotationUpdateDepth++;
+    }
+
+    void commitAnnotationUpdate() {
+        if (annotationUpdate == null) {
+            throw new IllegalStateException("No annotation update in progress, call beginAnnotationUpdate() first.");
+        }
+
+        if (--annotationUpdateDepth > 0) {
+            // nested update, the outermost commit applies the changes
+            return;
+        }
+
+        try {
+            applyAnnotationUpdate(annotationUpdate);
+        } finally {
+            // the update is done with, even when applying it failed
+            annotationUpdate = null;
+            annotationUpdateDepth = 0;
+        }
+    }
+
+    private void applyAnnotationUpdate(AnnotationUpdate update) {
+        if (update.isEmpty()) {
+            return;
+        }
+
+        List<Marker> additions = update.getAdditions();
+        List<AnnotationUpdate.PackedAddition> packedAdditions = update.getPackedAdditions();
+        int addedCount = additions.size() + update.getPackedAdditionCount();
+        if (addedCount > 0 && useSymbolMarkers(addedCount, update)) {
+            for (Marker marker : additions) {
+                addSymbolMarker(marker);
+            }
+            additions.clear();
+            for (AnnotationUpdate.PackedAddition addition : packedAdditions) {
+                addSymbolMarkers(addition.ids, addition.coordinates, addition.iconIndices, addition.iconTable,
+                        mapboxMap);
+            }
+            packedAdditions.clear();
+            if (update.isEmpty()) {
+                return;
+            }
+        }
+
+        for (AnnotationUpdate.PackedAddition addition : packedAdditions) {
+            acquireIcons(addition.iconIndices, addition.iconTable);
         }
 
+        long[] ids = null;
         if (nativeMapView != null) {
-            nativeMapView.removeAnnotations(ids);
+            ids = update.apply(nativeMapView);
+            iconManager.removeUnusedIcons();
         }
 
-        annotations.clear();
+        long id = 0;
+        Marker marker;
+        for (int i = 0; i < additions.size(); i++) {
+            marker = additions.get(i);
+            if (ids != null) {
+                id = ids[i];
+            } else {
+                // unit test
+                id++;
+            }
+            marker.setId(id);
+            annotations.put(id, marker);
+            indexMarker(marker);
+        }
+
+        for (AnnotationUpdate.PackedAddition addition : packedAdditions) {
+            if (ids == null) {
+                // unit test
+                for (int i = 0; i < addition.ids.length; i++) {
+                    addition.ids[i] = ++id;
+                }
+            }
+            putPackedMarkers(addition.ids, addition.coordinates, addition.iconIndices, addition.iconTable,
+                    mapboxMap);
+        }
     }
 
     //
@@ -165,10 +344,21 @@ class AnnotationManager implements MapView.OnMapChangedListener {
 
     Marker addMarker(@NonNull BaseMarkerOptions markerOptions, @NonNull MapboxMap mapboxMap) {
         Marker marker = prepareMarker(markerOptions);
+        if (annotationUpdate != null) {
+            marker.setMapboxMap(mapboxMap);
+            annotationUpdate.add(marker);
+            return marker;
+        }
+        if (useSymbolMarkers(1, null)) {
+            marker.setMapboxMap(mapboxMap);
+            addSymbolMarker(marker);
+            return marker;
+        }
         long id = nativeMapView != null ? nativeMapView.addMarker(marker) : 0;
         marker.setMapboxMap(mapboxMap);
         marker.setId(id);
         annotations.put(id, marker);
+        indexMarker(marker);
         return marker;
     }
 
@@ -184,7 +374,17 @@ class AnnotationManager implements MapView.OnMapChangedListener {
                 markers.add(marker);
             }
 
-            if (markers.size() > 0) {
+            if (annotationUpdate != null) {
+                for (Marker m : markers) {
+                    m.setMapboxMap(mapboxMap);
+                    annotationUpdate.add(m);
+                }
+            } else if (useSymbolMarkers(count, null)) {
+                for (Marker m : markers) {
+                    m.setMapboxMap(mapboxMap);
+                    addSymbolMarker(m);
+                }
+            } else if (markers.size() > 0) {
                 long[] ids = null;
                 if (nativeMapView != null) {
                     ids = nativeMapView.addMarkers(markers);
@@ -203,6 +403,7 @@ class AnnotationManager implements MapView.OnMapChangedListener {
                     }
                     m.setId(id);
                     annotations.put(id, m);
+                    indexMarker(m);
                 }
 
             }
@@ -210,6 +411,182 @@ class AnnotationManager implements MapView.OnMapChangedListener {
         return markers;
     }
 
+    /**
+     * Adds markers from packed arrays through a single native call, without creating Marker objects.
+     *
+     * @param coordinates the latitude, longitude pairs of the markers
+     * @param iconIndices the index in the icon table of the icon of every marker
+     * @param iconTable   the icons used by the markers
+     * @param mapboxMap   the map the markers are added to
+     * @return the ids of the added markers
+     */
+    long[] addMarkers(@NonNull double[] coordinates, @NonNull int[] iconIndices, @NonNull Icon[] iconTable,
+                      @NonNull MapboxMap mapboxMap) {
+        int count = iconIndices.length;
+        if (coordinates.length != count * 2) {
+            throw new IllegalArgumentException("Expected " + count + " latitude, longitude pairs, got "
+                    + coordinates.length + " coordinates");
+        }
+        for (int iconIndex : iconIndices) {
+            if (iconIndex < 0 || iconIndex >= iconTable.length || iconTable[iconIndex] == null) {
+                throw new IllegalArgumentException("Icon index " + iconIndex + " doesn't refer to an icon");
+            }
+        }
+        long[] ids = new long[count];
+        if (count == 0) {
+            return ids;
+        }
+
+        if (annotationUpdate != null) {
+            // the ids are filled in on commit, the arrays are copied as the caller may reuse them
+            Arrays.fill(ids, -1);
+            annotationUpdate.add(ids, coordinates.clone(), iconIndices.clone(), iconTable.clone());
+            return ids;
+        }
+
+        if (useSymbolMarkers(count, null)) {
+            addSymbolMarkers(ids, coordinates, iconIndices, iconTable, mapboxMap);
+            return ids;
+        }
+
+        acquireIcons(iconIndices, iconTable);
+        if (nativeMapView != null) {
+            String[] iconIds = new String[iconTable.length];
+            for (int i = 0; i < iconTable.length; i++) {
+                iconIds[i] = iconTable[i] != null ? iconTable[i].getId() : "";
+            }
+            long[] markerIds = new long[count];
+            Arrays.fill(markerIds, -1);
+            ids = nativeMapView.updateAnnotations(new long[0], markerIds, coordinates, iconIndices, iconIds,
+                    new long[0], new Polyline[0], new long[0], new Polygon[0]);
+        } else {
+            // unit test
+            for (int i = 0; i < count; i++) {
+                ids[i] = i;
+            }
+        }
+        putPackedMarkers(ids, coordinates, iconIndices, iconTable, mapboxMap);
+        return ids;
+    }
+
+    // takes the icon references of markers added without Marker objects
+    private void acquireIcons(int[] iconIndices, Icon[] iconTable) {
+        int[] references = new int[iconTable.length];
+        for (int iconIndex : iconIndices) {
+            references[iconIndex]++;
+        }
+        for (int i = 0; i < iconTable.length; i++) {
+            if (references[i] > 0) {
+                iconManager.acquireIcon(iconTable[i], references[i]);
+            }
+        }
+    }
+
+    private void putPackedMarkers(long[] ids, double[] coordinates, int[] iconIndices, Icon[] iconTable,
+                                  MapboxMap mapboxMap) {
+        for (int i = 0; i < ids.length; i++) {
+            markerIndex.put(ids[i], coordinates[i * 2], coordinates[i * 2 + 1]);
+        }
+        packedMarkers.add(ids, coordinates, iconIndices, iconTable, mapboxMap);
+    }
+
+    // the symbol layer assigns its own ids, which are written to the ids array
+    private void addSymbolMarkers(long[] ids, double[] coordinates, int[] iconIndices, Icon[] iconTable,
+                                  MapboxMap mapboxMap) {
+        for (int i = 0; i < ids.length; i++) {
+            Marker marker = prepareMarker(new MarkerOptions()
+                    .position(new LatLng(coordinates[i * 2], coordinates[i * 2 + 1]))
+                    .icon(iconTable[iconIndices[i]]));
+            marker.setMapboxMap(mapboxMap);
+            addSymbolMarker(marker);
+            ids[i] = marker.getId();
+        }
+    }
+
+    /**
+     * Returns if markers should be added to the symbol layer, moving the markers rendered by core
+     * over to the symbol layer when the added markers push the amount of markers over the threshold.
+     *
+     * @param addedCount the amount of markers being added
+     * @param update     the annotation update being applied, if any
+     * @return true if markers are rendered by the symbol layer
+     */
+    private boolean useSymbolMarkers(int addedCount, @Nullable AnnotationUpdate update) {
+        if (symbolMarkers.isActive()) {
+            return true;
+        }
+        if (symbolLayerMarkerThreshold <= 0
+                || annotations.getMarkerCount() + addedCount <= symbolLayerMarkerThreshold) {
+            return false;
+        }
+
+        List<Marker> coreMarkers = new ArrayList<>();
+        for (Marker marker : annotations.getMarkerObjects()) {
+            // MarkerViews keep their ghost point annotation in core
+            if (!(marker instanceof MarkerView)) {
+                coreMarkers.add(marker);
+            }
+        }
+        // markers without Marker objects move over from the packed arrays and keep their ids too
+        int packedCount = packedMarkers.size();
+        long[] ids = new long[coreMarkers.size() + packedCount];
+        for (int i = 0; i < coreMarkers.size(); i++) {
+            ids[i] = coreMarkers.get(i).getId();
+        }
+        for (int i = 0; i < packedCount; i++) {
+            ids[coreMarkers.size() + i] = packedMarkers.getId(i);
+        }
+        if (update != null) {
+            // pending updates of these markers must not reach core anymore
+            for (long id : ids) {
+                update.remove(id);
+            }
+        } else if (nativeMapView != null && ids.length > 0) {
+            nativeMapView.removeAnnotations(ids);
+        }
+        symbolMarkers.activate(coreMarkers);
+        for (int i = 0; i < packedCount; i++) {
+            symbolMarkers.add(packedMarkers.getId(i), packedMarkers.getLatitude(i), packedMarkers.getLongitude(i),
+                    packedMarkers.getIcon(i));
+        }
+        return true;
+    }
+
+    private void addSymbolMarker(Marker marker) {
+        symbolMarkers.add(marker);
+        annotations.put(marker.getId(), marker);
+        indexMarker(marker);
+    }
+
+    // filters out the ids of the markers rendered by the symbol layer
+    private static long[] coreIds(long[] ids) {
+        int count = 0;
+        for (long id : ids) {
+            if (id < SymbolMarkerRenderer.FIRST_ID) {
+                count++;
+            }
+        }
+        if (count == ids.length) {
+            return ids;
+        }
+        long[] coreIds = new long[count];
+        count = 0;
+        for (long id : ids) {
+            if (id < SymbolMarkerRenderer.FIRST_ID) {
+                coreIds[count++] = id;
+            }
+        }
+        return coreIds;
+    }
+
+    void setSymbolLayerMarkerThreshold(int threshold) {
+        symbolLayerMarkerThreshold = threshold;
+    }
+
+    int getSymbolLayerMarkerThreshold() {
+        return symbolLayerMarkerThreshold;
+    }
+
     private Marker prepareMarker(BaseMarkerOptions markerOptions) {
         Marker marker = markerOptions.getMarker();
         Icon icon = iconManager.loadIconForMarker(marker);
@@ -224,6 +601,7 @@ class AnnotationManager implements MapView.OnMapChangedListener {
         long id = nativeMapView.addMarker(marker);
         marker.setId(id);
         annotations.put(id, marker);
+        indexMarker(marker);
         return marker;
     }
 
@@ -241,6 +619,7 @@ class AnnotationManager implements MapView.OnMapChangedListener {
             long id = nativeMapView.addMarker(marker);
             marker.setId(id);
             annotations.put(id, marker);
+            indexMarker(marker);
             markers.add(marker);
         }
         markerViewManager.invalidateViewMarkersInVisibleRegion();
@@ -263,27 +642,32 @@ class AnnotationManager implements MapView.OnMapChangedListener {
         }
 
         if (!(updatedMarker instanceof MarkerView)) {
-            iconManager.ensureIconLoaded(updatedMarker, mapboxMap);
+            iconManager.ensureIconLoaded(updatedMarker);
         }
 
-        nativeMapView.updateMarker(updatedMarker);
+        if (symbolMarkers.contains(updatedMarker.getId())) {
+            symbolMarkers.update(updatedMarker);
+        } else if (annotationUpdate != null) {
+            annotationUpdate.update(updatedMarker);
+        } else {
+            nativeMapView.updateMarker(updatedMarker);
+        }
 
-        int index = annotations.indexOfKey(updatedMarker.getId());
-        if (index > -1) {
-            annotations.setValueAt(index, updatedMarker);
+        if (annotations.contains(updatedMarker.getId())) {
+            annotations.put(updatedMarker.getId(), updatedMarker);
+            indexMarker(updatedMarker);
         }
     }
 
-    List<Marker> getMarkers() {
-        List<Marker> markers = new ArrayList<>();
-        Annotation annotation;
-        for (int i = 0; i < annotations.size(); i++) {
-            annotation = annotations.get(annotations.keyAt(i));
-            if (annotation instanceof Marker) {
-                markers.add((Marker) annotation);
-            }
+    private void indexMarker(Marker marker) {
+        LatLng position = marker.getPosition();
+        if (position != null) {
+            markerIndex.put(marker.getId(), position.getLatitude(), position.getLongitude());
         }
-        return markers;
+    }
+
+    List<Marker> getMarkers() {
+        return annotations.getMarkers();
     }
 
     void setOnMarkerClickListener(@Nullable MapboxMap.OnMarkerClickListener listener) {
@@ -352,59 +736,83 @@ class AnnotationManager implements MapView.OnMapChangedListener {
         return selectedMarkers;
     }
 
-    public List<Marker> getMarkersInRect(@NonNull RectF rectangle) {
-        // convert Rectangle to be density depedent
-        float pixelRatio = nativeMapView.getPixelRatio();
-        RectF rect = new RectF(rectangle.left / pixelRatio,
-                rectangle.top / pixelRatio,
-                rectangle.right / pixelRatio,
-                rectangle.bottom / pixelRatio);
-
-        long[] ids = nativeMapView.queryPointAnnotations(rect);
+    private boolean isSelected(long id) {
+        for (Marker selectedMarker : selectedMarkers) {
+            if (selectedMarker.getId() == id) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        List<Long> idsList = new ArrayList<>(ids.length);
+    public List<Marker> getMarkersInRect(@NonNull RectF rectangle) {
+        long[] ids = queryMarkerIds(rectangle);
+        List<Marker> markers = new ArrayList<>(ids.length);
+        Annotation annotation;
         for (long id : ids) {
-            idsList.add(id);
+            annotation = annotations.get(id);
+            if (annotation instanceof Marker) {
+                markers.add((Marker) annotation);
+            }
         }
+        return markers;
+    }
 
-        List<Marker> annotations = new ArrayList<>(ids.length);
-        List<Annotation> annotationList = getAnnotations();
-        int count = annotationList.size();
-        for (int i = 0; i < count; i++) {
-            Annotation annotation = annotationList.get(i);
-            if (annotation instanceof com.mapbox.mapboxsdk.annotations.Marker && idsList.contains(annotation.getId())) {
-                annotations.add((com.mapbox.mapboxsdk.annotations.Marker) annotation);
+    public List<MarkerView> getMarkerViewsInRect(@NonNull RectF rectangle) {
+        long[] ids = queryMarkerIds(rectangle);
+        List<MarkerView> markers = new ArrayList<>(ids.length);
+        Annotation annotation;
+        for (long id : ids) {
+            if (packedMarkers.contains(id)) {
+                // markers without a Marker object are never MarkerViews, don't create one
+                continue;
+            }
+            annotation = annotations.get(id);
+            if (annotation instanceof MarkerView) {
+                markers.add((MarkerView) annotation);
             }
         }
-
-        return new ArrayList<>(annotations);
+        return markers;
     }
 
-    public List<MarkerView> getMarkerViewsInRect(@NonNull RectF rectangle) {
+    /**
+     * Returns the ids of the markers positioned in a screen rectangle, sorted ascending.
+     * <p>
+     * The corners of the rectangle are unprojected onto the ground plane, which maps the rectangle
+     * to a convex quadrilateral for any bearing and tilt, and the Java side spatial index is queried
+     * with that quadrilateral. Falls back to querying the rendered point annotations in core before
+     * the map is attached.
+     * </p>
+     *
+     * @param rectangle the rectangle in screen pixels
+     * @return the ids of the markers found
+     */
+    private long[] queryMarkerIds(@NonNull RectF rectangle) {
+        Projection projection = mapboxMap != null ? mapboxMap.getProjection() : null;
+        if (projection != null) {
+            return markerIndex.query(projection, rectangle.left, rectangle.top, rectangle.right, rectangle.bottom);
+        }
+
+        // convert Rectangle to be density depedent
         float pixelRatio = nativeMapView.getPixelRatio();
         RectF rect = new RectF(rectangle.left / pixelRatio,
                 rectangle.top / pixelRatio,
                 rectangle.right / pixelRatio,
                 rectangle.bottom / pixelRatio);
+        return nativeMapView.queryPointAnnotations(rect);
+    }
 
-        long[] ids = nativeMapView.queryPointAnnotations(rect);
-
-        List<Long> idsList = new ArrayList<>(ids.length);
-        for (long id : ids) {
-            idsList.add(id);
-        }
+    //
+    // Clustered markers
+    //
 
-        List<MarkerView> annotations = new ArrayList<>(ids.length);
-        List<Annotation> annotationList = getAnnotations();
-        int count = annotationList.size();
-        for (int i = 0; i < count; i++) {
-            Annotation annotation = annotationList.get(i);
-            if (annotation instanceof MarkerView && idsList.contains(annotation.getId())) {
-                annotations.add((MarkerView) annotation);
-            }
-        }
+    void setClusteredMarkers(@NonNull List<MarkerOptions> markerOptionsList,
+                             @NonNull MarkerClusterOptions clusterOptions, @NonNull MapboxMap mapboxMap) {
+        clusterManager.setMarkers(markerOptionsList, clusterOptions, mapboxMap);
+    }
 
-        return new ArrayList<>(annotations);
+    void clearClusteredMarkers() {
+        clusterManager.clear();
     }
 
     //
@@ -413,7 +821,7 @@ class AnnotationManager implements MapView.OnMapChangedListener {
 
     Polygon addPolygon(@NonNull PolygonOptions polygonOptions, @NonNull MapboxMap mapboxMap) {
         Polygon polygon = polygonOptions.getPolygon();
-        if (!polygon.getPoints().isEmpty()) {
+        if (polygon.getPointCount() > 0) {
             long id = nativeMapView != null ? nativeMapView.addPolygon(polygon) : 0;
             polygon.setId(id);
             polygon.setMapboxMap(mapboxMap);
@@ -430,7 +838,7 @@ class AnnotationManager implements MapView.OnMapChangedListener {
         if (count > 0) {
             for (PolygonOptions polygonOptions : polygonOptionsList) {
                 polygon = polygonOptions.getPolygon();
-                if (!polygon.getPoints().isEmpty()) {
+                if (polygon.getPointCount() > 0) {
                     polygons.add(polygon);
                 }
             }
@@ -466,24 +874,19 @@ class AnnotationManager implements MapView.OnMapChangedListener {
             return;
         }
 
-        nativeMapView.updatePolygon(polygon);
+        if (annotationUpdate != null) {
+            annotationUpdate.update(polygon);
+        } else {
+            nativeMapView.updatePolygon(polygon);
+        }
 
-        int index = annotations.indexOfKey(polygon.getId());
-        if (index > -1) {
-            annotations.setValueAt(index, polygon);
+        if (annotations.contains(polygon.getId())) {
+            annotations.put(polygon.getId(), polygon);
         }
     }
 
     List<Polygon> getPolygons() {
-        List<Polygon> polygons = new ArrayList<>();
-        Annotation annotation;
-        for (int i = 0; i < annotations.size(); i++) {
-            annotation = annotations.get(annotations.keyAt(i));
-            if (annotation instanceof Polygon) {
-                polygons.add((Polygon) annotation);
-            }
-        }
-        return polygons;
+        return annotations.getPolygons();
     }
 
     //
@@ -492,7 +895,7 @@ class AnnotationManager implements MapView.OnMapChangedListener {
 
     Polyline addPolyline(@NonNull PolylineOptions polylineOptions, @NonNull MapboxMap mapboxMap) {
         Polyline polyline = polylineOptions.getPolyline();
-        if (!polyline.getPoints().isEmpty()) {
+        if (polyline.getPointCount() > 0) {
             long id = nativeMapView != null ? nativeMapView.addPolyline(polyline) : 0;
             polyline.setMapboxMap(mapboxMap);
             polyline.setId(id);
@@ -509,7 +912,7 @@ class AnnotationManager implements MapView.OnMapChangedListener {
         if (count > 0) {
             for (PolylineOptions options : polylineOptionsList) {
                 polyline = options.getPolyline();
-                if (!polyline.getPoints().isEmpty()) {
+                if (polyline.getPointCount() > 0) {
                     polylines.add(polyline);
                 }
             }
@@ -547,24 +950,60 @@ class AnnotationManager implements MapView.OnMapChangedListener {
             return;
         }
 
-        nativeMapView.updatePolyline(polyline);
+        if (annotationUpdate != null) {
+            annotationUpdate.update(polyline);
+        } else {
+            nativeMapView.updatePolyline(polyline);
+        }
 
-        int index = annotations.indexOfKey(polyline.getId());
-        if (index > -1) {
-            annotations.setValueAt(index, polyline);
+        if (annotations.contains(polyline.getId())) {
+            annotations.put(polyline.getId(), polyline);
         }
     }
 
-    List<Polyline> getPolylines() {
-        List<Polyline> polylines = new ArrayList<>();
-        Annotation annotation;
-        for (int i = 0; i < annotations.size(); i++) {
-            annotation = annotations.get(annotations.keyAt(i));
-            if (annotation instanceof Polyline) {
-                polylines.add((Polyline) annotation);
-            }
+    void appendPolylinePoints(Polyline polyline, double[] coordinates) {
+        if (polyline == null || polyline.getId() == -1) {
+            return;
         }
-        return polylines;
+
+        if (annotationUpdate != null) {
+            // a pending update sends the complete geometry
+            annotationUpdate.update(polyline);
+        } else {
+            nativeMapView.appendPolylinePoints(polyline.getId(), coordinates);
+        }
+    }
+
+    List<Polyline> getPolylines() {
+        return annotations.getPolylines();
+    }
+
+    //
+    // Snapshots
+    //
+
+    AnnotationSnapshot getAnnotationSnapshot() {
+        // clustered markers are recreated by the cluster manager, they aren't captured
+        Set<Marker> clusteredMarkers = Collections.newSetFromMap(new IdentityHashMap<Marker, Boolean>());
+        clusteredMarkers.addAll(clusterManager.getShownMarkers());
+        return AnnotationSnapshot.capture(annotations.getMarkerObjects(), packedMarkers, annotations.getPolylines(),
+                annotations.getPolygons(), clusteredMarkers);
+    }
+
+    List<Annotation> restoreAnnotationSnapshot(@NonNull AnnotationSnapshot snapshot, @NonNull MapboxMap mapboxMap) {
+        return restoreAnnotationSnapshot(snapshot, IconFactory.getInstance(mapView.getContext()), mapboxMap);
+    }
+
+    List<Annotation> restoreAnnotationSnapshot(@NonNull AnnotationSnapshot snapshot,
+                                               @NonNull IconFactory iconFactory, @NonNull MapboxMap mapboxMap) {
+        AnnotationSnapshot.Contents contents = snapshot.read(iconFactory);
+        List<Annotation> restored = new ArrayList<>(
+                contents.markers.size() + contents.polylines.size() + contents.polygons.size());
+        // a single native call per annotation type
+        restored.addAll(addMarkers(contents.markers, mapboxMap));
+        restored.addAll(addPolylines(contents.polylines, mapboxMap));
+        restored.addAll(addPolygons(contents.polygons, mapboxMap));
+        return restored;
     }
 
     InfoWindowManager getInfoWindowManager() {
@@ -576,34 +1015,56 @@ class AnnotationManager implements MapView.OnMapChangedListener {
     }
 
     void adjustTopOffsetPixels(MapboxMap mapboxMap) {
-        int count = annotations.size();
-        for (int i = 0; i < count; i++) {
-            Annotation annotation = annotations.get(i);
-            if (annotation instanceof Marker) {
-                Marker marker = (Marker) annotation;
-                marker.setTopOffsetPixels(
-                        iconManager.getTopOffsetPixelsForIcon(marker.getIcon()));
+        // markers commonly share icons, the offset is requested from core once per icon. Markers
+        // without a Marker object get their offset when the object is created.
+        iconManager.invalidateTopOffsets();
+        for (Marker marker : annotations.getMarkerObjects()) {
+            Icon icon = marker.getIcon();
+            if (icon != null) {
+                marker.setTopOffsetPixels(iconManager.getTopOffsetPixelsForIcon(icon));
             }
         }
 
+        // open info windows only need to move to the new offsets, their views stay as they are
         for (Marker marker : selectedMarkers) {
             if (marker.isInfoWindowShown()) {
-                marker.hideInfoWindow();
-                marker.showInfoWindow(mapboxMap, mapView);
+                marker.updateInfoWindowOffset();
             }
         }
     }
 
-    void reloadMarkers() {
+    /**
+     * Registers all annotations with the map again, for example after a style was loaded.
+     * <p>
+     * Icons are uploaded once per icon id, after which all markers, polylines and polygons are
+     * updated in a single native call. Annotations keep their ids, so references held to them, the
+     * annotation container and the spatial index stay valid.
+     * </p>
+     */
+    void reloadAnnotations() {
         iconManager.reloadIcons();
-        int count = annotations.size();
-        for (int i = 0; i < count; i++) {
-            Annotation annotation = annotations.get(i);
-            if (annotation instanceof Marker) {
-                Marker marker = (Marker) annotation;
-                nativeMapView.removeAnnotation(annotation.getId());
-                long newId = nativeMapView.addMarker(marker);
-                marker.setId(newId);
+
+        AnnotationUpdate reload = new AnnotationUpdate();
+        reloadAll(reload, annotations.getMarkerObjects());
+        reloadAll(reload, annotations.getPolylines());
+        reloadAll(reload, annotations.getPolygons());
+        long id;
+        for (int i = 0; i < packedMarkers.size(); i++) {
+            id = packedMarkers.getId(i);
+            if (!symbolMarkers.contains(id)) {
+                reload.update(id, packedMarkers.getLatitude(i), packedMarkers.getLongitude(i),
+                        packedMarkers.getIcon(i));
+            }
+        }
+        if (!reload.isEmpty()) {
+            reload.apply(nativeMapView);
+        }
+    }
+
+    private void reloadAll(AnnotationUpdate reload, List<? extends Annotation> annotationList) {
+        for (Annotation annotation : annotationList) {
+            if (!symbolMarkers.contains(annotation.getId())) {
+                reload.update(annotation);
             }
         }
     }
@@ -613,64 +1074,49 @@ class AnnotationManager implements MapView.OnMapChangedListener {
     //
 
     boolean onTap(PointF tapPoint, float screenDensity) {
+        if (mapboxMap == null) {
+            return false;
+        }
+
         float toleranceSides = 4 * screenDensity;
         float toleranceTopBottom = 10 * screenDensity;
+        long[] hitMarkerIds = markerHitTester.hitTest(mapboxMap.getProjection(),
+                tapPoint.x, tapPoint.y, toleranceSides, toleranceTopBottom);
 
-        RectF tapRect = new RectF(tapPoint.x - iconManager.getAverageIconWidth() / 2 - toleranceSides,
-                tapPoint.y - iconManager.getAverageIconHeight() / 2 - toleranceTopBottom,
-                tapPoint.x + iconManager.getAverageIconWidth() / 2 + toleranceSides,
-                tapPoint.y + iconManager.getAverageIconHeight() / 2 + toleranceTopBottom);
-
-        List<Marker> nearbyMarkers = getMarkersInRect(tapRect);
+        // select the topmost marker that isn't selected yet, tapping again cycles through stacked markers
         long newSelectedMarkerId = -1;
-
-        if (nearbyMarkers != null && nearbyMarkers.size() > 0) {
-            Collections.sort(nearbyMarkers);
-            for (Marker nearbyMarker : nearbyMarkers) {
-                boolean found = false;
-                for (Marker selectedMarker : selectedMarkers) {
-                    if (selectedMarker.equals(nearbyMarker)) {
-                        found = true;
-                    }
-                }
-                if (!found) {
-                    newSelectedMarkerId = nearbyMarker.getId();
-                    break;
-                }
+        for (long hitMarkerId : hitMarkerIds) {
+            if (!isSelected(hitMarkerId)) {
+                newSelectedMarkerId = hitMarkerId;
+                break;
             }
         }
 
         if (newSelectedMarkerId >= 0) {
-            List<Annotation> annotations = getAnnotations();
-            int count = annotations.size();
-            for (int i = 0; i < count; i++) {
-                Annotation annotation = annotations.get(i);
-                if (annotation instanceof Marker) {
-                    if (annotation.getId() == newSelectedMarkerId) {
-                        Marker marker = (Marker) annotation;
-                        boolean handledDefaultClick = false;
-
-                        if (marker instanceof MarkerView) {
-                            handledDefaultClick = markerViewManager.onClickMarkerView((MarkerView) marker);
-                        } else {
-                            if (onMarkerClickListener != null) {
-                                // end developer has provided a custom click listener
-                                handledDefaultClick = onMarkerClickListener.onMarkerClick(marker);
-                            }
-                        }
-
-                        if (annotation instanceof MarkerView) {
-                            markerViewManager.onClickMarkerView((MarkerView) annotation);
-                        } else {
-                            if (!handledDefaultClick) {
-                                // only select marker if user didn't handle the click event themselves
-                                selectMarker(marker);
-                            }
-                        }
-
-                        return true;
+            Annotation annotation = annotations.get(newSelectedMarkerId);
+            if (annotation instanceof Marker) {
+                Marker marker = (Marker) annotation;
+                boolean handledDefaultClick = false;
+
+                if (marker instanceof MarkerView) {
+                    handledDefaultClick = markerViewManager.onClickMarkerView((MarkerView) marker);
+                } else {
+                    if (onMarkerClickListener != null) {
+                        // end developer has provided a custom click listener
+                        handledDefaultClick = onMarkerClickListener.onMarkerClick(marker);
                     }
                 }
+
+                if (annotation instanceof MarkerView) {
+                    markerViewManager.onClickMarkerView((MarkerView) annotation);
+                } else {
+                    if (!handledDefaultClick) {
+                        // only select marker if user didn't handle the click event themselves
+                        selectMarker(marker);
+                    }
+                }
+
+                return true;
             }
         }
         return false;
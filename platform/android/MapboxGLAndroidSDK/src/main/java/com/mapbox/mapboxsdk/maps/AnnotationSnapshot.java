@@ -0,0 +1,382 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.IconFactory;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.annotations.MarkerView;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.PolygonOptions;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.annotations.PolylineOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compact binary snapshot of the markers, polylines and polygons of a map.
+ * <p>
+ * Obtained with {@link MapboxMap#getAnnotationSnapshot()} and restored with
+ * {@link MapboxMap#restoreAnnotationSnapshot(AnnotationSnapshot)}, which adds all annotations through
+ * one batched call per annotation type. A snapshot can be put in the saved instance state as a
+ * Parcelable, or written to disk with {@link #toByteArray()} and read back with
+ * {@link #fromByteArray(byte[])}.
+ * </p>
+ * <p>
+ * Every distinct icon is stored once in an icon table as a PNG, markers refer to their icon by index.
+ * Coordinates are stored as packed latitude, longitude pairs. Restored annotations are new
+ * objects with new ids, restored markers are plain {@link Marker}s. MarkerViews, clustered markers,
+ * selection and info window state aren't part of the snapshot.
+ * </p>
+ */
+public final class AnnotationSnapshot implements Parcelable {
+
+    public static final Parcelable.Creator<AnnotationSnapshot> CREATOR
+            = new Parcelable.Creator<AnnotationSnapshot>() {
+        public AnnotationSnapshot createFromParcel(Parcel in) {
+            return new AnnotationSnapshot(in.createByteArray());
+        }
+
+        public AnnotationSnapshot[] newArray(int size) {
+            return new AnnotationSnapshot[size];
+        }
+    };
+
+    // "MBAS"
+    private static final int MAGIC = 0x4d424153;
+    private static final int VERSION = 2;
+    // larger icons are rejected as corrupt when reading
+    private static final int MAX_ICON_SIZE = 4096;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final byte[] data;
+
+    private AnnotationSnapshot(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Returns the binary representation of this snapshot, for example to write it to disk.
+     *
+     * @return the snapshot bytes
+     */
+    @NonNull
+    public byte[] toByteArray() {
+        return data.clone();
+    }
+
+    /**
+     * Creates a snapshot from bytes obtained with {@link #toByteArray()}.
+     *
+     * @param data the snapshot bytes
+     * @return the snapshot
+     * @throws IllegalArgumentException if the bytes don't hold a snapshot of a supported version
+     */
+    @NonNull
+    public static AnnotationSnapshot fromByteArray(@NonNull byte[] data) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Data isn't an annotation snapshot");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported annotation snapshot version " + version);
+            }
+        } catch (IOException exception) {
+            throw new IllegalArgumentException("Data isn't an annotation snapshot", exception);
+        }
+        return new AnnotationSnapshot(data.clone());
+    }
+
+    /**
+     * Returns the size of the snapshot.
+     *
+     * @return the size in bytes
+     */
+    public int getSize() {
+        return data.length;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+        out.writeByteArray(data);
+    }
+
+    //
+    // Writing
+    //
+
+    static AnnotationSnapshot capture(@NonNull List<Marker> markers, @Nullable PackedMarkerStore packedMarkers,
+                                      @NonNull List<Polyline> polylines, @NonNull List<Polygon> polygons,
+                                      @NonNull Set<Marker> excludedMarkers) {
+        List<Marker> capturedMarkers = new ArrayList<>(markers.size());
+        Map<String, Integer> iconIndices = new LinkedHashMap<>();
+        List<Icon> icons = new ArrayList<>();
+        for (Marker marker : markers) {
+            if (marker instanceof MarkerView || excludedMarkers.contains(marker) || marker.getPosition() == null) {
+                continue;
+            }
+            capturedMarkers.add(marker);
+            addIcon(marker.getIcon(), iconIndices, icons);
+        }
+        // markers without a Marker object are read from the packed arrays
+        int packedCount = packedMarkers != null ? packedMarkers.size() : 0;
+        for (int i = 0; i < packedCount; i++) {
+            addIcon(packedMarkers.getIcon(i), iconIndices, icons);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                64 + (capturedMarkers.size() + packedCount) * 32 + (polylines.size() + polygons.size()) * 64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(icons.size());
+            for (Icon icon : icons) {
+                writeBitmap(out, icon.getBitmap());
+            }
+
+            out.writeInt(capturedMarkers.size() + packedCount);
+            for (Marker marker : capturedMarkers) {
+                LatLng position = marker.getPosition();
+                out.writeDouble(position.getLatitude());
+                out.writeDouble(position.getLongitude());
+                Icon icon = marker.getIcon();
+                out.writeInt(icon != null ? iconIndices.get(icon.getId()) : -1);
+                writeString(out, marker.getTitle());
+                writeString(out, marker.getSnippet());
+            }
+            for (int i = 0; i < packedCount; i++) {
+                out.writeDouble(packedMarkers.getLatitude(i));
+                out.writeDouble(packedMarkers.getLongitude(i));
+                out.writeInt(iconIndices.get(packedMarkers.getIcon(i).getId()));
+                writeString(out, null);
+                writeString(out, null);
+            }
+
+            out.writeInt(polylines.size());
+            for (Polyline polyline : polylines) {
+                out.writeInt(polyline.getColor());
+                out.writeFloat(polyline.getWidth());
+                out.writeFloat(polyline.getAlpha());
+                writeCoordinates(out, polyline.getCoordinates());
+            }
+
+            out.writeInt(polygons.size());
+            for (Polygon polygon : polygons) {
+                out.writeInt(polygon.getFillColor());
+                out.writeInt(polygon.getStrokeColor());
+                out.writeFloat(polygon.getAlpha());
+                writeCoordinates(out, polygon.getCoordinates());
+            }
+            out.flush();
+        } catch (IOException exception) {
+            // not thrown when writing to memory
+            throw new IllegalStateException(exception);
+        }
+        return new AnnotationSnapshot(bytes.toByteArray());
+    }
+
+    private static void addIcon(@Nullable Icon icon, Map<String, Integer> iconIndices, List<Icon> icons) {
+        if (icon != null && !iconIndices.containsKey(icon.getId())) {
+            iconIndices.put(icon.getId(), icons.size());
+            icons.add(icon);
+        }
+    }
+
+    private static void writeBitmap(DataOutputStream out, Bitmap bitmap) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        out.writeInt(bitmap.getDensity());
+        if (bitmap.compress(Bitmap.CompressFormat.PNG, 100, png)) {
+            out.writeInt(png.size());
+            png.writeTo(out);
+        } else {
+            // restored as the default marker icon
+            out.writeInt(0);
+        }
+    }
+
+    private static void writeCoordinates(DataOutputStream out, double[] coordinates) throws IOException {
+        out.writeInt(coordinates.length);
+        for (double coordinate : coordinates) {
+            out.writeDouble(coordinate);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    //
+    // Reading
+    //
+
+    /**
+     * Decodes the annotation options held by this snapshot.
+     *
+     * @param iconFactory the factory creating the icons of the icon table
+     * @return the decoded annotation options
+     */
+    Contents read(@NonNull IconFactory iconFactory) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        try {
+            // header was validated when the snapshot was created
+            in.readInt();
+            in.readInt();
+
+            Icon[] icons = new Icon[readCount(in, 8)];
+            for (int i = 0; i < icons.length; i++) {
+                Bitmap bitmap = readBitmap(in);
+                icons[i] = bitmap != null ? iconFactory.fromBitmap(bitmap) : null;
+            }
+
+            int count = readCount(in, 28);
+            List<MarkerOptions> markers = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                double latitude = in.readDouble();
+                double longitude = in.readDouble();
+                int iconIndex = in.readInt();
+                if (iconIndex >= icons.length) {
+                    throw new IOException("Unknown icon " + iconIndex);
+                }
+                markers.add(new MarkerOptions()
+                        .position(new LatLng(latitude, longitude))
+                        .icon(iconIndex >= 0 ? icons[iconIndex] : null)
+                        .title(readString(in))
+                        .snippet(readString(in)));
+            }
+
+            count = readCount(in, 16);
+            List<PolylineOptions> polylines = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int color = in.readInt();
+                float width = in.readFloat();
+                float alpha = in.readFloat();
+                polylines.add(new PolylineOptions(readCoordinates(in))
+                        .color(color)
+                        .width(width)
+                        .alpha(alpha));
+            }
+
+            count = readCount(in, 16);
+            List<PolygonOptions> polygons = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int fillColor = in.readInt();
+                int strokeColor = in.readInt();
+                float alpha = in.readFloat();
+                polygons.add(new PolygonOptions(readCoordinates(in))
+                        .fillColor(fillColor)
+                        .strokeColor(strokeColor)
+                        .alpha(alpha));
+            }
+            return new Contents(markers, polylines, polygons);
+        } catch (IOException exception) {
+            throw new IllegalArgumentException("Annotation snapshot is corrupt", exception);
+        }
+    }
+
+    /**
+     * Reads an element count and checks the remaining data can hold that many elements, so corrupt
+     * input fails with an IOException rather than a huge or negative allocation.
+     */
+    private static int readCount(DataInputStream in, int elementSize) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || (long) count * elementSize > in.available()) {
+            throw new IOException("Invalid element count " + count);
+        }
+        return count;
+    }
+
+    @Nullable
+    private static Bitmap readBitmap(DataInputStream in) throws IOException {
+        int density = in.readInt();
+        byte[] png = new byte[readCount(in, 1)];
+        if (png.length == 0) {
+            return null;
+        }
+        in.readFully(png);
+
+        // check the dimensions in the header against the decoded size before allocating pixels
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(png, 0, png.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0 || options.outWidth > MAX_ICON_SIZE
+                || options.outHeight > MAX_ICON_SIZE) {
+            throw new IOException("Invalid icon of " + options.outWidth + "x" + options.outHeight);
+        }
+        Bitmap bitmap = BitmapFactory.decodeByteArray(png, 0, png.length);
+        if (bitmap == null) {
+            throw new IOException("Invalid icon");
+        }
+        bitmap.setDensity(density);
+        return bitmap;
+    }
+
+    private static double[] readCoordinates(DataInputStream in) throws IOException {
+        double[] coordinates = new double[readCount(in, 8)];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = in.readDouble();
+        }
+        return coordinates;
+    }
+
+    @Nullable
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * The annotation options decoded from a snapshot.
+     */
+    static final class Contents {
+
+        final List<MarkerOptions> markers;
+        final List<PolylineOptions> polylines;
+        final List<PolygonOptions> polygons;
+
+        Contents(List<MarkerOptions> markers, List<PolylineOptions> polylines, List<PolygonOptions> polygons) {
+            this.markers = markers;
+            this.polylines = polylines;
+            this.polygons = polygons;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects annotation changes made between {@link MapboxMap#beginAnnotationUpdate()} and
+ * {@link MapboxMap#commitAnnotationUpdate()} so they can be applied in a single call into core.
+ * <p>
+ * Updates are recorded per annotation id, updating the same annotation multiple times results in a
+ * single update carrying the latest state. Removing an annotation discards its pending update, and
+ * removing a marker that is still pending to be added discards the addition.
+ * </p>
+ * <p>
+ * Markers without a Marker object, see {@link PackedMarkerStore}, are recorded from packed values.
+ * </p>
+ */
+final class AnnotationUpdate {
+
+    private final List<Marker> additions = new ArrayList<>();
+    private final List<Annotation> updates = new ArrayList<>();
+    private final LongIntHashMap updateIndex = new LongIntHashMap();
+    private long[] removals = new long[16];
+    private int removalCount;
+
+    // updates of markers without a Marker object, removal moves the last update into the gap
+    private final LongIntHashMap packedUpdateIndex = new LongIntHashMap();
+    private long[] packedUpdateIds = new long[0];
+    private double[] packedUpdatePositions = new double[0];
+    private Icon[] packedUpdateIcons = new Icon[0];
+    private int packedUpdateCount;
+
+    private final List<PackedAddition> packedAdditions = new ArrayList<>();
+
+    void add(@NonNull Marker marker) {
+        additions.add(marker);
+    }
+
+    void update(@NonNull Annotation annotation) {
+        int index = updateIndex.get(annotation.getId());
+        if (index != LongIntHashMap.NONE) {
+            updates.set(index, annotation);
+        } else {
+            updateIndex.put(annotation.getId(), updates.size());
+            updates.add(annotation);
+        }
+    }
+
+    /**
+     * Records the state of a marker without a Marker object.
+     *
+     * @param id        the id of the marker
+     * @param latitude  the latitude of the marker
+     * @param longitude the longitude of the marker
+     * @param icon      the icon of the marker
+     */
+    void update(long id, double latitude, double longitude, @NonNull Icon icon) {
+        int index = packedUpdateIndex.get(id);
+        if (index == LongIntHashMap.NONE) {
+            index = packedUpdateCount++;
+            if (index == packedUpdateIds.length) {
+                int capacity = Math.max(16, index * 2);
+                packedUpdateIds = Arrays.copyOf(packedUpdateIds, capacity);
+                packedUpdatePositions = Arrays.copyOf(packedUpdatePositions, capacity * 2);
+                packedUpdateIcons = Arrays.copyOf(packedUpdateIcons, capacity);
+            }
+            packedUpdateIndex.put(id, index);
+        }
+        packedUpdateIds[index] = id;
+        packedUpdatePositions[index * 2] = latitude;
+        packedUpdatePositions[index * 2 + 1] = longitude;
+        packedUpdateIcons[index] = icon;
+    }
+
+    /**
+     * Records markers added from packed arrays. The ids array is filled in when the update is
+     * applied.
+     *
+     * @param ids         receives the ids assigned to the markers
+     * @param coordinates the latitude, longitude pairs of the markers
+     * @param iconIndices the index in the icon table of the icon of every marker
+     * @param iconTable   the icons used by the markers
+     */
+    void add(@NonNull long[] ids, @NonNull double[] coordinates, @NonNull int[] iconIndices,
+             @NonNull Icon[] iconTable) {
+        packedAdditions.add(new PackedAddition(ids, coordinates, iconIndices, iconTable));
+    }
+
+    void remove(@NonNull Annotation annotation) {
+        if (annotation.getId() == -1) {
+            // pending markers all have id -1 and Annotation.equals compares ids, match the instance
+            for (int i = 0; i < additions.size(); i++) {
+                if (additions.get(i) == annotation) {
+                    additions.remove(i);
+                    break;
+                }
+            }
+            return;
+        }
+        remove(annotation.getId());
+    }
+
+    void remove(long id) {
+        int index = updateIndex.remove(id);
+        if (index != LongIntHashMap.NONE) {
+            // keep the indices of the other updates intact
+            updates.set(index, null);
+        }
+        removePackedUpdate(id);
+        if (removalCount == removals.length) {
+            removals = Arrays.copyOf(removals, removalCount * 2);
+        }
+        removals[removalCount++] = id;
+    }
+
+    boolean isEmpty() {
+        return additions.isEmpty() && packedAdditions.isEmpty() && updateIndex.size() == 0
+                && packedUpdateCount == 0 && removalCount == 0;
+    }
+
+    List<Marker> getAdditions() {
+        return additions;
+    }
+
+    List<PackedAddition> getPackedAdditions() {
+        return packedAdditions;
+    }
+
+    /**
+     * Returns the amount of markers added from packed arrays.
+     *
+     * @return the amount of markers
+     */
+    int getPackedAdditionCount() {
+        int count = 0;
+        for (PackedAddition addition : packedAdditions) {
+            count += addition.ids.length;
+        }
+        return count;
+    }
+
+    /**
+     * Applies the recorded changes through a single native call.
+     *
+     * @param nativeMapView the native map view to apply the changes to
+     * @return the ids assigned to the added markers, in order of {@link #getAdditions()}. The ids of
+     * the markers added from packed arrays are written to the arrays passed to
+     * {@link #add(long[], double[], int[], Icon[])}.
+     */
+    long[] apply(@NonNull NativeMapView nativeMapView) {
+        List<Marker> markers = new ArrayList<>(additions.size() + updates.size());
+        List<Polyline> polylines = new ArrayList<>();
+        List<Polygon> polygons = new ArrayList<>();
+        for (Annotation annotation : updates) {
+            if (annotation instanceof Marker) {
+                markers.add((Marker) annotation);
+            } else if (annotation instanceof Polyline) {
+                polylines.add((Polyline) annotation);
+            } else if (annotation instanceof Polygon) {
+                polygons.add((Polygon) annotation);
+            }
+        }
+        int updatedMarkers = markers.size();
+        markers.addAll(additions);
+
+        // markers are passed as updated Marker objects, packed updates, added Marker objects and
+        // packed additions
+        int markerCount = markers.size() + packedUpdateCount + getPackedAdditionCount();
+        long[] markerIds = new long[markerCount];
+        double[] positions = new double[markerCount * 2];
+        int[] icons = new int[markerCount];
+        Arrays.fill(markerIds, updatedMarkers + packedUpdateCount, markerCount, -1);
+        Map<String, Integer> iconIndex = new HashMap<>();
+        List<String> iconIds = new ArrayList<>();
+
+        int offset = 0;
+        for (int i = 0; i < updatedMarkers; i++) {
+            Marker marker = markers.get(i);
+            markerIds[offset] = marker.getId();
+            putMarker(offset++, marker, positions, icons, iconIndex, iconIds);
+        }
+
+        System.arraycopy(packedUpdateIds, 0, markerIds, offset, packedUpdateCount);
+        System.arraycopy(packedUpdatePositions, 0, positions, offset * 2, packedUpdateCount * 2);
+        for (int i = 0; i < packedUpdateCount; i++) {
+            icons[offset++] = indexOfIcon(packedUpdateIcons[i], iconIndex, iconIds);
+        }
+
+        int addedMarkers = offset;
+        for (int i = updatedMarkers; i < markers.size(); i++) {
+            putMarker(offset++, markers.get(i), positions, icons, iconIndex, iconIds);
+        }
+
+        int packedAddedMarkers = offset;
+        for (PackedAddition addition : packedAdditions) {
+            int count = addition.ids.length;
+            System.arraycopy(addition.coordinates, 0, positions, offset * 2, count * 2);
+            for (int i = 0; i < count; i++) {
+                icons[offset++] = indexOfIcon(addition.iconTable[addition.iconIndices[i]], iconIndex, iconIds);
+            }
+        }
+
+        long[] polylineIds = new long[polylines.size()];
+        for (int i = 0; i < polylineIds.length; i++) {
+            polylineIds[i] = polylines.get(i).getId();
+        }
+
+        long[] polygonIds = new long[polygons.size()];
+        for (int i = 0; i < polygonIds.length; i++) {
+            polygonIds[i] = polygons.get(i).getId();
+        }
+
+        long[] ids = nativeMapView.updateAnnotations(Arrays.copyOf(removals, removalCount),
+                markerIds, positions, icons, iconIds.toArray(new String[iconIds.size()]),
+                polylineIds, polylines.toArray(new Polyline[polylines.size()]),
+                polygonIds, polygons.toArray(new Polygon[polygons.size()]));
+        offset = packedAddedMarkers;
+        for (PackedAddition addition : packedAdditions) {
+            System.arraycopy(ids, offset, addition.ids, 0, addition.ids.length);
+            offset += addition.ids.length;
+        }
+        return Arrays.copyOfRange(ids, addedMarkers, packedAddedMarkers);
+    }
+
+    private static void putMarker(int index, Marker marker, double[] positions, int[] icons,
+                                  Map<String, Integer> iconIndex, List<String> iconIds) {
+        LatLng position = marker.getPosition();
+        positions[index * 2] = position.getLatitude();
+        positions[index * 2 + 1] = position.getLongitude();
+        icons[index] = indexOfIcon(marker.getIcon(), iconIndex, iconIds);
+    }
+
+    private static int indexOfIcon(Icon icon, Map<String, Integer> iconIndex, List<String> iconIds) {
+        String iconId = icon != null ? icon.getId() : "";
+        Integer index = iconIndex.get(iconId);
+        if (index == null) {
+            index = iconIds.size();
+            iconIndex.put(iconId, index);
+            iconIds.add(iconId);
+        }
+        return index;
+    }
+
+    private void removePackedUpdate(long id) {
+        int index = packedUpdateIndex.remove(id);
+        if (index == LongIntHashMap.NONE) {
+            return;
+        }
+        int last = --packedUpdateCount;
+        if (index != last) {
+            packedUpdateIds[index] = packedUpdateIds[last];
+            packedUpdatePositions[index * 2] = packedUpdatePositions[last * 2];
+            packedUpdatePositions[index * 2 + 1] = packedUpdatePositions[last * 2 + 1];
+            packedUpdateIcons[index] = packedUpdateIcons[last];
+            packedUpdateIndex.put(packedUpdateIds[index], index);
+        }
+        packedUpdateIcons[last] = null;
+    }
+
+    /**
+     * Markers added from packed arrays while the update was in progress.
+     */
+    static final class PackedAddition {
+
+        final long[] ids;
+        final double[] coordinates;
+        final int[] iconIndices;
+        final Icon[] iconTable;
+
+        PackedAddition(long[] ids, double[] coordinates, int[] iconIndices, Icon[] iconTable) {
+            this.ids = ids;
+            this.coordinates = coordinates;
+            this.iconIndices = iconIndices;
+            this.iconTable = iconTable;
+        }
+    }
+}
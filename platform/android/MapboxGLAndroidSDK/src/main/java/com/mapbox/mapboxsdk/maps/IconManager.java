@@ -1,7 +1,6 @@
 package com.mapbox.mapboxsdk.maps;
 
 import android.graphics.Bitmap;
-import android.util.DisplayMetrics;
 
 import com.mapbox.mapboxsdk.annotations.Icon;
 import com.mapbox.mapboxsdk.annotations.IconFactory;
@@ -9,150 +8,312 @@ import com.mapbox.mapboxsdk.annotations.Marker;
 import com.mapbox.mapboxsdk.annotations.MarkerView;
 import com.mapbox.mapboxsdk.exceptions.IconBitmapChangedException;
 
-import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * Responsible for managing icons added to the Map.
  * <p>
- * Maintains a {@link List} of {@link Icon} and  is responsible for initialising default markers and
- * setting up {@link MarkerView} annotation ghosting.
+ * Maintains a registry of {@link Icon} keyed on the icon id and is responsible for initialising
+ * default markers and setting up {@link MarkerView} annotation ghosting.
  * </p>
  * <p>
- * Keep track of icons added and the resulting average icon size. This is used internally by our
- * gestures detection to calculate the size of a touch target.
+ * Every registered icon keeps a content digest of its bitmap, computed once per bitmap generation,
+ * which is used to detect bitmaps that were modified after being added to the map. Icons are
+ * reference counted by the markers using them, icons that are no longer used are removed from the
+ * map on {@link #removeUnusedIcons()}. The top offset of a registered icon is requested from the map
+ * once and cached until {@link #invalidateTopOffsets()}.
+ * </p>
+ * <p>
+ * Keeps track of the largest icon added, in screen pixels. This is used internally by our gesture
+ * detection to bound the area searched for markers around a tap, see {@link MarkerHitTester}.
  * </p>
  */
 class IconManager {
 
     private NativeMapView nativeMapView;
-    private List<Icon> icons;
 
-    private int averageIconHeight;
-    private int averageIconWidth;
+    // registered icons keyed on icon id
+    private final Map<String, IconEntry> icons = new HashMap<>();
+    // the icon every marker is holding a reference to
+    private final Map<Marker, IconEntry> markerIcons = new IdentityHashMap<>();
+    // digests of bitmap content, a digest is valid as long as the bitmap generation doesn't change
+    private final Map<Bitmap, long[]> digests = new WeakHashMap<>();
+    private boolean hasUnusedIcons;
+
+    // the largest icon ever registered, in screen pixels
+    private float maxIconWidth;
+    private float maxIconHeight;
 
     IconManager(NativeMapView nativeMapView) {
         this.nativeMapView = nativeMapView;
-        this.icons = new ArrayList<>();
         // load transparent icon for MarkerView to trace actual markers, see #6352
         loadIcon(IconFactory.recreate(IconFactory.ICON_MARKERVIEW_ID, IconFactory.ICON_MARKERVIEW_BITMAP));
     }
 
     Icon loadIconForMarker(Marker marker) {
         Icon icon = marker.getIcon();
-
-        // calculating average before adding
-        int iconSize = icons.size() + 1;
-
-        // TODO replace former if case with anchor implementation,
-        // current workaround for having extra pixels is diving height by 2
         if (icon == null) {
             icon = IconFactory.getInstance(nativeMapView.getContext()).defaultMarker();
-            Bitmap bitmap = icon.getBitmap();
-            averageIconHeight = averageIconHeight + (bitmap.getHeight() / 2 - averageIconHeight) / iconSize;
-            averageIconWidth = averageIconWidth + (bitmap.getWidth() - averageIconWidth) / iconSize;
             marker.setIcon(icon);
-        } else {
-            Bitmap bitmap = icon.getBitmap();
-            averageIconHeight = averageIconHeight + (bitmap.getHeight() - averageIconHeight) / iconSize;
-            averageIconWidth = averageIconWidth + (bitmap.getWidth() - averageIconWidth) / iconSize;
         }
 
-        if (!icons.contains(icon)) {
-            icons.add(icon);
-            loadIcon(icon);
-        } else {
-            Icon oldIcon = icons.get(icons.indexOf(icon));
-            if (!oldIcon.getBitmap().sameAs(icon.getBitmap())) {
-                throw new IconBitmapChangedException();
-            }
-        }
+        acquireIcon(marker, icon);
         return icon;
     }
 
     Icon loadIconForMarkerView(MarkerView marker) {
         Icon icon = marker.getIcon();
-        int iconSize = icons.size() + 1;
         if (icon == null) {
             icon = IconFactory.getInstance(nativeMapView.getContext()).defaultMarkerView();
             marker.setIcon(icon);
         }
-        Bitmap bitmap = icon.getBitmap();
-        averageIconHeight = averageIconHeight + (bitmap.getHeight() - averageIconHeight) / iconSize;
-        averageIconWidth = averageIconWidth + (bitmap.getWidth() - averageIconWidth) / iconSize;
-        if (!icons.contains(icon)) {
-            icons.add(icon);
-        } else {
-            Icon oldIcon = icons.get(icons.indexOf(icon));
-            if (!oldIcon.getBitmap().sameAs(icon.getBitmap())) {
-                throw new IconBitmapChangedException();
-            }
-        }
+        // MarkerView icons share a single id and are rendered as views, tapping them is resolved on
+        // the bounds of their View instead of the icon
         return icon;
     }
 
     int getTopOffsetPixelsForIcon(Icon icon) {
-        return (int) (nativeMapView.getTopOffsetPixelsForAnnotationSymbol(icon.getId()) * nativeMapView.getPixelRatio());
+        IconEntry entry = icons.get(icon.getId());
+        if (entry != null && entry.topOffsetPixels != IconEntry.UNKNOWN_OFFSET) {
+            return entry.topOffsetPixels;
+        }
+        int topOffsetPixels = (int) (nativeMapView.getTopOffsetPixelsForAnnotationSymbol(icon.getId())
+                * nativeMapView.getPixelRatio());
+        if (entry != null) {
+            entry.topOffsetPixels = topOffsetPixels;
+        }
+        return topOffsetPixels;
     }
 
-    void loadIcon(Icon icon) {
-        Bitmap bitmap = icon.getBitmap();
-        String id = icon.getId();
-        if (bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
-            bitmap = bitmap.copy(Bitmap.Config.ARGB_8888, false);
+    /**
+     * Discards the cached top offsets, to be called when the icons were uploaded to the map again.
+     */
+    void invalidateTopOffsets() {
+        for (IconEntry entry : icons.values()) {
+            entry.topOffsetPixels = IconEntry.UNKNOWN_OFFSET;
         }
-        ByteBuffer buffer = ByteBuffer.allocate(bitmap.getRowBytes() * bitmap.getHeight());
-        bitmap.copyPixelsToBuffer(buffer);
+    }
 
-        float density = bitmap.getDensity();
-        if (density == Bitmap.DENSITY_NONE) {
-            density = DisplayMetrics.DENSITY_DEFAULT;
-        }
-        float scale = density / DisplayMetrics.DENSITY_DEFAULT;
-        nativeMapView.addAnnotationIcon(
-                id,
-                bitmap.getWidth(),
-                bitmap.getHeight(),
-                scale, buffer.array());
+    void loadIcon(Icon icon) {
+        nativeMapView.addAnnotationIcon(icon.getId(), icon.getBitmap());
     }
 
+    /**
+     * Uploads every registered icon to the map again, in a single native call.
+     */
     void reloadIcons() {
-        int count = icons.size();
-        for (int i = 0; i < count; i++) {
-            Icon icon = icons.get(i);
-            loadIcon(icon);
+        if (icons.isEmpty()) {
+            return;
         }
+        Map<String, Bitmap> bitmaps = new HashMap<>(icons.size());
+        for (IconEntry entry : icons.values()) {
+            bitmaps.put(entry.icon.getId(), entry.icon.getBitmap());
+        }
+        nativeMapView.addAnnotationIcons(bitmaps);
     }
 
-    void ensureIconLoaded(Marker marker, MapboxMap mapboxMap) {
+    void ensureIconLoaded(Marker marker) {
         Icon icon = marker.getIcon();
         if (icon == null) {
             icon = IconFactory.getInstance(nativeMapView.getContext()).defaultMarker();
             marker.setIcon(icon);
         }
-        if (!icons.contains(icon)) {
-            icons.add(icon);
+
+        // this seems to be a costly operation according to the profiler so I'm trying to save some calls
+        IconEntry previous = markerIcons.get(marker);
+        acquireIcon(marker, icon);
+        if (previous == null || previous.icon != icon) {
+            marker.setTopOffsetPixels(getTopOffsetPixelsForIcon(icon));
+        }
+    }
+
+    /**
+     * Releases the reference a marker holds on its icon, to be called when the marker is removed.
+     *
+     * @param marker the marker being removed
+     */
+    void releaseIcon(Marker marker) {
+        IconEntry entry = markerIcons.remove(marker);
+        if (entry != null) {
+            releaseEntry(entry);
+        }
+    }
+
+    /**
+     * Removes the icons that are no longer referenced by any marker from the map.
+     */
+    void removeUnusedIcons() {
+        if (!hasUnusedIcons) {
+            return;
+        }
+        Iterator<IconEntry> iterator = icons.values().iterator();
+        while (iterator.hasNext()) {
+            IconEntry entry = iterator.next();
+            if (entry.references == 0) {
+                iterator.remove();
+                nativeMapView.removeAnnotationIcon(entry.icon.getId());
+            }
+        }
+        hasUnusedIcons = false;
+    }
+
+    /**
+     * Returns the width an icon is rendered with on the map.
+     *
+     * @param icon the icon
+     * @return the width in screen pixels
+     */
+    float getIconWidth(Icon icon) {
+        Bitmap bitmap = icon.getBitmap();
+        return bitmap.getWidth() * nativeMapView.getPixelRatio() / NativeMapView.getBitmapPixelRatio(bitmap);
+    }
+
+    /**
+     * Returns the height an icon is rendered with on the map.
+     *
+     * @param icon the icon
+     * @return the height in screen pixels
+     */
+    float getIconHeight(Icon icon) {
+        Bitmap bitmap = icon.getBitmap();
+        return bitmap.getHeight() * nativeMapView.getPixelRatio() / NativeMapView.getBitmapPixelRatio(bitmap);
+    }
+
+    /**
+     * Returns the width of the largest icon registered so far, icons that are removed don't shrink
+     * this value.
+     *
+     * @return the width in screen pixels
+     */
+    float getMaxIconWidth() {
+        return maxIconWidth;
+    }
+
+    /**
+     * Returns the height of the largest icon registered so far, icons that are removed don't shrink
+     * this value.
+     *
+     * @return the height in screen pixels
+     */
+    float getMaxIconHeight() {
+        return maxIconHeight;
+    }
+
+    /**
+     * Takes references on an icon for markers that were added without creating Marker objects.
+     *
+     * @param icon       the icon
+     * @param references the amount of markers using the icon
+     */
+    void acquireIcon(Icon icon, int references) {
+        registerIcon(icon).references += references;
+    }
+
+    /**
+     * Releases a reference taken with {@link #acquireIcon(Icon, int)}.
+     *
+     * @param icon the icon
+     */
+    void releaseIcon(Icon icon) {
+        IconEntry entry = icons.get(icon.getId());
+        if (entry != null) {
+            releaseEntry(entry);
+        }
+    }
+
+    /**
+     * Hands a reference taken with {@link #acquireIcon(Icon, int)} over to the Marker object created
+     * for the marker holding it.
+     *
+     * @param marker the created marker
+     */
+    void adoptIcon(Marker marker) {
+        IconEntry entry = icons.get(marker.getIcon().getId());
+        if (entry != null) {
+            markerIcons.put(marker, entry);
+        }
+    }
+
+    private void acquireIcon(Marker marker, Icon icon) {
+        IconEntry entry = registerIcon(icon);
+        IconEntry previous = markerIcons.put(marker, entry);
+        if (previous != entry) {
+            entry.references++;
+            if (previous != null) {
+                releaseEntry(previous);
+            }
+        }
+    }
+
+    private IconEntry registerIcon(Icon icon) {
+        IconEntry entry = icons.get(icon.getId());
+        if (entry == null) {
+            entry = new IconEntry(icon, getDigest(icon.getBitmap()));
+            icons.put(icon.getId(), entry);
             loadIcon(icon);
-        } else {
-            Icon oldIcon = icons.get(icons.indexOf(icon));
-            if (!oldIcon.getBitmap().sameAs(icon.getBitmap())) {
+            maxIconWidth = Math.max(maxIconWidth, getIconWidth(icon));
+            maxIconHeight = Math.max(maxIconHeight, getIconHeight(icon));
+        } else if (entry.icon.getBitmap() != icon.getBitmap()
+                || entry.generationId != icon.getBitmap().getGenerationId()) {
+            // only compare content when the bitmap isn't the exact one that was registered
+            if (entry.digest != getDigest(icon.getBitmap())) {
                 throw new IconBitmapChangedException();
             }
         }
+        return entry;
+    }
 
-        // this seems to be a costly operation according to the profiler so I'm trying to save some calls
-        Marker previousMarker = marker.getId() != -1 ? (Marker) mapboxMap.getAnnotation(marker.getId()) : null;
-        if (previousMarker == null || previousMarker.getIcon() == null || previousMarker.getIcon() != marker.getIcon()) {
-            marker.setTopOffsetPixels(getTopOffsetPixelsForIcon(icon));
+    private void releaseEntry(IconEntry entry) {
+        if (--entry.references == 0) {
+            hasUnusedIcons = true;
         }
     }
 
-    int getAverageIconHeight() {
-        return averageIconHeight;
+    private long getDigest(Bitmap bitmap) {
+        int generationId = bitmap.getGenerationId();
+        long[] digest = digests.get(bitmap);
+        if (digest == null || digest[0] != generationId) {
+            digest = new long[] {generationId, computeDigest(bitmap)};
+            digests.put(bitmap, digest);
+        }
+        return digest[1];
     }
 
-    int getAverageIconWidth() {
-        return averageIconWidth;
+    private static long computeDigest(Bitmap bitmap) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        int[] row = new int[width];
+        // 64 bit FNV-1a over the dimensions and the pixels
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ width) * 0x100000001b3L;
+        hash = (hash ^ height) * 0x100000001b3L;
+        for (int y = 0; y < height; y++) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            for (int pixel : row) {
+                hash = (hash ^ pixel) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    private static class IconEntry {
+
+        private static final int UNKNOWN_OFFSET = Integer.MIN_VALUE;
+
+        private final Icon icon;
+        private final long digest;
+        private final int generationId;
+        private int references;
+        private int topOffsetPixels = UNKNOWN_OFFSET;
+
+        IconEntry(Icon icon, long digest) {
+            this.icon = icon;
+            this.digest = digest;
+            this.generationId = icon.getBitmap().getGenerationId();
+        }
     }
 }
@@ -82,6 +82,9 @@ class InfoWindowManager {
     }
 
     public void add(InfoWindow infoWindow) {
-        infoWindows.add(infoWindow);
+        // markers reuse their info window when shown again
+        if (!infoWindows.contains(infoWindow)) {
+            infoWindows.add(infoWindow);
+        }
     }
 }
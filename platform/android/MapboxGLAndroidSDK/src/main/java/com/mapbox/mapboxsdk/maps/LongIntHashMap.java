@@ -0,0 +1,168 @@
+package com.mapbox.mapboxsdk.maps;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive long keys to non negative int values.
+ * <p>
+ * Keys and values are kept in two parallel arrays probed linearly, removals shift the following
+ * entries back instead of leaving tombstones. Lookups don't allocate and don't box, which keeps
+ * annotation bookkeeping out of the garbage collector when working with large amounts of ids.
+ * </p>
+ */
+final class LongIntHashMap {
+
+    static final int NONE = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntHashMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    LongIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the value mapped to a key.
+     *
+     * @param key the key to look up
+     * @return the value, or {@link #NONE} when the key isn't mapped
+     */
+    int get(long key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (values[index] != NONE) {
+            if (keys[index] == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return NONE;
+    }
+
+    boolean containsKey(long key) {
+        return get(key) != NONE;
+    }
+
+    /**
+     * Maps a key to a value, replacing the previous value if any.
+     *
+     * @param key   the key
+     * @param value the value, must be non negative
+     * @return the previous value, or {@link #NONE} when the key wasn't mapped
+     */
+    int put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must be non negative, was " + value);
+        }
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (values[index] != NONE) {
+            if (keys[index] == key) {
+                int previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return NONE;
+    }
+
+    /**
+     * Removes the mapping of a key.
+     *
+     * @param key the key
+     * @return the removed value, or {@link #NONE} when the key wasn't mapped
+     */
+    int remove(long key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (values[index] != NONE) {
+            if (keys[index] == key) {
+                int previous = values[index];
+                shiftBack(index);
+                size--;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        return NONE;
+    }
+
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(values, NONE);
+            size = 0;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            if (values[index] == NONE) {
+                break;
+            }
+            // move the entry into the gap when its home slot doesn't lie between the gap and itself
+            int home = mix(keys[index]) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        values[gap] = NONE;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != NONE) {
+                int index = mix(oldKeys[i]) & mask;
+                while (values[index] != NONE) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NONE);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
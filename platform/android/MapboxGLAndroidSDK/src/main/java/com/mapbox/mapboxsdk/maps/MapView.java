@@ -93,6 +93,7 @@ public class MapView extends FrameLayout {
 
     private CompassView compassView;
     private MyLocationView myLocationView;
+    private OverlayScheduler overlayScheduler;
     private LocationListener myLocationListener;
 
     private MapGestureDetector mapGestureDetector;
@@ -187,6 +188,9 @@ public class MapView extends FrameLayout {
         compassView.setMapboxMap(mapboxMap);
         myLocationView.setMapboxMap(mapboxMap);
 
+        // update overlain views once per frame
+        overlayScheduler = new OverlayScheduler(new MapOverlayUpdater());
+
         // Ensure this view is interactable
         setClickable(true);
         setLongClickable(true);
@@ -331,7 +335,7 @@ public class MapView extends FrameLayout {
                 // TODO extract logic into separate OnMapReady and Update Component
                 if (change == DID_FINISH_LOADING_STYLE && initialLoad) {
                     initialLoad = false;
-                    mapboxMap.getAnnotationManager().reloadMarkers();
+                    mapboxMap.getAnnotationManager().reloadAnnotations();
                     mapboxMap.getAnnotationManager().adjustTopOffsetPixels(mapboxMap);
 
                     // Notify listeners the map is ready
@@ -348,15 +352,7 @@ public class MapView extends FrameLayout {
                     mapboxMap.invalidateCameraPosition();
 
                 } else if (change == REGION_IS_CHANGING || change == REGION_DID_CHANGE || change == DID_FINISH_LOADING_MAP) {
-                    mapboxMap.getMarkerViewManager().scheduleViewMarkerInvalidation();
-
-                    compassView.update(mapboxMap.getTransform().getBearing());
-                    myLocationView.update();
-                    mapboxMap.getMarkerViewManager().update();
-
-                    for (InfoWindow infoWindow : mapboxMap.getInfoWindows()) {
-                        infoWindow.update();
-                    }
+                    overlayScheduler.scheduleInvalidation();
                 }
 
             }
@@ -499,6 +495,7 @@ public class MapView extends FrameLayout {
         }
 
         destroyed = true;
+        overlayScheduler.cancel();
         nativeMapView.terminateContext();
         nativeMapView.terminateDisplay();
         nativeMapView.destroySurface();
@@ -571,6 +568,7 @@ public class MapView extends FrameLayout {
     @UiThread
     public void onLowMemory() {
         nativeMapView.onLowMemory();
+        mapboxMap.getMarkerViewManager().onLowMemory();
     }
 
     // Called when debug mode is enabled to update a FPS counter
@@ -612,6 +610,12 @@ public class MapView extends FrameLayout {
      * </p>
      * If the style fails to load or an invalid style URL is set, the map view will become blank.
      * An error message will be logged in the Android logcat and {@link MapView#DID_FAIL_LOADING_MAP} event will be sent.
+     * <p>
+     * When the new style only differs from the current style in its layers, sources or layer properties, and the
+     * current style wasn't changed at runtime, the current style is updated in place: sources, tiles, glyphs and
+     * sprites that didn't change are kept and the camera isn't moved to the defaults of the new style.
+     * {@link MapView#DID_FINISH_LOADING_STYLE} is sent once the style was updated, as after a full load.
+     * </p>
      *
      * @param url The URL of the map style
      * @see Style
@@ -793,7 +797,15 @@ public class MapView extends FrameLayout {
             if (destroyed) {
                 return;
             }
-            // TODO move to transform. java
+            overlayScheduler.scheduleUpdate();
+        }
+    }
+
+    // Updates the overlain views, called once per frame by the OverlayScheduler
+    private class MapOverlayUpdater implements OverlayScheduler.OverlayUpdater {
+
+        @Override
+        public void updateOverlays() {
             compassView.update(mapboxMap.getTransform().getBearing());
             myLocationView.update();
             mapboxMap.getMarkerViewManager().update();
@@ -802,6 +814,11 @@ public class MapView extends FrameLayout {
                 infoWindow.update();
             }
         }
+
+        @Override
+        public boolean invalidateMarkerViews(long deadlineNanos) {
+            return mapboxMap.getMarkerViewManager().invalidateViewMarkersInVisibleRegion(deadlineNanos);
+        }
     }
 
     //
@@ -7,6 +7,7 @@ import android.graphics.RectF;
 import android.location.Location;
 import android.os.Handler;
 import android.support.annotation.FloatRange;
+import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.UiThread;
@@ -19,8 +20,11 @@ import com.mapbox.mapboxsdk.MapboxAccountManager;
 import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerViewOptions;
+import com.mapbox.mapboxsdk.annotations.ClusterMarker;
+import com.mapbox.mapboxsdk.annotations.Icon;
 import com.mapbox.mapboxsdk.annotations.InfoWindow;
 import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerClusterOptions;
 import com.mapbox.mapboxsdk.annotations.MarkerOptions;
 import com.mapbox.mapboxsdk.annotations.MarkerView;
 import com.mapbox.mapboxsdk.annotations.MarkerViewManager;
@@ -39,12 +43,14 @@ import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.maps.widgets.MyLocationViewSettings;
 import com.mapbox.mapboxsdk.style.layers.Layer;
 import com.mapbox.mapboxsdk.style.layers.NoSuchLayerException;
+import com.mapbox.mapboxsdk.style.layers.PropertyBatch;
 import com.mapbox.mapboxsdk.style.sources.NoSuchSourceException;
 import com.mapbox.mapboxsdk.style.sources.Source;
 import com.mapbox.services.commons.geojson.Feature;
 
 import java.lang.reflect.ParameterizedType;
 import java.util.List;
+import java.util.Map;
 
 import timber.log.Timber;
 
@@ -150,6 +156,20 @@ public final class MapboxMap {
         nativeMapView.addLayer(layer, before);
     }
 
+    /**
+     * Sets properties on many layers with a single call into the native map, instead of one call
+     * per property. Layers that aren't part of the style are skipped.
+     *
+     * @param batch the properties to set per layer
+     */
+    @UiThread
+    public void setLayerProperties(@NonNull PropertyBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        nativeMapView.setLayerProperties(batch);
+    }
+
     /**
      * Removes the layer. Any references to the layer become invalid and should not be used anymore
      *
@@ -172,6 +192,18 @@ public final class MapboxMap {
         nativeMapView.removeLayer(layer);
     }
 
+    /**
+     * Starts a style transaction. Layers and sources added or removed through the transaction are
+     * validated up front and applied together with a single call into the native map when
+     * {@link StyleTransaction#commit()} is called.
+     *
+     * @return the transaction
+     */
+    @UiThread
+    public StyleTransaction beginStyleTransaction() {
+        return new StyleTransaction(nativeMapView);
+    }
+
     @Nullable
     @UiThread
     public Source getSource(@NonNull String sourceId) {
@@ -240,6 +272,20 @@ public final class MapboxMap {
         nativeMapView.addImage(name, image);
     }
 
+    /**
+     * Adds multiple images to be used in the map's style in a single call.
+     * <p>
+     * Prefer this over repeated calls to {@link #addImage(String, Bitmap)} when registering a set of
+     * images, as it avoids crossing into the native map for every image.
+     * </p>
+     *
+     * @param images the pre-multiplied Bitmaps keyed on image name
+     */
+    @UiThread
+    public void addImages(@NonNull Map<String, Bitmap> images) {
+        nativeMapView.addImages(images);
+    }
+
     /**
      * Removes an image from the map's style
      *
@@ -750,6 +796,12 @@ public final class MapboxMap {
      * If the style fails to load or an invalid style URL is set, the map view will become blank.
      * An error message will be logged in the Android logcat and {@link MapView#DID_FAIL_LOADING_MAP} event will be
      * sent.
+     * <p>
+     * When the new style only differs from the current style in its layers, sources or layer properties, and the
+     * current style wasn't changed at runtime, the current style is updated in place: sources, tiles, glyphs and
+     * sprites that didn't change are kept and the camera isn't moved to the defaults of the new style.
+     * {@link MapView#DID_FINISH_LOADING_STYLE} is sent once the style was updated, as after a full load.
+     * </p>
      *
      * @param url The URL of the map style
      * @see Style
@@ -938,6 +990,86 @@ public final class MapboxMap {
         return annotationManager.addMarkers(markerOptionsList, this);
     }
 
+    /**
+     * <p>
+     * Adds multiple markers to this map from packed arrays, through a single call into the map.
+     * </p>
+     * Marker {@code i} is positioned at {@code coordinates[2 * i]} latitude and
+     * {@code coordinates[2 * i + 1]} longitude, and uses icon {@code iconTable[iconIndices[i]]}.
+     * No {@link Marker} objects are created while adding, the Marker object of a marker is created
+     * once it's requested, for example with {@link #getAnnotation(long)}, {@link #getMarkers()} or
+     * when the marker is tapped. This makes adding large amounts of markers considerably cheaper.
+     * While an annotation update is in progress, see {@link #beginAnnotationUpdate()}, the markers
+     * are added on commit and the returned array holds -1 until then, after which it holds the ids.
+     *
+     * @param coordinates the latitude, longitude pairs of the markers
+     * @param iconIndices the index in the icon table of the icon of every marker
+     * @param iconTable   the icons used by the markers
+     * @return the ids of the added markers, in order
+     * @throws IllegalArgumentException if the coordinates don't match the amount of icon indices or
+     *                                  an icon index doesn't refer to an icon in the table
+     */
+    @UiThread
+    @NonNull
+    public long[] addMarkers(@NonNull double[] coordinates, @NonNull int[] iconIndices, @NonNull Icon[] iconTable) {
+        return annotationManager.addMarkers(coordinates, iconIndices, iconTable, this);
+    }
+
+    /**
+     * <p>
+     * Shows a set of markers clustered, replacing previously clustered markers.
+     * </p>
+     * Markers close to each other are shown as a single {@link ClusterMarker} as defined by the
+     * cluster options. Only the clusters and markers in the visible region are added to the map, they
+     * are updated when the camera changes. Markers are recreated from their options whenever they come
+     * into view. The cluster index is built on a worker thread, clusters are shown once it's ready.
+     *
+     * @param markerOptionsList A list of marker options objects that defines how to render the markers.
+     * @param clusterOptions    The options defining how markers are clustered.
+     */
+    @UiThread
+    public void setClusteredMarkers(@NonNull List<MarkerOptions> markerOptionsList,
+                                    @NonNull MarkerClusterOptions clusterOptions) {
+        annotationManager.setClusteredMarkers(markerOptionsList, clusterOptions, this);
+    }
+
+    /**
+     * Removes the clustered markers and their clusters from this map.
+     */
+    @UiThread
+    public void clearClusteredMarkers() {
+        annotationManager.clearClusteredMarkers();
+    }
+
+    /**
+     * <p>
+     * Sets the amount of markers above which markers are rendered by a managed GeoJsonSource and
+     * SymbolLayer instead of as point annotations, disabled by default.
+     * </p>
+     * Once adding markers pushes the amount of markers over the threshold, all markers are moved over
+     * to the symbol layer, they keep their ids. {@link Marker}s, selection and info windows keep
+     * working as before. Markers are split over several sources, changes to markers are coalesced
+     * and only the data of the sources with changed markers is replaced.
+     * MarkerViews are unaffected. Markers are rendered as point annotations again after all markers
+     * rendered by the symbol layer are removed.
+     *
+     * @param threshold the amount of markers, 0 to disable
+     */
+    @UiThread
+    public void setSymbolLayerMarkerThreshold(@IntRange(from = 0) int threshold) {
+        annotationManager.setSymbolLayerMarkerThreshold(threshold);
+    }
+
+    /**
+     * Returns the amount of markers above which markers are rendered by a symbol layer.
+     *
+     * @return the amount of markers, 0 when disabled
+     */
+    @UiThread
+    public int getSymbolLayerMarkerThreshold() {
+        return annotationManager.getSymbolLayerMarkerThreshold();
+    }
+
     /**
      * <p>
      * Updates a marker on this map. Does nothing if the marker isn't already added.
@@ -984,6 +1116,18 @@ public final class MapboxMap {
         annotationManager.updatePolyline(polyline);
     }
 
+    /**
+     * Extends a polyline on this map with vertices that were appended to it, only the appended
+     * vertices are sent to the map. Used by {@link Polyline#appendPoints(double[])}.
+     *
+     * @param polyline    The polyline the vertices were appended to.
+     * @param coordinates The appended vertices as packed latitude, longitude pairs.
+     */
+    @UiThread
+    public void appendPolylinePoints(Polyline polyline, double[] coordinates) {
+        annotationManager.appendPolylinePoints(polyline, coordinates);
+    }
+
     /**
      * Adds a polygon to this map.
      *
@@ -1104,6 +1248,65 @@ public final class MapboxMap {
         annotationManager.removeAnnotations();
     }
 
+    /**
+     * <p>
+     * Starts collecting annotation changes, to be applied together on
+     * {@link #commitAnnotationUpdate()}.
+     * </p>
+     * While an update is in progress, adding markers, updating markers, polylines and polygons and
+     * removing annotations is recorded instead of being applied on the map one by one. On commit all
+     * changes are handed to the map in a single batch, which makes moving large amounts of markers
+     * considerably cheaper. Markers added during an update are assigned their id when the update is
+     * committed. Updates can be nested, changes are applied by the outermost commit.
+     */
+    @UiThread
+    public void beginAnnotationUpdate() {
+        annotationManager.beginAnnotationUpdate();
+    }
+
+    /**
+     * Applies the annotation changes collected since {@link #beginAnnotationUpdate()}.
+     *
+     * @throws IllegalStateException when no annotation update is in progress
+     */
+    @UiThread
+    public void commitAnnotationUpdate() {
+        annotationManager.commitAnnotationUpdate();
+    }
+
+    /**
+     * <p>
+     * Captures the markers, polylines and polygons on this map in a compact binary snapshot.
+     * </p>
+     * The snapshot can be put in the saved instance state or written to disk with
+     * {@link AnnotationSnapshot#toByteArray()}. MarkerViews, clustered markers, selection and info
+     * window state aren't captured.
+     *
+     * @return the snapshot of the annotations
+     */
+    @UiThread
+    @NonNull
+    public AnnotationSnapshot getAnnotationSnapshot() {
+        return annotationManager.getAnnotationSnapshot();
+    }
+
+    /**
+     * <p>
+     * Adds the annotations captured in a snapshot to this map.
+     * </p>
+     * All markers, polylines and polygons are added with a single call into the map per annotation
+     * type, icons shared by markers are registered once. The restored annotations are new objects,
+     * with new ids.
+     *
+     * @param snapshot the snapshot obtained with {@link #getAnnotationSnapshot()}
+     * @return the restored annotations, markers first, followed by polylines and polygons
+     */
+    @UiThread
+    @NonNull
+    public List<Annotation> restoreAnnotationSnapshot(@NonNull AnnotationSnapshot snapshot) {
+        return annotationManager.restoreAnnotationSnapshot(snapshot, this);
+    }
+
     /**
      * Return a annotation based on its id.
      *
@@ -1116,10 +1319,10 @@ public final class MapboxMap {
     }
 
     /**
-     * Returns a list of all the annotations on the map.
+     * Returns a list of all the annotations on the map, in the order they were added.
      *
-     * @return A list of all the annotation objects. The returned object is a copy so modifying this
-     * list will not update the map
+     * @return A read-only list of all the annotation objects. The returned list is a snapshot, adding
+     * or removing annotations afterwards doesn't modify it.
      */
     @NonNull
     public List<Annotation> getAnnotations() {
@@ -1127,10 +1330,10 @@ public final class MapboxMap {
     }
 
     /**
-     * Returns a list of all the markers on the map.
+     * Returns a list of all the markers on the map, in the order they were added.
      *
-     * @return A list of all the markers objects. The returned object is a copy so modifying this
-     * list will not update the map.
+     * @return A read-only list of all the markers objects. The returned list is a snapshot, adding
+     * or removing annotations afterwards doesn't modify it.
      */
     @NonNull
     public List<Marker> getMarkers() {
@@ -1138,10 +1341,10 @@ public final class MapboxMap {
     }
 
     /**
-     * Returns a list of all the polygons on the map.
+     * Returns a list of all the polygons on the map, in the order they were added.
      *
-     * @return A list of all the polygon objects. The returned object is a copy so modifying this
-     * list will not update the map.
+     * @return A read-only list of all the polygon objects. The returned list is a snapshot, adding
+     * or removing annotations afterwards doesn't modify it.
      */
     @NonNull
     public List<Polygon> getPolygons() {
@@ -1149,10 +1352,10 @@ public final class MapboxMap {
     }
 
     /**
-     * Returns a list of all the polylines on the map.
+     * Returns a list of all the polylines on the map, in the order they were added.
      *
-     * @return A list of all the polylines objects. The returned object is a copy so modifying this
-     * list will not update the map.
+     * @return A read-only list of all the polylines objects. The returned list is a snapshot, adding
+     * or removing annotations afterwards doesn't modify it.
      */
     @NonNull
     public List<Polyline> getPolylines() {
@@ -1764,6 +1967,72 @@ public final class MapboxMap {
         View getInfoWindow(@NonNull Marker marker);
     }
 
+    /**
+     * {@link InfoWindowAdapter} that reuses the Views of info windows that were closed.
+     * <p>
+     * When an info window closes, its View is kept in a pool and handed back through the convertView
+     * parameter the next time an info window is shown, for the same or another marker. Adapting a
+     * convertView instead of inflating a new View makes showing many info windows, for example with
+     * {@link #setAllowConcurrentMultipleOpenInfoWindows(boolean)}, considerably cheaper.
+     * </p>
+     */
+    public abstract static class RecyclingInfoWindowAdapter implements InfoWindowAdapter {
+
+        private static final int DEFAULT_VIEW_REUSE_POOL_SIZE = 16;
+
+        private final Pools.SimplePool<View> viewReusePool;
+
+        /**
+         * Create an instance of RecyclingInfoWindowAdapter.
+         */
+        public RecyclingInfoWindowAdapter() {
+            this(DEFAULT_VIEW_REUSE_POOL_SIZE);
+        }
+
+        /**
+         * Create an instance of RecyclingInfoWindowAdapter with a bounded pool of reusable Views.
+         *
+         * @param viewReusePoolSize the maximum amount of Views kept for reuse
+         */
+        public RecyclingInfoWindowAdapter(int viewReusePoolSize) {
+            viewReusePool = new Pools.SimplePool<>(viewReusePoolSize);
+        }
+
+        /**
+         * Acquires a reusable View and adapts it to the marker.
+         *
+         * @param marker The marker the user clicked on.
+         * @return View to be shown as a info window. If null is returned the default
+         * info window will be shown.
+         */
+        @Nullable
+        @Override
+        public final View getInfoWindow(@NonNull Marker marker) {
+            return getInfoWindow(marker, viewReusePool.acquire());
+        }
+
+        /**
+         * Called when an info window will be shown as a result of a marker click.
+         *
+         * @param marker      The marker the user clicked on.
+         * @param convertView A View of a closed info window to adapt, null if none is available.
+         * @return View to be shown as a info window. If null is returned the default
+         * info window will be shown.
+         */
+        @Nullable
+        public abstract View getInfoWindow(@NonNull Marker marker, @Nullable View convertView);
+
+        /**
+         * Returns the View of a closed info window to the pool of reusable Views, called by the SDK
+         * when an info window closes.
+         *
+         * @param view the View to reuse
+         */
+        public final void releaseView(@NonNull View view) {
+            viewReusePool.release(view);
+        }
+    }
+
     /**
      * Interface definition for a callback to be invoked when an MarkerView will be shown.
      *
@@ -1771,20 +2040,35 @@ public final class MapboxMap {
      */
     public abstract static class MarkerViewAdapter<U extends MarkerView> {
 
+        private static final int DEFAULT_VIEW_REUSE_POOL_SIZE = 10000;
+
         private Context context;
         private final Class<U> persistentClass;
-        private final Pools.SimplePool<View> viewReusePool;
+        private final ViewReusePool viewReusePool;
 
         /**
          * Create an instance of MarkerViewAdapter.
          *
          * @param context the context associated to a MapView
          */
-        @SuppressWarnings("unchecked")
         public MarkerViewAdapter(Context context) {
+            this(context, DEFAULT_VIEW_REUSE_POOL_SIZE);
+        }
+
+        /**
+         * Create an instance of MarkerViewAdapter with a bounded pool of reusable Views.
+         * <p>
+         * Views released while the pool is full are removed from the MapView instead of reused.
+         * </p>
+         *
+         * @param context          the context associated to a MapView
+         * @param viewReusePoolSize the maximum amount of Views kept for reuse
+         */
+        @SuppressWarnings("unchecked")
+        public MarkerViewAdapter(Context context, int viewReusePoolSize) {
             this.context = context;
             persistentClass = (Class<U>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
-            viewReusePool = new Pools.SimplePool<>(10000);
+            viewReusePool = new ViewReusePool(viewReusePoolSize);
         }
 
         /**
@@ -1798,6 +2082,23 @@ public final class MapboxMap {
         @Nullable
         public abstract View getView(@NonNull U marker, @Nullable View convertView, @NonNull ViewGroup parent);
 
+        /**
+         * Called to create a View ahead of time, before a MarkerView needs it.
+         * <p>
+         * Views created by this method are kept in the pool of reusable Views and are provided as
+         * convertView to {@link #getView(MarkerView, View, ViewGroup)}. Implement this method to
+         * allow Views to be created with
+         * {@link MarkerViewManager#preinflateViews(MarkerViewAdapter, int)}.
+         * </p>
+         *
+         * @param parent the parent ViewGroup of the created View
+         * @return a View that can be adapted to a MarkerView, or null if Views can't be created ahead of time
+         */
+        @Nullable
+        public View createView(@NonNull ViewGroup parent) {
+            return null;
+        }
+
         /**
          * Called when an MarkerView is removed from the MapView or the View object is going to be reused.
          * <p>
@@ -1869,14 +2170,119 @@ public final class MapboxMap {
             return context;
         }
 
+        /**
+         * Returns the maximum amount of Views kept for reuse.
+         *
+         * @return the size of the pool
+         */
+        public final int getViewReusePoolSize() {
+            return viewReusePool.maxPoolSize;
+        }
+
+        /**
+         * Returns the amount of Views currently kept for reuse.
+         *
+         * @return the amount of pooled Views
+         */
+        public final int getViewReusePoolCount() {
+            return viewReusePool.pooledCount;
+        }
+
+        /**
+         * Returns how often a View could be reused from the pool.
+         *
+         * @return the amount of pool hits
+         */
+        public final int getViewReusePoolHitCount() {
+            return viewReusePool.hitCount;
+        }
+
+        /**
+         * Returns how often no View was available in the pool, requiring a View to be created.
+         *
+         * @return the amount of pool misses
+         */
+        public final int getViewReusePoolMissCount() {
+            return viewReusePool.missCount;
+        }
+
         /**
          * Release a View to the ViewPool.
+         * <p>
+         * If the pool is full, the View is removed from its parent.
+         * </p>
          *
          * @param view the view to be released
          */
         public final void releaseView(View view) {
             view.setVisibility(View.GONE);
-            viewReusePool.release(view);
+            if (!viewReusePool.release(view)) {
+                removeFromParent(view);
+            }
+        }
+
+        /**
+         * Removes all Views kept for reuse from the pool and from the MapView, to free memory.
+         *
+         * @return the amount of removed Views
+         */
+        public final int trimViewReusePool() {
+            int trimmed = 0;
+            View view;
+            while ((view = viewReusePool.take()) != null) {
+                removeFromParent(view);
+                trimmed++;
+            }
+            return trimmed;
+        }
+
+        private static void removeFromParent(View view) {
+            if (view.getParent() instanceof ViewGroup) {
+                ((ViewGroup) view.getParent()).removeView(view);
+            }
+        }
+
+        // pool that keeps track of its size and of how often Views are reused
+        private static class ViewReusePool extends Pools.SimplePool<View> {
+
+            private final int maxPoolSize;
+            private int pooledCount;
+            private int hitCount;
+            private int missCount;
+
+            ViewReusePool(int maxPoolSize) {
+                super(maxPoolSize);
+                this.maxPoolSize = maxPoolSize;
+            }
+
+            @Override
+            public View acquire() {
+                View view = take();
+                if (view != null) {
+                    hitCount++;
+                } else {
+                    missCount++;
+                }
+                return view;
+            }
+
+            @Override
+            public boolean release(View view) {
+                boolean released = super.release(view);
+                if (released) {
+                    pooledCount++;
+                }
+                return released;
+            }
+
+            // acquires a View without counting it as reused
+            View take() {
+                View view = super.acquire();
+                if (view != null) {
+                    pooledCount--;
+                }
+                return view;
+            }
         }
     }
 
@@ -0,0 +1,437 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.utils.MercatorUtils;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical, zoom indexed clustering of points.
+ * <p>
+ * Points are clustered greedily from the highest zoom level down to zoom level 0, a cluster at
+ * a zoom level absorbs all unclustered points and clusters of the level above within the cluster
+ * radius. Every zoom level keeps a static KD-tree of its nodes, retrieving the clusters for an
+ * area is a range query on a single level that doesn't depend on the total amount of points.
+ * </p>
+ * <p>
+ * Nodes are addressed by an int id, ids below {@link #getPointCount()} are the loaded points in
+ * order of loading, higher ids are clusters. Loading is self contained and can be done on a
+ * worker thread, queries must not run concurrently with loading.
+ * </p>
+ */
+final class MarkerClusterIndex {
+
+    // size of a tile in screen pixels, the cluster radius is relative to this
+    static final int EXTENT = 512;
+
+    // leaf size of the KD-trees
+    private static final int NODE_SIZE = 64;
+
+    private final int radius;
+    private final int maxZoom;
+    private final int minPoints;
+
+    private double[] coordinates = new double[0];
+    private int pointCount;
+
+    // node storage indexed by node id
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private int[] counts = new int[0];
+    private int[] createdZooms = new int[0];
+    private int[] visitedZooms = new int[0];
+    private int nodeCount;
+
+    // levels indexed by zoom, the level above maxZoom holds the unclustered points
+    private Level[] levels;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param radius    the cluster radius in screen pixels
+     * @param maxZoom   the highest zoom level points are clustered at
+     * @param minPoints the minimum amount of points to form a cluster
+     */
+    MarkerClusterIndex(int radius, int maxZoom, int minPoints) {
+        this.radius = radius;
+        this.maxZoom = maxZoom;
+        this.minPoints = Math.max(2, minPoints);
+        this.levels = new Level[maxZoom + 2];
+    }
+
+    /**
+     * Replaces the points of the index and clusters them.
+     *
+     * @param coordinates latitude, longitude pairs of the points
+     */
+    void load(double[] coordinates) {
+        this.coordinates = coordinates;
+        pointCount = coordinates.length / 2;
+        nodeCount = 0;
+        int capacity = Math.max(pointCount * 2, 16);
+        xs = new double[capacity];
+        ys = new double[capacity];
+        counts = new int[capacity];
+        createdZooms = new int[capacity];
+        visitedZooms = new int[capacity];
+
+        int[] nodes = new int[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            nodes[i] = addNode(MercatorUtils.projectX(coordinates[i * 2 + 1]),
+                    MercatorUtils.projectY(coordinates[i * 2]), 1, maxZoom + 1);
+        }
+        levels[maxZoom + 1] = new Level(nodes, pointCount, xs, ys);
+
+        for (int zoom = maxZoom; zoom >= 0; zoom--) {
+            levels[zoom] = cluster(levels[zoom + 1], zoom);
+        }
+    }
+
+    /**
+     * Returns the nodes to show for an area at a zoom level.
+     *
+     * @param south the southern latitude of the area
+     * @param west  the western longitude of the area
+     * @param north the northern latitude of the area
+     * @param east  the eastern longitude of the area, may be lower than west to cross the antimeridian
+     * @param zoom  the zoom level
+     * @return ids of the points and clusters within the area
+     */
+    int[] getClusters(double south, double west, double north, double east, double zoom) {
+        Level level = levels[Math.max(0, Math.min((int) Math.floor(zoom), maxZoom + 1))];
+        if (level == null) {
+            return new int[0];
+        }
+
+        double minY = MercatorUtils.projectY(north);
+        double maxY = MercatorUtils.projectY(south);
+        IntArray result = new IntArray();
+        if (east - west >= 360) {
+            level.range(0, minY, 1, maxY, result);
+        } else {
+            double minX = MercatorUtils.projectX(wrap(west));
+            double maxX = MercatorUtils.projectX(wrap(east));
+            if (minX <= maxX) {
+                level.range(minX, minY, maxX, maxY, result);
+            } else {
+                level.range(minX, minY, 1, maxY, result);
+                level.range(0, minY, maxX, maxY, result);
+            }
+        }
+        return result.toArray();
+    }
+
+    int getPointCount() {
+        return pointCount;
+    }
+
+    boolean isCluster(int node) {
+        return node >= pointCount;
+    }
+
+    /**
+     * Returns the amount of points a node represents.
+     *
+     * @param node the node id
+     * @return 1 for points, the amount of clustered points for clusters
+     */
+    int getPointCount(int node) {
+        return counts[node];
+    }
+
+    /**
+     * Returns the zoom level at which a cluster breaks up in its children.
+     *
+     * @param node the node id
+     * @return the expansion zoom level, for points the level above the highest clustered one
+     */
+    int getExpansionZoom(int node) {
+        return isCluster(node) ? createdZooms[node] + 1 : maxZoom + 1;
+    }
+
+    double getLatitude(int node) {
+        if (!isCluster(node)) {
+            return coordinates[node * 2];
+        }
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * ys[node]))));
+    }
+
+    double getLongitude(int node) {
+        if (!isCluster(node)) {
+            return coordinates[node * 2 + 1];
+        }
+        return xs[node] * 360 - 180;
+    }
+
+    private Level cluster(Level previous, int zoom) {
+        double distance = radius / (EXTENT * Math.pow(2, zoom));
+        IntArray next = new IntArray();
+        IntArray neighbors = new IntArray();
+        IntArray candidates = new IntArray();
+
+        for (int i = 0; i < previous.size; i++) {
+            int node = previous.nodes[i];
+            if (visitedZooms[node] <= zoom) {
+                continue;
+            }
+            visitedZooms[node] = zoom;
+
+            double x = xs[node];
+            double y = ys[node];
+            int total = counts[node];
+            double weightedX = x * total;
+            double weightedY = y * total;
+
+            neighbors.clear();
+            candidates.clear();
+            previous.within(x, y, distance, neighbors);
+            for (int j = 0; j < neighbors.size; j++) {
+                int neighbor = neighbors.values[j];
+                if (visitedZooms[neighbor] <= zoom) {
+                    continue;
+                }
+                visitedZooms[neighbor] = zoom;
+                int count = counts[neighbor];
+                total += count;
+                weightedX += xs[neighbor] * count;
+                weightedY += ys[neighbor] * count;
+                candidates.add(neighbor);
+            }
+
+            if (candidates.size > 0 && total >= minPoints) {
+                int cluster = addNode(weightedX / total, weightedY / total, total, zoom);
+                next.add(cluster);
+            } else {
+                next.add(node);
+                for (int j = 0; j < candidates.size; j++) {
+                    next.add(candidates.values[j]);
+                }
+            }
+        }
+        return new Level(next.values, next.size, xs, ys);
+    }
+
+    private int addNode(double x, double y, int count, int zoom) {
+        if (nodeCount == xs.length) {
+            int capacity = nodeCount * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            createdZooms = Arrays.copyOf(createdZooms, capacity);
+            visitedZooms = Arrays.copyOf(visitedZooms, capacity);
+        }
+        int node = nodeCount++;
+        xs[node] = x;
+        ys[node] = y;
+        counts[node] = count;
+        createdZooms[node] = zoom;
+        visitedZooms[node] = Integer.MAX_VALUE;
+        return node;
+    }
+
+    private static double wrap(double longitude) {
+        double wrapped = ((longitude + 180) % 360 + 360) % 360 - 180;
+        // keep the eastern edge of the world at 180 instead of wrapping it to -180
+        return wrapped == -180 && longitude > 0 ? 180 : wrapped;
+    }
+
+    /**
+     * Static KD-tree over the nodes of a zoom level, nodes are sorted in place in KD order.
+     */
+    private static final class Level {
+
+        private final int[] nodes;
+        private final double[] xs;
+        private final double[] ys;
+        private final int size;
+
+        Level(int[] nodes, int size, double[] nodeXs, double[] nodeYs) {
+            this.nodes = Arrays.copyOf(nodes, size);
+            this.size = size;
+            xs = new double[size];
+            ys = new double[size];
+            for (int i = 0; i < size; i++) {
+                xs[i] = nodeXs[this.nodes[i]];
+                ys[i] = nodeYs[this.nodes[i]];
+            }
+            sort(0, size - 1, 0);
+        }
+
+        void range(double minX, double minY, double maxX, double maxY, IntArray result) {
+            if (size == 0) {
+                return;
+            }
+            IntArray stack = new IntArray();
+            stack.add(0);
+            stack.add(size - 1);
+            stack.add(0);
+            while (stack.size > 0) {
+                int axis = stack.values[--stack.size];
+                int right = stack.values[--stack.size];
+                int left = stack.values[--stack.size];
+
+                if (right - left <= NODE_SIZE) {
+                    for (int i = left; i <= right; i++) {
+                        if (xs[i] >= minX && xs[i] <= maxX && ys[i] >= minY && ys[i] <= maxY) {
+                            result.add(nodes[i]);
+                        }
+                    }
+                    continue;
+                }
+
+                int middle = (left + right) >> 1;
+                double x = xs[middle];
+                double y = ys[middle];
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    result.add(nodes[middle]);
+                }
+
+                if (axis == 0 ? minX <= x : minY <= y) {
+                    stack.add(left);
+                    stack.add(middle - 1);
+                    stack.add(1 - axis);
+                }
+                if (axis == 0 ? maxX >= x : maxY >= y) {
+                    stack.add(middle + 1);
+                    stack.add(right);
+                    stack.add(1 - axis);
+                }
+            }
+        }
+
+        void within(double qx, double qy, double distance, IntArray result) {
+            if (size == 0) {
+                return;
+            }
+            double distanceSquared = distance * distance;
+            IntArray stack = new IntArray();
+            stack.add(0);
+            stack.add(size - 1);
+            stack.add(0);
+            while (stack.size > 0) {
+                int axis = stack.values[--stack.size];
+                int right = stack.values[--stack.size];
+                int left = stack.values[--stack.size];
+
+                if (right - left <= NODE_SIZE) {
+                    for (int i = left; i <= right; i++) {
+                        if (distanceSquared(xs[i], ys[i], qx, qy) <= distanceSquared) {
+                            result.add(nodes[i]);
+                        }
+                    }
+                    continue;
+                }
+
+                int middle = (left + right) >> 1;
+                double x = xs[middle];
+                double y = ys[middle];
+                if (distanceSquared(x, y, qx, qy) <= distanceSquared) {
+                    result.add(nodes[middle]);
+                }
+
+                if (axis == 0 ? qx - distance <= x : qy - distance <= y) {
+                    stack.add(left);
+                    stack.add(middle - 1);
+                    stack.add(1 - axis);
+                }
+                if (axis == 0 ? qx + distance >= x : qy + distance >= y) {
+                    stack.add(middle + 1);
+                    stack.add(right);
+                    stack.add(1 - axis);
+                }
+            }
+        }
+
+        private void sort(int left, int right, int axis) {
+            if (right - left <= NODE_SIZE) {
+                return;
+            }
+            int middle = (left + right) >> 1;
+            select(middle, left, right, axis);
+            sort(left, middle - 1, 1 - axis);
+            sort(middle + 1, right, 1 - axis);
+        }
+
+        // quickselect, partially sorts so the k-th element is in place with lower values on its left
+        private void select(int k, int left, int right, int axis) {
+            double[] values = axis == 0 ? xs : ys;
+            while (right > left) {
+                double pivot = values[k];
+                int i = left;
+                int j = right;
+
+                swap(left, k);
+                if (values[right] > pivot) {
+                    swap(left, right);
+                }
+
+                while (i < j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                    while (values[i] < pivot) {
+                        i++;
+                    }
+                    while (values[j] > pivot) {
+                        j--;
+                    }
+                }
+
+                if (values[left] == pivot) {
+                    swap(left, j);
+                } else {
+                    j++;
+                    swap(j, right);
+                }
+
+                if (j <= k) {
+                    left = j + 1;
+                }
+                if (k <= j) {
+                    right = j - 1;
+                }
+            }
+        }
+
+        private void swap(int i, int j) {
+            int node = nodes[i];
+            nodes[i] = nodes[j];
+            nodes[j] = node;
+            double x = xs[i];
+            xs[i] = xs[j];
+            xs[j] = x;
+            double y = ys[i];
+            ys[i] = ys[j];
+            ys[j] = y;
+        }
+
+        private static double distanceSquared(double x0, double y0, double x1, double y1) {
+            double dx = x0 - x1;
+            double dy = y0 - y1;
+            return dx * dx + dy * dy;
+        }
+    }
+
+    /**
+     * Growable int array.
+     */
+    private static final class IntArray {
+
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
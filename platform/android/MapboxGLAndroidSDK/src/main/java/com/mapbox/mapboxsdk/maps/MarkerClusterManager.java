@@ -0,0 +1,218 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.os.Handler;
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
+import com.mapbox.mapboxsdk.annotations.ClusterMarkerOptions;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerClusterOptions;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responsible for showing clustered markers.
+ * <p>
+ * The cluster index is built on a single worker thread once per set of markers, builds of a set
+ * that was replaced before its build started are skipped. Afterwards, every camera
+ * change queries the clusters of the visible region at the current zoom level and applies the
+ * difference with the shown markers in a single annotation update. The amount of markers added
+ * to the map is bounded by what is visible, regardless of the amount of clustered markers.
+ * </p>
+ */
+class MarkerClusterManager {
+
+    // fraction of the visible region added on each side, avoids churn while panning
+    private static final double REGION_PADDING = 0.5;
+
+    private final AnnotationManager annotationManager;
+    // builds cluster indices, one at a time
+    private Executor buildExecutor;
+    // receives built indices on the main thread
+    private Executor mainExecutor;
+
+    private List<MarkerOptions> markerOptions = new ArrayList<>();
+    private MarkerClusterOptions clusterOptions;
+    private MarkerClusterIndex index;
+    // incremented for every set of markers, discards indices built for a replaced set
+    private volatile int generation;
+
+    // shown markers keyed on cluster index node
+    private final Map<Integer, Marker> shownMarkers = new HashMap<>();
+
+    MarkerClusterManager(AnnotationManager annotationManager) {
+        this.annotationManager = annotationManager;
+    }
+
+    MarkerClusterManager(AnnotationManager annotationManager, Executor buildExecutor, Executor mainExecutor) {
+        this.annotationManager = annotationManager;
+        this.buildExecutor = buildExecutor;
+        this.mainExecutor = mainExecutor;
+    }
+
+    void setMarkers(@NonNull List<MarkerOptions> markerOptionsList, @NonNull MarkerClusterOptions options,
+                    @NonNull final MapboxMap mapboxMap) {
+        clear();
+        markerOptions = new ArrayList<>(markerOptionsList);
+        clusterOptions = options;
+
+        final double[] coordinates = new double[markerOptions.size() * 2];
+        for (int i = 0; i < markerOptions.size(); i++) {
+            LatLng position = markerOptions.get(i).getPosition();
+            coordinates[i * 2] = position.getLatitude();
+            coordinates[i * 2 + 1] = position.getLongitude();
+        }
+
+        if (buildExecutor == null) {
+            buildExecutor = createBuildExecutor();
+            final Handler handler = new Handler();
+            mainExecutor = new Executor() {
+                @Override
+                public void execute(@NonNull Runnable runnable) {
+                    handler.post(runnable);
+                }
+            };
+        }
+        final int buildGeneration = ++generation;
+        final MarkerClusterIndex clusterIndex = new MarkerClusterIndex(options.getRadius(), options.getMaxZoom(),
+                options.getMinPoints());
+        buildExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (buildGeneration != generation) {
+                    // replaced while waiting for an earlier build
+                    return;
+                }
+                clusterIndex.load(coordinates);
+                mainExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (buildGeneration == generation) {
+                            index = clusterIndex;
+                            update(mapboxMap);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    // a single thread that stops when idle, so an unused manager doesn't keep a thread alive
+    private static Executor createBuildExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    void clear() {
+        generation++;
+        index = null;
+        markerOptions = new ArrayList<>();
+        clusterOptions = null;
+        if (shownMarkers.isEmpty()) {
+            return;
+        }
+        annotationManager.removeAnnotations(getRemovableMarkers(new ArrayList<>(shownMarkers.values())));
+        shownMarkers.clear();
+    }
+
+    /**
+     * Returns the markers and clusters currently shown for the clustered markers.
+     *
+     * @return the shown markers
+     */
+    Collection<Marker> getShownMarkers() {
+        return shownMarkers.values();
+    }
+
+    /**
+     * Called when all annotations were removed from the map, forgets about the shown markers.
+     */
+    void onAnnotationsRemoved() {
+        shownMarkers.clear();
+    }
+
+    /**
+     * Shows the clusters of the visible region, to be called when the camera changed.
+     *
+     * @param mapboxMap the map to show clusters on
+     */
+    void update(@NonNull MapboxMap mapboxMap) {
+        if (index == null) {
+            return;
+        }
+
+        LatLngBounds bounds = mapboxMap.getProjection().getVisibleRegion().latLngBounds;
+        double latitudePadding = bounds.getLatitudeSpan() * REGION_PADDING;
+        double longitudePadding = bounds.getLongitudeSpan() * REGION_PADDING;
+        int[] nodes = index.getClusters(
+                bounds.getLatSouth() - latitudePadding, bounds.getLonWest() - longitudePadding,
+                bounds.getLatNorth() + latitudePadding, bounds.getLonEast() + longitudePadding,
+                mapboxMap.getCameraPosition().zoom);
+
+        Map<Integer, Marker> previousMarkers = new HashMap<>(shownMarkers);
+        List<BaseMarkerOptions> additions = new ArrayList<>();
+        List<Integer> addedNodes = new ArrayList<>();
+        for (int node : nodes) {
+            if (previousMarkers.remove(node) == null) {
+                additions.add(createMarkerOptions(node));
+                addedNodes.add(node);
+            }
+        }
+
+        if (additions.isEmpty() && previousMarkers.isEmpty()) {
+            return;
+        }
+
+        annotationManager.beginAnnotationUpdate();
+        try {
+            if (!previousMarkers.isEmpty()) {
+                annotationManager.removeAnnotations(getRemovableMarkers(new ArrayList<>(previousMarkers.values())));
+                for (Integer node : previousMarkers.keySet()) {
+                    shownMarkers.remove(node);
+                }
+            }
+            List<Marker> markers = annotationManager.addMarkers(additions, mapboxMap);
+            for (int i = 0; i < markers.size(); i++) {
+                shownMarkers.put(addedNodes.get(i), markers.get(i));
+            }
+        } finally {
+            annotationManager.commitAnnotationUpdate();
+        }
+    }
+
+    private BaseMarkerOptions createMarkerOptions(int node) {
+        if (!index.isCluster(node)) {
+            return markerOptions.get(node);
+        }
+        return new ClusterMarkerOptions()
+                .position(new LatLng(index.getLatitude(node), index.getLongitude(node)))
+                .icon(clusterOptions.getIcon())
+                .pointCount(index.getPointCount(node))
+                .expansionZoom(index.getExpansionZoom(node));
+    }
+
+    // markers removed from the map by the user are no longer part of the annotations, markers
+    // pending to be added in an outer annotation update don't have an id yet
+    private List<Marker> getRemovableMarkers(List<Marker> markers) {
+        List<Marker> removable = new ArrayList<>(markers.size());
+        for (Marker marker : markers) {
+            if (marker.getId() == -1 || annotationManager.getAnnotation(marker.getId()) == marker) {
+                removable.add(marker);
+            }
+        }
+        return removable;
+    }
+}
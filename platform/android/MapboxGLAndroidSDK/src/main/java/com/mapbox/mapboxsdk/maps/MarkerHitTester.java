@@ -0,0 +1,128 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerView;
+import com.mapbox.mapboxsdk.annotations.MarkerViewManager;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resolves a tap on the map to the markers that are drawn at the tapped location.
+ * <p>
+ * MarkerViews are tested against the bounds of their View, as they are drawn on top of the map.
+ * Markers rendered by the map are looked up in the {@link MarkerSpatialIndex} with an area around
+ * the tap grown by the largest icon registered, after which every candidate is tested against the
+ * bounds of its own icon. Icons of markers rendered by the map are centered on their position.
+ * </p>
+ * <p>
+ * The work done is proportional to the amount of markers near the tap, not the amount of markers
+ * added to the map.
+ * </p>
+ */
+final class MarkerHitTester {
+
+    private final AnnotationContainer annotations;
+    private final MarkerSpatialIndex markerIndex;
+    private final IconManager iconManager;
+    private final MarkerViewManager markerViewManager;
+
+    // buffers reused to project the candidates, grown as needed
+    private Marker[] candidates = new Marker[16];
+    private double[] candidateLatLngs = new double[32];
+    private float[] candidateScreenLocations = new float[32];
+
+    MarkerHitTester(@NonNull AnnotationContainer annotations, @NonNull MarkerSpatialIndex markerIndex,
+                    @NonNull IconManager iconManager, @NonNull MarkerViewManager markerViewManager) {
+        this.annotations = annotations;
+        this.markerIndex = markerIndex;
+        this.iconManager = iconManager;
+        this.markerViewManager = markerViewManager;
+    }
+
+    /**
+     * Returns the ids of the markers drawn at a location on screen.
+     * <p>
+     * MarkerViews come first, in the order their Views are drawn. Markers rendered by the map
+     * follow, the most recently added marker first.
+     * </p>
+     *
+     * @param projection the projection of the current camera
+     * @param x          the horizontal screen location in pixels
+     * @param y          the vertical screen location in pixels
+     * @param toleranceX the distance in pixels a marker may be missed by horizontally
+     * @param toleranceY the distance in pixels a marker may be missed by vertically
+     * @return the ids of the markers hit, the marker drawn on top first
+     */
+    long[] hitTest(@NonNull Projection projection, float x, float y, float toleranceX, float toleranceY) {
+        List<MarkerView> markerViews = markerViewManager.getMarkerViewsAt(x, y, toleranceX, toleranceY);
+        int markerViewCount = markerViews.size();
+
+        int candidateCount = queryCandidates(projection, x, y,
+                iconManager.getMaxIconWidth() / 2 + toleranceX, iconManager.getMaxIconHeight() / 2 + toleranceY);
+
+        long[] hits = new long[markerViewCount + candidateCount];
+        for (int i = 0; i < markerViewCount; i++) {
+            hits[i] = markerViews.get(i).getId();
+        }
+        int hitCount = markerViewCount;
+
+        if (candidateCount > 0) {
+            projection.toScreenLocations(candidateLatLngs, candidateScreenLocations, candidateCount);
+            // candidates are sorted on ascending id, the most recent marker is drawn on top
+            Marker marker;
+            for (int i = candidateCount - 1; i >= 0; i--) {
+                marker = candidates[i];
+                Icon icon = marker.getIcon();
+                if (Math.abs(x - candidateScreenLocations[i * 2]) <= iconManager.getIconWidth(icon) / 2 + toleranceX
+                        && Math.abs(y - candidateScreenLocations[i * 2 + 1]) <= iconManager.getIconHeight(icon) / 2 + toleranceY) {
+                    hits[hitCount++] = marker.getId();
+                }
+            }
+            Arrays.fill(candidates, 0, candidateCount, null);
+        }
+
+        return hitCount == hits.length ? hits : Arrays.copyOf(hits, hitCount);
+    }
+
+    // collects the markers rendered by the map that are positioned in a screen rectangle
+    private int queryCandidates(Projection projection, float x, float y, float extentX, float extentY) {
+        if (markerIndex.size() == 0 || iconManager.getMaxIconWidth() == 0 || iconManager.getMaxIconHeight() == 0) {
+            return 0;
+        }
+
+        long[] ids = markerIndex.query(projection, x - extentX, y - extentY, x + extentX, y + extentY);
+        ensureCandidateCapacity(ids.length);
+        int count = 0;
+        Annotation annotation;
+        for (long id : ids) {
+            annotation = annotations.get(id);
+            if (!(annotation instanceof Marker) || annotation instanceof MarkerView) {
+                continue;
+            }
+            Marker marker = (Marker) annotation;
+            LatLng position = marker.getPosition();
+            if (position == null || marker.getIcon() == null) {
+                continue;
+            }
+            candidates[count] = marker;
+            candidateLatLngs[count * 2] = position.getLatitude();
+            candidateLatLngs[count * 2 + 1] = position.getLongitude();
+            count++;
+        }
+        return count;
+    }
+
+    private void ensureCandidateCapacity(int count) {
+        if (candidates.length < count) {
+            candidates = new Marker[count];
+            candidateLatLngs = new double[count * 2];
+            candidateScreenLocations = new float[count * 2];
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.utils.MathUtils;
+import com.mapbox.mapboxsdk.utils.MercatorUtils;
+
+import java.util.Arrays;
+
+/**
+ * Spatial index of point annotations keyed on their projected coordinates.
+ * <p>
+ * Positions are stored as spherical mercator world coordinates in the range [0, 1) and bucketed
+ * in a fixed grid of {@link #GRID_SIZE} by {@link #GRID_SIZE} cells. Every cell holds an intrusive
+ * doubly linked list of entries, which makes insert, move and remove constant time operations.
+ * A query only visits the cells overlapping the requested area, or the occupied cells when that
+ * is cheaper, resulting in roughly O(cells + k) work instead of a scan over all annotations.
+ * </p>
+ */
+final class MarkerSpatialIndex {
+
+    static final int GRID_BITS = 10;
+    static final int GRID_SIZE = 1 << GRID_BITS;
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // entry storage, indexed by slot
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private double[] xs = new double[INITIAL_CAPACITY];
+    private double[] ys = new double[INITIAL_CAPACITY];
+    private int[] cellOfSlot = new int[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] prev = new int[INITIAL_CAPACITY];
+    private int slotCount;
+    private int freeSlot = NONE;
+    private int size;
+
+    private final LongIntHashMap slotById = new LongIntHashMap();
+
+    // open addressing table of occupied cells, mapping a cell key to the head slot of its list
+    private int[] cellKeys = newCellKeys(INITIAL_CAPACITY);
+    private int[] cellHeads = new int[INITIAL_CAPACITY];
+    private int cellCount;
+
+    // reusable query output
+    private long[] result = new long[INITIAL_CAPACITY];
+    private int resultCount;
+
+    // reusable buffers of screen rectangle queries
+    private final float[] corners = new float[8];
+    private final double[] cornerLatLngs = new double[8];
+    private final double[] quad = new double[8];
+
+    /**
+     * Adds a point to the index or moves it if the id is already indexed.
+     *
+     * @param id        the annotation id
+     * @param latitude  the latitude of the point
+     * @param longitude the longitude of the point
+     */
+    void put(long id, double latitude, double longitude) {
+        double x = MercatorUtils.projectX(longitude);
+        double y = MercatorUtils.projectY(latitude);
+        int cell = cellKey(x, y);
+
+        int slot = slotById.get(id);
+        if (slot != LongIntHashMap.NONE) {
+            xs[slot] = x;
+            ys[slot] = y;
+            if (cellOfSlot[slot] != cell) {
+                unlink(slot);
+                link(slot, cell);
+            }
+            return;
+        }
+
+        slot = obtainSlot();
+        ids[slot] = id;
+        xs[slot] = x;
+        ys[slot] = y;
+        link(slot, cell);
+        slotById.put(id, slot);
+        size++;
+    }
+
+    /**
+     * Removes a point from the index, does nothing if the id isn't indexed.
+     *
+     * @param id the annotation id
+     */
+    void remove(long id) {
+        int slot = slotById.remove(id);
+        if (slot == LongIntHashMap.NONE) {
+            return;
+        }
+        unlink(slot);
+        next[slot] = freeSlot;
+        freeSlot = slot;
+        size--;
+    }
+
+    void clear() {
+        slotById.clear();
+        Arrays.fill(cellKeys, NONE);
+        cellCount = 0;
+        slotCount = 0;
+        freeSlot = NONE;
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int cellCount() {
+        return cellCount;
+    }
+
+    boolean contains(long id) {
+        return slotById.containsKey(id);
+    }
+
+    /**
+     * Returns the ids of all points inside a convex quadrilateral, sorted ascending.
+     * <p>
+     * The quadrilateral is expressed as four world coordinates {x0, y0, x1, y1, x2, y2, x3, y3} in
+     * consecutive order, typically the corners of the viewport or a tap rectangle unprojected on the
+     * ground plane. Horizontal coordinates may be unwrapped, eg. exceed [0, 1) when the area crosses
+     * the antimeridian, in which case every world copy that is covered is queried.
+     * </p>
+     *
+     * @param quad the corners of the quadrilateral in world coordinates
+     * @return the sorted ids of the points contained by the quadrilateral
+     */
+    long[] query(double[] quad) {
+        double minX = Math.min(Math.min(quad[0], quad[2]), Math.min(quad[4], quad[6]));
+        double maxX = Math.max(Math.max(quad[0], quad[2]), Math.max(quad[4], quad[6]));
+        double minY = Math.min(Math.min(quad[1], quad[3]), Math.min(quad[5], quad[7]));
+        double maxY = Math.max(Math.max(quad[1], quad[3]), Math.max(quad[5], quad[7]));
+
+        resultCount = 0;
+        if (size == 0) {
+            return new long[0];
+        }
+
+        int firstWorld = (int) Math.floor(minX);
+        int lastWorld = (int) Math.floor(maxX);
+        for (int world = firstWorld; world <= lastWorld; world++) {
+            queryCells(quad, world, minX - world, minY, maxX - world, maxY);
+        }
+
+        long[] ids = Arrays.copyOf(result, resultCount);
+        Arrays.sort(ids);
+        if (lastWorld == firstWorld) {
+            return ids;
+        }
+        return unique(ids);
+    }
+
+    /**
+     * Returns the ids of all points inside a screen rectangle, sorted ascending.
+     * <p>
+     * The corners of the rectangle are unprojected onto the ground plane, which maps the rectangle
+     * to a convex quadrilateral for any bearing and tilt. Unprojected longitudes are wrapped, the
+     * corners are unwrapped relative to the first one so a rectangle crossing the antimeridian
+     * covers the visible area instead of the rest of the world.
+     * </p>
+     *
+     * @param projection the projection of the map
+     * @param left       the left edge of the rectangle in screen pixels
+     * @param top        the top edge of the rectangle in screen pixels
+     * @param right      the right edge of the rectangle in screen pixels
+     * @param bottom     the bottom edge of the rectangle in screen pixels
+     * @return the sorted ids of the points in the rectangle
+     */
+    long[] query(Projection projection, float left, float top, float right, float bottom) {
+        corners[0] = left;
+        corners[1] = top;
+        corners[2] = right;
+        corners[3] = top;
+        corners[4] = right;
+        corners[5] = bottom;
+        corners[6] = left;
+        corners[7] = bottom;
+        projection.fromScreenLocations(corners, cornerLatLngs, 4);
+
+        double firstLongitude = cornerLatLngs[1];
+        for (int i = 0; i < 4; i++) {
+            double latitude = cornerLatLngs[i * 2];
+            double longitude = cornerLatLngs[i * 2 + 1];
+            if (longitude - firstLongitude > 180) {
+                longitude -= 360;
+            } else if (longitude - firstLongitude < -180) {
+                longitude += 360;
+            }
+            quad[i * 2] = MercatorUtils.projectX(longitude);
+            quad[i * 2 + 1] = MercatorUtils.projectY(latitude);
+        }
+        return query(quad);
+    }
+
+    private void queryCells(double[] quad, int world, double minX, double minY, double maxX, double maxY) {
+        int minCellX = clampCell(minX);
+        int maxCellX = clampCell(maxX);
+        int minCellY = clampCell(minY);
+        int maxCellY = clampCell(maxY);
+
+        long cellsInRange = (long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+        if (cellsInRange > cellCount) {
+            // cheaper to walk the occupied cells than the requested range
+            for (int i = 0; i < cellKeys.length; i++) {
+                int key = cellKeys[i];
+                if (key == NONE) {
+                    continue;
+                }
+                int cellX = key & (GRID_SIZE - 1);
+                int cellY = key >>> GRID_BITS;
+                if (cellX >= minCellX && cellX <= maxCellX && cellY >= minCellY && cellY <= maxCellY) {
+                    collect(cellHeads[i], quad, world);
+                }
+            }
+        } else {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                    int index = findCell((cellY << GRID_BITS) | cellX);
+                    if (index != NONE) {
+                        collect(cellHeads[index], quad, world);
+                    }
+                }
+            }
+        }
+    }
+
+    private void collect(int slot, double[] quad, int world) {
+        while (slot != NONE) {
+            if (contains(quad, xs[slot] + world, ys[slot])) {
+                if (resultCount == result.length) {
+                    result = Arrays.copyOf(result, resultCount * 2);
+                }
+                result[resultCount++] = ids[slot];
+            }
+            slot = next[slot];
+        }
+    }
+
+    static boolean contains(double[] quad, double x, double y) {
+        boolean positive = false;
+        boolean negative = false;
+        for (int i = 0; i < 8; i += 2) {
+            double x0 = quad[i];
+            double y0 = quad[i + 1];
+            double x1 = quad[(i + 2) % 8];
+            double y1 = quad[(i + 3) % 8];
+            double cross = (x1 - x0) * (y - y0) - (y1 - y0) * (x - x0);
+            if (cross > 0) {
+                positive = true;
+            } else if (cross < 0) {
+                negative = true;
+            }
+            if (positive && negative) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //
+    // Slots
+    //
+
+    private int obtainSlot() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = next[slot];
+            return slot;
+        }
+        if (slotCount == ids.length) {
+            int capacity = slotCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            cellOfSlot = Arrays.copyOf(cellOfSlot, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        return slotCount++;
+    }
+
+    private void link(int slot, int cell) {
+        int index = findCell(cell);
+        if (index == NONE) {
+            index = insertCell(cell);
+        }
+        int head = cellHeads[index];
+        cellOfSlot[slot] = cell;
+        prev[slot] = NONE;
+        next[slot] = head;
+        if (head != NONE) {
+            prev[head] = slot;
+        }
+        cellHeads[index] = slot;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] != NONE) {
+            next[prev[slot]] = next[slot];
+        } else {
+            int index = findCell(cellOfSlot[slot]);
+            if (next[slot] == NONE) {
+                // last entry of the cell
+                removeCell(index);
+            } else {
+                cellHeads[index] = next[slot];
+            }
+        }
+        if (next[slot] != NONE) {
+            prev[next[slot]] = prev[slot];
+        }
+    }
+
+    //
+    // Cells
+    //
+
+    private static int cellKey(double x, double y) {
+        return (clampCell(y) << GRID_BITS) | clampCell(x);
+    }
+
+    private static int clampCell(double coordinate) {
+        return (int) MathUtils.clamp(Math.floor(coordinate * GRID_SIZE), 0, GRID_SIZE - 1);
+    }
+
+    private int findCell(int key) {
+        int mask = cellKeys.length - 1;
+        int index = mix(key) & mask;
+        while (cellKeys[index] != NONE) {
+            if (cellKeys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return NONE;
+    }
+
+    private int insertCell(int key) {
+        if ((cellCount + 1) * 2 > cellKeys.length) {
+            rehashCells(cellKeys.length * 2);
+        }
+        int mask = cellKeys.length - 1;
+        int index = mix(key) & mask;
+        while (cellKeys[index] != NONE) {
+            index = (index + 1) & mask;
+        }
+        cellKeys[index] = key;
+        cellHeads[index] = NONE;
+        cellCount++;
+        return index;
+    }
+
+    private void removeCell(int index) {
+        // backward shift deletion keeps the probe sequences of the following keys intact
+        int mask = cellKeys.length - 1;
+        int hole = index;
+        int i = (index + 1) & mask;
+        while (cellKeys[i] != NONE) {
+            int home = mix(cellKeys[i]) & mask;
+            boolean reachable = hole <= i ? home > hole && home <= i : home > hole || home <= i;
+            if (!reachable) {
+                cellKeys[hole] = cellKeys[i];
+                cellHeads[hole] = cellHeads[i];
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+        cellKeys[hole] = NONE;
+        cellCount--;
+    }
+
+    private void rehashCells(int capacity) {
+        int[] oldKeys = cellKeys;
+        int[] oldHeads = cellHeads;
+        cellKeys = newCellKeys(capacity);
+        cellHeads = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != NONE) {
+                int index = mix(oldKeys[i]) & mask;
+                while (cellKeys[index] != NONE) {
+                    index = (index + 1) & mask;
+                }
+                cellKeys[index] = oldKeys[i];
+                cellHeads[index] = oldHeads[i];
+            }
+        }
+    }
+
+    private static int[] newCellKeys(int capacity) {
+        int[] keys = new int[capacity];
+        Arrays.fill(keys, NONE);
+        return keys;
+    }
+
+    private static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long[] unique(long[] sorted) {
+        if (sorted.length < 2) {
+            return sorted;
+        }
+        int count = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[count - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+    }
+}
@@ -20,14 +20,15 @@ import com.mapbox.mapboxsdk.geometry.ProjectedMeters;
 import com.mapbox.mapboxsdk.offline.OfflineManager;
 import com.mapbox.mapboxsdk.style.layers.Layer;
 import com.mapbox.mapboxsdk.style.layers.NoSuchLayerException;
+import com.mapbox.mapboxsdk.style.layers.PropertyBatch;
 import com.mapbox.mapboxsdk.style.sources.NoSuchSourceException;
 import com.mapbox.mapboxsdk.style.sources.Source;
 import com.mapbox.services.commons.geojson.Feature;
 
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import timber.log.Timber;
@@ -50,6 +51,10 @@ final class NativeMapView {
     // Listeners for Map change events
     private CopyOnWriteArrayList<MapView.OnMapChangedListener> onMapChangedListeners;
 
+    // Java mirror of the native projection, refreshed lazily after the camera or size changed
+    private final ProjectionState projectionState = new ProjectionState();
+    private boolean projectionStateDirty = true;
+
     //
     // Static methods
     //
@@ -167,6 +172,7 @@ final class NativeMapView {
             height = 65535;
         }
         nativeViewResize(nativeMapViewPtr, width, height);
+        projectionStateDirty = true;
     }
 
     public void resizeFramebuffer(int fbWidth, int fbHeight) {
@@ -412,6 +418,10 @@ final class NativeMapView {
         nativeUpdatePolyline(nativeMapViewPtr, polyline.getId(), polyline);
     }
 
+    public void appendPolylinePoints(long polylineId, double[] coordinates) {
+        nativeAppendPolylinePoints(nativeMapViewPtr, polylineId, coordinates);
+    }
+
     public void removeAnnotation(long id) {
         long[] ids = {id};
         removeAnnotations(ids);
@@ -421,12 +431,49 @@ final class NativeMapView {
         nativeRemoveAnnotations(nativeMapViewPtr, ids);
     }
 
+    /**
+     * Applies a batch of annotation changes in a single call into core.
+     * <p>
+     * Markers are passed as packed arrays, a marker id of -1 adds the marker while any other id
+     * updates the existing marker. Positions are stored as latitude, longitude pairs and icons as
+     * indices into the icon id table.
+     * </p>
+     *
+     * @param removedIds      the ids of the annotations to remove
+     * @param markerIds       the ids of the markers to update, or -1 for markers to add
+     * @param markerPositions the latitude and longitude of every marker
+     * @param markerIcons     the index of the icon id of every marker
+     * @param iconIds         the icon ids referenced by the markers
+     * @param polylineIds     the ids of the polylines to update
+     * @param polylines       the polylines to update
+     * @param polygonIds      the ids of the polygons to update
+     * @param polygons        the polygons to update
+     * @return the ids of the markers, in order
+     */
+    public long[] updateAnnotations(long[] removedIds, long[] markerIds, double[] markerPositions, int[] markerIcons,
+                                    String[] iconIds, long[] polylineIds, Polyline[] polylines,
+                                    long[] polygonIds, Polygon[] polygons) {
+        return nativeUpdateAnnotations(nativeMapViewPtr, removedIds, markerIds, markerPositions, markerIcons, iconIds,
+                polylineIds, polylines, polygonIds, polygons);
+    }
+
     public long[] queryPointAnnotations(RectF rect) {
         return nativeQueryPointAnnotations(nativeMapViewPtr, rect);
     }
 
-    public void addAnnotationIcon(String symbol, int width, int height, float scale, byte[] pixels) {
-        nativeAddAnnotationIcon(nativeMapViewPtr, symbol, width, height, scale, pixels);
+    public void addAnnotationIcon(String symbol, Bitmap bitmap) {
+        // pixels are read from the bitmap natively, the config is the only thing to correct up front
+        Bitmap icon = toArgb8888(bitmap);
+        nativeAddAnnotationIcon(nativeMapViewPtr, symbol, getBitmapPixelRatio(icon), icon);
+    }
+
+    public void addAnnotationIcons(@NonNull Map<String, Bitmap> icons) {
+        BitmapBatch batch = new BitmapBatch(icons);
+        nativeAddAnnotationIcons(nativeMapViewPtr, batch.names, batch.pixelRatios, batch.bitmaps);
+    }
+
+    public void removeAnnotationIcon(String symbol) {
+        nativeRemoveAnnotationIcon(nativeMapViewPtr, symbol);
     }
 
     public void setVisibleCoordinateBounds(LatLng[] coordinates, RectF padding, double direction, long duration) {
@@ -479,6 +526,32 @@ final class NativeMapView {
         return nativeLatLngForPixel(nativeMapViewPtr, pixel.x / pixelRatio, pixel.y / pixelRatio);
     }
 
+    public void pixelsForLatLngs(double[] latLngs, float[] pixels, int count) {
+        nativePixelsForLatLngs(nativeMapViewPtr, latLngs, pixels, count, pixelRatio);
+    }
+
+    public void latLngsForPixels(float[] pixels, double[] latLngs, int count) {
+        nativeLatLngsForPixels(nativeMapViewPtr, pixels, latLngs, count, pixelRatio);
+    }
+
+    // Returns the Java mirror of the projection, or null when it can't be used. The camera can only
+    // change through the native map, which notifies every change synchronously through
+    // onMapChanged, the mirror is rebuilt at most once per change.
+    @Nullable
+    ProjectionState getProjectionState() {
+        if (projectionStateDirty) {
+            projectionStateDirty = false;
+            double[] values = nativeGetCameraValues(nativeMapViewPtr);
+            if (values == null || values.length < 9) {
+                projectionState.invalidate();
+            } else {
+                projectionState.update(values[5], values[6], values[2], values[3], values[4], values[7], values[8],
+                        pixelRatio);
+            }
+        }
+        return projectionState.isValid() ? projectionState : null;
+    }
+
     public double getTopOffsetPixelsForAnnotationSymbol(String symbolName) {
         return nativeGetTopOffsetPixelsForAnnotationSymbol(nativeMapViewPtr, symbolName);
     }
@@ -495,6 +568,8 @@ final class NativeMapView {
         nativeFlyTo(nativeMapViewPtr, angle, center.getLatitude(), center.getLongitude(), duration, pitch, zoom);
     }
 
+    // padded center latitude and longitude, bearing, tilt, zoom, followed by the center latitude
+    // and longitude and the width and height of the native map
     public double[] getCameraValues() {
         return nativeGetCameraValues(nativeMapViewPtr);
     }
@@ -509,6 +584,11 @@ final class NativeMapView {
         nativeAddLayer(nativeMapViewPtr, layer.getNativePtr(), before);
     }
 
+    public void setLayerProperties(@NonNull PropertyBatch batch) {
+        nativeSetLayerProperties(nativeMapViewPtr, batch.getLayerIds(), batch.getPropertyCounts(),
+                batch.getLayoutCounts(), batch.getNames(), batch.getValues());
+    }
+
     public void removeLayer(@NonNull String layerId) throws NoSuchLayerException {
         nativeRemoveLayerById(nativeMapViewPtr, layerId);
     }
@@ -517,6 +597,10 @@ final class NativeMapView {
         nativeRemoveLayer(nativeMapViewPtr, layer.getNativePtr());
     }
 
+    public void commitStyleTransaction(int[] kinds, long[] peers, String[] ids) throws StyleTransactionException {
+        nativeCommitStyleTransaction(nativeMapViewPtr, kinds, peers, ids);
+    }
+
     public Source getSource(@NonNull String sourceId) {
         return nativeGetSource(nativeMapViewPtr, sourceId);
     }
@@ -534,20 +618,28 @@ final class NativeMapView {
     }
 
     public void addImage(@NonNull String name, @NonNull Bitmap image) {
-        //Check/correct config
-        if (image.getConfig() != Bitmap.Config.ARGB_8888) {
-            image = image.copy(Bitmap.Config.ARGB_8888, false);
-        }
+        Bitmap bitmap = toArgb8888(image);
+        nativeAddImage(nativeMapViewPtr, name, getBitmapPixelRatio(bitmap), bitmap);
+    }
 
-        //Get pixels
-        ByteBuffer buffer = ByteBuffer.allocate(image.getByteCount());
-        image.copyPixelsToBuffer(buffer);
+    public void addImages(@NonNull Map<String, Bitmap> images) {
+        BitmapBatch batch = new BitmapBatch(images);
+        nativeAddImages(nativeMapViewPtr, batch.names, batch.pixelRatios, batch.bitmaps);
+    }
 
-        //Determine pixel ratio
-        float density = image.getDensity() == Bitmap.DENSITY_NONE ? Bitmap.DENSITY_NONE : image.getDensity();
-        float pixelRatio = density / DisplayMetrics.DENSITY_DEFAULT;
+    private static Bitmap toArgb8888(Bitmap bitmap) {
+        if (bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
+            return bitmap.copy(Bitmap.Config.ARGB_8888, false);
+        }
+        return bitmap;
+    }
 
-        nativeAddImage(nativeMapViewPtr, name, image.getWidth(), image.getHeight(), pixelRatio, buffer.array());
+    static float getBitmapPixelRatio(Bitmap bitmap) {
+        float density = bitmap.getDensity();
+        if (density == Bitmap.DENSITY_NONE) {
+            density = DisplayMetrics.DENSITY_DEFAULT;
+        }
+        return density / DisplayMetrics.DENSITY_DEFAULT;
     }
 
     public void removeImage(String name) {
@@ -599,6 +691,10 @@ final class NativeMapView {
     }
 
     protected void onMapChanged(int rawChange) {
+        // region changes are the first map change events
+        if (rawChange <= MapView.REGION_DID_CHANGE_ANIMATED) {
+            projectionStateDirty = true;
+        }
         mapView.onMapChanged(rawChange);
     }
 
@@ -728,10 +824,19 @@ final class NativeMapView {
 
     private native void nativeRemoveAnnotations(long nativeMapViewPtr, long[] id);
 
+    private native long[] nativeUpdateAnnotations(long nativeMapViewPtr, long[] removedIds, long[] markerIds,
+                                                  double[] markerPositions, int[] markerIcons, String[] iconIds,
+                                                  long[] polylineIds, Polyline[] polylines,
+                                                  long[] polygonIds, Polygon[] polygons);
+
     private native long[] nativeQueryPointAnnotations(long nativeMapViewPtr, RectF rect);
 
-    private native void nativeAddAnnotationIcon(long nativeMapViewPtr, String symbol,
-                                                int width, int height, float scale, byte[] pixels);
+    private native void nativeAddAnnotationIcon(long nativeMapViewPtr, String symbol, float scale, Bitmap bitmap);
+
+    private native void nativeAddAnnotationIcons(long nativeMapViewPtr, String[] symbols, float[] pixelRatios,
+                                                 Bitmap[] bitmaps);
+
+    private native void nativeRemoveAnnotationIcon(long nativeMapViewPtr, String symbol);
 
     private native void nativeSetVisibleCoordinateBounds(long nativeMapViewPtr, LatLng[] coordinates,
                                                          RectF padding, double direction, long duration);
@@ -758,6 +863,10 @@ final class NativeMapView {
 
     private native LatLng nativeLatLngForPixel(long nativeMapViewPtr, float x, float y);
 
+    private native void nativePixelsForLatLngs(long nativeMapViewPtr, double[] latLngs, float[] pixels, int count, float pixelRatio);
+
+    private native void nativeLatLngsForPixels(long nativeMapViewPtr, float[] pixels, double[] latLngs, int count, float pixelRatio);
+
     private native double nativeGetTopOffsetPixelsForAnnotationSymbol(long nativeMapViewPtr, String symbolName);
 
     private native void nativeJumpTo(long nativeMapViewPtr, double angle, double latitude, double longitude, double pitch, double zoom);
@@ -772,10 +881,16 @@ final class NativeMapView {
 
     private native void nativeAddLayer(long nativeMapViewPtr, long layerPtr, String before);
 
+    private native void nativeSetLayerProperties(long nativeMapViewPtr, String[] layerIds, int[] propertyCounts,
+                                                 int[] layoutCounts, String[] names, Object[] values);
+
     private native void nativeRemoveLayerById(long nativeMapViewPtr, String layerId) throws NoSuchLayerException;
 
     private native void nativeRemoveLayer(long nativeMapViewPtr, long layerId) throws NoSuchLayerException;
 
+    private native void nativeCommitStyleTransaction(long nativeMapViewPtr, int[] kinds, long[] peers, String[] ids)
+            throws StyleTransactionException;
+
     private native Source nativeGetSource(long nativeMapViewPtr, String sourceId);
 
     private native void nativeAddSource(long nativeMapViewPtr, long nativeSourcePtr);
@@ -784,7 +899,9 @@ final class NativeMapView {
 
     private native void nativeRemoveSource(long nativeMapViewPtr, long sourcePtr) throws NoSuchSourceException;
 
-    private native void nativeAddImage(long nativeMapViewPtr, String name, int width, int height, float pixelRatio, byte[] array);
+    private native void nativeAddImage(long nativeMapViewPtr, String name, float pixelRatio, Bitmap bitmap);
+
+    private native void nativeAddImages(long nativeMapViewPtr, String[] names, float[] pixelRatios, Bitmap[] bitmaps);
 
     private native void nativeRemoveImage(long nativeMapViewPtr, String name);
 
@@ -792,6 +909,8 @@ final class NativeMapView {
 
     private native void nativeUpdatePolyline(long nativeMapviewPtr, long polylineId, Polyline polyline);
 
+    private native void nativeAppendPolylinePoints(long nativeMapViewPtr, long polylineId, double[] coordinates);
+
     private native void nativeScheduleTakeSnapshot(long nativeMapViewPtr);
 
     private native Feature[] nativeQueryRenderedFeaturesForPoint(long nativeMapViewPtr, float x, float y, String[] layerIds);
@@ -827,4 +946,30 @@ final class NativeMapView {
             }
         }
     }
+
+    /**
+     * Named bitmaps converted to ARGB_8888, with their pixel ratios, as the parallel arrays taken by
+     * the native batch calls.
+     */
+    private static final class BitmapBatch {
+
+        final String[] names;
+        final float[] pixelRatios;
+        final Bitmap[] bitmaps;
+
+        BitmapBatch(Map<String, Bitmap> images) {
+            int count = images.size();
+            names = new String[count];
+            pixelRatios = new float[count];
+            bitmaps = new Bitmap[count];
+            int index = 0;
+            for (Map.Entry<String, Bitmap> image : images.entrySet()) {
+                Bitmap bitmap = toArgb8888(image.getValue());
+                names[index] = image.getKey();
+                pixelRatios[index] = getBitmapPixelRatio(bitmap);
+                bitmaps[index] = bitmap;
+                index++;
+            }
+        }
+    }
 }
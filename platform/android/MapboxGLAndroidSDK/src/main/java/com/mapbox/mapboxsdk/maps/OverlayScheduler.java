@@ -0,0 +1,148 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.os.Build;
+import android.os.Handler;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the updates of the Views overlain on the map once per frame.
+ * <p>
+ * Several map changes can be notified within a single frame, for example while flinging. Instead of
+ * updating the overlain Views for every change, changes are coalesced and the overlays are updated
+ * once in the next Choreographer frame. Invalidating the MarkerViews in the viewport is bounded by a
+ * per frame time budget, remaining MarkerViews are introduced in the following frames.
+ * </p>
+ */
+class OverlayScheduler {
+
+    // time in a frame that overlay updates may take before work is postponed to the next frame
+    static final long FRAME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(4);
+
+    // frame interval used when Choreographer isn't available
+    private static final long FALLBACK_FRAME_DELAY_MILLIS = 16;
+
+    private final OverlayUpdater overlayUpdater;
+    private Handler handler;
+    private Runnable fallbackFrameCallback;
+    private Choreographer.FrameCallback frameCallback;
+
+    private boolean frameScheduled;
+    private boolean updatePending;
+    private boolean invalidationPending;
+    private boolean cancelled;
+
+    OverlayScheduler(@NonNull OverlayUpdater overlayUpdater) {
+        this.overlayUpdater = overlayUpdater;
+    }
+
+    /**
+     * Schedules updating the position of the overlays in the next frame.
+     */
+    void scheduleUpdate() {
+        updatePending = true;
+        scheduleFrame();
+    }
+
+    /**
+     * Schedules updating the position of the overlays and invalidating the MarkerViews in the
+     * viewport in the next frame.
+     */
+    void scheduleInvalidation() {
+        updatePending = true;
+        invalidationPending = true;
+        scheduleFrame();
+    }
+
+    /**
+     * Stops running overlay updates, pending updates are discarded.
+     */
+    void cancel() {
+        cancelled = true;
+        updatePending = false;
+        invalidationPending = false;
+    }
+
+    boolean isFrameScheduled() {
+        return frameScheduled;
+    }
+
+    /**
+     * Runs the pending overlay updates for a frame.
+     *
+     * @param frameStartNanos the start of the frame in {@link System#nanoTime()} base
+     */
+    void doFrame(long frameStartNanos) {
+        frameScheduled = false;
+        if (cancelled) {
+            return;
+        }
+
+        if (updatePending) {
+            updatePending = false;
+            overlayUpdater.updateOverlays();
+        }
+
+        if (invalidationPending) {
+            invalidationPending = false;
+            if (!overlayUpdater.invalidateMarkerViews(frameStartNanos + FRAME_BUDGET_NANOS)) {
+                // introduce the remaining MarkerViews in the next frame
+                invalidationPending = true;
+                scheduleFrame();
+            }
+        }
+    }
+
+    private void scheduleFrame() {
+        if (frameScheduled || cancelled) {
+            return;
+        }
+        frameScheduled = true;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (frameCallback == null) {
+                frameCallback = new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        // the frame time is the vsync time, the budget starts when overlays are updated
+                        OverlayScheduler.this.doFrame(System.nanoTime());
+                    }
+                };
+            }
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        } else {
+            if (handler == null) {
+                handler = new Handler();
+                fallbackFrameCallback = new Runnable() {
+                    @Override
+                    public void run() {
+                        doFrame(System.nanoTime());
+                    }
+                };
+            }
+            handler.postDelayed(fallbackFrameCallback, FALLBACK_FRAME_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Performs the overlay updates scheduled by {@link OverlayScheduler}.
+     */
+    interface OverlayUpdater {
+
+        /**
+         * Updates the position of the overlain Views to the current camera.
+         */
+        void updateOverlays();
+
+        /**
+         * Invalidates the MarkerViews in the viewport.
+         *
+         * @param deadlineNanos the time in {@link System#nanoTime()} base after which no more
+         *                      MarkerViews should be introduced
+         * @return true if all MarkerViews were invalidated, false if work remains
+         */
+        boolean invalidateMarkerViews(long deadlineNanos);
+    }
+}
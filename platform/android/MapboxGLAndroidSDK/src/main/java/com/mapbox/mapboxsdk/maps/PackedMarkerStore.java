@@ -0,0 +1,170 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the markers added with {@link MapboxMap#addMarkers(double[], int[], Icon[])} for which no
+ * {@link Marker} object was created yet.
+ * <p>
+ * Markers are stored as packed arrays of ids, coordinates and icons. The Marker object of a marker
+ * is only created when it's requested from the {@link AnnotationContainer}, for example when the
+ * marker is tapped or the app looks it up by id, after which the marker is removed from this store.
+ * Removal moves the last marker into the gap, keeping the arrays dense.
+ * </p>
+ */
+final class PackedMarkerStore implements AnnotationContainer.LazyMarkers {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final IconManager iconManager;
+    private final LongIntHashMap indices = new LongIntHashMap();
+    private MapboxMap mapboxMap;
+
+    private long[] ids = new long[0];
+    // latitude, longitude pairs
+    private double[] coordinates = new double[0];
+    private Icon[] icons = new Icon[0];
+    private int size;
+
+    PackedMarkerStore(@NonNull IconManager iconManager) {
+        this.iconManager = iconManager;
+    }
+
+    /**
+     * Adds markers of which the Marker objects are created on request.
+     *
+     * @param ids         the ids assigned to the markers
+     * @param coordinates the latitude, longitude pairs of the markers
+     * @param iconIndices the index of the icon of every marker in the icon table
+     * @param iconTable   the icons used by the markers
+     * @param mapboxMap   the map the markers were added to
+     */
+    void add(@NonNull long[] ids, @NonNull double[] coordinates, @NonNull int[] iconIndices,
+             @NonNull Icon[] iconTable, MapboxMap mapboxMap) {
+        this.mapboxMap = mapboxMap;
+        ensureCapacity(size + ids.length);
+        System.arraycopy(ids, 0, this.ids, size, ids.length);
+        System.arraycopy(coordinates, 0, this.coordinates, size * 2, ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            icons[size + i] = iconTable[iconIndices[i]];
+            indices.put(ids[i], size + i);
+        }
+        size += ids.length;
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return indices.containsKey(id);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long[] getIds() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Returns the id of the marker at an index, indices range from 0 to {@link #size()} and change
+     * when markers are removed.
+     *
+     * @param index the index of the marker
+     * @return the id
+     */
+    long getId(int index) {
+        return ids[index];
+    }
+
+    double getLatitude(int index) {
+        return coordinates[index * 2];
+    }
+
+    double getLongitude(int index) {
+        return coordinates[index * 2 + 1];
+    }
+
+    Icon getIcon(int index) {
+        return icons[index];
+    }
+
+    @Override
+    public Marker createMarker(long id) {
+        int index = indices.get(id);
+        if (index == LongIntHashMap.NONE) {
+            return null;
+        }
+        Icon icon = icons[index];
+        Marker marker = new MarkerOptions()
+                .position(new LatLng(coordinates[index * 2], coordinates[index * 2 + 1]))
+                .icon(icon)
+                .getMarker();
+        marker.setId(id);
+        marker.setMapboxMap(mapboxMap);
+        // the reference on the icon moves over to the Marker object
+        iconManager.adoptIcon(marker);
+        marker.setTopOffsetPixels(iconManager.getTopOffsetPixelsForIcon(icon));
+        removeAt(index);
+        return marker;
+    }
+
+    /**
+     * Removes a marker, releasing its reference on its icon.
+     *
+     * @param id the id of the marker
+     * @return true if the marker was found
+     */
+    boolean remove(long id) {
+        int index = indices.get(id);
+        if (index == LongIntHashMap.NONE) {
+            return false;
+        }
+        iconManager.releaseIcon(icons[index]);
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Removes all markers, releasing their references on their icons.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            iconManager.releaseIcon(icons[i]);
+        }
+        Arrays.fill(icons, 0, size, null);
+        indices.clear();
+        size = 0;
+    }
+
+    private void removeAt(int index) {
+        indices.remove(ids[index]);
+        int last = size - 1;
+        if (index != last) {
+            ids[index] = ids[last];
+            coordinates[index * 2] = coordinates[last * 2];
+            coordinates[index * 2 + 1] = coordinates[last * 2 + 1];
+            icons[index] = icons[last];
+            indices.put(ids[index], index);
+        }
+        icons[last] = null;
+        size = last;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            capacity = Math.max(Math.max(capacity, ids.length * 2), INITIAL_CAPACITY);
+            ids = Arrays.copyOf(ids, capacity);
+            coordinates = Arrays.copyOf(coordinates, capacity * 2);
+            icons = Arrays.copyOf(icons, capacity);
+        }
+    }
+}
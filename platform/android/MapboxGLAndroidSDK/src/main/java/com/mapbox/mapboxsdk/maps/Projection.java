@@ -13,6 +13,9 @@ import com.mapbox.mapboxsdk.maps.widgets.MyLocationViewSettings;
  * A projection is used to translate between on screen location and geographic coordinates on
  * the surface of the Earth. Screen location is in screen pixels (not display pixels)
  * with respect to the top left corner of the map (and not necessarily of the whole screen).
+ * <p>
+ * Conversions are computed in Java from the current camera, without calling into the native map.
+ * </p>
  */
 public class Projection {
 
@@ -64,11 +67,22 @@ public class Projection {
      * The screen location is specified in screen pixels (not display pixels) relative to the
      * top left of the map (not the top left of the whole screen).
      *
+     * <p>
+     * A location is returned for every screen location. The line through the screen location is
+     * intersected with the ground plane, the latitude of the intersection is limited to the range
+     * of the Mercator projection and the longitude is wrapped to -180 to 180 degrees. For screen
+     * locations above the horizon of a tilted map the intersection lies behind the camera, the
+     * returned location is then not visible on the map.
+     * </p>
+     *
      * @param point A Point on the screen in screen pixels.
-     * @return The LatLng corresponding to the point on the screen, or null if the ray through
-     * the given screen point does not intersect the ground plane.
+     * @return The LatLng corresponding to the point on the screen, never null.
      */
     public LatLng fromScreenLocation(PointF point) {
+        ProjectionState projectionState = nativeMapView.getProjectionState();
+        if (projectionState != null) {
+            return projectionState.fromScreenLocation(point);
+        }
         return nativeMapView.latLngForPixel(point);
     }
 
@@ -108,9 +122,80 @@ public class Projection {
      * @return A Point representing the screen location in screen pixels.
      */
     public PointF toScreenLocation(LatLng location) {
+        ProjectionState projectionState = nativeMapView.getProjectionState();
+        if (projectionState != null) {
+            return projectionState.toScreenLocation(location);
+        }
         return nativeMapView.pixelForLatLng(location);
     }
 
+    /**
+     * Converts geographical coordinates to screen locations in a single call, writing the results
+     * into a caller supplied buffer. Prefer this over {@link #toScreenLocation(LatLng)} when
+     * converting many coordinates, for example every frame, as it doesn't allocate objects.
+     *
+     * @param latLngPairs Latitude, longitude pairs to convert.
+     * @param outXY       Receives the x, y screen location pairs in screen pixels, must be at least
+     *                    as long as latLngPairs.
+     */
+    public void toScreenLocations(double[] latLngPairs, float[] outXY) {
+        toScreenLocations(latLngPairs, outXY, latLngPairs.length / 2);
+    }
+
+    /**
+     * Converts the first count geographical coordinates to screen locations in a single call,
+     * allowing buffers larger than the amount of coordinates to be reused.
+     *
+     * @param latLngPairs Latitude, longitude pairs to convert.
+     * @param outXY       Receives the x, y screen location pairs in screen pixels.
+     * @param count       The amount of pairs to convert.
+     */
+    public void toScreenLocations(double[] latLngPairs, float[] outXY, int count) {
+        checkBuffers(count, latLngPairs.length, outXY.length);
+        ProjectionState projectionState = nativeMapView.getProjectionState();
+        if (projectionState != null) {
+            projectionState.toScreenLocations(latLngPairs, outXY, count);
+        } else {
+            nativeMapView.pixelsForLatLngs(latLngPairs, outXY, count);
+        }
+    }
+
+    /**
+     * Converts screen locations to geographical coordinates in a single call, writing the results
+     * into a caller supplied buffer.
+     *
+     * @param xyPairs        X, y screen location pairs in screen pixels to convert.
+     * @param outLatLngPairs Receives the latitude, longitude pairs, must be at least as long as
+     *                       xyPairs.
+     */
+    public void fromScreenLocations(float[] xyPairs, double[] outLatLngPairs) {
+        fromScreenLocations(xyPairs, outLatLngPairs, xyPairs.length / 2);
+    }
+
+    /**
+     * Converts the first count screen locations to geographical coordinates in a single call,
+     * allowing buffers larger than the amount of screen locations to be reused.
+     *
+     * @param xyPairs        X, y screen location pairs in screen pixels to convert.
+     * @param outLatLngPairs Receives the latitude, longitude pairs.
+     * @param count          The amount of pairs to convert.
+     */
+    public void fromScreenLocations(float[] xyPairs, double[] outLatLngPairs, int count) {
+        checkBuffers(count, xyPairs.length, outLatLngPairs.length);
+        ProjectionState projectionState = nativeMapView.getProjectionState();
+        if (projectionState != null) {
+            projectionState.fromScreenLocations(xyPairs, outLatLngPairs, count);
+        } else {
+            nativeMapView.latLngsForPixels(xyPairs, outLatLngPairs, count);
+        }
+    }
+
+    private static void checkBuffers(int count, int inputLength, int outputLength) {
+        if (count < 0 || count * 2 > inputLength || count * 2 > outputLength) {
+            throw new IllegalArgumentException("Buffers must hold " + count + " pairs");
+        }
+    }
+
     float getHeight() {
         return nativeMapView.getHeight();
     }
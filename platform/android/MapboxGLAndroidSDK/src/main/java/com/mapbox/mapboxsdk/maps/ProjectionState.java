@@ -0,0 +1,334 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.PointF;
+
+import com.mapbox.mapboxsdk.constants.GeoConstants;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.utils.MathUtils;
+
+/**
+ * Java mirror of the projection of the native transform state.
+ * <p>
+ * Converting between geographical coordinates and screen locations only depends on the center,
+ * zoom level, bearing, tilt and size of the map. This class rebuilds the coordinate point matrix
+ * of the native TransformState from those values, so conversions run without crossing JNI and
+ * without allocating. The math, including the wrapping of longitudes around the antimeridian,
+ * follows the native implementation so results match within floating point precision.
+ * </p>
+ * <p>
+ * Screen locations are in screen pixels, the camera values are in the units of the native map.
+ * </p>
+ */
+final class ProjectionState {
+
+    // distance of the camera to the map plane, in screen heights
+    private static final double ALTITUDE = 1.5;
+    private static final double TILE_SIZE = 512;
+    private static final double DEGREES_MAX = 360;
+    private static final double LONGITUDE_MAX = 180;
+
+    // column major 4x4 matrices, as used by the native map
+    private final double[] matrix = new double[16];
+    private final double[] inverted = new double[16];
+    private final double[] scratch = new double[16];
+    private final double[] vector = new double[4];
+
+    private double worldSize;
+    private double centerLongitude;
+    private float pixelRatio = 1;
+    private boolean valid;
+
+    /**
+     * Rebuilds the projection from the state of the native map.
+     *
+     * @param latitude   latitude of the center of the map, not adjusted for content padding
+     * @param longitude  unwrapped longitude of the center of the map
+     * @param angle      rotation of the map in degrees, the inverse of the bearing
+     * @param pitch      tilt of the map in degrees
+     * @param zoom       zoom level of the map
+     * @param width      width of the native map, in density independent pixels
+     * @param height     height of the native map, in density independent pixels
+     * @param pixelRatio the ratio between screen pixels and density independent pixels
+     * @return true if conversions are possible, false for an empty or non invertible map
+     */
+    boolean update(double latitude, double longitude, double angle, double pitch, double zoom,
+                   double width, double height, float pixelRatio) {
+        valid = false;
+        if (width <= 0 || height <= 0 || pixelRatio <= 0) {
+            return false;
+        }
+
+        this.worldSize = TILE_SIZE * Math.pow(2, zoom);
+        this.centerLongitude = longitude;
+        this.pixelRatio = pixelRatio;
+
+        // see TransformState::getProjMatrix
+        double pitchRadians = Math.toRadians(pitch);
+        double halfFov = Math.atan(0.5 / ALTITUDE);
+        double topHalfSurfaceDistance = Math.sin(halfFov) * ALTITUDE / Math.sin(Math.PI / 2 - pitchRadians - halfFov);
+        double farZ = Math.cos(Math.PI / 2 - pitchRadians) * topHalfSurfaceDistance + ALTITUDE;
+
+        perspective(matrix, 2 * Math.atan((height / 2) / ALTITUDE), width / height, 0.1, farZ);
+        translate(matrix, 0, 0, -ALTITUDE);
+        scale(matrix, 1, -1, 1 / height);
+        rotateX(matrix, pitchRadians);
+        rotateZ(matrix, Math.toRadians(angle));
+        translate(matrix, -projectX(longitude), -projectY(latitude), 0);
+
+        // see TransformState::coordinatePointMatrix
+        scale(matrix, TILE_SIZE, TILE_SIZE, 1);
+        identity(scratch);
+        scale(scratch, width / 2, -height / 2, 1);
+        translate(scratch, 1, -1, 0);
+        multiply(matrix, scratch, matrix);
+
+        valid = invert(inverted, matrix);
+        return valid;
+    }
+
+    /**
+     * Returns if the last update resulted in a usable projection.
+     *
+     * @return true if conversions are possible
+     */
+    boolean isValid() {
+        return valid;
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Converts a geographical coordinate to a screen location.
+     *
+     * @param latLng the coordinate to convert
+     * @return the screen location in screen pixels
+     */
+    PointF toScreenLocation(LatLng latLng) {
+        toScreenLocation(latLng.getLatitude(), latLng.getLongitude());
+        return new PointF((float) vector[0], (float) vector[1]);
+    }
+
+    /**
+     * Converts a screen location to a geographical coordinate.
+     *
+     * @param point the screen location in screen pixels
+     * @return the coordinate, with a wrapped longitude
+     */
+    LatLng fromScreenLocation(PointF point) {
+        fromScreenLocation(point.x, point.y);
+        return new LatLng(vector[0], vector[1]);
+    }
+
+    /**
+     * Converts latitude, longitude pairs to x, y screen location pairs.
+     *
+     * @param latLngs latitude, longitude pairs
+     * @param pixels  receives the x, y pairs in screen pixels
+     * @param count   the amount of pairs to convert
+     */
+    void toScreenLocations(double[] latLngs, float[] pixels, int count) {
+        for (int i = 0; i < count; i++) {
+            toScreenLocation(latLngs[i * 2], latLngs[i * 2 + 1]);
+            pixels[i * 2] = (float) vector[0];
+            pixels[i * 2 + 1] = (float) vector[1];
+        }
+    }
+
+    /**
+     * Converts x, y screen location pairs to latitude, longitude pairs.
+     *
+     * @param pixels  x, y pairs in screen pixels
+     * @param latLngs receives the latitude, longitude pairs, longitudes are wrapped
+     * @param count   the amount of pairs to convert
+     */
+    void fromScreenLocations(float[] pixels, double[] latLngs, int count) {
+        for (int i = 0; i < count; i++) {
+            fromScreenLocation(pixels[i * 2], pixels[i * 2 + 1]);
+            latLngs[i * 2] = vector[0];
+            latLngs[i * 2 + 1] = vector[1];
+        }
+    }
+
+    // writes the screen location in screen pixels to vector[0] and vector[1]
+    private void toScreenLocation(double latitude, double longitude) {
+        // see Transform::latLngToScreenCoordinate, points are projected on the side of the
+        // antimeridian closest to the center
+        longitude = MathUtils.wrap(longitude, GeoConstants.MIN_LONGITUDE, GeoConstants.MAX_LONGITUDE);
+        double delta = Math.abs(centerLongitude - longitude);
+        if (delta >= LONGITUDE_MAX && delta <= DEGREES_MAX) {
+            if (longitude > 0 && centerLongitude < 0) {
+                longitude -= DEGREES_MAX;
+            } else if (longitude < 0 && centerLongitude > 0) {
+                longitude += DEGREES_MAX;
+            }
+        }
+
+        transform(matrix, projectX(longitude) / TILE_SIZE, projectY(latitude) / TILE_SIZE, 0);
+        vector[0] = vector[0] / vector[3] * pixelRatio;
+        vector[1] = vector[1] / vector[3] * pixelRatio;
+    }
+
+    // writes the wrapped latitude and longitude to vector[0] and vector[1]
+    private void fromScreenLocation(float x, float y) {
+        // see TransformState::screenCoordinateToLatLng, unprojects the points on the near and far
+        // plane and interpolates the point on the map plane
+        double pointX = x / pixelRatio;
+        double pointY = y / pixelRatio;
+
+        transform(inverted, pointX, pointY, 1);
+        double x1 = vector[0] / vector[3];
+        double y1 = vector[1] / vector[3];
+        double z1 = vector[2] / vector[3];
+
+        transform(inverted, pointX, pointY, 0);
+        double x0 = vector[0] / vector[3];
+        double y0 = vector[1] / vector[3];
+        double z0 = vector[2] / vector[3];
+
+        double t = z0 == z1 ? 0 : -z0 / (z1 - z0);
+        double projectedX = (x0 + (x1 - x0) * t) * TILE_SIZE * DEGREES_MAX / worldSize;
+        double projectedY = (y0 + (y1 - y0) * t) * TILE_SIZE * DEGREES_MAX / worldSize;
+
+        vector[0] = DEGREES_MAX / Math.PI * Math.atan(Math.exp(Math.toRadians(LONGITUDE_MAX - projectedY))) - 90;
+        vector[1] = MathUtils.wrap(projectedX - LONGITUDE_MAX, GeoConstants.MIN_LONGITUDE,
+                GeoConstants.MAX_LONGITUDE);
+    }
+
+    //
+    // Spherical mercator, in world pixels
+    //
+
+    private double projectX(double longitude) {
+        return (LONGITUDE_MAX + longitude) * worldSize / DEGREES_MAX;
+    }
+
+    private double projectY(double latitude) {
+        return (LONGITUDE_MAX - Math.toDegrees(Math.log(Math.tan(Math.PI / 4 + latitude * Math.PI / DEGREES_MAX))))
+                * worldSize / DEGREES_MAX;
+    }
+
+    //
+    // Matrix operations, see mbgl/util/mat4.cpp
+    //
+
+    private void transform(double[] m, double x, double y, double z) {
+        vector[0] = m[0] * x + m[4] * y + m[8] * z + m[12];
+        vector[1] = m[1] * x + m[5] * y + m[9] * z + m[13];
+        vector[2] = m[2] * x + m[6] * y + m[10] * z + m[14];
+        vector[3] = m[3] * x + m[7] * y + m[11] * z + m[15];
+    }
+
+    private static void identity(double[] out) {
+        for (int i = 0; i < 16; i++) {
+            out[i] = i % 5 == 0 ? 1 : 0;
+        }
+    }
+
+    private static void perspective(double[] out, double fovy, double aspect, double near, double far) {
+        double f = 1 / Math.tan(fovy / 2);
+        double nf = 1 / (near - far);
+        for (int i = 0; i < 16; i++) {
+            out[i] = 0;
+        }
+        out[0] = f / aspect;
+        out[5] = f;
+        out[10] = (far + near) * nf;
+        out[11] = -1;
+        out[14] = 2 * far * near * nf;
+    }
+
+    private static void translate(double[] out, double x, double y, double z) {
+        for (int i = 0; i < 4; i++) {
+            out[12 + i] += out[i] * x + out[4 + i] * y + out[8 + i] * z;
+        }
+    }
+
+    private static void scale(double[] out, double x, double y, double z) {
+        for (int i = 0; i < 4; i++) {
+            out[i] *= x;
+            out[4 + i] *= y;
+            out[8 + i] *= z;
+        }
+    }
+
+    private static void rotateX(double[] out, double radians) {
+        double s = Math.sin(radians);
+        double c = Math.cos(radians);
+        for (int i = 0; i < 4; i++) {
+            double a1 = out[4 + i];
+            double a2 = out[8 + i];
+            out[4 + i] = a1 * c + a2 * s;
+            out[8 + i] = a2 * c - a1 * s;
+        }
+    }
+
+    private static void rotateZ(double[] out, double radians) {
+        double s = Math.sin(radians);
+        double c = Math.cos(radians);
+        for (int i = 0; i < 4; i++) {
+            double a0 = out[i];
+            double a1 = out[4 + i];
+            out[i] = a0 * c + a1 * s;
+            out[4 + i] = a1 * c - a0 * s;
+        }
+    }
+
+    // out = a * b, out may be b
+    private static void multiply(double[] out, double[] a, double[] b) {
+        for (int column = 0; column < 4; column++) {
+            double b0 = b[column * 4];
+            double b1 = b[column * 4 + 1];
+            double b2 = b[column * 4 + 2];
+            double b3 = b[column * 4 + 3];
+            for (int row = 0; row < 4; row++) {
+                out[column * 4 + row] = b0 * a[row] + b1 * a[4 + row] + b2 * a[8 + row] + b3 * a[12 + row];
+            }
+        }
+    }
+
+    private static boolean invert(double[] out, double[] a) {
+        double a00 = a[0], a01 = a[1], a02 = a[2], a03 = a[3];
+        double a10 = a[4], a11 = a[5], a12 = a[6], a13 = a[7];
+        double a20 = a[8], a21 = a[9], a22 = a[10], a23 = a[11];
+        double a30 = a[12], a31 = a[13], a32 = a[14], a33 = a[15];
+
+        double b00 = a00 * a11 - a01 * a10;
+        double b01 = a00 * a12 - a02 * a10;
+        double b02 = a00 * a13 - a03 * a10;
+        double b03 = a01 * a12 - a02 * a11;
+        double b04 = a01 * a13 - a03 * a11;
+        double b05 = a02 * a13 - a03 * a12;
+        double b06 = a20 * a31 - a21 * a30;
+        double b07 = a20 * a32 - a22 * a30;
+        double b08 = a20 * a33 - a23 * a30;
+        double b09 = a21 * a32 - a22 * a31;
+        double b10 = a21 * a33 - a23 * a31;
+        double b11 = a22 * a33 - a23 * a32;
+
+        double det = b00 * b11 - b01 * b10 + b02 * b09 + b03 * b08 - b04 * b07 + b05 * b06;
+        if (det == 0 || Double.isNaN(det)) {
+            return false;
+        }
+        det = 1 / det;
+
+        out[0] = (a11 * b11 - a12 * b10 + a13 * b09) * det;
+        out[1] = (a02 * b10 - a01 * b11 - a03 * b09) * det;
+        out[2] = (a31 * b05 - a32 * b04 + a33 * b03) * det;
+        out[3] = (a22 * b04 - a21 * b05 - a23 * b03) * det;
+        out[4] = (a12 * b08 - a10 * b11 - a13 * b07) * det;
+        out[5] = (a00 * b11 - a02 * b08 + a03 * b07) * det;
+        out[6] = (a32 * b02 - a30 * b05 - a33 * b01) * det;
+        out[7] = (a20 * b05 - a22 * b02 + a23 * b01) * det;
+        out[8] = (a10 * b10 - a11 * b08 + a13 * b06) * det;
+        out[9] = (a01 * b08 - a00 * b10 - a03 * b06) * det;
+        out[10] = (a30 * b04 - a31 * b02 + a33 * b00) * det;
+        out[11] = (a21 * b02 - a20 * b04 - a23 * b00) * det;
+        out[12] = (a11 * b07 - a10 * b09 - a12 * b06) * det;
+        out[13] = (a00 * b09 - a01 * b07 + a02 * b06) * det;
+        out[14] = (a31 * b01 - a30 * b03 - a32 * b00) * det;
+        out[15] = (a20 * b03 - a21 * b01 + a22 * b00) * det;
+        return true;
+    }
+}
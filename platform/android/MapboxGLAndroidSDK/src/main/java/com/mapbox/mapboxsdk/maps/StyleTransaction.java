@@ -0,0 +1,161 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+
+import com.mapbox.mapboxsdk.style.layers.Layer;
+import com.mapbox.mapboxsdk.style.sources.Source;
+
+import java.util.Arrays;
+
+/**
+ * A set of style mutations applied with a single call into the native map.
+ * <p>
+ * Obtained with {@link MapboxMap#beginStyleTransaction()}. Mutations are queued in the order they
+ * are made and applied when the transaction is committed. Before the style is touched, all mutations
+ * are validated against the current style: layer and source ids must be unique, removed layers and
+ * sources must exist, layers added before another layer need that layer to exist and a layer or
+ * source object can't be added twice. If any mutation fails validation the commit throws a
+ * {@link StyleTransactionException} and leaves the style untouched. Should applying a mutation still
+ * fail, the mutations applied before it are undone before the exception is thrown.
+ * </p>
+ * <p>
+ * A transaction can only be committed once.
+ * </p>
+ */
+@UiThread
+public final class StyleTransaction {
+
+    // mirrored in jni.cpp
+    static final int ADD_SOURCE = 0;
+    static final int ADD_LAYER = 1;
+    static final int REMOVE_LAYER = 2;
+    static final int REMOVE_SOURCE = 3;
+
+    private final NativeMapView nativeMapView;
+    private int[] kinds = new int[16];
+    private long[] peers = new long[16];
+    private String[] ids = new String[16];
+    private int size;
+    private boolean committed;
+
+    StyleTransaction(NativeMapView nativeMapView) {
+        this.nativeMapView = nativeMapView;
+    }
+
+    /**
+     * Adds a source to the style. The source must be newly created and not added to the map before.
+     *
+     * @param source the source to add
+     * @return This
+     */
+    public StyleTransaction addSource(@NonNull Source source) {
+        return queue(ADD_SOURCE, source.getNativePtr(), null);
+    }
+
+    /**
+     * Adds a layer on top of the style. The layer must be newly created and not added to the map before.
+     *
+     * @param layer the layer to add
+     * @return This
+     */
+    public StyleTransaction addLayer(@NonNull Layer layer) {
+        return addLayer(layer, null);
+    }
+
+    /**
+     * Adds a layer to the style. The layer must be newly created and not added to the map before.
+     *
+     * @param layer  the layer to add
+     * @param before the layer id to add this layer before, can be a layer added earlier in this transaction
+     * @return This
+     */
+    public StyleTransaction addLayer(@NonNull Layer layer, @Nullable String before) {
+        return queue(ADD_LAYER, layer.getNativePtr(), before);
+    }
+
+    /**
+     * Removes a layer by id.
+     *
+     * @param layerId the id of the layer to remove
+     * @return This
+     */
+    public StyleTransaction removeLayer(@NonNull String layerId) {
+        return queue(REMOVE_LAYER, 0, layerId);
+    }
+
+    /**
+     * Removes a layer, the layer object can be added again afterwards.
+     *
+     * @param layer the layer to remove
+     * @return This
+     */
+    public StyleTransaction removeLayer(@NonNull Layer layer) {
+        return queue(REMOVE_LAYER, layer.getNativePtr(), null);
+    }
+
+    /**
+     * Removes a source by id.
+     *
+     * @param sourceId the id of the source to remove
+     * @return This
+     */
+    public StyleTransaction removeSource(@NonNull String sourceId) {
+        return queue(REMOVE_SOURCE, 0, sourceId);
+    }
+
+    /**
+     * Removes a source, the source object can be added again afterwards.
+     *
+     * @param source the source to remove
+     * @return This
+     */
+    public StyleTransaction removeSource(@NonNull Source source) {
+        return queue(REMOVE_SOURCE, source.getNativePtr(), null);
+    }
+
+    /**
+     * @return the number of queued mutations
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Validates and applies all queued mutations.
+     *
+     * @throws StyleTransactionException if a mutation can't be applied, the style is left untouched
+     * @throws IllegalStateException     if the transaction was committed before
+     */
+    public void commit() {
+        checkNotCommitted();
+        committed = true;
+        if (size == 0) {
+            return;
+        }
+        nativeMapView.commitStyleTransaction(Arrays.copyOf(kinds, size), Arrays.copyOf(peers, size),
+                Arrays.copyOf(ids, size));
+    }
+
+    private StyleTransaction queue(int kind, long peer, String id) {
+        checkNotCommitted();
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            peers = Arrays.copyOf(peers, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        kinds[size] = kind;
+        peers[size] = peer;
+        ids[size] = id;
+        size++;
+        return this;
+    }
+
+    private void checkNotCommitted() {
+        if (committed) {
+            throw new IllegalStateException("Style transaction was already committed");
+        }
+    }
+}
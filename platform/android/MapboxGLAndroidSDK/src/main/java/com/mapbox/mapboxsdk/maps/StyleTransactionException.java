@@ -0,0 +1,11 @@
+package com.mapbox.mapboxsdk.maps;
+
+/**
+ * Thrown when committing a {@link StyleTransaction} that can't be applied to the style.
+ * The style is left as it was before the commit.
+ */
+public class StyleTransactionException extends RuntimeException {
+    public StyleTransactionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,388 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.style.layers.NoSuchLayerException;
+import com.mapbox.mapboxsdk.style.layers.SymbolLayer;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
+import com.mapbox.mapboxsdk.style.sources.NoSuchSourceException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.iconAllowOverlap;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.iconIgnorePlacement;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.iconImage;
+
+/**
+ * Renders markers through managed GeoJsonSources and SymbolLayers instead of the point annotations
+ * of core.
+ * <p>
+ * Used by {@link AnnotationManager} once the amount of markers passes the threshold set with
+ * {@link MapboxMap#setSymbolLayerMarkerThreshold(int)}. The Marker objects stay in the annotation
+ * container and spatial index, so selection, hit testing and info windows work as before. Markers
+ * added to the symbol layer get ids from a range far above the ids assigned by core.
+ * </p>
+ * <p>
+ * Core can only replace the data of a GeoJsonSource as a whole, it parses and tiles all of it
+ * again. Markers are therefore split over chunks of at most {@link #CHUNK_SIZE} markers in the
+ * order they were added, each chunk with its own source and layer. Every marker is serialised to
+ * a GeoJSON feature once per change and cached. Changes are coalesced and flushed at most once
+ * per {@link #FLUSH_INTERVAL} milliseconds, a flush replaces the data of the changed chunks only.
+ * Changing a single marker costs a number of operations linear in the chunk size, not in the
+ * amount of markers.
+ * </p>
+ */
+final class SymbolMarkerRenderer {
+
+    static final String SOURCE_ID = "com.mapbox.annotations.symbol-markers.source";
+    static final String LAYER_ID = "com.mapbox.annotations.symbol-markers.layer";
+    static final String PROPERTY_ICON = "icon";
+
+    // core assigns ids counting up from 0, symbol markers can't collide with those
+    static final long FIRST_ID = 1L << 40;
+
+    // markers per source, bounds the data parsed again for a change against the amount of sources
+    static final int CHUNK_SIZE = 4096;
+
+    // minimum time between flushes in milliseconds, about one frame
+    static final long FLUSH_INTERVAL = 16;
+
+    private final NativeMapView nativeMapView;
+
+    // chunks in draw order, chunks that became empty are removed
+    private final List<Chunk> chunks = new ArrayList<>();
+    // the chunk of every marker, keyed on marker id
+    private final Map<Long, Chunk> markerChunks = new HashMap<>();
+    private final Map<String, Bitmap> images = new HashMap<>();
+    private final Map<String, Bitmap> pendingImages = new HashMap<>();
+
+    private long nextId = FIRST_ID;
+    private int nextChunkIndex;
+    private boolean active;
+
+    private Handler handler;
+    private Runnable flushRunnable;
+    private boolean flushScheduled;
+    private long lastFlushTime;
+
+    SymbolMarkerRenderer(NativeMapView nativeMapView) {
+        this.nativeMapView = nativeMapView;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    boolean contains(long id) {
+        return markerChunks.containsKey(id);
+    }
+
+    int size() {
+        return markerChunks.size();
+    }
+
+    int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Starts rendering markers through the symbol layer.
+     *
+     * @param markers the markers moved over from core, they keep their ids
+     */
+    void activate(@NonNull List<Marker> markers) {
+        if (active) {
+            return;
+        }
+        active = true;
+        for (Marker marker : markers) {
+            put(marker.getId(), marker);
+        }
+        invalidate();
+    }
+
+    /**
+     * Adds a marker to the symbol layer, assigning it a new id.
+     *
+     * @param marker the marker to add
+     */
+    void add(@NonNull Marker marker) {
+        long id = nextId++;
+        marker.setId(id);
+        put(id, marker);
+        invalidate();
+    }
+
+    /**
+     * Moves a marker without a Marker object over to the symbol layer, it keeps its id.
+     *
+     * @param id        the id of the marker
+     * @param latitude  the latitude of the marker
+     * @param longitude the longitude of the marker
+     * @param icon      the icon of the marker
+     */
+    void add(long id, double latitude, double longitude, @NonNull Icon icon) {
+        put(id, new LatLng(latitude, longitude), icon);
+        invalidate();
+    }
+
+    void update(@NonNull Marker marker) {
+        if (markerChunks.containsKey(marker.getId())) {
+            put(marker.getId(), marker);
+            invalidate();
+        }
+    }
+
+    void remove(long id) {
+        if (!markerChunks.containsKey(id)) {
+            return;
+        }
+        removeFeature(id);
+        if (markerChunks.isEmpty()) {
+            deactivate();
+        } else {
+            invalidate();
+        }
+    }
+
+    /**
+     * Removes all markers, the sources and the layers, after which markers are rendered by core again.
+     */
+    void deactivate() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        for (Chunk chunk : chunks) {
+            removeFromStyle(chunk);
+        }
+        chunks.clear();
+        markerChunks.clear();
+        pendingImages.clear();
+        if (nativeMapView != null) {
+            for (String name : images.keySet()) {
+                nativeMapView.removeImage(name);
+            }
+        }
+        images.clear();
+    }
+
+    /**
+     * Adds the sources, layers and images to a newly loaded style.
+     */
+    void onStyleLoaded() {
+        if (!active) {
+            return;
+        }
+        pendingImages.clear();
+        if (!images.isEmpty()) {
+            addImages(images);
+        }
+        for (Chunk chunk : chunks) {
+            chunk.source = null;
+            chunk.dirty = true;
+        }
+        flush();
+    }
+
+    /**
+     * Replaces the data of the sources of the chunks that changed.
+     */
+    void flush() {
+        flushScheduled = false;
+        if (!active || nativeMapView == null) {
+            return;
+        }
+        lastFlushTime = SystemClock.uptimeMillis();
+        if (!pendingImages.isEmpty()) {
+            addImages(pendingImages);
+            pendingImages.clear();
+        }
+        for (Chunk chunk : chunks) {
+            if (!chunk.dirty) {
+                continue;
+            }
+            chunk.dirty = false;
+            if (chunk.source == null) {
+                addToStyle(chunk);
+            }
+            chunk.source.setGeoJson(getFeatureCollection(chunk));
+        }
+    }
+
+    /**
+     * Returns the data of the source of a chunk.
+     *
+     * @param index the index of the chunk in draw order
+     * @return the GeoJSON feature collection of the markers of the chunk
+     */
+    String getFeatureCollection(int index) {
+        return getFeatureCollection(chunks.get(index));
+    }
+
+    private static String getFeatureCollection(Chunk chunk) {
+        StringBuilder builder = new StringBuilder(64 + chunk.features.size() * 128);
+        builder.append("{\"type\":\"FeatureCollection\",\"features\":[");
+        boolean first = true;
+        for (String feature : chunk.features.values()) {
+            if (!first) {
+                builder.append(',');
+            }
+            builder.append(feature);
+            first = false;
+        }
+        return builder.append("]}").toString();
+    }
+
+    private void put(long id, Marker marker) {
+        put(id, marker.getPosition(), marker.getIcon());
+    }
+
+    private void put(long id, LatLng position, Icon icon) {
+        if (position == null || icon == null) {
+            removeFeature(id);
+            return;
+        }
+        String iconId = icon.getId();
+        if (!images.containsKey(iconId)) {
+            images.put(iconId, icon.getBitmap());
+            pendingImages.put(iconId, icon.getBitmap());
+        }
+
+        Chunk chunk = markerChunks.get(id);
+        if (chunk == null) {
+            chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (chunk == null || chunk.added == CHUNK_SIZE) {
+                chunk = new Chunk(nextChunkIndex++);
+                chunks.add(chunk);
+            }
+            chunk.added++;
+            markerChunks.put(id, chunk);
+        }
+        chunk.features.put(id, toFeature(id, position, iconId));
+        chunk.dirty = true;
+    }
+
+    private void removeFeature(long id) {
+        Chunk chunk = markerChunks.remove(id);
+        if (chunk == null) {
+            return;
+        }
+        chunk.features.remove(id);
+        chunk.dirty = true;
+        if (chunk.features.isEmpty()) {
+            chunks.remove(chunk);
+            removeFromStyle(chunk);
+        }
+    }
+
+    private void addImages(Map<String, Bitmap> images) {
+        if (nativeMapView != null) {
+            nativeMapView.addImages(images);
+        }
+    }
+
+    private void addToStyle(Chunk chunk) {
+        chunk.source = new GeoJsonSource(chunk.sourceId);
+        nativeMapView.addSource(chunk.source);
+        // mirrors the point annotation layer of core, later chunks are drawn on top
+        SymbolLayer layer = new SymbolLayer(chunk.layerId, chunk.sourceId);
+        layer.setProperties(
+                iconImage("{" + PROPERTY_ICON + "}"),
+                iconAllowOverlap(true),
+                iconIgnorePlacement(true)
+        );
+        nativeMapView.addLayer(layer, null);
+    }
+
+    private void removeFromStyle(Chunk chunk) {
+        if (nativeMapView == null || chunk.source == null) {
+            return;
+        }
+        chunk.source = null;
+        // the style may have been replaced before the symbol markers were restored
+        try {
+            nativeMapView.removeLayer(chunk.layerId);
+        } catch (NoSuchLayerException exception) {
+            // already gone
+        }
+        try {
+            nativeMapView.removeSource(chunk.sourceId);
+        } catch (NoSuchSourceException exception) {
+            // already gone
+        }
+    }
+
+    private void invalidate() {
+        if (flushScheduled || nativeMapView == null) {
+            // nothing to flush to in unit tests
+            return;
+        }
+        flushScheduled = true;
+        if (handler == null) {
+            handler = new Handler();
+            flushRunnable = new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            };
+        }
+        long delay = lastFlushTime + FLUSH_INTERVAL - SystemClock.uptimeMillis();
+        handler.postDelayed(flushRunnable, Math.max(0, delay));
+    }
+
+    static String toFeature(long id, @NonNull LatLng position, @NonNull String iconId) {
+        StringBuilder builder = new StringBuilder(128);
+        builder.append("{\"type\":\"Feature\",\"id\":").append(id)
+                .append(",\"geometry\":{\"type\":\"Point\",\"coordinates\":[")
+                .append(position.getLongitude()).append(',').append(position.getLatitude())
+                .append("]},\"properties\":{\"").append(PROPERTY_ICON).append("\":\"");
+        appendEscaped(builder, iconId);
+        return builder.append("\"}}").toString();
+    }
+
+    private static void appendEscaped(StringBuilder builder, String value) {
+        char c;
+        for (int i = 0; i < value.length(); i++) {
+            c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+    }
+
+    /**
+     * A part of the markers, rendered by its own source and layer.
+     */
+    private static final class Chunk {
+
+        final String sourceId;
+        final String layerId;
+        // serialised features in draw order, keyed on marker id
+        final Map<Long, String> features = new LinkedHashMap<>();
+        // markers ever added, a chunk isn't refilled after removals so the draw order is kept
+        int added;
+        boolean dirty;
+        GeoJsonSource source;
+
+        Chunk(int index) {
+            sourceId = SOURCE_ID + "." + index;
+            layerId = LAYER_ID + "." + index;
+        }
+    }
+}
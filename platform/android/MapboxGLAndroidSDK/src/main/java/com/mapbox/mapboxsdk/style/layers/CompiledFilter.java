@@ -0,0 +1,29 @@
+package com.mapbox.mapboxsdk.style.layers;
+
+/**
+ * A filter converted to its native representation once, obtained with {@link Filter.Statement#compile()}.
+ * <p>
+ * Setting a compiled filter on a layer doesn't rebuild and convert the filter expression, which makes
+ * it the cheaper option for filters that are applied repeatedly, for example when animating through a
+ * set of filters. A compiled filter is immutable and can be set on any number of layers.
+ * </p>
+ */
+public final class CompiledFilter {
+
+    private long nativePtr;
+
+    /**
+     * Creates a compiled filter.
+     *
+     * @param filter the filter represented as an array
+     * @throws IllegalArgumentException if the filter is invalid
+     */
+    CompiledFilter(Object[] filter) {
+        initialize(filter);
+    }
+
+    private native void initialize(Object[] filter);
+
+    @Override
+    protected native void finalize() throws Throwable;
+}
@@ -26,6 +26,17 @@ public class Filter {
          * @return the filter represented as an array
          */
         public abstract Object[] toArray();
+
+        /**
+         * Convert the filter to its native representation, to set it on layers repeatedly without
+         * converting it again.
+         *
+         * @return the compiled filter
+         * @throws IllegalArgumentException if the filter is invalid
+         */
+        public CompiledFilter compile() {
+            return new CompiledFilter(toArray());
+        }
     }
 
     /**
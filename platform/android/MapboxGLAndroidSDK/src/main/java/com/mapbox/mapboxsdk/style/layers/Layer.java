@@ -17,19 +17,20 @@ public abstract class Layer {
     public Layer() {
     }
 
+    /**
+     * Set a property or properties, all properties are applied with a single call into the native layer.
+     *
+     * @param properties the var-args properties
+     */
     public void setProperties(@NonNull Property<?>... properties) {
         if (properties.length == 0) {
             return;
         }
 
-        for (Property<?> property : properties) {
-            Object converted = convertValue(property.value);
-            if (property instanceof PaintProperty) {
-                nativeSetPaintProperty(property.name, converted);
-            } else {
-                nativeSetLayoutProperty(property.name, converted);
-            }
-        }
+        String[] names = new String[properties.length];
+        Object[] values = new Object[properties.length];
+        int layoutCount = PropertyBatch.pack(properties, names, values, 0);
+        nativeSetProperties(names, values, layoutCount);
     }
 
     public String getId() {
@@ -67,8 +68,12 @@ public abstract class Layer {
 
     protected native void nativeSetPaintProperty(String name, Object value);
 
+    protected native void nativeSetProperties(String[] names, Object[] values, int layoutCount);
+
     protected native void nativeSetFilter(Object[] filter);
 
+    protected native void nativeSetCompiledFilter(CompiledFilter filter);
+
     protected native void nativeSetSourceLayer(String sourceLayer);
 
     protected native float nativeGetMinZoom();
@@ -82,8 +87,4 @@ public abstract class Layer {
     public long getNativePtr() {
         return nativePtr;
     }
-
-    private Object convertValue(Object value) {
-        return value != null && value instanceof Function ? ((Function) value).toValueObject() : value;
-    }
 }
@@ -74,6 +74,19 @@ public class LineLayer extends Layer {
         nativeSetFilter(filter);
     }
 
+    /**
+     * Set a compiled filter, without converting the filter again.
+     *
+     * @param filter the compiled filter to set
+     * @throws NullPointerException if the filter is null
+     */
+    public void setFilter(@NonNull CompiledFilter filter) {
+        if (filter == null) {
+            throw new NullPointerException("filter == null");
+        }
+        nativeSetCompiledFilter(filter);
+    }
+
     /**
      * Set an array of filters.
      *
@@ -96,6 +109,18 @@ public class LineLayer extends Layer {
         return this;
     }
 
+    /**
+     * Set a compiled filter, without converting the filter again.
+     *
+     * @param filter the compiled filter to set
+     * @return This
+     * @throws NullPointerException if the filter is null
+     */
+    public LineLayer withFilter(@NonNull CompiledFilter filter) {
+        setFilter(filter);
+        return this;
+    }
+
 
     /**
      * Set a property or properties.
@@ -0,0 +1,111 @@
+package com.mapbox.mapboxsdk.style.layers;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Property sets for many layers, applied with {@link com.mapbox.mapboxsdk.maps.MapboxMap#setLayerProperties(PropertyBatch)}
+ * in a single call into the native map.
+ * <p>
+ * The properties are packed into flat name and value arrays when they are added, layout properties
+ * of a layer precede its paint properties.
+ * </p>
+ */
+public final class PropertyBatch {
+
+    private final List<String> layerIds = new ArrayList<>();
+    private int[] propertyCounts = new int[8];
+    private int[] layoutCounts = new int[8];
+    private String[] names = new String[32];
+    private Object[] values = new Object[32];
+    private int propertyCount;
+
+    /**
+     * Adds properties to set on a layer.
+     *
+     * @param layerId    the id of the layer
+     * @param properties the properties to set
+     * @return This
+     */
+    public PropertyBatch set(@NonNull String layerId, @NonNull Property<?>... properties) {
+        int layerCount = layerIds.size();
+        if (layerCount == propertyCounts.length) {
+            propertyCounts = Arrays.copyOf(propertyCounts, layerCount * 2);
+            layoutCounts = Arrays.copyOf(layoutCounts, layerCount * 2);
+        }
+        if (propertyCount + properties.length > names.length) {
+            int capacity = Math.max(propertyCount + properties.length, names.length * 2);
+            names = Arrays.copyOf(names, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        layerIds.add(layerId);
+        propertyCounts[layerCount] = properties.length;
+        layoutCounts[layerCount] = pack(properties, names, values, propertyCount);
+        propertyCount += properties.length;
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return layerIds.isEmpty();
+    }
+
+    public String[] getLayerIds() {
+        return layerIds.toArray(new String[layerIds.size()]);
+    }
+
+    /**
+     * @return the number of properties of every layer
+     */
+    public int[] getPropertyCounts() {
+        return Arrays.copyOf(propertyCounts, layerIds.size());
+    }
+
+    /**
+     * @return the number of layout properties of every layer
+     */
+    public int[] getLayoutCounts() {
+        return Arrays.copyOf(layoutCounts, layerIds.size());
+    }
+
+    public String[] getNames() {
+        return Arrays.copyOf(names, propertyCount);
+    }
+
+    public Object[] getValues() {
+        return Arrays.copyOf(values, propertyCount);
+    }
+
+    /**
+     * Writes the names and converted values of properties, layout properties first.
+     *
+     * @param properties the properties to write
+     * @param names      the names to write to
+     * @param values     the values to write to
+     * @param offset     the index of the first property written
+     * @return the number of layout properties written
+     */
+    static int pack(Property<?>[] properties, String[] names, Object[] values, int offset) {
+        int index = offset;
+        for (Property<?> property : properties) {
+            if (!(property instanceof PaintProperty)) {
+                names[index] = property.name;
+                values[index++] = convertValue(property.value);
+            }
+        }
+        int layoutCount = index - offset;
+        for (Property<?> property : properties) {
+            if (property instanceof PaintProperty) {
+                names[index] = property.name;
+                values[index++] = convertValue(property.value);
+            }
+        }
+        return layoutCount;
+    }
+
+    private static Object convertValue(Object value) {
+        return value != null && value instanceof Function ? ((Function) value).toValueObject() : value;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mapbox.mapboxsdk.utils;
+
+import com.mapbox.mapboxsdk.constants.GeoConstants;
+
+/**
+ * Spherical mercator projection to world coordinates in the range [0, 1), with the origin in the
+ * north west corner of the world. Matches the projection of Core GL (projection.hpp).
+ * <p>
+ * Shared by the annotations and maps packages. Internal to the SDK: it isn't part of the public
+ * API, is left out of the reference documentation and may change without notice.
+ * </p>
+ */
+public final class MercatorUtils {
+
+    private MercatorUtils() {
+    }
+
+    /**
+     * Projects a longitude to a horizontal world coordinate.
+     *
+     * @param longitude the longitude in degrees
+     * @return the horizontal world coordinate, outside [0, 1) for longitudes outside [-180, 180)
+     */
+    public static double projectX(double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    /**
+     * Projects a latitude to a vertical world coordinate, clamping it to the latitudes covered by
+     * the map.
+     *
+     * @param latitude the latitude in degrees
+     * @return the vertical world coordinate
+     */
+    public static double projectY(double latitude) {
+        double lat = MathUtils.clamp(latitude, GeoConstants.MIN_LATITUDE, GeoConstants.MAX_LATITUDE);
+        double sin = Math.sin(Math.toRadians(lat));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+}
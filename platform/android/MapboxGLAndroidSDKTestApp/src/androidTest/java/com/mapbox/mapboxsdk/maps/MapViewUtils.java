@@ -1,5 +1,7 @@
 package com.mapbox.mapboxsdk.maps;
 
+import android.graphics.PointF;
+
 import com.mapbox.mapboxsdk.geometry.LatLng;
 
 /**
@@ -30,4 +32,12 @@ public class MapViewUtils {
     public static LatLng getLatLng(MapboxMap mapboxMap) {
         return mapboxMap.getTransform().getCenterCoordinate();
     }
+
+    public static PointF toScreenLocationNative(MapView mapView, LatLng latLng) {
+        return mapView.getNativeMapView().pixelForLatLng(latLng);
+    }
+
+    public static LatLng fromScreenLocationNative(MapView mapView, PointF point) {
+        return mapView.getNativeMapView().latLngForPixel(point);
+    }
 }
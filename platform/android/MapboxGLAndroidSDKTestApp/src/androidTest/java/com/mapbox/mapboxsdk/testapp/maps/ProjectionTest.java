@@ -0,0 +1,118 @@
+package com.mapbox.mapboxsdk.testapp.maps;
+
+import android.graphics.PointF;
+import android.support.test.espresso.Espresso;
+import android.support.test.espresso.UiController;
+import android.support.test.espresso.ViewAction;
+import android.support.test.rule.ActivityTestRule;
+import android.view.View;
+
+import com.mapbox.mapboxsdk.camera.CameraPosition;
+import com.mapbox.mapboxsdk.camera.CameraUpdateFactory;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapView;
+import com.mapbox.mapboxsdk.maps.MapViewUtils;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Projection;
+import com.mapbox.mapboxsdk.testapp.R;
+import com.mapbox.mapboxsdk.testapp.activity.espresso.EspressoTestActivity;
+import com.mapbox.mapboxsdk.testapp.utils.OnMapReadyIdlingResource;
+import com.mapbox.mapboxsdk.testapp.utils.ViewUtils;
+
+import org.hamcrest.Matcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static android.support.test.espresso.Espresso.onView;
+import static android.support.test.espresso.matcher.ViewMatchers.isDisplayed;
+import static android.support.test.espresso.matcher.ViewMatchers.withId;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the Java projection against the projection of the native map
+ */
+public class ProjectionTest {
+
+    private static final float PIXEL_DELTA = 1;
+
+    @Rule
+    public final ActivityTestRule<EspressoTestActivity> rule = new ActivityTestRule<>(EspressoTestActivity.class);
+
+    private OnMapReadyIdlingResource idlingResource;
+
+    @Before
+    public void registerIdlingResource() {
+        idlingResource = new OnMapReadyIdlingResource(rule.getActivity());
+        Espresso.registerIdlingResources(idlingResource);
+    }
+
+    @Test
+    public void testProjectionMatchesNative() {
+        ViewUtils.checkViewIsDisplayed(R.id.mapView);
+        EspressoTestActivity activity = rule.getActivity();
+        onView(withId(R.id.mapView)).perform(new ProjectionAction(activity.mapView, activity.getMapboxMap()));
+    }
+
+    @After
+    public void unregisterIdlingResource() {
+        Espresso.unregisterIdlingResources(idlingResource);
+    }
+
+    private class ProjectionAction implements ViewAction {
+
+        private MapView mapView;
+        private MapboxMap mapboxMap;
+
+        ProjectionAction(MapView mapView, MapboxMap mapboxMap) {
+            this.mapView = mapView;
+            this.mapboxMap = mapboxMap;
+        }
+
+        @Override
+        public Matcher<View> getConstraints() {
+            return isDisplayed();
+        }
+
+        @Override
+        public String getDescription() {
+            return getClass().getSimpleName();
+        }
+
+        @Override
+        public void perform(UiController uiController, View view) {
+            Projection projection = mapboxMap.getProjection();
+            float width = mapView.getWidth();
+            float height = mapView.getHeight();
+
+            for (int tilt = 0; tilt <= 60; tilt += 20) {
+                for (int bearing = 0; bearing < 360; bearing += 45) {
+                    mapboxMap.moveCamera(CameraUpdateFactory.newCameraPosition(new CameraPosition.Builder()
+                            .target(new LatLng(52.3, 4.9))
+                            .zoom(12.5)
+                            .bearing(bearing)
+                            .tilt(tilt)
+                            .build()));
+                    String message = "tilt " + tilt + ", bearing " + bearing;
+
+                    for (int x = 0; x <= 4; x++) {
+                        for (int y = 1; y <= 4; y++) {
+                            PointF point = new PointF(x * width / 4, y * height / 4);
+
+                            LatLng nativeLatLng = MapViewUtils.fromScreenLocationNative(mapView, point);
+                            LatLng latLng = projection.fromScreenLocation(point);
+                            assertEquals(message, nativeLatLng.getLatitude(), latLng.getLatitude(), 0.0001);
+                            assertEquals(message, nativeLatLng.getLongitude(), latLng.getLongitude(), 0.0001);
+
+                            PointF nativePoint = MapViewUtils.toScreenLocationNative(mapView, nativeLatLng);
+                            PointF screenLocation = projection.toScreenLocation(nativeLatLng);
+                            assertEquals(message, nativePoint.x, screenLocation.x, PIXEL_DELTA);
+                            assertEquals(message, nativePoint.y, screenLocation.y, PIXEL_DELTA);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.mapbox.mapboxsdk.testapp.style;
+
+import android.support.test.espresso.Espresso;
+import android.support.test.espresso.UiController;
+import android.support.test.espresso.ViewAction;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.style.layers.CircleLayer;
+import com.mapbox.mapboxsdk.style.layers.CompiledFilter;
+import com.mapbox.mapboxsdk.style.layers.Filter;
+import com.mapbox.mapboxsdk.style.layers.LineLayer;
+import com.mapbox.mapboxsdk.testapp.R;
+import com.mapbox.mapboxsdk.testapp.activity.style.RuntimeStyleTimingTestActivity;
+import com.mapbox.mapboxsdk.testapp.utils.OnMapReadyIdlingResource;
+import com.mapbox.mapboxsdk.testapp.utils.TimingLogger;
+
+import org.hamcrest.Matcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static android.support.test.espresso.Espresso.onView;
+import static android.support.test.espresso.matcher.ViewMatchers.isDisplayed;
+import static android.support.test.espresso.matcher.ViewMatchers.withId;
+import static com.mapbox.mapboxsdk.style.layers.Filter.all;
+import static com.mapbox.mapboxsdk.style.layers.Filter.gte;
+import static com.mapbox.mapboxsdk.style.layers.Filter.in;
+import static com.mapbox.mapboxsdk.style.layers.Filter.lt;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Times repeated filter updates, like a time slider would do, with filter statements and with
+ * compiled filters.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FilterTimingTests extends BaseStyleTest {
+
+    private static final int STEPS = 24;
+    private static final int ROUNDS = 50;
+
+    @Rule
+    public final ActivityTestRule<RuntimeStyleTimingTestActivity> rule = new ActivityTestRule<>(RuntimeStyleTimingTestActivity.class);
+
+    private OnMapReadyIdlingResource idlingResource;
+
+    @Before
+    public void registerIdlingResource() {
+        idlingResource = new OnMapReadyIdlingResource(rule.getActivity());
+        Espresso.registerIdlingResources(idlingResource);
+    }
+
+    @Test
+    public void testSetFilter() {
+        checkViewIsDisplayed(R.id.mapView);
+        onView(withId(R.id.mapView)).perform(new SetFilterAction());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompileInvalidFilter() {
+        Filter.eq("$type", "Circle").compile();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testSetNullCompiledFilter() {
+        new LineLayer("null-filter", "composite").setFilter((CompiledFilter) null);
+    }
+
+    @After
+    public void unregisterIntentServiceIdlingResource() {
+        Espresso.unregisterIdlingResources(idlingResource);
+    }
+
+    private class SetFilterAction implements ViewAction {
+
+        @Override
+        public Matcher<View> getConstraints() {
+            return isDisplayed();
+        }
+
+        @Override
+        public String getDescription() {
+            return getClass().getSimpleName();
+        }
+
+        @Override
+        public void perform(UiController uiController, View view) {
+            MapboxMap mapboxMap = rule.getActivity().getMapboxMap();
+            CircleLayer layer = mapboxMap.getLayerAs("museums");
+            assertNotNull(layer);
+
+            Filter.Statement[] statements = new Filter.Statement[STEPS];
+            for (int i = 0; i < STEPS; i++) {
+                statements[i] = all(gte("hour", i), lt("hour", i + 1), in("type", "museum", "gallery"));
+            }
+
+            TimingLogger timings = new TimingLogger("FilterTimingTests", "setFilter x" + STEPS * ROUNDS);
+            for (int round = 0; round < ROUNDS; round++) {
+                for (Filter.Statement statement : statements) {
+                    layer.setFilter(statement);
+                }
+            }
+            timings.addSplit("Filter.Statement");
+
+            CompiledFilter[] filters = new CompiledFilter[STEPS];
+            for (int i = 0; i < STEPS; i++) {
+                filters[i] = statements[i].compile();
+            }
+            timings.addSplit("compile");
+
+            for (int round = 0; round < ROUNDS; round++) {
+                for (CompiledFilter filter : filters) {
+                    layer.setFilter(filter);
+                }
+            }
+            timings.addSplit("CompiledFilter");
+            timings.dumpToLog();
+
+            // compiled filters are shared between layers
+            LineLayer outline = new LineLayer("museums-outline", "museums_source")
+                    .withSourceLayer("museum-cusco")
+                    .withFilter(filters[0]);
+            mapboxMap.addLayer(outline);
+            layer.setFilter(filters[0]);
+            assertNotNull(mapboxMap.getLayer("museums-outline"));
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.mapbox.mapboxsdk.annotations;
 
 import android.graphics.PointF;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
 
 import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.maps.MapView;
@@ -12,7 +15,11 @@ import org.mockito.InjectMocks;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class InfoWindowTest {
@@ -83,4 +90,56 @@ public class InfoWindowTest {
         infoWindow.update();
     }
 
+    @Test
+    public void testMeasureCached() {
+        LatLng latLng = new LatLng(0, 0);
+        Projection projection = mock(Projection.class);
+        when(mMapboxMap.getProjection()).thenReturn(projection);
+        when(projection.toScreenLocation(latLng)).thenReturn(new PointF(0, 0));
+
+        View view = mock(View.class);
+        Marker marker = new MarkerOptions().position(latLng).getMarker();
+        InfoWindow infoWindow = new InfoWindow(view, mMapboxMap);
+        infoWindow.open(mMapView, marker, latLng, 0, 0);
+        infoWindow.open(mMapView, marker, latLng, 0, 0);
+        infoWindow.updateOffset(mMapView, 0, 10);
+        verify(view, times(1)).measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
+        verify(view).setY(10);
+
+        // the view changed its content
+        when(view.isLayoutRequested()).thenReturn(true);
+        infoWindow.open(mMapView, marker, latLng, 0, 0);
+        verify(view, times(2)).measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
+    }
+
+    @Test
+    public void testRecyclingAdapter() {
+        LatLng latLng = new LatLng(0, 0);
+        Projection projection = mock(Projection.class);
+        when(mMapboxMap.getProjection()).thenReturn(projection);
+        when(projection.toScreenLocation(latLng)).thenReturn(new PointF(0, 0));
+
+        TestInfoWindowAdapter adapter = new TestInfoWindowAdapter();
+        View view = adapter.getInfoWindow(mock(Marker.class));
+        assertNull("no view should be reused", adapter.convertView);
+
+        InfoWindow infoWindow = new InfoWindow(view, mMapboxMap, adapter);
+        infoWindow.open(mMapView, new MarkerOptions().position(latLng).getMarker(), latLng, 0, 0);
+        infoWindow.close();
+        assertNull("view should be released", infoWindow.getView());
+
+        assertSame("view should be reused", view, adapter.getInfoWindow(mock(Marker.class)));
+        assertSame("view should be passed as convertView", view, adapter.convertView);
+    }
+
+    private static class TestInfoWindowAdapter extends MapboxMap.RecyclingInfoWindowAdapter {
+
+        View convertView;
+
+        @Override
+        public View getInfoWindow(@NonNull Marker marker, @Nullable View convertView) {
+            this.convertView = convertView;
+            return convertView != null ? convertView : mock(View.class);
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import android.content.Context;
+import android.graphics.RectF;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Projection;
+import com.mapbox.mapboxsdk.utils.MicroBenchmark;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Measures {@link MarkerViewManager#invalidateViewMarkersInVisibleRegion()} with 1k and 10k
+ * MarkerViews in the viewport, for a camera that didn't move and for a pan that moves 5% of the
+ * markers out of and into the viewport.
+ */
+public class MarkerViewManagerBenchmark {
+
+    private static final int[] COUNTS = {1000, 10000};
+    private static final int INVALIDATIONS = 100;
+
+    public static void main(String[] args) {
+        for (int count : COUNTS) {
+            measure(count);
+        }
+    }
+
+    private static void measure(final int count) {
+        final List<MarkerView> markers = new ArrayList<>(count * 2);
+        for (int i = 0; i < count * 2; i++) {
+            MarkerView marker = new BenchmarkMarkerView();
+            marker.setId(i);
+            marker.setPosition(new LatLng(i % 90, i % 180));
+            markers.add(marker);
+        }
+
+        final int shift = count / 20;
+        final List<MarkerView> viewport = new ArrayList<>(markers.subList(0, count));
+        final List<MarkerView> pannedViewport = new ArrayList<>(markers.subList(shift, count + shift));
+
+        final MapboxMap mapboxMap = mock(MapboxMap.class, withSettings().stubOnly());
+        Projection projection = mock(Projection.class, withSettings().stubOnly());
+        when(mapboxMap.getProjection()).thenReturn(projection);
+
+        final MarkerViewManager markerViewManager = new MarkerViewManager(
+                mock(ViewGroup.class, withSettings().stubOnly()));
+        markerViewManager.bind(mapboxMap);
+        when(mapboxMap.getMarkerViewsInRect(any(RectF.class))).thenReturn(viewport);
+        markerViewManager.addMarkerViewAdapter(new BenchmarkAdapter(mock(Context.class)));
+
+        MicroBenchmark.measure(String.format("invalidate %d markers, unchanged", count), INVALIDATIONS,
+                new MicroBenchmark.Body() {
+                    @Override
+                    public long run() {
+                        for (int i = 0; i < INVALIDATIONS; i++) {
+                            markerViewManager.invalidateViewMarkersInVisibleRegion();
+                        }
+                        return markers.get(0).getId();
+                    }
+                });
+
+        when(mapboxMap.getMarkerViewsInRect(any(RectF.class))).thenAnswer(new Answer<List<MarkerView>>() {
+            private boolean panned;
+
+            @Override
+            public List<MarkerView> answer(InvocationOnMock invocation) throws Throwable {
+                panned = !panned;
+                return panned ? pannedViewport : viewport;
+            }
+        });
+
+        MicroBenchmark.measure(String.format("invalidate %d markers, %d changed", count, shift * 2), INVALIDATIONS,
+                new MicroBenchmark.Body() {
+                    @Override
+                    public long run() {
+                        for (int i = 0; i < INVALIDATIONS; i++) {
+                            markerViewManager.invalidateViewMarkersInVisibleRegion();
+                        }
+                        return markers.get(0).getId();
+                    }
+                });
+    }
+
+    private static class BenchmarkMarkerView extends MarkerView {
+    }
+
+    private static class BenchmarkAdapter extends MapboxMap.MarkerViewAdapter<BenchmarkMarkerView> {
+
+        BenchmarkAdapter(Context context) {
+            super(context);
+        }
+
+        @Nullable
+        @Override
+        public View getView(@NonNull BenchmarkMarkerView marker, @Nullable View convertView,
+                            @NonNull ViewGroup parent) {
+            return convertView != null ? convertView : new View(getContext());
+        }
+    }
+}
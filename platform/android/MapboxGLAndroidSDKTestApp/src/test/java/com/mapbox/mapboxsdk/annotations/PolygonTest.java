@@ -11,6 +11,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
@@ -62,6 +63,14 @@ public class PolygonTest {
         assertEquals(new LatLng(0, 0), polygon.getPoints().get(0));
     }
 
+    @Test
+    public void testPackedCoordinates() {
+        Polygon polygon = new PolygonOptions(new double[] {1, 2, 3, 4}).getPolygon();
+        assertEquals(2, polygon.getPointCount());
+        assertEquals(new LatLng(3, 4), polygon.getPoints().get(1));
+        assertArrayEquals(new double[] {1, 2, 3, 4}, polygon.getCoordinates(), 0);
+    }
+
     @Test
     public void testBuilder() {
         PolylineOptions polylineOptions = new PolylineOptions();
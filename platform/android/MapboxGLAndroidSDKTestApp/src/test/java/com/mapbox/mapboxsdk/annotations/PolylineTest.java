@@ -3,14 +3,22 @@ package com.mapbox.mapboxsdk.annotations;
 import com.mapbox.mapboxsdk.annotations.Polyline;
 import com.mapbox.mapboxsdk.annotations.PolylineOptions;
 import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
 
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 public class PolylineTest {
 
@@ -60,6 +68,73 @@ public class PolylineTest {
         assertEquals(new LatLng(0, 0), polyline.getPoints().get(0));
     }
 
+    @Test
+    public void testPackedCoordinates() {
+        Polyline polyline = new PolylineOptions(new double[] {1, 2, 3, 4}).getPolyline();
+        assertEquals(2, polyline.getPointCount());
+        assertEquals(new LatLng(1, 2), polyline.getPoints().get(0));
+        assertEquals(new LatLng(3, 4), polyline.getPoints().get(1));
+        assertArrayEquals(new double[] {1, 2, 3, 4}, polyline.getCoordinates(), 0);
+    }
+
+    @Test
+    public void testPackedCoordinatesMixedWithLatLng() {
+        PolylineOptions polylineOptions = new PolylineOptions();
+        for (int i = 0; i < 20; i++) {
+            polylineOptions.add(new LatLng(i, -i));
+        }
+        polylineOptions.addAll(new double[] {20, -20});
+        Polyline polyline = polylineOptions.getPolyline();
+        assertEquals(21, polyline.getPointCount());
+        assertEquals(new LatLng(20, -20), polyline.getPoints().get(20));
+        assertEquals(polylineOptions, new PolylineOptions().addAll(polyline.getPoints()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOddPackedCoordinates() {
+        new PolylineOptions(new double[] {1, 2, 3});
+    }
+
+    @Test
+    public void testAppendPoints() {
+        MapboxMap mapboxMap = mock(MapboxMap.class);
+        Polyline polyline = new PolylineOptions(new double[] {1, 2}).getPolyline();
+        polyline.setMapboxMap(mapboxMap);
+
+        double[] appended = new double[] {3, 4, 5, 6};
+        polyline.appendPoints(appended);
+        assertEquals(3, polyline.getPointCount());
+        assertArrayEquals(new double[] {1, 2, 3, 4, 5, 6}, polyline.getCoordinates(), 0);
+        verify(mapboxMap).appendPolylinePoints(polyline, appended);
+        verify(mapboxMap, never()).updatePolyline(any(Polyline.class));
+    }
+
+    @Test
+    public void testPointsKeepAltitude() {
+        Polyline polyline = new PolylineOptions().add(new LatLng(1, 2, 300)).getPolyline();
+        polyline.addPoint(new LatLng(3, 4, 400));
+        assertEquals(300, polyline.getPoints().get(0).getAltitude(), 0);
+        assertEquals(400, polyline.getPoints().get(1).getAltitude(), 0);
+    }
+
+    @Test
+    public void testPointsCreatedOnce() {
+        MapboxMap mapboxMap = mock(MapboxMap.class);
+        Polyline polyline = new PolylineOptions(new double[] {1, 2}).getPolyline();
+        polyline.setMapboxMap(mapboxMap);
+        List<LatLng> points = polyline.getPoints();
+        assertNotSame("a copy of the list should be returned", points, polyline.getPoints());
+        assertSame("points shouldn't be created again", points.get(0), polyline.getPoints().get(0));
+
+        polyline.appendPoints(new double[] {3, 4});
+        assertSame(points.get(0), polyline.getPoints().get(0));
+        assertEquals(new LatLng(3, 4), polyline.getPoints().get(1));
+
+        polyline.setCoordinates(new double[] {5, 6});
+        assertEquals(1, polyline.getPoints().size());
+        assertEquals(new LatLng(5, 6), polyline.getPoints().get(0));
+    }
+
     @Test
     public void testBuilder() {
         PolylineOptions polylineOptions = new PolylineOptions();
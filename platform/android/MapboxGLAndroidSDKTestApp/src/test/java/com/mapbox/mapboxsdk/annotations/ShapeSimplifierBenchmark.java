@@ -0,0 +1,80 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import com.mapbox.mapboxsdk.utils.MicroBenchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures {@link ShapeSimplifier} on generated shapes that resemble real world data for a range of
+ * zoom levels: jagged boundary rings the size of a state outline and a long, noisy GPS track.
+ */
+public class ShapeSimplifierBenchmark {
+
+    private static final double[] ZOOM_LEVELS = new double[] {3, 6, 10, 14};
+    private static final int RING_COUNT = 3;
+    private static final int RING_VERTICES = 2000;
+    private static final int TRACK_VERTICES = 14000;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        final List<double[]> rings = new ArrayList<>();
+        for (int i = 0; i < RING_COUNT; i++) {
+            rings.add(boundary(random, 38 + i * 3, -100 + i * 6, 2.5, RING_VERTICES));
+        }
+        final double[] line = track(random, 52.09, 5.12, TRACK_VERTICES);
+
+        for (final double zoom : ZOOM_LEVELS) {
+            final double tolerance = ShapeSimplifier.toWorldTolerance(1, zoom);
+
+            MicroBenchmark.measure("simplify boundary rings at zoom " + zoom, RING_COUNT * RING_VERTICES,
+                new MicroBenchmark.Body() {
+                    @Override
+                    public long run() {
+                        long remaining = 0;
+                        for (double[] ring : rings) {
+                            remaining += ShapeSimplifier.simplify(ring, ring.length / 2, tolerance, true).length;
+                        }
+                        return remaining;
+                    }
+                });
+
+            MicroBenchmark.measure("simplify gps track at zoom " + zoom, TRACK_VERTICES, new MicroBenchmark.Body() {
+                @Override
+                public long run() {
+                    return ShapeSimplifier.simplify(line, line.length / 2, tolerance, false).length;
+                }
+            });
+        }
+    }
+
+    // a closed ring around a center with a radius that wanders like a coastline or border
+    private static double[] boundary(Random random, double latitude, double longitude, double radius, int vertices) {
+        double[] coordinates = new double[vertices * 2];
+        double offset = 0;
+        for (int i = 0; i < vertices - 1; i++) {
+            offset = Math.max(-0.5, Math.min(0.5, offset + (random.nextDouble() - 0.5) * 0.05));
+            double angle = 2 * Math.PI * i / (vertices - 1);
+            coordinates[i * 2] = latitude + (radius + offset) * Math.sin(angle);
+            coordinates[i * 2 + 1] = longitude + (radius + offset) * Math.cos(angle);
+        }
+        coordinates[(vertices - 1) * 2] = coordinates[0];
+        coordinates[(vertices - 1) * 2 + 1] = coordinates[1];
+        return coordinates;
+    }
+
+    // a track of fixes a few meters apart, with a slowly turning heading and position noise
+    private static double[] track(Random random, double latitude, double longitude, int vertices) {
+        double[] coordinates = new double[vertices * 2];
+        double heading = 0;
+        for (int i = 0; i < vertices; i++) {
+            heading += (random.nextDouble() - 0.5) * 0.2;
+            latitude += Math.sin(heading) * 0.00005 + random.nextGaussian() * 0.000005;
+            longitude += Math.cos(heading) * 0.00008 + random.nextGaussian() * 0.000008;
+            coordinates[i * 2] = latitude;
+            coordinates[i * 2 + 1] = longitude;
+        }
+        return coordinates;
+    }
+}
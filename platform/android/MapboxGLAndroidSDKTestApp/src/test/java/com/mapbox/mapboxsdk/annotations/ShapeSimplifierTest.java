@@ -0,0 +1,57 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ShapeSimplifierTest {
+
+    private static final double TOLERANCE = ShapeSimplifier.toWorldTolerance(1, 10);
+
+    @Test
+    public void testToWorldTolerance() {
+        assertEquals(1.0 / 512, ShapeSimplifier.toWorldTolerance(1, 0), 0);
+        assertEquals(ShapeSimplifier.toWorldTolerance(1, 0) / 4, ShapeSimplifier.toWorldTolerance(1, 2), 0);
+    }
+
+    @Test
+    public void testCollinearPoints() {
+        double[] line = new double[] {0, 0, 0, 1, 0, 2, 0, 3};
+        assertArrayEquals(new double[] {0, 0, 0, 3}, ShapeSimplifier.simplify(line, 4, TOLERANCE, false), 0);
+    }
+
+    @Test
+    public void testSignificantPointsRetained() {
+        double[] line = new double[] {0, 0, 1, 1, 0, 2, 1, 3};
+        assertArrayEquals(line, ShapeSimplifier.simplify(line, 4, TOLERANCE, false), 0);
+    }
+
+    @Test
+    public void testOnlyValidPointsUsed() {
+        double[] line = new double[] {0, 0, 0, 1, 0, 2, 5, 5};
+        assertArrayEquals(new double[] {0, 0, 0, 2}, ShapeSimplifier.simplify(line, 3, TOLERANCE, false), 0);
+    }
+
+    @Test
+    public void testRingReducedToCorners() {
+        double[] ring = new double[] {0, 0, 0, 1, 0, 2, 2, 2, 2, 1, 2, 0, 1, 0};
+        assertArrayEquals(new double[] {0, 0, 0, 2, 2, 2, 2, 0},
+                ShapeSimplifier.simplify(ring, 7, TOLERANCE, true), 0);
+    }
+
+    @Test
+    public void testRingNotCollapsed() {
+        double[] ring = new double[] {0, 0, 0, 0.0001, 0.0001, 0.0001, 0.0001, 0};
+        assertArrayEquals(ring, ShapeSimplifier.simplify(ring, 4, ShapeSimplifier.toWorldTolerance(1, 0), true), 0);
+    }
+
+    @Test
+    public void testSimplifyOptions() {
+        Polyline polyline = new PolylineOptions(new double[] {0, 0, 0, 1, 0, 2}).simplify(1, 10).getPolyline();
+        assertEquals(2, polyline.getPointCount());
+
+        Polygon polygon = new PolygonOptions(new double[] {0, 0, 0, 1, 0, 2, 2, 2, 2, 0}).simplify(1, 10).getPolygon();
+        assertEquals(4, polygon.getPointCount());
+    }
+}
@@ -0,0 +1,117 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.v4.util.LongSparseArray;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.utils.MicroBenchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares {@link AnnotationContainer} with the LongSparseArray based bookkeeping it replaced,
+ * for add/remove churn, lookups and retrieving the markers.
+ */
+public class AnnotationContainerBenchmark {
+
+    private static final int COUNT = 50000;
+
+    public static void main(String[] args) {
+        final Annotation[] annotations = new Annotation[COUNT];
+        Marker marker = mock(Marker.class);
+        Polyline polyline = mock(Polyline.class);
+        for (int i = 0; i < COUNT; i++) {
+            annotations[i] = i % 10 == 0 ? polyline : marker;
+        }
+
+        final long[] lookups = new long[COUNT];
+        Random random = new Random(42);
+        for (int i = 0; i < COUNT; i++) {
+            lookups[i] = random.nextInt(COUNT);
+        }
+
+        MicroBenchmark.measure("LongSparseArray add/remove", COUNT * 2, new MicroBenchmark.Body() {
+            @Override
+            public long run() {
+                LongSparseArray<Annotation> array = new LongSparseArray<>();
+                for (int i = 0; i < COUNT; i++) {
+                    array.put(i, annotations[i]);
+                }
+                for (long id : lookups) {
+                    array.remove(id);
+                }
+                return array.size();
+            }
+        });
+
+        MicroBenchmark.measure("AnnotationContainer add/remove", COUNT * 2, new MicroBenchmark.Body() {
+            @Override
+            public long run() {
+                AnnotationContainer container = new AnnotationContainer();
+                for (int i = 0; i < COUNT; i++) {
+                    container.put(i, annotations[i]);
+                }
+                for (long id : lookups) {
+                    container.remove(id);
+                }
+                return container.size();
+            }
+        });
+
+        final LongSparseArray<Annotation> array = new LongSparseArray<>();
+        final AnnotationContainer container = new AnnotationContainer();
+        for (int i = 0; i < COUNT; i++) {
+            array.put(i, annotations[i]);
+            container.put(i, annotations[i]);
+        }
+
+        MicroBenchmark.measure("LongSparseArray get", COUNT, new MicroBenchmark.Body() {
+            @Override
+            public long run() {
+                long found = 0;
+                for (long id : lookups) {
+                    found += array.get(id) != null ? 1 : 0;
+                }
+                return found;
+            }
+        });
+
+        MicroBenchmark.measure("AnnotationContainer get", COUNT, new MicroBenchmark.Body() {
+            @Override
+            public long run() {
+                long found = 0;
+                for (long id : lookups) {
+                    found += container.get(id) != null ? 1 : 0;
+                }
+                return found;
+            }
+        });
+
+        MicroBenchmark.measure("LongSparseArray getMarkers", 1, new MicroBenchmark.Body() {
+            @Override
+            public long run() {
+                List<Marker> markers = new ArrayList<>();
+                Annotation annotation;
+                for (int i = 0; i < array.size(); i++) {
+                    annotation = array.get(array.keyAt(i));
+                    if (annotation instanceof Marker) {
+                        markers.add((Marker) annotation);
+                    }
+                }
+                return markers.size();
+            }
+        });
+
+        MicroBenchmark.measure("AnnotationContainer getMarkers", 1, new MicroBenchmark.Body() {
+            @Override
+            public long run() {
+                return container.getMarkers().size();
+            }
+        });
+    }
+}
@@ -0,0 +1,162 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class AnnotationContainerTest {
+
+    private AnnotationContainer container;
+
+    @Before
+    public void beforeTest() {
+        container = new AnnotationContainer();
+    }
+
+    @Test
+    public void testSanity() {
+        assertEquals("container should be empty", 0, container.size());
+        assertTrue("annotations should be empty", container.getAnnotations().isEmpty());
+        assertNull("missing id should return null", container.get(0));
+    }
+
+    @Test
+    public void testPutSegregatesTypes() {
+        Marker marker = mock(Marker.class);
+        Polyline polyline = mock(Polyline.class);
+        Polygon polygon = mock(Polygon.class);
+        container.put(1, polygon);
+        container.put(2, polyline);
+        container.put(3, marker);
+
+        assertEquals("size should match", 3, container.size());
+        assertSame(marker, container.get(3));
+        assertEquals(Arrays.asList(marker), container.getMarkers());
+        assertEquals(Arrays.asList(polyline), container.getPolylines());
+        assertEquals(Arrays.asList(polygon), container.getPolygons());
+        assertEquals(Arrays.<Annotation>asList(polygon, polyline, marker), container.getAnnotations());
+    }
+
+    @Test
+    public void testIdOrderAfterRemove() {
+        Marker[] markers = new Marker[5];
+        for (int i = 0; i < markers.length; i++) {
+            markers[i] = mock(Marker.class);
+            container.put(i, markers[i]);
+        }
+        Polyline polyline = mock(Polyline.class);
+        container.put(5, polyline);
+
+        container.remove(1);
+        assertEquals(Arrays.asList(markers[0], markers[2], markers[3], markers[4]), container.getMarkers());
+        assertEquals(Arrays.<Annotation>asList(markers[0], markers[2], markers[3], markers[4], polyline),
+                container.getAnnotations());
+
+        // lookups still resolve after the entries were sorted
+        for (int i : new int[]{0, 2, 3, 4}) {
+            assertSame(markers[i], container.get(i));
+        }
+        assertSame(markers[4], container.remove(4));
+        assertEquals(Arrays.asList(markers[0], markers[2], markers[3]), container.getMarkers());
+    }
+
+    @Test
+    public void testIdOrderAcrossTypes() {
+        Marker marker = mock(Marker.class);
+        Polyline polyline = mock(Polyline.class);
+        Polygon polygon = mock(Polygon.class);
+        container.put(3, marker);
+        container.put(1, polyline);
+        container.put(2, polygon);
+        assertEquals(Arrays.<Annotation>asList(polyline, polygon, marker), container.getAnnotations());
+    }
+
+    @Test
+    public void testPutReplaces() {
+        Marker first = mock(Marker.class);
+        Marker second = mock(Marker.class);
+        Polyline polyline = mock(Polyline.class);
+        container.put(1, first);
+        container.put(1, second);
+        assertEquals("size should match", 1, container.size());
+        assertSame(second, container.get(1));
+
+        container.put(1, polyline);
+        assertTrue("markers should be empty", container.getMarkers().isEmpty());
+        assertEquals(Arrays.asList(polyline), container.getPolylines());
+    }
+
+    @Test
+    public void testRemove() {
+        Marker[] markers = new Marker[5];
+        for (int i = 0; i < markers.length; i++) {
+            markers[i] = mock(Marker.class);
+            container.put(i, markers[i]);
+        }
+
+        assertSame(markers[1], container.remove(1));
+        assertNull("removing twice should return null", container.remove(1));
+        assertFalse("container shouldn't contain id", container.contains(1));
+        assertEquals("size should match", 4, container.size());
+
+        // the moved entry must still resolve
+        assertSame(markers[4], container.get(4));
+        assertSame(markers[0], container.get(0));
+        List<Marker> remaining = container.getMarkers();
+        assertEquals("size should match", 4, remaining.size());
+        assertFalse("removed marker shouldn't be listed", remaining.contains(markers[1]));
+    }
+
+    @Test
+    public void testClear() {
+        container.put(1, mock(Marker.class));
+        container.put(2, mock(Polygon.class));
+        container.clear();
+        assertEquals("container should be empty", 0, container.size());
+        assertTrue("annotations should be empty", container.getAnnotations().isEmpty());
+        assertArrayEquals(new long[0], container.getIds());
+    }
+
+    @Test
+    public void testGetIds() {
+        container.put(7, mock(Polygon.class));
+        container.put(3, mock(Marker.class));
+        long[] ids = container.getIds();
+        Arrays.sort(ids);
+        assertArrayEquals(new long[]{3, 7}, ids);
+    }
+
+    @Test
+    public void testViewIsSnapshot() {
+        Marker first = mock(Marker.class);
+        Marker second = mock(Marker.class);
+        container.put(1, first);
+        List<Marker> markers = container.getMarkers();
+        assertSame("unchanged container should return the same view", markers, container.getMarkers());
+
+        container.put(2, second);
+        container.remove(1);
+        assertEquals(Arrays.asList(first), markers);
+        assertEquals(Arrays.asList(second), container.getMarkers());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testViewIsReadOnly() {
+        container.getMarkers().add(mock(Marker.class));
+    }
+}
@@ -0,0 +1,170 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.Bitmap;
+
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.IconFactory;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.annotations.MarkerView;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.PolygonOptions;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.annotations.PolylineOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AnnotationSnapshotTest {
+
+    @Test
+    public void testSanity() {
+        AnnotationSnapshot snapshot = capture(Collections.<Marker>emptyList(), Collections.<Polyline>emptyList(),
+                Collections.<Polygon>emptyList());
+        AnnotationSnapshot.Contents contents = snapshot.read(mock(IconFactory.class));
+        assertTrue(contents.markers.isEmpty());
+        assertTrue(contents.polylines.isEmpty());
+        assertTrue(contents.polygons.isEmpty());
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Icon icon = mock(Icon.class);
+        when(icon.getId()).thenReturn("icon");
+        when(icon.getBitmap()).thenReturn(mock(Bitmap.class));
+        Marker first = marker(new LatLng(1, 2), icon, "title", null);
+        Marker second = marker(new LatLng(-3, 4), icon, null, "snippet é");
+
+        Polyline polyline = mock(Polyline.class);
+        when(polyline.getColor()).thenReturn(0xff00ff00);
+        when(polyline.getWidth()).thenReturn(4f);
+        when(polyline.getAlpha()).thenReturn(0.5f);
+        when(polyline.getCoordinates()).thenReturn(new double[]{1, 2, 3, 4});
+
+        Polygon polygon = mock(Polygon.class);
+        when(polygon.getFillColor()).thenReturn(0xff0000ff);
+        when(polygon.getStrokeColor()).thenReturn(0xffff0000);
+        when(polygon.getAlpha()).thenReturn(0.25f);
+        when(polygon.getCoordinates()).thenReturn(new double[]{0, 0, 1, 1, 0, 1});
+
+        AnnotationSnapshot snapshot = AnnotationSnapshot.fromByteArray(
+                capture(Arrays.asList(first, second), Collections.singletonList(polyline),
+                        Collections.singletonList(polygon)).toByteArray());
+        AnnotationSnapshot.Contents contents = snapshot.read(mock(IconFactory.class));
+
+        assertEquals(2, contents.markers.size());
+        MarkerOptions firstOptions = contents.markers.get(0);
+        MarkerOptions secondOptions = contents.markers.get(1);
+        assertEquals(new LatLng(1, 2), firstOptions.getPosition());
+        assertEquals("title", firstOptions.getTitle());
+        assertNull(firstOptions.getSnippet());
+        assertEquals(new LatLng(-3, 4), secondOptions.getPosition());
+        assertEquals("snippet é", secondOptions.getSnippet());
+        assertSame("markers should share the icon", firstOptions.getIcon(), secondOptions.getIcon());
+
+        PolylineOptions polylineOptions = contents.polylines.get(0);
+        assertEquals(0xff00ff00, polylineOptions.getColor());
+        assertEquals(4f, polylineOptions.getWidth(), 0);
+        assertEquals(0.5f, polylineOptions.getAlpha(), 0);
+        assertArrayEquals(new double[]{1, 2, 3, 4}, polylineOptions.getCoordinates(), 0);
+
+        PolygonOptions polygonOptions = contents.polygons.get(0);
+        assertEquals(0xff0000ff, polygonOptions.getFillColor());
+        assertEquals(0xffff0000, polygonOptions.getStrokeColor());
+        assertEquals(0.25f, polygonOptions.getAlpha(), 0);
+        assertArrayEquals(new double[]{0, 0, 1, 1, 0, 1}, polygonOptions.getCoordinates(), 0);
+    }
+
+    @Test
+    public void testMarkerViewsSkipped() {
+        MarkerView markerView = mock(MarkerView.class);
+        when(markerView.getPosition()).thenReturn(new LatLng(1, 2));
+        AnnotationSnapshot snapshot = capture(Collections.<Marker>singletonList(markerView),
+                Collections.<Polyline>emptyList(), Collections.<Polygon>emptyList());
+        assertTrue(snapshot.read(mock(IconFactory.class)).markers.isEmpty());
+    }
+
+    @Test
+    public void testPackedMarkers() {
+        Icon icon = mock(Icon.class);
+        when(icon.getId()).thenReturn("icon");
+        when(icon.getBitmap()).thenReturn(mock(Bitmap.class));
+        PackedMarkerStore packedMarkers = new PackedMarkerStore(mock(IconManager.class));
+        packedMarkers.add(new long[]{4, 5}, new double[]{1, 2, 3, 4}, new int[]{0, 0}, new Icon[]{icon}, null);
+
+        AnnotationSnapshot snapshot = AnnotationSnapshot.capture(
+                Collections.singletonList(marker(new LatLng(5, 6), icon, "title", null)), packedMarkers,
+                Collections.<Polyline>emptyList(), Collections.<Polygon>emptyList(), Collections.<Marker>emptySet());
+        List<MarkerOptions> markers = snapshot.read(mock(IconFactory.class)).markers;
+
+        assertEquals(3, markers.size());
+        assertEquals(new LatLng(5, 6), markers.get(0).getPosition());
+        assertEquals(new LatLng(1, 2), markers.get(1).getPosition());
+        assertEquals(new LatLng(3, 4), markers.get(2).getPosition());
+        assertNull(markers.get(1).getTitle());
+        assertEquals("packed markers should still be provided", 2, packedMarkers.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidData() {
+        AnnotationSnapshot.fromByteArray(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCorruptMarkerCount() throws IOException {
+        // a marker count far beyond the data that follows
+        snapshot(0, Integer.MAX_VALUE).read(mock(IconFactory.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCorruptIconLength() throws IOException {
+        // one icon with a density and a png length beyond the data that follows
+        snapshot(1, 160, 1 << 30).read(mock(IconFactory.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCoordinateCount() throws IOException {
+        // no icons or markers, one polyline with a negative coordinate count
+        snapshot(0, 0, 1, 0, 0, 0, -2).read(mock(IconFactory.class));
+    }
+
+    private static AnnotationSnapshot snapshot(int... values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        byte[] header = capture(Collections.<Marker>emptyList(), Collections.<Polyline>emptyList(),
+                Collections.<Polygon>emptyList()).toByteArray();
+        out.write(header, 0, 8);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+        return AnnotationSnapshot.fromByteArray(bytes.toByteArray());
+    }
+
+    private static AnnotationSnapshot capture(List<Marker> markers, List<Polyline> polylines, List<Polygon> polygons) {
+        return AnnotationSnapshot.capture(markers, null, polylines, polygons, Collections.<Marker>emptySet());
+    }
+
+    private static Marker marker(LatLng position, Icon icon, String title, String snippet) {
+        Marker marker = mock(Marker.class);
+        when(marker.getPosition()).thenReturn(position);
+        when(marker.getIcon()).thenReturn(icon);
+        when(marker.getTitle()).thenReturn(title);
+        when(marker.getSnippet()).thenReturn(snippet);
+        return marker;
+    }
+}
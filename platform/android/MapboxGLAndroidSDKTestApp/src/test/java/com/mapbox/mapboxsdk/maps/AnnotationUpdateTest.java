@@ -0,0 +1,178 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AnnotationUpdateTest {
+
+    private AnnotationUpdate update;
+    private NativeMapView nativeMapView;
+
+    @Before
+    public void beforeTest() {
+        update = new AnnotationUpdate();
+        nativeMapView = mock(NativeMapView.class);
+    }
+
+    @Test
+    public void testSanity() {
+        assertTrue("update should be empty", update.isEmpty());
+    }
+
+    @Test
+    public void testApplyPacksMarkers() {
+        Icon icon = mock(Icon.class);
+        when(icon.getId()).thenReturn("icon");
+        Marker updated = marker(4, 1, 2, icon);
+        Marker added = marker(-1, 3, 4, icon);
+        Polyline polyline = mock(Polyline.class);
+        when(polyline.getId()).thenReturn(5L);
+
+        update.update(updated);
+        update.update(updated);
+        update.update(polyline);
+        update.add(added);
+        update.remove(9);
+        assertFalse("update shouldn't be empty", update.isEmpty());
+
+        when(nativeMapView.updateAnnotations(any(long[].class), any(long[].class), any(double[].class),
+                any(int[].class), any(String[].class), any(long[].class), any(Polyline[].class),
+                any(long[].class), any(Polygon[].class)))
+                .thenReturn(new long[]{4, 10});
+        long[] ids = update.apply(nativeMapView);
+        assertArrayEquals("only the ids of added markers should be returned", new long[]{10}, ids);
+
+        ArgumentCaptor<long[]> removed = ArgumentCaptor.forClass(long[].class);
+        ArgumentCaptor<long[]> markerIds = ArgumentCaptor.forClass(long[].class);
+        ArgumentCaptor<double[]> positions = ArgumentCaptor.forClass(double[].class);
+        ArgumentCaptor<int[]> icons = ArgumentCaptor.forClass(int[].class);
+        ArgumentCaptor<String[]> iconIds = ArgumentCaptor.forClass(String[].class);
+        ArgumentCaptor<long[]> polylineIds = ArgumentCaptor.forClass(long[].class);
+        verify(nativeMapView).updateAnnotations(removed.capture(), markerIds.capture(), positions.capture(),
+                icons.capture(), iconIds.capture(), polylineIds.capture(), any(Polyline[].class),
+                any(long[].class), any(Polygon[].class));
+
+        assertArrayEquals(new long[]{9}, removed.getValue());
+        assertArrayEquals(new long[]{4, -1}, markerIds.getValue());
+        assertArrayEquals(new double[]{1, 2, 3, 4}, positions.getValue(), 0);
+        assertArrayEquals(new int[]{0, 0}, icons.getValue());
+        assertArrayEquals(new String[]{"icon"}, iconIds.getValue());
+        assertArrayEquals(new long[]{5}, polylineIds.getValue());
+    }
+
+    @Test
+    public void testRemoveDiscardsPendingChanges() {
+        Marker updated = marker(4, 1, 2, null);
+        Marker added = marker(-1, 3, 4, null);
+        update.update(updated);
+        update.add(added);
+
+        update.remove(updated);
+        update.remove(added);
+        assertTrue("pending addition should be discarded", update.getAdditions().isEmpty());
+
+        when(nativeMapView.updateAnnotations(any(long[].class), any(long[].class), any(double[].class),
+                any(int[].class), any(String[].class), any(long[].class), any(Polyline[].class),
+                any(long[].class), any(Polygon[].class)))
+                .thenReturn(new long[0]);
+        update.apply(nativeMapView);
+
+        ArgumentCaptor<long[]> removed = ArgumentCaptor.forClass(long[].class);
+        ArgumentCaptor<long[]> markerIds = ArgumentCaptor.forClass(long[].class);
+        verify(nativeMapView).updateAnnotations(removed.capture(), markerIds.capture(), any(double[].class),
+                any(int[].class), any(String[].class), any(long[].class), any(Polyline[].class),
+                any(long[].class), any(Polygon[].class));
+        assertArrayEquals(new long[]{4}, removed.getValue());
+        assertEquals("pending update should be discarded", 0, markerIds.getValue().length);
+    }
+
+    @Test
+    public void testRemovePendingMarkerByIdentity() {
+        Icon icon = mock(Icon.class);
+        when(icon.getId()).thenReturn("icon");
+        // real markers, pending markers all have id -1 and compare equal
+        Marker first = new MarkerOptions().position(new LatLng(1, 2)).icon(icon).getMarker();
+        Marker second = new MarkerOptions().position(new LatLng(3, 4)).icon(icon).getMarker();
+        update.add(first);
+        update.add(second);
+
+        update.remove(second);
+        assertEquals(1, update.getAdditions().size());
+        assertSame("the removed marker should be discarded", first, update.getAdditions().get(0));
+
+        when(nativeMapView.updateAnnotations(any(long[].class), any(long[].class), any(double[].class),
+                any(int[].class), any(String[].class), any(long[].class), any(Polyline[].class),
+                any(long[].class), any(Polygon[].class)))
+                .thenReturn(new long[]{10});
+        assertArrayEquals(new long[]{10}, update.apply(nativeMapView));
+
+        ArgumentCaptor<double[]> positions = ArgumentCaptor.forClass(double[].class);
+        verify(nativeMapView).updateAnnotations(any(long[].class), any(long[].class), positions.capture(),
+                any(int[].class), any(String[].class), any(long[].class), any(Polyline[].class),
+                any(long[].class), any(Polygon[].class));
+        assertArrayEquals("the first marker should be committed", new double[]{1, 2}, positions.getValue(), 0);
+    }
+
+    @Test
+    public void testApplyPackedMarkers() {
+        Icon first = mock(Icon.class);
+        when(first.getId()).thenReturn("first");
+        Icon second = mock(Icon.class);
+        when(second.getId()).thenReturn("second");
+
+        update.add(marker(-1, 1, 2, first));
+        update.update(7, 3, 4, second);
+        update.update(8, 5, 6, second);
+        update.update(7, 7, 8, first);
+        update.remove(8);
+        long[] packedIds = new long[]{-1, -1};
+        update.add(packedIds, new double[]{9, 10, 11, 12}, new int[]{1, 0}, new Icon[]{first, second});
+        assertEquals(2, update.getPackedAdditionCount());
+
+        when(nativeMapView.updateAnnotations(any(long[].class), any(long[].class), any(double[].class),
+                any(int[].class), any(String[].class), any(long[].class), any(Polyline[].class),
+                any(long[].class), any(Polygon[].class)))
+                .thenReturn(new long[]{7, 20, 21, 22});
+        long[] ids = update.apply(nativeMapView);
+        assertArrayEquals("only the ids of added Marker objects should be returned", new long[]{20}, ids);
+        assertArrayEquals("packed additions should receive their ids", new long[]{21, 22}, packedIds);
+
+        ArgumentCaptor<long[]> markerIds = ArgumentCaptor.forClass(long[].class);
+        ArgumentCaptor<double[]> positions = ArgumentCaptor.forClass(double[].class);
+        ArgumentCaptor<int[]> icons = ArgumentCaptor.forClass(int[].class);
+        ArgumentCaptor<String[]> iconIds = ArgumentCaptor.forClass(String[].class);
+        verify(nativeMapView).updateAnnotations(any(long[].class), markerIds.capture(), positions.capture(),
+                icons.capture(), iconIds.capture(), any(long[].class), any(Polyline[].class),
+                any(long[].class), any(Polygon[].class));
+        assertArrayEquals(new long[]{7, -1, -1, -1}, markerIds.getValue());
+        assertArrayEquals(new double[]{7, 8, 1, 2, 9, 10, 11, 12}, positions.getValue(), 0);
+        assertArrayEquals(new int[]{0, 0, 1, 0}, icons.getValue());
+        assertArrayEquals(new String[]{"first", "second"}, iconIds.getValue());
+    }
+
+    private static Marker marker(long id, double lat, double lng, Icon icon) {
+        Marker marker = mock(Marker.class);
+        when(marker.getId()).thenReturn(id);
+        when(marker.getPosition()).thenReturn(new LatLng(lat, lng));
+        when(marker.getIcon()).thenReturn(icon);
+        return marker;
+    }
+}
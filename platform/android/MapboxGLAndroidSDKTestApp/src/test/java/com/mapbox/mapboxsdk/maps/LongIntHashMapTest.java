@@ -0,0 +1,84 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongIntHashMapTest {
+
+    private LongIntHashMap map;
+
+    @Before
+    public void beforeTest() {
+        map = new LongIntHashMap();
+    }
+
+    @Test
+    public void testSanity() {
+        assertEquals("map should be empty", 0, map.size());
+        assertEquals("missing key should return NONE", LongIntHashMap.NONE, map.get(0));
+    }
+
+    @Test
+    public void testPut() {
+        assertEquals(LongIntHashMap.NONE, map.put(1, 10));
+        assertEquals(10, map.put(1, 11));
+        assertEquals("size should match", 1, map.size());
+        assertEquals(11, map.get(1));
+        assertTrue("map should contain key", map.containsKey(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPutNegativeValue() {
+        map.put(1, -1);
+    }
+
+    @Test
+    public void testRemove() {
+        map.put(1, 10);
+        map.put(2, 20);
+        assertEquals(10, map.remove(1));
+        assertEquals(LongIntHashMap.NONE, map.remove(1));
+        assertFalse("map shouldn't contain key", map.containsKey(1));
+        assertEquals(20, map.get(2));
+        assertEquals("size should match", 1, map.size());
+    }
+
+    @Test
+    public void testClear() {
+        map.put(1, 10);
+        map.clear();
+        assertEquals("map should be empty", 0, map.size());
+        assertFalse("map shouldn't contain key", map.containsKey(1));
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            // small key range to exercise collisions, removals and reinserts
+            long key = random.nextInt(5000) - 2500;
+            if (random.nextBoolean()) {
+                int value = random.nextInt(Integer.MAX_VALUE);
+                Integer previous = expected.put(key, value);
+                assertEquals(previous == null ? LongIntHashMap.NONE : previous, map.put(key, value));
+            } else {
+                Integer previous = expected.remove(key);
+                assertEquals(previous == null ? LongIntHashMap.NONE : previous, map.remove(key));
+            }
+        }
+        assertEquals("size should match", expected.size(), map.size());
+        for (long key = -2500; key < 2500; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value == null ? LongIntHashMap.NONE : value, map.get(key));
+        }
+    }
+}
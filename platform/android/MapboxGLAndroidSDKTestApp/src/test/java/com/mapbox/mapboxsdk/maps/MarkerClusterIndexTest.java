@@ -0,0 +1,83 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MarkerClusterIndexTest {
+
+    private MarkerClusterIndex index;
+
+    @Before
+    public void beforeTest() {
+        index = new MarkerClusterIndex(50, 16, 2);
+    }
+
+    @Test
+    public void testSanity() {
+        index.load(new double[0]);
+        assertEquals(0, index.getPointCount());
+        assertEquals(0, index.getClusters(-90, -180, 90, 180, 0).length);
+    }
+
+    @Test
+    public void testNearbyPointsCluster() {
+        index.load(new double[] {10, 10, 10.001, 10.001, -40, -60});
+
+        int[] clusters = index.getClusters(-85, -180, 85, 180, 3);
+        assertEquals(2, clusters.length);
+        int cluster = index.isCluster(clusters[0]) ? clusters[0] : clusters[1];
+        assertTrue(index.isCluster(cluster));
+        assertEquals(2, index.getPointCount(cluster));
+        assertEquals(10.0005, index.getLatitude(cluster), 1e-6);
+        assertEquals(10.0005, index.getLongitude(cluster), 1e-6);
+
+        // the points are far enough apart to be shown separately at the highest zoom levels
+        assertEquals(3, index.getClusters(-85, -180, 85, 180, 17).length);
+        int expansionZoom = index.getExpansionZoom(cluster);
+        assertEquals(3, index.getClusters(-85, -180, 85, 180, expansionZoom).length);
+        assertEquals(2, index.getClusters(-85, -180, 85, 180, expansionZoom - 1).length);
+    }
+
+    @Test
+    public void testPointCountsAddUp() {
+        Random random = new Random(7);
+        int count = 10000;
+        double[] coordinates = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            coordinates[i * 2] = random.nextDouble() * 160 - 80;
+            coordinates[i * 2 + 1] = random.nextDouble() * 360 - 180;
+        }
+        index.load(coordinates);
+
+        for (int zoom = 0; zoom <= 17; zoom++) {
+            int total = 0;
+            for (int node : index.getClusters(-85, -180, 85, 180, zoom)) {
+                total += index.getPointCount(node);
+            }
+            assertEquals("all points should be accounted for at zoom " + zoom, count, total);
+        }
+        assertTrue("low zoom levels should be clustered", index.getClusters(-85, -180, 85, 180, 0).length < 100);
+    }
+
+    @Test
+    public void testQueryArea() {
+        index.load(new double[] {10, 10, -10, -10});
+        int[] clusters = index.getClusters(0, 0, 20, 20, 17);
+        assertEquals(1, clusters.length);
+        assertEquals(0, clusters[0]);
+        assertFalse(index.isCluster(clusters[0]));
+    }
+
+    @Test
+    public void testQueryAcrossAntimeridian() {
+        index.load(new double[] {0, 179, 0, -179, 0, 0});
+        assertEquals(2, index.getClusters(-10, 170, 10, -170, 17).length);
+        assertEquals(2, index.getClusters(-10, 170, 10, 190, 17).length);
+    }
+}
@@ -0,0 +1,160 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerClusterOptions;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.camera.CameraPosition;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+import com.mapbox.mapboxsdk.geometry.VisibleRegion;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MarkerClusterManagerTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    private AnnotationManager annotationManager;
+    private MapboxMap mapboxMap;
+    private MarkerClusterOptions clusterOptions;
+
+    @Before
+    public void beforeTest() {
+        annotationManager = mock(AnnotationManager.class);
+        // markers added within an outer annotation update are pending, they don't have an id yet
+        when(annotationManager.addMarkers(anyList(), any(MapboxMap.class))).thenAnswer(new Answer<List<Marker>>() {
+            @Override
+            public List<Marker> answer(InvocationOnMock invocation) throws Throwable {
+                List<?> options = (List<?>) invocation.getArguments()[0];
+                List<Marker> markers = new ArrayList<>(options.size());
+                for (int i = 0; i < options.size(); i++) {
+                    Marker marker = mock(Marker.class);
+                    when(marker.getId()).thenReturn(-1L);
+                    markers.add(marker);
+                }
+                return markers;
+            }
+        });
+
+        LatLngBounds bounds = new LatLngBounds.Builder()
+                .include(new LatLng(10, 10))
+                .include(new LatLng(-10, -10))
+                .build();
+        Projection projection = mock(Projection.class);
+        when(projection.getVisibleRegion()).thenReturn(new VisibleRegion(new LatLng(10, -10), new LatLng(10, 10),
+                new LatLng(-10, -10), new LatLng(-10, 10), bounds));
+        mapboxMap = mock(MapboxMap.class);
+        when(mapboxMap.getProjection()).thenReturn(projection);
+        when(mapboxMap.getCameraPosition()).thenReturn(new CameraPosition.Builder()
+                .target(new LatLng())
+                .zoom(18)
+                .build());
+
+        clusterOptions = new MarkerClusterOptions();
+    }
+
+    @Test
+    public void testReclusterRemovesPendingMarkers() {
+        MarkerClusterManager clusterManager = new MarkerClusterManager(annotationManager, DIRECT, DIRECT);
+        clusterManager.setMarkers(markerOptions(1, 2), clusterOptions, mapboxMap);
+        List<Marker> pending = new ArrayList<>(clusterManager.getShownMarkers());
+        assertEquals(2, pending.size());
+
+        clusterManager.setMarkers(markerOptions(3), clusterOptions, mapboxMap);
+        List<Marker> removed = captureRemoved();
+        assertEquals("pending markers should be removed", 2, removed.size());
+        assertTrue(removed.containsAll(pending));
+        assertEquals(1, clusterManager.getShownMarkers().size());
+    }
+
+    @Test
+    public void testClearRemovesPendingMarkers() {
+        MarkerClusterManager clusterManager = new MarkerClusterManager(annotationManager, DIRECT, DIRECT);
+        clusterManager.setMarkers(markerOptions(1), clusterOptions, mapboxMap);
+        Marker pending = clusterManager.getShownMarkers().iterator().next();
+
+        clusterManager.clear();
+        List<Marker> removed = captureRemoved();
+        assertEquals(1, removed.size());
+        assertSame("pending marker should be removed", pending, removed.get(0));
+        assertTrue(clusterManager.getShownMarkers().isEmpty());
+    }
+
+    @Test
+    public void testStaleBuildsAreSkipped() {
+        final List<Runnable> builds = new ArrayList<>();
+        MarkerClusterManager clusterManager = new MarkerClusterManager(annotationManager, new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                builds.add(runnable);
+            }
+        }, DIRECT);
+        clusterManager.setMarkers(markerOptions(1, 2), clusterOptions, mapboxMap);
+        clusterManager.setMarkers(markerOptions(3), clusterOptions, mapboxMap);
+        for (Runnable build : builds) {
+            build.run();
+        }
+
+        ArgumentCaptor<List> added = ArgumentCaptor.forClass(List.class);
+        verify(annotationManager, times(1)).addMarkers(added.capture(), any(MapboxMap.class));
+        assertEquals("only the latest markers should be added", 1, added.getValue().size());
+        assertEquals(new LatLng(3, 3), ((BaseMarkerOptions) added.getValue().get(0)).getPosition());
+    }
+
+    @Test
+    public void testClearSkipsPendingBuild() {
+        final List<Runnable> builds = new ArrayList<>();
+        MarkerClusterManager clusterManager = new MarkerClusterManager(annotationManager, new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                builds.add(runnable);
+            }
+        }, DIRECT);
+        clusterManager.setMarkers(markerOptions(1), clusterOptions, mapboxMap);
+        clusterManager.clear();
+        builds.get(0).run();
+
+        verify(annotationManager, times(0)).addMarkers(anyList(), any(MapboxMap.class));
+        assertTrue(clusterManager.getShownMarkers().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Marker> captureRemoved() {
+        ArgumentCaptor<List> removed = ArgumentCaptor.forClass(List.class);
+        verify(annotationManager).removeAnnotations(removed.capture());
+        return removed.getValue();
+    }
+
+    private static List<MarkerOptions> markerOptions(int... coordinates) {
+        List<MarkerOptions> options = new ArrayList<>(coordinates.length);
+        for (int coordinate : coordinates) {
+            options.add(new MarkerOptions().position(new LatLng(coordinate, coordinate)));
+        }
+        return Collections.unmodifiableList(options);
+    }
+}
@@ -0,0 +1,142 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.PointF;
+
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerView;
+import com.mapbox.mapboxsdk.annotations.MarkerViewManager;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyFloat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MarkerHitTesterTest {
+
+    private ProjectionState projectionState;
+    private Projection projection;
+    private AnnotationContainer annotations;
+    private MarkerSpatialIndex markerIndex;
+    private IconManager iconManager;
+    private MarkerViewManager markerViewManager;
+    private MarkerHitTester markerHitTester;
+
+    private Icon smallIcon;
+    private Icon largeIcon;
+
+    @Before
+    public void beforeTest() {
+        projectionState = new ProjectionState();
+        projectionState.update(0, 0, 0, 0, 10, 1000, 1000, 1);
+        NativeMapView nativeMapView = mock(NativeMapView.class);
+        when(nativeMapView.getProjectionState()).thenReturn(projectionState);
+        projection = new Projection(nativeMapView);
+
+        smallIcon = mock(Icon.class);
+        largeIcon = mock(Icon.class);
+        iconManager = mock(IconManager.class);
+        when(iconManager.getIconWidth(smallIcon)).thenReturn(20f);
+        when(iconManager.getIconHeight(smallIcon)).thenReturn(20f);
+        when(iconManager.getIconWidth(largeIcon)).thenReturn(100f);
+        when(iconManager.getIconHeight(largeIcon)).thenReturn(60f);
+        when(iconManager.getMaxIconWidth()).thenReturn(100f);
+        when(iconManager.getMaxIconHeight()).thenReturn(60f);
+
+        markerViewManager = mock(MarkerViewManager.class);
+        when(markerViewManager.getMarkerViewsAt(anyFloat(), anyFloat(), anyFloat(), anyFloat()))
+                .thenReturn(Collections.<MarkerView>emptyList());
+
+        annotations = new AnnotationContainer();
+        markerIndex = new MarkerSpatialIndex();
+        markerHitTester = new MarkerHitTester(annotations, markerIndex, iconManager, markerViewManager);
+    }
+
+    @Test
+    public void testNoMarkers() {
+        assertEquals(0, markerHitTester.hitTest(projection, 500, 500, 0, 0).length);
+    }
+
+    @Test
+    public void testIconBounds() {
+        LatLng position = new LatLng(0.01, 0.01);
+        addMarker(1, position, smallIcon);
+        PointF center = projection.toScreenLocation(position);
+
+        assertArrayEquals(new long[] {1}, markerHitTester.hitTest(projection, center.x + 9, center.y - 9, 0, 0));
+        assertEquals(0, markerHitTester.hitTest(projection, center.x + 11, center.y, 0, 0).length);
+        assertEquals(0, markerHitTester.hitTest(projection, center.x, center.y + 11, 0, 0).length);
+
+        // the tolerance extends the bounds of the icon
+        assertArrayEquals(new long[] {1}, markerHitTester.hitTest(projection, center.x + 13, center.y, 4, 0));
+    }
+
+    @Test
+    public void testMixedIconSizes() {
+        LatLng position = new LatLng(0.01, 0.01);
+        addMarker(1, position, largeIcon);
+        addMarker(2, position, smallIcon);
+        PointF center = projection.toScreenLocation(position);
+
+        // only the large icon covers this location
+        assertArrayEquals(new long[] {1}, markerHitTester.hitTest(projection, center.x + 45, center.y + 25, 0, 0));
+        assertArrayEquals(new long[] {2, 1}, markerHitTester.hitTest(projection, center.x, center.y, 0, 0));
+    }
+
+    @Test
+    public void testMostRecentMarkerOnTop() {
+        LatLng position = new LatLng(-0.01, 0.02);
+        addMarker(3, position, smallIcon);
+        addMarker(7, new LatLng(-0.01, 0.0201), smallIcon);
+        addMarker(5, position, smallIcon);
+        PointF center = projection.toScreenLocation(position);
+
+        assertArrayEquals(new long[] {7, 5, 3}, markerHitTester.hitTest(projection, center.x, center.y, 0, 0));
+    }
+
+    @Test
+    public void testMarkerViewsOnTop() {
+        LatLng position = new LatLng(0, 0);
+        addMarker(1, position, smallIcon);
+        MarkerView markerView = mock(MarkerView.class);
+        when(markerView.getId()).thenReturn(2L);
+        annotations.put(2, markerView);
+        markerIndex.put(2, 0, 0);
+        List<MarkerView> markerViews = Collections.singletonList(markerView);
+        when(markerViewManager.getMarkerViewsAt(500, 500, 0, 0)).thenReturn(markerViews);
+
+        // the MarkerView isn't tested against its ghost icon on the map
+        assertArrayEquals(new long[] {2, 1}, markerHitTester.hitTest(projection, 500, 500, 0, 0));
+    }
+
+    @Test
+    public void testAntimeridian() {
+        projectionState.update(0, 180, 0, 0, 10, 1000, 1000, 1);
+        LatLng west = new LatLng(0, -179.98);
+        LatLng east = new LatLng(0, 179.98);
+        addMarker(1, west, smallIcon);
+        addMarker(2, east, smallIcon);
+
+        PointF westCenter = projection.toScreenLocation(west);
+        PointF eastCenter = projection.toScreenLocation(east);
+        assertArrayEquals(new long[] {1}, markerHitTester.hitTest(projection, westCenter.x, westCenter.y, 0, 0));
+        assertArrayEquals(new long[] {2}, markerHitTester.hitTest(projection, eastCenter.x, eastCenter.y, 0, 0));
+    }
+
+    private void addMarker(long id, LatLng position, Icon icon) {
+        Marker marker = mock(Marker.class);
+        when(marker.getId()).thenReturn(id);
+        when(marker.getPosition()).thenReturn(position);
+        when(marker.getIcon()).thenReturn(icon);
+        annotations.put(id, marker);
+        markerIndex.put(id, position.getLatitude(), position.getLongitude());
+    }
+}
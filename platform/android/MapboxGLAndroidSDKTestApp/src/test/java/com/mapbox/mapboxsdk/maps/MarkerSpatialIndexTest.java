@@ -0,0 +1,178 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.utils.MercatorUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MarkerSpatialIndexTest {
+
+    private MarkerSpatialIndex index;
+
+    @Before
+    public void beforeTest() {
+        index = new MarkerSpatialIndex();
+    }
+
+    @Test
+    public void testSanity() {
+        assertEquals("index should be empty", 0, index.size());
+        assertEquals("query on empty index should be empty", 0, index.query(bounds(-90, -180, 90, 180)).length);
+    }
+
+    @Test
+    public void testPut() {
+        index.put(1, 10, 10);
+        index.put(2, -10, -10);
+        assertEquals("size should match", 2, index.size());
+        assertTrue("index should contain id", index.contains(1));
+        assertArrayEquals(new long[]{1}, index.query(bounds(5, 5, 15, 15)));
+        assertArrayEquals(new long[]{1, 2}, index.query(bounds(-20, -20, 20, 20)));
+    }
+
+    @Test
+    public void testMove() {
+        index.put(1, 10, 10);
+        index.put(1, 50, 50);
+        assertEquals("size should match", 1, index.size());
+        assertEquals(0, index.query(bounds(5, 5, 15, 15)).length);
+        assertArrayEquals(new long[]{1}, index.query(bounds(45, 45, 55, 55)));
+    }
+
+    @Test
+    public void testRemove() {
+        index.put(1, 10, 10);
+        index.put(2, 10.0001, 10.0001);
+        index.remove(1);
+        index.remove(3);
+        assertEquals("size should match", 1, index.size());
+        assertFalse("index shouldn't contain id", index.contains(1));
+        assertArrayEquals(new long[]{2}, index.query(bounds(5, 5, 15, 15)));
+
+        // removed slot is reused
+        index.put(3, 10, 10);
+        assertArrayEquals(new long[]{2, 3}, index.query(bounds(5, 5, 15, 15)));
+    }
+
+    @Test
+    public void testClear() {
+        index.put(1, 10, 10);
+        index.clear();
+        assertEquals("index should be empty", 0, index.size());
+        assertEquals(0, index.query(bounds(5, 5, 15, 15)).length);
+    }
+
+    @Test
+    public void testQueryAcrossAntimeridian() {
+        index.put(1, 0, 179);
+        index.put(2, 0, -179);
+        index.put(3, 0, 0);
+        // unwrapped viewport from 170 to 190 degrees longitude
+        assertArrayEquals(new long[]{1, 2}, index.query(bounds(-10, 170, 10, 190)));
+    }
+
+    @Test
+    public void testQueryScreenRectAcrossAntimeridian() {
+        ProjectionState projectionState = new ProjectionState();
+        projectionState.update(0, 180, 0, 0, 4, 1000, 1000, 1);
+        NativeMapView nativeMapView = mock(NativeMapView.class);
+        when(nativeMapView.getProjectionState()).thenReturn(projectionState);
+        Projection projection = new Projection(nativeMapView);
+
+        index.put(1, 0, 179);
+        index.put(2, 0, -179);
+        index.put(3, 0, 0);
+        index.put(4, 0, 90);
+        // the corners unproject to wrapped longitudes on both sides of the antimeridian
+        assertArrayEquals(new long[]{1, 2}, index.query(projection, 0, 0, 1000, 1000));
+    }
+
+    @Test
+    public void testQueryRotatedQuad() {
+        index.put(1, 0, 0);
+        index.put(2, 9, 9);
+        // diamond around the origin with a half diagonal of 10 degrees
+        double[] quad = new double[]{
+                MercatorUtils.projectX(0), MercatorUtils.projectY(10),
+                MercatorUtils.projectX(10), MercatorUtils.projectY(0),
+                MercatorUtils.projectX(0), MercatorUtils.projectY(-10),
+                MercatorUtils.projectX(-10), MercatorUtils.projectY(0)
+        };
+        assertArrayEquals(new long[]{1}, index.query(quad));
+    }
+
+    @Test
+    public void testQueryMatchesLinearScan() {
+        int count = 5000;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < count; i++) {
+            lats[i] = random.nextDouble() * 160 - 80;
+            lngs[i] = random.nextDouble() * 360 - 180;
+            index.put(i, lats[i], lngs[i]);
+        }
+
+        for (int q = 0; q < 50; q++) {
+            double south = random.nextDouble() * 140 - 70;
+            double west = random.nextDouble() * 340 - 170;
+            double north = south + random.nextDouble() * 10;
+            double east = west + random.nextDouble() * 10;
+
+            long[] expected = new long[count];
+            int found = 0;
+            for (int i = 0; i < count; i++) {
+                if (lats[i] >= south && lats[i] <= north && lngs[i] >= west && lngs[i] <= east) {
+                    expected[found++] = i;
+                }
+            }
+            assertArrayEquals(Arrays.copyOf(expected, found), index.query(bounds(south, west, north, east)));
+        }
+    }
+
+    @Test
+    public void testEmptyCellsRemoved() {
+        int count = 200;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        java.util.Random random = new java.util.Random(7);
+        for (int step = 0; step < 50; step++) {
+            for (int i = 0; i < count; i++) {
+                lats[i] = random.nextDouble() * 160 - 80;
+                lngs[i] = random.nextDouble() * 360 - 180;
+                index.put(i, lats[i], lngs[i]);
+            }
+            assertTrue("moving markers shouldn't leave empty cells", index.cellCount() <= count);
+        }
+
+        long[] all = new long[count];
+        for (int i = 0; i < count; i++) {
+            all[i] = i;
+        }
+        assertArrayEquals("cells should still be found after removals", all, index.query(bounds(-85, -180, 85, 180)));
+        assertArrayEquals(new long[]{5}, index.query(bounds(lats[5] - 1e-6, lngs[5] - 1e-6, lats[5] + 1e-6, lngs[5] + 1e-6)));
+
+        for (int i = 0; i < count; i++) {
+            index.remove(i);
+        }
+        assertEquals(0, index.cellCount());
+    }
+
+    private static double[] bounds(double south, double west, double north, double east) {
+        return new double[]{
+                MercatorUtils.projectX(west), MercatorUtils.projectY(north),
+                MercatorUtils.projectX(east), MercatorUtils.projectY(north),
+                MercatorUtils.projectX(east), MercatorUtils.projectY(south),
+                MercatorUtils.projectX(west), MercatorUtils.projectY(south)
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.mapbox.mapboxsdk.annotations.BaseMarkerViewOptions;
+import com.mapbox.mapboxsdk.annotations.MarkerView;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MarkerViewAdapterTest {
+
+    @Test
+    public void testDefaultPoolSize() {
+        assertEquals(10000, new TestAdapter(mock(Context.class)).getViewReusePoolSize());
+    }
+
+    @Test
+    public void testHitMissCounters() {
+        TestAdapter adapter = new TestAdapter(mock(Context.class), 4);
+        View view = mock(View.class);
+
+        assertNull(adapter.getViewReusePool().acquire());
+        assertEquals(0, adapter.getViewReusePoolHitCount());
+        assertEquals(1, adapter.getViewReusePoolMissCount());
+
+        adapter.releaseView(view);
+        assertEquals(1, adapter.getViewReusePoolCount());
+        assertSame(view, adapter.getViewReusePool().acquire());
+        assertEquals(1, adapter.getViewReusePoolHitCount());
+        assertEquals(1, adapter.getViewReusePoolMissCount());
+        assertEquals(0, adapter.getViewReusePoolCount());
+    }
+
+    @Test
+    public void testBoundedPool() {
+        TestAdapter adapter = new TestAdapter(mock(Context.class), 1);
+        ViewGroup parent = mock(ViewGroup.class);
+        View pooledView = mockChildView(parent);
+        View droppedView = mockChildView(parent);
+
+        adapter.releaseView(pooledView);
+        adapter.releaseView(droppedView);
+
+        assertEquals(1, adapter.getViewReusePoolCount());
+        verify(parent, never()).removeView(pooledView);
+        verify(parent).removeView(droppedView);
+        verify(droppedView).setVisibility(View.GONE);
+    }
+
+    @Test
+    public void testTrimViewReusePool() {
+        TestAdapter adapter = new TestAdapter(mock(Context.class), 4);
+        ViewGroup parent = mock(ViewGroup.class);
+        View first = mockChildView(parent);
+        View second = mockChildView(parent);
+        adapter.releaseView(first);
+        adapter.releaseView(second);
+
+        assertEquals(2, adapter.trimViewReusePool());
+        assertEquals(0, adapter.getViewReusePoolCount());
+        verify(parent).removeView(first);
+        verify(parent).removeView(second);
+
+        // trimming doesn't count as reuse
+        assertEquals(0, adapter.getViewReusePoolHitCount());
+        assertEquals(0, adapter.trimViewReusePool());
+    }
+
+    @Test
+    public void testCreateViewDefault() {
+        assertNull(new TestAdapter(mock(Context.class)).createView(mock(ViewGroup.class)));
+    }
+
+    private static View mockChildView(ViewGroup parent) {
+        View view = mock(View.class);
+        when(view.getParent()).thenReturn(parent);
+        return view;
+    }
+
+    private static class TestMarkerView extends MarkerView {
+
+        TestMarkerView(BaseMarkerViewOptions baseMarkerViewOptions) {
+            super(baseMarkerViewOptions);
+        }
+    }
+
+    private static class TestAdapter extends MapboxMap.MarkerViewAdapter<TestMarkerView> {
+
+        TestAdapter(Context context) {
+            super(context);
+        }
+
+        TestAdapter(Context context, int viewReusePoolSize) {
+            super(context, viewReusePoolSize);
+        }
+
+        @Nullable
+        @Override
+        public View getView(@NonNull TestMarkerView marker, @Nullable View convertView, @NonNull ViewGroup parent) {
+            return convertView;
+        }
+    }
+}
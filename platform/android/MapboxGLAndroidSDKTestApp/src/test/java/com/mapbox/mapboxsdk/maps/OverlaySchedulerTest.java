@@ -0,0 +1,104 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OverlaySchedulerTest {
+
+    private CountingOverlayUpdater overlayUpdater;
+    private OverlayScheduler overlayScheduler;
+
+    @Before
+    public void beforeTest() {
+        overlayUpdater = new CountingOverlayUpdater();
+        overlayScheduler = new OverlayScheduler(overlayUpdater);
+    }
+
+    @Test
+    public void testChangesCoalesced() {
+        overlayScheduler.scheduleInvalidation();
+        overlayScheduler.scheduleUpdate();
+        overlayScheduler.scheduleInvalidation();
+        assertTrue(overlayScheduler.isFrameScheduled());
+
+        overlayScheduler.doFrame(0);
+        assertEquals(1, overlayUpdater.updates);
+        assertEquals(1, overlayUpdater.invalidations);
+        assertFalse(overlayScheduler.isFrameScheduled());
+    }
+
+    @Test
+    public void testUpdateWithoutInvalidation() {
+        overlayScheduler.scheduleUpdate();
+        overlayScheduler.doFrame(0);
+        assertEquals(1, overlayUpdater.updates);
+        assertEquals(0, overlayUpdater.invalidations);
+    }
+
+    @Test
+    public void testNoFrameWithoutChanges() {
+        overlayScheduler.doFrame(0);
+        assertEquals(0, overlayUpdater.updates);
+        assertEquals(0, overlayUpdater.invalidations);
+    }
+
+    @Test
+    public void testFrameBudget() {
+        overlayScheduler.scheduleInvalidation();
+        overlayScheduler.doFrame(1000);
+        assertEquals(1000 + OverlayScheduler.FRAME_BUDGET_NANOS, overlayUpdater.deadlineNanos);
+    }
+
+    @Test
+    public void testInvalidationSpreadOverFrames() {
+        overlayUpdater.remainingFrames = 2;
+        overlayScheduler.scheduleInvalidation();
+
+        overlayScheduler.doFrame(0);
+        assertTrue(overlayScheduler.isFrameScheduled());
+        overlayScheduler.doFrame(0);
+        assertTrue(overlayScheduler.isFrameScheduled());
+        overlayScheduler.doFrame(0);
+        assertFalse(overlayScheduler.isFrameScheduled());
+
+        // overlays are only updated for the camera change, invalidation continues on its own
+        assertEquals(1, overlayUpdater.updates);
+        assertEquals(3, overlayUpdater.invalidations);
+    }
+
+    @Test
+    public void testCancel() {
+        overlayScheduler.scheduleInvalidation();
+        overlayScheduler.cancel();
+        overlayScheduler.doFrame(0);
+        assertEquals(0, overlayUpdater.updates);
+        assertEquals(0, overlayUpdater.invalidations);
+
+        overlayScheduler.scheduleUpdate();
+        assertFalse(overlayScheduler.isFrameScheduled());
+    }
+
+    private static class CountingOverlayUpdater implements OverlayScheduler.OverlayUpdater {
+
+        int updates;
+        int invalidations;
+        int remainingFrames;
+        long deadlineNanos;
+
+        @Override
+        public void updateOverlays() {
+            updates++;
+        }
+
+        @Override
+        public boolean invalidateMarkerViews(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+            invalidations++;
+            return remainingFrames-- <= 0;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PackedMarkerStoreTest {
+
+    private IconManager iconManager;
+    private PackedMarkerStore store;
+    private Icon firstIcon;
+    private Icon secondIcon;
+
+    @Before
+    public void beforeTest() {
+        iconManager = mock(IconManager.class);
+        store = new PackedMarkerStore(iconManager);
+        firstIcon = mock(Icon.class);
+        secondIcon = mock(Icon.class);
+        store.add(new long[]{4, 5, 6}, new double[]{1, 2, 3, 4, 5, 6}, new int[]{0, 1, 0},
+                new Icon[]{firstIcon, secondIcon}, null);
+    }
+
+    @Test
+    public void testSanity() {
+        assertEquals(3, store.size());
+        assertTrue(store.contains(5));
+        assertFalse(store.contains(7));
+        assertArrayEquals(new long[]{4, 5, 6}, store.getIds());
+    }
+
+    @Test
+    public void testCreateMarker() {
+        Marker marker = store.createMarker(4);
+        assertNotNull(marker);
+        assertEquals(4, marker.getId());
+        assertEquals(new LatLng(1, 2), marker.getPosition());
+        assertSame(firstIcon, marker.getIcon());
+        verify(iconManager).adoptIcon(marker);
+
+        // the last marker moved into the gap
+        assertFalse(store.contains(4));
+        assertArrayEquals(new long[]{6, 5}, store.getIds());
+        assertEquals(new LatLng(5, 6), store.createMarker(6).getPosition());
+    }
+
+    @Test
+    public void testRemoveReleasesIcons() {
+        assertTrue(store.remove(5));
+        assertFalse(store.remove(5));
+        verify(iconManager).releaseIcon(secondIcon);
+
+        store.clear();
+        assertEquals(0, store.size());
+        verify(iconManager, times(2)).releaseIcon(firstIcon);
+    }
+
+    @Test
+    public void testContainerCreatesMarkersOnRequest() {
+        AnnotationContainer annotations = new AnnotationContainer();
+        annotations.setLazyMarkers(store);
+        assertEquals(3, annotations.size());
+        assertEquals(3, annotations.getMarkerCount());
+        assertTrue(annotations.contains(6));
+
+        Marker marker = (Marker) annotations.get(6);
+        assertSame("marker should only be created once", marker, annotations.get(6));
+        assertEquals(2, store.size());
+
+        assertEquals(3, annotations.getMarkers().size());
+        assertEquals(0, store.size());
+        assertEquals(3, annotations.size());
+    }
+}
@@ -0,0 +1,121 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Expected values are the results of the native transform, see test/map/transform.test.cpp.
+ */
+public class ProjectionStateTest {
+
+    private static final float PIXEL_DELTA = 1;
+
+    @Test
+    public void testPerspectiveProjection() {
+        ProjectionState projectionState = new ProjectionState();
+        assertTrue(projectionState.update(38, -77, 0, Math.toDegrees(0.9), 10, 1000, 1000, 1));
+
+        double[] latLngs = new double[4];
+        projectionState.fromScreenLocations(new float[] {0, 0, 1000, 1000}, latLngs, 2);
+        assertEquals(38.74661326302018, latLngs[0], 0.0001);
+        assertEquals(-77.59198961199148, latLngs[1], 0.0002);
+        assertEquals(37.692872969426375, latLngs[2], 0.0001);
+        assertEquals(-76.75823239205641, latLngs[3], 0.0001);
+
+        float[] pixels = new float[4];
+        projectionState.toScreenLocations(new double[] {
+                38.74661326302018, -77.59198961199148, 37.692872969426375, -76.75823239205641}, pixels, 2);
+        assertArrayEquals(new float[] {0, 0, 1000, 1000}, pixels, 0.02f);
+    }
+
+    @Test
+    public void testAntimeridian() {
+        ProjectionState projectionState = new ProjectionState();
+        double[] sanFrancisco = new double[] {37.7833, -122.4167};
+        float[] pixel = new float[2];
+
+        projectionState.update(0, 0, 0, 0, 1, 1000, 1000, 1);
+        projectionState.toScreenLocations(sanFrancisco, pixel, 1);
+        assertEquals(151.79409149185352, pixel[0], 0.01);
+        assertEquals(383.76774094913071, pixel[1], 0.01);
+
+        projectionState.update(0, -181, 0, 0, 1, 1000, 1000, 1);
+        projectionState.toScreenLocations(sanFrancisco, pixel, 1);
+        assertEquals(666.63617954008976, pixel[0], 0.01);
+
+        projectionState.update(0, 179, 0, 0, 1, 1000, 1000, 1);
+        projectionState.toScreenLocations(sanFrancisco, pixel, 1);
+        assertEquals(666.63617954008976, pixel[0], 0.01);
+
+        double[] waikiri = new double[] {-16.9310, 179.9787};
+        projectionState.update(waikiri[0], 180.0213, 0, 0, 10, 1000, 1000, 1);
+        projectionState.toScreenLocations(waikiri, pixel, 1);
+        assertEquals(437.95953728819512, pixel[0], 0.01);
+        assertEquals(500, pixel[1], 0.01);
+
+        double[] latLng = new double[2];
+        projectionState.fromScreenLocations(pixel, latLng, 1);
+        assertArrayEquals(waikiri, latLng, 0.000001);
+    }
+
+    @Test
+    public void testPixelRatio() {
+        ProjectionState projectionState = new ProjectionState();
+        double[] latLng = new double[] {38.74661326302018, -77.59198961199148};
+        float[] pixel = new float[2];
+
+        projectionState.update(38, -77, 30, 20, 10, 1000, 1000, 1);
+        projectionState.toScreenLocations(latLng, pixel, 1);
+        float[] scaled = new float[2];
+        projectionState.update(38, -77, 30, 20, 10, 1000, 1000, 2.5f);
+        projectionState.toScreenLocations(latLng, scaled, 1);
+        assertArrayEquals(new float[] {pixel[0] * 2.5f, pixel[1] * 2.5f}, scaled, 0.01f);
+
+        double[] unprojected = new double[2];
+        projectionState.fromScreenLocations(scaled, unprojected, 1);
+        assertArrayEquals(latLng, unprojected, 0.0001);
+    }
+
+    @Test
+    public void testRoundTripAcrossPitchAndBearing() {
+        ProjectionState projectionState = new ProjectionState();
+        float[] pixels = new float[2];
+        double[] latLng = new double[2];
+        float[] projected = new float[2];
+
+        for (int pitch = 0; pitch <= 60; pitch += 15) {
+            for (int angle = -180; angle < 180; angle += 45) {
+                assertTrue(projectionState.update(52.3, 4.9, angle, pitch, 14.5, 411, 683, 2.625f));
+
+                // the center of the viewport is the center of the map
+                projectionState.toScreenLocations(new double[] {52.3, 4.9}, projected, 1);
+                assertArrayEquals(new float[] {411 * 1.3125f, 683 * 1.3125f}, projected, PIXEL_DELTA);
+
+                for (int x = 0; x <= 4; x++) {
+                    for (int y = 1; y <= 4; y++) {
+                        pixels[0] = x * 411 * 2.625f / 4;
+                        pixels[1] = y * 683 * 2.625f / 4;
+                        projectionState.fromScreenLocations(pixels, latLng, 1);
+                        projectionState.toScreenLocations(latLng, projected, 1);
+                        assertArrayEquals("pitch " + pitch + ", angle " + angle, pixels, projected, PIXEL_DELTA);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEmptySize() {
+        ProjectionState projectionState = new ProjectionState();
+        assertFalse(projectionState.isValid());
+        assertFalse(projectionState.update(0, 0, 0, 0, 0, 0, 0, 1));
+        assertFalse(projectionState.isValid());
+        assertTrue(projectionState.update(0, 0, 0, 0, 0, 512, 512, 1));
+        projectionState.invalidate();
+        assertFalse(projectionState.isValid());
+    }
+}
@@ -0,0 +1,75 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ProjectionTest {
+
+    private NativeMapView nativeMapView;
+    private Projection projection;
+
+    @Before
+    public void beforeTest() {
+        nativeMapView = mock(NativeMapView.class);
+        projection = new Projection(nativeMapView);
+    }
+
+    @Test
+    public void testToScreenLocations() {
+        double[] latLngs = new double[] {10, 20, 30, 40};
+        float[] screenLocations = new float[4];
+        projection.toScreenLocations(latLngs, screenLocations);
+        verify(nativeMapView).pixelsForLatLngs(latLngs, screenLocations, 2);
+    }
+
+    @Test
+    public void testToScreenLocationsReusedBuffers() {
+        double[] latLngs = new double[] {10, 20, 30, 40, 0, 0};
+        float[] screenLocations = new float[8];
+        projection.toScreenLocations(latLngs, screenLocations, 1);
+        verify(nativeMapView).pixelsForLatLngs(latLngs, screenLocations, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToScreenLocationsOutputTooSmall() {
+        projection.toScreenLocations(new double[] {10, 20, 30, 40}, new float[2]);
+    }
+
+    @Test
+    public void testFromScreenLocations() {
+        float[] screenLocations = new float[] {10, 20, 30, 40};
+        double[] latLngs = new double[4];
+        projection.fromScreenLocations(screenLocations, latLngs);
+        verify(nativeMapView).latLngsForPixels(screenLocations, latLngs, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromScreenLocationsCountTooLarge() {
+        projection.fromScreenLocations(new float[4], new double[4], 3);
+    }
+
+    @Test
+    public void testProjectionStatePreferred() {
+        ProjectionState projectionState = new ProjectionState();
+        projectionState.update(38, -77, 0, 0, 10, 1000, 1000, 1);
+        when(nativeMapView.getProjectionState()).thenReturn(projectionState);
+
+        float[] screenLocations = new float[2];
+        projection.toScreenLocations(new double[] {38, -77}, screenLocations);
+        assertArrayEquals(new float[] {500, 500}, screenLocations, 0.01f);
+        verify(nativeMapView, never()).pixelsForLatLngs(any(double[].class), any(float[].class), anyInt());
+
+        double[] latLngs = new double[2];
+        projection.fromScreenLocations(screenLocations, latLngs);
+        assertArrayEquals(new double[] {38, -77}, latLngs, 0.0001);
+        verify(nativeMapView, never()).latLngsForPixels(any(float[].class), any(double[].class), anyInt());
+    }
+}
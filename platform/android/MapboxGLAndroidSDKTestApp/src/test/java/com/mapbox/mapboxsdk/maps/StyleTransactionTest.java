@@ -0,0 +1,85 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.style.layers.Layer;
+import com.mapbox.mapboxsdk.style.sources.Source;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StyleTransactionTest {
+
+    private NativeMapView nativeMapView;
+    private StyleTransaction transaction;
+
+    @Before
+    public void beforeTest() {
+        nativeMapView = mock(NativeMapView.class);
+        transaction = new StyleTransaction(nativeMapView);
+    }
+
+    @Test
+    public void testSanity() {
+        assertEquals(0, transaction.size());
+        transaction.commit();
+        verify(nativeMapView, never()).commitStyleTransaction(any(int[].class), any(long[].class), any(String[].class));
+    }
+
+    @Test
+    public void testMutationsInOrder() {
+        Source source = mock(Source.class);
+        when(source.getNativePtr()).thenReturn(1L);
+        Layer first = mock(Layer.class);
+        when(first.getNativePtr()).thenReturn(2L);
+        Layer second = mock(Layer.class);
+        when(second.getNativePtr()).thenReturn(3L);
+
+        for (int i = 0; i < 10; i++) {
+            transaction.removeLayer("old" + i);
+        }
+        transaction.addSource(source)
+                .addLayer(first)
+                .addLayer(second, "layer")
+                .removeLayer(first)
+                .removeSource("source")
+                .removeSource(source);
+        assertEquals(16, transaction.size());
+
+        // exceeds the initial capacity
+        transaction.removeLayer("last");
+        transaction.commit();
+
+        int[] kinds = new int[17];
+        long[] peers = new long[17];
+        String[] ids = new String[17];
+        for (int i = 0; i < 10; i++) {
+            kinds[i] = StyleTransaction.REMOVE_LAYER;
+            ids[i] = "old" + i;
+        }
+        System.arraycopy(new int[]{StyleTransaction.ADD_SOURCE, StyleTransaction.ADD_LAYER,
+                StyleTransaction.ADD_LAYER, StyleTransaction.REMOVE_LAYER, StyleTransaction.REMOVE_SOURCE,
+                StyleTransaction.REMOVE_SOURCE, StyleTransaction.REMOVE_LAYER}, 0, kinds, 10, 7);
+        System.arraycopy(new long[]{1, 2, 3, 2, 0, 1, 0}, 0, peers, 10, 7);
+        System.arraycopy(new String[]{null, null, "layer", null, "source", null, "last"}, 0, ids, 10, 7);
+        verify(nativeMapView).commitStyleTransaction(kinds, peers, ids);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCommitTwice() {
+        transaction.removeLayer("layer");
+        transaction.commit();
+        transaction.commit();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMutateAfterCommit() {
+        transaction.commit();
+        transaction.removeSource("source");
+    }
+}
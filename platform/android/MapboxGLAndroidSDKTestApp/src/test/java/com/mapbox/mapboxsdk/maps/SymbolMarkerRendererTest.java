@@ -0,0 +1,120 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SymbolMarkerRendererTest {
+
+    private SymbolMarkerRenderer renderer;
+    private Icon icon;
+
+    @Before
+    public void beforeTest() {
+        renderer = new SymbolMarkerRenderer(null);
+        icon = mock(Icon.class);
+        when(icon.getId()).thenReturn("icon");
+    }
+
+    @Test
+    public void testSanity() {
+        assertFalse("renderer shouldn't be active", renderer.isActive());
+        assertEquals(0, renderer.getChunkCount());
+    }
+
+    @Test
+    public void testFeature() {
+        assertEquals("{\"type\":\"Feature\",\"id\":7,\"geometry\":{\"type\":\"Point\",\"coordinates\":[2.5,1.0]},"
+                        + "\"properties\":{\"icon\":\"a\\\"b\"}}",
+                SymbolMarkerRenderer.toFeature(7, new LatLng(1, 2.5), "a\"b"));
+    }
+
+    @Test
+    public void testActivateKeepsIds() {
+        Marker coreMarker = marker(3, new LatLng(1, 2));
+        renderer.activate(Collections.singletonList(coreMarker));
+        assertTrue(renderer.isActive());
+        assertTrue(renderer.contains(3));
+
+        Marker added = marker(-1, new LatLng(3, 4));
+        renderer.add(added);
+        verify(added).setId(SymbolMarkerRenderer.FIRST_ID);
+        assertTrue(renderer.contains(SymbolMarkerRenderer.FIRST_ID));
+
+        // markers without a Marker object keep their id too
+        renderer.add(5, 7, 8, icon);
+        assertTrue(renderer.contains(5));
+        assertEquals(3, renderer.size());
+    }
+
+    @Test
+    public void testUpdate() {
+        Marker marker = marker(3, new LatLng(1, 2));
+        renderer.activate(Collections.singletonList(marker));
+
+        when(marker.getPosition()).thenReturn(new LatLng(5, 6));
+        renderer.update(marker);
+        assertEquals("{\"type\":\"FeatureCollection\",\"features\":["
+                + SymbolMarkerRenderer.toFeature(3, new LatLng(5, 6), "icon") + "]}", renderer.getFeatureCollection(0));
+
+        // markers that aren't rendered by the symbol layer are ignored
+        renderer.update(marker(4, new LatLng(1, 2)));
+        assertEquals(1, renderer.size());
+    }
+
+    @Test
+    public void testChunks() {
+        renderer.activate(Collections.<Marker>emptyList());
+        for (int i = 0; i <= SymbolMarkerRenderer.CHUNK_SIZE; i++) {
+            renderer.add(i, 1, 2, icon);
+        }
+        assertEquals("markers should be split over chunks", 2, renderer.getChunkCount());
+        String feature = SymbolMarkerRenderer.toFeature(SymbolMarkerRenderer.CHUNK_SIZE, new LatLng(1, 2), "icon");
+        assertEquals("{\"type\":\"FeatureCollection\",\"features\":[" + feature + "]}",
+                renderer.getFeatureCollection(1));
+
+        // removed markers don't free space in a chunk, new markers are drawn on top
+        renderer.remove(0);
+        renderer.add(SymbolMarkerRenderer.CHUNK_SIZE + 1, 1, 2, icon);
+        assertEquals(2, renderer.getChunkCount());
+        assertTrue(renderer.getFeatureCollection(1).contains("\"id\":" + (SymbolMarkerRenderer.CHUNK_SIZE + 1)));
+
+        // empty chunks are removed
+        for (int i = 1; i < SymbolMarkerRenderer.CHUNK_SIZE; i++) {
+            renderer.remove(i);
+        }
+        assertEquals(1, renderer.getChunkCount());
+        assertEquals(2, renderer.size());
+    }
+
+    @Test
+    public void testRemoveLastMarkerDeactivates() {
+        renderer.activate(Collections.singletonList(marker(3, new LatLng(1, 2))));
+        renderer.activate(Collections.singletonList(marker(4, new LatLng(1, 2))));
+        assertEquals("activating twice should be ignored", 1, renderer.size());
+
+        renderer.remove(3);
+        assertFalse(renderer.isActive());
+        assertEquals(0, renderer.size());
+    }
+
+    private Marker marker(long id, LatLng position) {
+        Marker marker = mock(Marker.class);
+        when(marker.getId()).thenReturn(id);
+        when(marker.getPosition()).thenReturn(position);
+        when(marker.getIcon()).thenReturn(icon);
+        return marker;
+    }
+}
@@ -0,0 +1,56 @@
+package com.mapbox.mapboxsdk.style.layers;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static com.mapbox.mapboxsdk.style.layers.Function.stop;
+import static com.mapbox.mapboxsdk.style.layers.Function.zoom;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.fillColor;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.lineCap;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.lineWidth;
+import static com.mapbox.mapboxsdk.style.layers.PropertyFactory.visibility;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests PropertyBatch
+ */
+public class PropertyBatchTest {
+
+    @Test
+    public void testSanity() {
+        assertTrue(new PropertyBatch().isEmpty());
+    }
+
+    @Test
+    public void testLayoutPropertiesFirst() {
+        PropertyBatch batch = new PropertyBatch()
+                .set("line", lineWidth(2f), lineCap(Property.LINE_CAP_ROUND), visibility(Property.NONE))
+                .set("fill", fillColor("#ff0000"));
+
+        assertArrayEquals(new String[]{"line", "fill"}, batch.getLayerIds());
+        assertArrayEquals(new int[]{3, 1}, batch.getPropertyCounts());
+        assertArrayEquals(new int[]{2, 0}, batch.getLayoutCounts());
+        assertArrayEquals(new String[]{"line-cap", "visibility", "line-width", "fill-color"}, batch.getNames());
+        assertArrayEquals(new Object[]{Property.LINE_CAP_ROUND, Property.NONE, 2f, "#ff0000"}, batch.getValues());
+    }
+
+    @Test
+    public void testFunctionsConverted() {
+        PropertyBatch batch = new PropertyBatch().set("line", lineWidth(zoom(stop(1f, lineWidth(1f)))));
+        assertTrue(batch.getValues()[0] instanceof Map);
+    }
+
+    @Test
+    public void testGrowth() {
+        PropertyBatch batch = new PropertyBatch();
+        for (int i = 0; i < 100; i++) {
+            batch.set("layer" + i, lineWidth((float) i), visibility(Property.VISIBLE));
+        }
+        assertEquals(100, batch.getLayerIds().length);
+        assertEquals(200, batch.getNames().length);
+        assertEquals(99f, batch.getValues()[199]);
+    }
+}
@@ -0,0 +1,56 @@
+package com.mapbox.mapboxsdk.utils;
+
+import java.util.Locale;
+
+/**
+ * Minimal harness for JVM micro benchmarks living next to the unit tests.
+ * <p>
+ * Benchmarks are plain classes with a main method so they aren't picked up by the unit test run,
+ * execute them from the IDE or with the test runtime classpath. Every benchmark is warmed up
+ * before measuring to let the JIT settle, the reported value is the best time per operation
+ * observed over the measured rounds.
+ * </p>
+ */
+public final class MicroBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    // sink to keep the JIT from eliminating benchmark bodies
+    private static volatile long blackhole;
+
+    public interface Body {
+        /**
+         * Runs one round of the benchmark.
+         *
+         * @return a value depending on the work done, consumed to prevent dead code elimination
+         */
+        long run();
+    }
+
+    private MicroBenchmark() {
+    }
+
+    /**
+     * Measures a benchmark body and prints the best time per operation.
+     *
+     * @param name       the name printed with the result
+     * @param operations the amount of operations performed by a single round
+     * @param body       the benchmark body
+     * @return the best time per operation in nanoseconds
+     */
+    public static double measure(String name, int operations, Body body) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            blackhole += body.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            blackhole += body.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double perOperation = (double) best / operations;
+        System.out.println(String.format(Locale.US, "%-48s %12.1f ns/op", name, perOperation));
+        return perOperation;
+    }
+}
@@ -107,6 +107,8 @@ macro(mbgl_platform_core)
         platform/android/src/style/layers/background_layer.hpp
         platform/android/src/style/layers/circle_layer.cpp
         platform/android/src/style/layers/circle_layer.hpp
+        platform/android/src/style/layers/compiled_filter.cpp
+        platform/android/src/style/layers/compiled_filter.hpp
         platform/android/src/style/layers/custom_layer.cpp
         platform/android/src/style/layers/custom_layer.hpp
         platform/android/src/style/layers/fill_layer.cpp
@@ -174,6 +176,7 @@ macro(mbgl_platform_core)
     target_link_libraries(mbgl-core
         PUBLIC -llog
         PUBLIC -landroid
+        PUBLIC -ljnigraphics
         PUBLIC -lEGL
         PUBLIC -lGLESv2
         PUBLIC -lstdc++
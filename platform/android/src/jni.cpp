@@ -1,10 +1,14 @@
 #include <cstdint>
 #include <cinttypes>
 #include <cassert>
+#include <cstring>
 #include <string>
 #include <array>
 #include <vector>
+#include <unordered_map>
+#include <unordered_set>
 
+#include <android/bitmap.h>
 #include <android/native_window_jni.h>
 #include <sys/system_properties.h>
 
@@ -80,13 +84,15 @@ jni::jclass* polylineClass = nullptr;
 jni::jfieldID* polylineAlphaId = nullptr;
 jni::jfieldID* polylineColorId = nullptr;
 jni::jfieldID* polylineWidthId = nullptr;
-jni::jfieldID* polylinePointsId = nullptr;
+jni::jfieldID* polylineCoordinatesId = nullptr;
+jni::jfieldID* polylinePointCountId = nullptr;
 
 jni::jclass* polygonClass = nullptr;
 jni::jfieldID* polygonAlphaId = nullptr;
 jni::jfieldID* polygonFillColorId = nullptr;
 jni::jfieldID* polygonStrokeColorId = nullptr;
-jni::jfieldID* polygonPointsId = nullptr;
+jni::jfieldID* polygonCoordinatesId = nullptr;
+jni::jfieldID* polygonPointCountId = nullptr;
 
 jni::jmethodID* listToArrayId = nullptr;
 
@@ -497,15 +503,22 @@ jdoubleArray nativeGetCameraValues(JNIEnv *env, jni::jobject* obj, jlong nativeM
     assert(nativeMapViewPtr != 0);
     NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
     mbgl::LatLng latLng = nativeMapView->getMap().getLatLng(nativeMapView->getInsets());
-    jdoubleArray  output = env->NewDoubleArray(5);
+    // the unpadded center and the size allow the projection to be mirrored in Java
+    mbgl::LatLng center = nativeMapView->getMap().getLatLng();
+    mbgl::Size size = nativeMapView->getMap().getSize();
+    jdoubleArray  output = env->NewDoubleArray(9);
     jsize start = 0;
-    jsize leng = 5;
-    jdouble buf[5];
+    jsize leng = 9;
+    jdouble buf[9];
     buf[0] = latLng.latitude;
     buf[1] = latLng.longitude;
     buf[2] = -nativeMapView->getMap().getBearing();
     buf[3] = nativeMapView->getMap().getPitch();
     buf[4] = nativeMapView->getMap().getZoom();
+    buf[5] = center.latitude;
+    buf[6] = center.longitude;
+    buf[7] = size.width;
+    buf[8] = size.height;
     env->SetDoubleArrayRegion(output, start, leng, buf);
 
     if (output == nullptr) {
@@ -688,35 +701,53 @@ static mbgl::Color toColor(jint color) {
     return { r / 255.0f, g / 255.0f, b / 255.0f, a / 255.0f };
 }
 
+// Reads packed latitude, longitude pairs with a single array region copy
 template <class Geometry>
-Geometry toGeometry(JNIEnv *env, jni::jobject* jlist) {
-    NullCheck(*env, jlist);
-    jni::jarray<jni::jobject>* jarray =
-        reinterpret_cast<jni::jarray<jni::jobject>*>(jni::CallMethod<jni::jobject*>(*env, jlist, *listToArrayId));
-    NullCheck(*env, jarray);
+Geometry toGeometry(JNIEnv *env, jni::jarray<jdouble>* jcoordinates, jint pointCount) {
+    NullCheck(*env, jcoordinates);
 
-    std::size_t size = jni::GetArrayLength(*env, *jarray);
+    std::size_t size = pointCount;
+    std::vector<jdouble> coordinates(size * 2);
+    if (size > 0) {
+        jni::GetArrayRegion(*env, *jcoordinates, 0, size * 2, coordinates.data());
+    }
 
     Geometry geometry;
     geometry.reserve(size);
 
     for (std::size_t i = 0; i < size; i++) {
-        jni::jobject* latLng = reinterpret_cast<jni::jobject*>(jni::GetObjectArrayElement(*env, *jarray, i));
-        NullCheck(*env, latLng);
-
-        geometry.push_back(mbgl::Point<double>(
-            jni::GetField<jdouble>(*env, latLng, *latLngLongitudeId),
-            jni::GetField<jdouble>(*env, latLng, *latLngLatitudeId)));
-
-        jni::DeleteLocalRef(*env, latLng);
+        geometry.push_back(mbgl::Point<double>(coordinates[i * 2 + 1], coordinates[i * 2]));
     }
 
-    jni::DeleteLocalRef(*env, jarray);
-    jni::DeleteLocalRef(*env, jlist);
+    jni::DeleteLocalRef(*env, jcoordinates);
 
     return geometry;
 }
 
+static mbgl::LineAnnotation toLineAnnotation(JNIEnv *env, jni::jobject* polyline) {
+    jni::jarray<jdouble>* coordinates = reinterpret_cast<jni::jarray<jdouble>*>(
+        jni::GetField<jni::jobject*>(*env, polyline, *polylineCoordinatesId));
+    jint pointCount = jni::GetField<jint>(*env, polyline, *polylinePointCountId);
+
+    mbgl::LineAnnotation annotation { toGeometry<mbgl::LineString<double>>(env, coordinates, pointCount) };
+    annotation.opacity = { jni::GetField<jfloat>(*env, polyline, *polylineAlphaId) };
+    annotation.color = { toColor(jni::GetField<jint>(*env, polyline, *polylineColorId)) };
+    annotation.width = { jni::GetField<jfloat>(*env, polyline, *polylineWidthId) };
+    return annotation;
+}
+
+static mbgl::FillAnnotation toFillAnnotation(JNIEnv *env, jni::jobject* polygon) {
+    jni::jarray<jdouble>* coordinates = reinterpret_cast<jni::jarray<jdouble>*>(
+        jni::GetField<jni::jobject*>(*env, polygon, *polygonCoordinatesId));
+    jint pointCount = jni::GetField<jint>(*env, polygon, *polygonPointCountId);
+
+    mbgl::FillAnnotation annotation { mbgl::Polygon<double> { toGeometry<mbgl::LinearRing<double>>(env, coordinates, pointCount) } };
+    annotation.opacity = { jni::GetField<jfloat>(*env, polygon, *polygonAlphaId) };
+    annotation.outlineColor = { toColor(jni::GetField<jint>(*env, polygon, *polygonStrokeColorId)) };
+    annotation.color = { toColor(jni::GetField<jint>(*env, polygon, *polygonFillColorId)) };
+    return annotation;
+}
+
 jni::jarray<jlong>* nativeAddPolylines(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jarray<jni::jobject>* jarray) {
     assert(nativeMapViewPtr != 0);
     NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
@@ -729,13 +760,7 @@ jni::jarray<jlong>* nativeAddPolylines(JNIEnv *env, jni::jobject* obj, jlong nat
 
     for (std::size_t i = 0; i < len; i++) {
         jni::jobject* polyline = jni::GetObjectArrayElement(*env, *jarray, i);
-        jni::jobject* points = jni::GetField<jni::jobject*>(*env, polyline, *polylinePointsId);
-
-        mbgl::LineAnnotation annotation { toGeometry<mbgl::LineString<double>>(env, points) };
-        annotation.opacity = { jni::GetField<jfloat>(*env, polyline, *polylineAlphaId) };
-        annotation.color = { toColor(jni::GetField<jint>(*env, polyline, *polylineColorId)) };
-        annotation.width = { jni::GetField<jfloat>(*env, polyline, *polylineWidthId) };
-        ids.push_back(nativeMapView->getMap().addAnnotation(annotation));
+        ids.push_back(nativeMapView->getMap().addAnnotation(toLineAnnotation(env, polyline)));
 
         jni::DeleteLocalRef(*env, polyline);
     }
@@ -755,13 +780,7 @@ jni::jarray<jlong>* nativeAddPolygons(JNIEnv *env, jni::jobject* obj, jlong nati
 
     for (std::size_t i = 0; i < len; i++) {
         jni::jobject* polygon = jni::GetObjectArrayElement(*env, *jarray, i);
-        jni::jobject* points = jni::GetField<jni::jobject*>(*env, polygon, *polygonPointsId);
-
-        mbgl::FillAnnotation annotation { mbgl::Polygon<double> { toGeometry<mbgl::LinearRing<double>>(env, points) } };
-        annotation.opacity = { jni::GetField<jfloat>(*env, polygon, *polygonAlphaId) };
-        annotation.outlineColor = { toColor(jni::GetField<jint>(*env, polygon, *polygonStrokeColorId)) };
-        annotation.color = { toColor(jni::GetField<jint>(*env, polygon, *polygonFillColorId)) };
-        ids.push_back(nativeMapView->getMap().addAnnotation(annotation));
+        ids.push_back(nativeMapView->getMap().addAnnotation(toFillAnnotation(env, polygon)));
 
         jni::DeleteLocalRef(*env, polygon);
     }
@@ -772,25 +791,23 @@ jni::jarray<jlong>* nativeAddPolygons(JNIEnv *env, jni::jobject* obj, jlong nati
 void nativeUpdatePolygon(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jlong polygonId, jni::jobject* polygon) {
     assert(nativeMapViewPtr != 0);
     NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
-    jni::jobject* points = jni::GetField<jni::jobject*>(*env, polygon, *polygonPointsId);
-
-    mbgl::FillAnnotation annotation { mbgl::Polygon<double> { toGeometry<mbgl::LinearRing<double>>(env, points) } };
-    annotation.opacity = { jni::GetField<jfloat>(*env, polygon, *polygonAlphaId) };
-    annotation.outlineColor = { toColor(jni::GetField<jint>(*env, polygon, *polygonStrokeColorId)) };
-    annotation.color = { toColor(jni::GetField<jint>(*env, polygon, *polygonFillColorId)) };
-    nativeMapView->getMap().updateAnnotation(polygonId, annotation);
+    nativeMapView->getMap().updateAnnotation(polygonId, toFillAnnotation(env, polygon));
 }
 
 void nativeUpdatePolyline(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jlong polylineId, jni::jobject* polyline) {
     assert(nativeMapViewPtr != 0);
     NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
-    jni::jobject* points = jni::GetField<jni::jobject*>(*env, polyline, *polylinePointsId);
+    nativeMapView->getMap().updateAnnotation(polylineId, toLineAnnotation(env, polyline));
+}
 
-    mbgl::LineAnnotation annotation { toGeometry<mbgl::LineString<double>>(env, points) };
-    annotation.opacity = { jni::GetField<jfloat>(*env, polyline, *polylineAlphaId) };
-    annotation.color = { toColor(jni::GetField<jint>(*env, polyline, *polylineColorId)) };
-    annotation.width = { jni::GetField<jfloat>(*env, polyline, *polylineWidthId) };
-    nativeMapView->getMap().updateAnnotation(polylineId, annotation);
+void nativeAppendPolylinePoints(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jlong polylineId, jni::jarray<jdouble>* jcoordinates) {
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    NullCheck(*env, jcoordinates);
+    std::size_t pointCount = jni::GetArrayLength(*env, *jcoordinates) / 2;
+    nativeMapView->getMap().extendLineAnnotation(polylineId,
+        toGeometry<mbgl::LineString<double>>(env, jcoordinates, pointCount));
 }
 
 void nativeRemoveAnnotations(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jarray<jlong>* jarray) {
@@ -809,6 +826,90 @@ void nativeRemoveAnnotations(JNIEnv *env, jni::jobject* obj, jlong nativeMapView
     }
 }
 
+template <class T>
+static std::vector<T> std_vector_from_jarray(JNIEnv *env, jni::jarray<T>* jarray) {
+    NullCheck(*env, jarray);
+    std::vector<T> vector(jni::GetArrayLength(*env, *jarray));
+    if (!vector.empty()) {
+        jni::GetArrayRegion(*env, *jarray, 0, vector.size(), vector.data());
+    }
+    return vector;
+}
+
+jni::jarray<jlong>* nativeUpdateAnnotations(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr,
+        jni::jarray<jlong>* jremovedIds, jni::jarray<jlong>* jmarkerIds, jni::jarray<jdouble>* jmarkerPositions,
+        jni::jarray<jint>* jmarkerIcons, jni::jarray<jni::jobject>* jiconIds,
+        jni::jarray<jlong>* jpolylineIds, jni::jarray<jni::jobject>* jpolylines,
+        jni::jarray<jlong>* jpolygonIds, jni::jarray<jni::jobject>* jpolygons) {
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+    mbgl::Map& map = nativeMapView->getMap();
+
+    // Marker icons are passed once and referenced by index from the packed marker arrays
+    NullCheck(*env, jiconIds);
+    std::vector<std::string> iconIds;
+    std::size_t iconCount = jni::GetArrayLength(*env, *jiconIds);
+    iconIds.reserve(iconCount);
+    for (std::size_t i = 0; i < iconCount; i++) {
+        jni::jstring* jid = reinterpret_cast<jni::jstring*>(jni::GetObjectArrayElement(*env, *jiconIds, i));
+        iconIds.push_back(std_string_from_jstring(env, jid));
+        jni::DeleteLocalRef(*env, jid);
+    }
+
+    std::vector<jlong> markerIds = std_vector_from_jarray(env, jmarkerIds);
+    std::vector<jdouble> positions = std_vector_from_jarray(env, jmarkerPositions);
+    std::vector<jint> icons = std_vector_from_jarray(env, jmarkerIcons);
+
+    // Validate the packed arrays before anything is changed
+    bool valid = positions.size() == markerIds.size() * 2 && icons.size() == markerIds.size();
+    for (std::size_t i = 0; valid && i < icons.size(); i++) {
+        valid = icons[i] >= 0 && static_cast<std::size_t>(icons[i]) < iconIds.size();
+    }
+    if (!valid) {
+        jni::ThrowNew(*env, jni::FindClass(*env, "java/lang/IllegalArgumentException"),
+                      "Marker arrays don't match or reference an unknown icon");
+        return nullptr;
+    }
+
+    // Removals go first so ids released in this batch can't collide with the updates below
+    for (jlong id : std_vector_from_jarray(env, jremovedIds)) {
+        if (id != -1L) {
+            map.removeAnnotation(id);
+        }
+    }
+
+    mbgl::AnnotationIDs ids;
+    ids.reserve(markerIds.size());
+    for (std::size_t i = 0; i < markerIds.size(); i++) {
+        mbgl::SymbolAnnotation annotation {
+            mbgl::Point<double>(positions[i * 2 + 1], positions[i * 2]),
+            iconIds[icons[i]]
+        };
+        if (markerIds[i] == -1L) {
+            ids.push_back(map.addAnnotation(annotation));
+        } else {
+            map.updateAnnotation(markerIds[i], annotation);
+            ids.push_back(markerIds[i]);
+        }
+    }
+
+    std::vector<jlong> polylineIds = std_vector_from_jarray(env, jpolylineIds);
+    for (std::size_t i = 0; i < polylineIds.size(); i++) {
+        jni::jobject* polyline = jni::GetObjectArrayElement(*env, *jpolylines, i);
+        map.updateAnnotation(polylineIds[i], toLineAnnotation(env, polyline));
+        jni::DeleteLocalRef(*env, polyline);
+    }
+
+    std::vector<jlong> polygonIds = std_vector_from_jarray(env, jpolygonIds);
+    for (std::size_t i = 0; i < polygonIds.size(); i++) {
+        jni::jobject* polygon = jni::GetObjectArrayElement(*env, *jpolygons, i);
+        map.updateAnnotation(polygonIds[i], toFillAnnotation(env, polygon));
+        jni::DeleteLocalRef(*env, polygon);
+    }
+
+    return std_vector_uint_to_jobject(env, ids);
+}
+
 jni::jarray<jlong>* nativeQueryPointAnnotations(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jobject* rect) {
     assert(nativeMapViewPtr != 0);
     NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
@@ -829,31 +930,81 @@ jni::jarray<jlong>* nativeQueryPointAnnotations(JNIEnv *env, jni::jobject* obj,
     return std_vector_uint_to_jobject(env, ids);
 }
 
-void nativeAddAnnotationIcon(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr,
-        jni::jstring* symbol, jint width, jint height, jfloat scale, jni::jarray<jbyte>* jpixels) {
-    assert(nativeMapViewPtr != 0);
-    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+// Copies the pixels of an ARGB_8888 android.graphics.Bitmap straight into a premultiplied image,
+// without going through intermediate Java arrays
+static mbgl::PremultipliedImage premultipliedImageFromBitmap(JNIEnv *env, jni::jobject* jbitmap) {
+    NullCheck(*env, jbitmap);
+    ::jobject bitmap = reinterpret_cast<::jobject>(jbitmap);
 
-    const std::string symbolName = std_string_from_jstring(env, symbol);
+    AndroidBitmapInfo info;
+    if (AndroidBitmap_getInfo(env, bitmap, &info) != ANDROID_BITMAP_RESULT_SUCCESS) {
+        throw mbgl::util::SpriteImageException("Unable to read bitmap info");
+    }
 
-    NullCheck(*env, jpixels);
-    std::size_t size = jni::GetArrayLength(*env, *jpixels);
-    mbgl::PremultipliedImage premultipliedImage(
-        { static_cast<uint32_t>(width), static_cast<uint32_t>(height) });
+    if (info.format != ANDROID_BITMAP_FORMAT_RGBA_8888) {
+        throw mbgl::util::SpriteImageException("Bitmap config must be ARGB_8888");
+    }
+
+    mbgl::PremultipliedImage premultipliedImage({ info.width, info.height });
 
-    if (premultipliedImage.bytes() != uint32_t(size)) {
-        throw mbgl::util::SpriteImageException("Sprite image pixel count mismatch");
+    void* pixels = nullptr;
+    if (AndroidBitmap_lockPixels(env, bitmap, &pixels) != ANDROID_BITMAP_RESULT_SUCCESS) {
+        throw mbgl::util::SpriteImageException("Unable to lock bitmap pixels");
     }
 
-    jni::GetArrayRegion(*env, *jpixels, 0, size, reinterpret_cast<jbyte*>(premultipliedImage.data.get()));
+    const std::size_t rowBytes = info.width * 4;
+    for (uint32_t row = 0; row < info.height; row++) {
+        std::memcpy(premultipliedImage.data.get() + row * rowBytes,
+                    reinterpret_cast<const uint8_t*>(pixels) + row * info.stride,
+                    rowBytes);
+    }
+
+    AndroidBitmap_unlockPixels(env, bitmap);
+    return premultipliedImage;
+}
+
+void nativeAddAnnotationIcon(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr,
+        jni::jstring* symbol, jfloat scale, jni::jobject* jbitmap) {
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    const std::string symbolName = std_string_from_jstring(env, symbol);
 
     auto iconImage = std::make_shared<mbgl::SpriteImage>(
-        std::move(premultipliedImage),
+        premultipliedImageFromBitmap(env, jbitmap),
         float(scale));
 
     nativeMapView->getMap().addAnnotationIcon(symbolName, iconImage);
 }
 
+void nativeAddAnnotationIcons(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr,
+        jni::jarray<jni::jobject>* jsymbols, jni::jarray<jfloat>* jpixelRatios, jni::jarray<jni::jobject>* jbitmaps) {
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    NullCheck(*env, jsymbols);
+    NullCheck(*env, jbitmaps);
+    std::vector<jfloat> pixelRatios = std_vector_from_jarray(env, jpixelRatios);
+    std::size_t len = jni::GetArrayLength(*env, *jsymbols);
+
+    for (std::size_t i = 0; i < len; i++) {
+        jni::jstring* symbol = reinterpret_cast<jni::jstring*>(jni::GetObjectArrayElement(*env, *jsymbols, i));
+        jni::jobject* bitmap = jni::GetObjectArrayElement(*env, *jbitmaps, i);
+
+        auto iconImage = std::make_shared<mbgl::SpriteImage>(premultipliedImageFromBitmap(env, bitmap), float(pixelRatios[i]));
+        nativeMapView->getMap().addAnnotationIcon(std_string_from_jstring(env, symbol), iconImage);
+
+        jni::DeleteLocalRef(*env, bitmap);
+        jni::DeleteLocalRef(*env, symbol);
+    }
+}
+
+void nativeRemoveAnnotationIcon(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jstring* symbol) {
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+    nativeMapView->getMap().removeAnnotationIcon(std_string_from_jstring(env, symbol));
+}
+
 void nativeSetVisibleCoordinateBounds(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr,
         jni::jarray<jni::jobject>* coordinates, jni::jobject* padding, jdouble direction, jlong duration) {
     assert(nativeMapViewPtr != 0);
@@ -1001,6 +1152,60 @@ jni::jobject* nativeLatLngForPixel(JNIEnv *env, jni::jobject* obj, jlong nativeM
     return &jni::NewObject(*env, *latLngClass, *latLngConstructorId, latLng.latitude, latLng.longitude);
 }
 
+void nativePixelsForLatLngs(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jarray<jdouble>* jlatLngs, jni::jarray<jfloat>* jpixels, jint count, jfloat pixelRatio) {
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    std::size_t size = count;
+    if (size == 0) {
+        return;
+    }
+
+    std::vector<jdouble> coordinates(size * 2);
+    jni::GetArrayRegion(*env, *jlatLngs, 0, size * 2, coordinates.data());
+
+    std::vector<mbgl::LatLng> latLngs;
+    latLngs.reserve(size);
+    for (std::size_t i = 0; i < size; i++) {
+        latLngs.emplace_back(coordinates[i * 2], coordinates[i * 2 + 1]);
+    }
+
+    std::vector<mbgl::ScreenCoordinate> pixels = nativeMapView->getMap().pixelsForLatLngs(latLngs);
+    std::vector<jfloat> screenCoordinates(size * 2);
+    for (std::size_t i = 0; i < size; i++) {
+        screenCoordinates[i * 2] = static_cast<jfloat>(pixels[i].x * pixelRatio);
+        screenCoordinates[i * 2 + 1] = static_cast<jfloat>(pixels[i].y * pixelRatio);
+    }
+    jni::SetArrayRegion(*env, *jpixels, 0, size * 2, screenCoordinates.data());
+}
+
+void nativeLatLngsForPixels(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jarray<jfloat>* jpixels, jni::jarray<jdouble>* jlatLngs, jint count, jfloat pixelRatio) {
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    std::size_t size = count;
+    if (size == 0) {
+        return;
+    }
+
+    std::vector<jfloat> screenCoordinates(size * 2);
+    jni::GetArrayRegion(*env, *jpixels, 0, size * 2, screenCoordinates.data());
+
+    std::vector<mbgl::ScreenCoordinate> pixels;
+    pixels.reserve(size);
+    for (std::size_t i = 0; i < size; i++) {
+        pixels.emplace_back(screenCoordinates[i * 2] / pixelRatio, screenCoordinates[i * 2 + 1] / pixelRatio);
+    }
+
+    std::vector<mbgl::LatLng> latLngs = nativeMapView->getMap().latLngsForPixels(pixels);
+    std::vector<jdouble> coordinates(size * 2);
+    for (std::size_t i = 0; i < size; i++) {
+        coordinates[i * 2] = latLngs[i].latitude;
+        coordinates[i * 2 + 1] = latLngs[i].longitude;
+    }
+    jni::SetArrayRegion(*env, *jlatLngs, 0, size * 2, coordinates.data());
+}
+
 jdouble nativeGetTopOffsetPixelsForAnnotationSymbol(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jstring* symbolName) {
     assert(nativeMapViewPtr != 0);
     NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
@@ -1114,6 +1319,33 @@ void nativeAddLayer(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jlon
     }
 }
 
+/**
+ * Sets the properties of many layers in one call, the properties of every layer are packed
+ * consecutively in the name and value arrays with the layout properties first
+ */
+void nativeSetLayerProperties(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jarray<jni::jobject>* jlayerIds,
+        jni::jarray<jint>* jpropertyCounts, jni::jarray<jint>* jlayoutCounts, jni::jarray<jni::jobject>* jnames, jni::jarray<jni::jobject>* jvalues) {
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    std::vector<std::string> layerIds = toVector(*env, *jlayerIds);
+    std::vector<jint> propertyCounts = std_vector_from_jarray(env, jpropertyCounts);
+    std::vector<jint> layoutCounts = std_vector_from_jarray(env, jlayoutCounts);
+    jni::Array<jni::String> names(jnames);
+    jni::Array<jni::Object<>> values(jvalues);
+
+    jni::jsize offset = 0;
+    for (std::size_t i = 0; i < layerIds.size(); i++) {
+        mbgl::style::Layer* coreLayer = nativeMapView->getMap().getLayer(layerIds[i]);
+        if (coreLayer) {
+            Layer::applyProperties(*env, *coreLayer, names, values, offset, propertyCounts[i], layoutCounts[i]);
+        } else {
+            mbgl::Log::Warning(mbgl::Event::JNI, "No layer found with id: " + layerIds[i]);
+        }
+        offset += propertyCounts[i];
+    }
+}
+
 /**
  * Remove by layer id. Ownership is not transferred back
  */
@@ -1197,28 +1429,265 @@ void nativeRemoveSource(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr,
     }
 }
 
-void nativeAddImage(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jstring* name, jni::jint width, jni::jint height, jni::jfloat pixelRatio, jni::jarray<jbyte>* data) {
+// Mutation kinds of a StyleTransaction, mirrored in StyleTransaction.java
+enum StyleMutation : jint {
+    AddSource = 0,
+    AddLayer = 1,
+    RemoveLayer = 2,
+    RemoveSource = 3
+};
+
+/**
+ * Checks the mutations of a style transaction against a simulation of the style,
+ * returns an error message for the first mutation that would fail
+ */
+static mbgl::optional<std::string> validateStyleTransaction(mbgl::Map& map, const std::vector<jint>& kinds,
+        const std::vector<jlong>& peers, const std::vector<mbgl::optional<std::string>>& ids) {
+    std::unordered_set<std::string> layerIds;
+    for (auto layer : map.getLayers()) {
+        layerIds.insert(layer->getID());
+    }
+    std::unordered_set<std::string> sourceIds;
+    for (auto source : map.getSources()) {
+        sourceIds.insert(source->getID());
+    }
+
+    // Whether a peer owns its core object at this point of the transaction
+    std::unordered_map<jlong, bool> owned;
+    auto owns = [&](jlong peer, bool current) {
+        auto it = owned.find(peer);
+        return it != owned.end() ? it->second : current;
+    };
+
+    for (std::size_t i = 0; i < kinds.size(); i++) {
+        switch (kinds[i]) {
+            case AddSource: {
+                mbgl::android::Source *source = reinterpret_cast<mbgl::android::Source *>(peers[i]);
+                const std::string id = source->get().getID();
+                if (!owns(peers[i], source->ownsSource())) {
+                    return "Source " + id + " is already added to the map";
+                }
+                if (!sourceIds.insert(id).second) {
+                    return "Source " + id + " already exists";
+                }
+                owned[peers[i]] = false;
+                break;
+            }
+            case AddLayer: {
+                mbgl::android::Layer *layer = reinterpret_cast<mbgl::android::Layer *>(peers[i]);
+                const std::string id = layer->get().getID();
+                if (!owns(peers[i], layer->ownsLayer())) {
+                    return "Layer " + id + " is already added to the map";
+                }
+                if (ids[i] && !layerIds.count(*ids[i])) {
+                    return "No layer " + *ids[i] + " to add layer " + id + " before";
+                }
+                if (!layerIds.insert(id).second) {
+                    return "Layer " + id + " already exists";
+                }
+                owned[peers[i]] = false;
+                break;
+            }
+            case RemoveLayer: {
+                mbgl::android::Layer *layer = reinterpret_cast<mbgl::android::Layer *>(peers[i]);
+                if (layer && owns(peers[i], layer->ownsLayer())) {
+                    return "Layer " + layer->get().getID() + " isn't added to the map";
+                }
+                const std::string id = layer ? layer->get().getID() : *ids[i];
+                if (!layerIds.erase(id)) {
+                    return "No such layer " + id;
+                }
+                if (layer) {
+                    owned[peers[i]] = true;
+                }
+                break;
+            }
+            case RemoveSource: {
+                mbgl::android::Source *source = reinterpret_cast<mbgl::android::Source *>(peers[i]);
+                if (source && owns(peers[i], source->ownsSource())) {
+                    return "Source " + source->get().getID() + " isn't added to the map";
+                }
+                const std::string id = source ? source->get().getID() : *ids[i];
+                if (!sourceIds.erase(id)) {
+                    return "No such source " + id;
+                }
+                if (source) {
+                    owned[peers[i]] = true;
+                }
+                break;
+            }
+            default:
+                return "Unknown style mutation " + std::to_string(kinds[i]);
+        }
+    }
+    return {};
+}
+
+/**
+ * A mutation of a style transaction that was applied, with what's needed to undo it
+ */
+struct AppliedStyleMutation {
+    jint kind;
+    jlong peer;
+    std::string id;
+    // the layer that followed a removed layer
+    mbgl::optional<std::string> before;
+    // removed core objects without a peer to hold them
+    std::unique_ptr<mbgl::style::Layer> layer;
+    std::unique_ptr<mbgl::style::Source> source;
+};
+
+/**
+ * Undoes applied mutations in reverse order, which restores removed layers at their position
+ */
+static void rollbackStyleTransaction(mbgl::Map& map, std::vector<AppliedStyleMutation>& applied) {
+    for (auto it = applied.rbegin(); it != applied.rend(); ++it) {
+        switch (it->kind) {
+            case AddSource:
+                reinterpret_cast<mbgl::android::Source *>(it->peer)->setSource(map.removeSource(it->id));
+                break;
+            case AddLayer:
+                reinterpret_cast<mbgl::android::Layer *>(it->peer)->setLayer(map.removeLayer(it->id));
+                break;
+            case RemoveLayer:
+                if (it->peer) {
+                    reinterpret_cast<mbgl::android::Layer *>(it->peer)->addToMap(map, it->before);
+                } else {
+                    map.addLayer(std::move(it->layer), it->before);
+                }
+                break;
+            case RemoveSource:
+                if (it->peer) {
+                    reinterpret_cast<mbgl::android::Source *>(it->peer)->addToMap(map);
+                } else {
+                    map.addSource(std::move(it->source));
+                }
+                break;
+        }
+    }
+}
+
+/**
+ * Applies the mutations of a style transaction. Everything is validated before the style is
+ * touched, a transaction that fails validation leaves the style as is. Should applying a mutation
+ * still fail, the mutations applied before it are undone
+ */
+void nativeCommitStyleTransaction(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr,
+        jni::jarray<jint>* jkinds, jni::jarray<jlong>* jpeers, jni::jarray<jni::jobject>* jids) {
     assert(nativeMapViewPtr != 0);
     NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+    mbgl::Map& map = nativeMapView->getMap();
 
-    // Create Pre-multiplied image from byte[]
-    NullCheck(*env, data);
-    std::size_t size = jni::GetArrayLength(*env, *data);
-    mbgl::PremultipliedImage premultipliedImage(
-        { static_cast<uint32_t>(width), static_cast<uint32_t>(height) });
+    std::vector<jint> kinds = std_vector_from_jarray(env, jkinds);
+    std::vector<jlong> peers = std_vector_from_jarray(env, jpeers);
+    std::vector<mbgl::optional<std::string>> ids(kinds.size());
+    for (std::size_t i = 0; i < kinds.size(); i++) {
+        jni::jstring* jid = reinterpret_cast<jni::jstring*>(jni::GetObjectArrayElement(*env, *jids, i));
+        if (jid) {
+            ids[i] = std_string_from_jstring(env, jid);
+            jni::DeleteLocalRef(*env, jid);
+        }
+    }
 
-    if (premultipliedImage.bytes() != uint32_t(size)) {
-        throw mbgl::util::SpriteImageException("Sprite image pixel count mismatch");
+    mbgl::optional<std::string> error = validateStyleTransaction(map, kinds, peers, ids);
+    if (error) {
+        jni::ThrowNew(*env, jni::FindClass(*env, "com/mapbox/mapboxsdk/maps/StyleTransactionException"), error->c_str());
+        return;
     }
 
-    jni::GetArrayRegion(*env, *data, 0, size, reinterpret_cast<jbyte*>(premultipliedImage.data.get()));
+    std::vector<AppliedStyleMutation> applied;
+    applied.reserve(kinds.size());
+    try {
+        for (std::size_t i = 0; i < kinds.size(); i++) {
+            AppliedStyleMutation mutation { kinds[i], peers[i], {}, {}, {}, {} };
+            switch (kinds[i]) {
+                case AddSource: {
+                    mbgl::android::Source *source = reinterpret_cast<mbgl::android::Source *>(peers[i]);
+                    mutation.id = source->get().getID();
+                    source->addToMap(map);
+                    break;
+                }
+                case AddLayer: {
+                    mbgl::android::Layer *layer = reinterpret_cast<mbgl::android::Layer *>(peers[i]);
+                    mutation.id = layer->get().getID();
+                    layer->addToMap(map, ids[i]);
+                    break;
+                }
+                case RemoveLayer: {
+                    mbgl::android::Layer *layer = reinterpret_cast<mbgl::android::Layer *>(peers[i]);
+                    mutation.id = layer ? layer->get().getID() : *ids[i];
+                    auto layers = map.getLayers();
+                    for (std::size_t j = 0; j + 1 < layers.size(); j++) {
+                        if (layers[j]->getID() == mutation.id) {
+                            mutation.before = layers[j + 1]->getID();
+                            break;
+                        }
+                    }
+                    if (layer) {
+                        layer->setLayer(map.removeLayer(mutation.id));
+                    } else {
+                        mutation.layer = map.removeLayer(mutation.id);
+                    }
+                    break;
+                }
+                case RemoveSource: {
+                    mbgl::android::Source *source = reinterpret_cast<mbgl::android::Source *>(peers[i]);
+                    mutation.id = source ? source->get().getID() : *ids[i];
+                    if (source) {
+                        source->setSource(map.removeSource(mutation.id));
+                    } else {
+                        mutation.source = map.removeSource(mutation.id);
+                    }
+                    break;
+                }
+            }
+            applied.push_back(std::move(mutation));
+        }
+    } catch (const std::runtime_error& error) {
+        try {
+            rollbackStyleTransaction(map, applied);
+        } catch (const std::runtime_error& rollbackError) {
+            mbgl::Log::Error(mbgl::Event::JNI, "Failed to roll back style transaction: %s", rollbackError.what());
+        }
+        jni::ThrowNew(*env, jni::FindClass(*env, "com/mapbox/mapboxsdk/maps/StyleTransactionException"), error.what());
+    }
+}
+
+void nativeAddImage(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jstring* name, jni::jfloat pixelRatio, jni::jobject* jbitmap) {
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
 
     //Wrap in a SpriteImage with the correct pixel ratio
-    auto spriteImage = std::make_unique<mbgl::SpriteImage>(std::move(premultipliedImage), float(pixelRatio));
+    auto spriteImage = std::make_unique<mbgl::SpriteImage>(premultipliedImageFromBitmap(env, jbitmap), float(pixelRatio));
 
     nativeMapView->getMap().addImage(std_string_from_jstring(env, name), std::move(spriteImage));
 }
 
+void nativeAddImages(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jarray<jni::jobject>* jnames, jni::jarray<jfloat>* jpixelRatios, jni::jarray<jni::jobject>* jbitmaps) {
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    NullCheck(*env, jnames);
+    NullCheck(*env, jpixelRatios);
+    NullCheck(*env, jbitmaps);
+    std::size_t len = jni::GetArrayLength(*env, *jnames);
+    std::vector<jfloat> pixelRatios(len);
+    if (len > 0) {
+        jni::GetArrayRegion(*env, *jpixelRatios, 0, len, pixelRatios.data());
+    }
+
+    for (std::size_t i = 0; i < len; i++) {
+        jni::jstring* name = reinterpret_cast<jni::jstring*>(jni::GetObjectArrayElement(*env, *jnames, i));
+        jni::jobject* bitmap = jni::GetObjectArrayElement(*env, *jbitmaps, i);
+
+        auto spriteImage = std::make_unique<mbgl::SpriteImage>(premultipliedImageFromBitmap(env, bitmap), float(pixelRatios[i]));
+        nativeMapView->getMap().addImage(std_string_from_jstring(env, name), std::move(spriteImage));
+
+        jni::DeleteLocalRef(*env, bitmap);
+        jni::DeleteLocalRef(*env, name);
+    }
+}
+
 void nativeRemoveImage(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jstring* name) {
     assert(nativeMapViewPtr != 0);
     NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
@@ -1757,14 +2226,16 @@ void registerNatives(JavaVM *vm) {
     polylineAlphaId = &jni::GetFieldID(env, *polylineClass, "alpha", "F");
     polylineColorId = &jni::GetFieldID(env, *polylineClass, "color", "I");
     polylineWidthId = &jni::GetFieldID(env, *polylineClass, "width", "F");
-    polylinePointsId = &jni::GetFieldID(env, *polylineClass, "points", "Ljava/util/List;");
+    polylineCoordinatesId = &jni::GetFieldID(env, *polylineClass, "coordinates", "[D");
+    polylinePointCountId = &jni::GetFieldID(env, *polylineClass, "pointCount", "I");
 
     polygonClass = &jni::FindClass(env, "com/mapbox/mapboxsdk/annotations/Polygon");
     polygonClass = jni::NewGlobalRef(env, polygonClass).release();
     polygonAlphaId = &jni::GetFieldID(env, *polygonClass, "alpha", "F");
     polygonFillColorId = &jni::GetFieldID(env, *polygonClass, "fillColor", "I");
     polygonStrokeColorId = &jni::GetFieldID(env, *polygonClass, "strokeColor", "I");
-    polygonPointsId = &jni::GetFieldID(env, *polygonClass, "points", "Ljava/util/List;");
+    polygonCoordinatesId = &jni::GetFieldID(env, *polygonClass, "coordinates", "[D");
+    polygonPointCountId = &jni::GetFieldID(env, *polygonClass, "pointCount", "I");
 
     jni::jclass* listClass = &jni::FindClass(env, "java/util/List");
     listToArrayId = &jni::GetMethodID(env, *listClass, "toArray", "()[Ljava/lang/Object;");
@@ -1857,9 +2328,13 @@ void registerNatives(JavaVM *vm) {
         MAKE_NATIVE_METHOD(nativeUpdateMarker, "(JJDDLjava/lang/String;)V"),
         MAKE_NATIVE_METHOD(nativeUpdatePolygon, "(JJLcom/mapbox/mapboxsdk/annotations/Polygon;)V"),
         MAKE_NATIVE_METHOD(nativeUpdatePolyline, "(JJLcom/mapbox/mapboxsdk/annotations/Polyline;)V"),
+        MAKE_NATIVE_METHOD(nativeAppendPolylinePoints, "(JJ[D)V"),
         MAKE_NATIVE_METHOD(nativeRemoveAnnotations, "(J[J)V"),
+        MAKE_NATIVE_METHOD(nativeUpdateAnnotations, "(J[J[J[D[I[Ljava/lang/String;[J[Lcom/mapbox/mapboxsdk/annotations/Polyline;[J[Lcom/mapbox/mapboxsdk/annotations/Polygon;)[J"),
         MAKE_NATIVE_METHOD(nativeQueryPointAnnotations, "(JLandroid/graphics/RectF;)[J"),
-        MAKE_NATIVE_METHOD(nativeAddAnnotationIcon, "(JLjava/lang/String;IIF[B)V"),
+        MAKE_NATIVE_METHOD(nativeAddAnnotationIcon, "(JLjava/lang/String;FLandroid/graphics/Bitmap;)V"),
+        MAKE_NATIVE_METHOD(nativeAddAnnotationIcons, "(J[Ljava/lang/String;[F[Landroid/graphics/Bitmap;)V"),
+        MAKE_NATIVE_METHOD(nativeRemoveAnnotationIcon, "(JLjava/lang/String;)V"),
         MAKE_NATIVE_METHOD(nativeSetVisibleCoordinateBounds, "(J[Lcom/mapbox/mapboxsdk/geometry/LatLng;Landroid/graphics/RectF;DJ)V"),
         MAKE_NATIVE_METHOD(nativeOnLowMemory, "(J)V"),
         MAKE_NATIVE_METHOD(nativeSetDebug, "(JZ)V"),
@@ -1872,19 +2347,24 @@ void registerNatives(JavaVM *vm) {
         MAKE_NATIVE_METHOD(nativeLatLngForProjectedMeters, "(JDD)Lcom/mapbox/mapboxsdk/geometry/LatLng;"),
         MAKE_NATIVE_METHOD(nativePixelForLatLng, "(JDD)Landroid/graphics/PointF;"),
         MAKE_NATIVE_METHOD(nativeLatLngForPixel, "(JFF)Lcom/mapbox/mapboxsdk/geometry/LatLng;"),
+        MAKE_NATIVE_METHOD(nativePixelsForLatLngs, "(J[D[FIF)V"),
+        MAKE_NATIVE_METHOD(nativeLatLngsForPixels, "(J[F[DIF)V"),
         MAKE_NATIVE_METHOD(nativeGetTopOffsetPixelsForAnnotationSymbol, "(JLjava/lang/String;)D"),
         MAKE_NATIVE_METHOD(nativeJumpTo, "(JDDDDD)V"),
         MAKE_NATIVE_METHOD(nativeEaseTo, "(JDDDJDDZ)V"),
         MAKE_NATIVE_METHOD(nativeFlyTo, "(JDDDJDD)V"),
         MAKE_NATIVE_METHOD(nativeGetLayer, "(JLjava/lang/String;)Lcom/mapbox/mapboxsdk/style/layers/Layer;"),
         MAKE_NATIVE_METHOD(nativeAddLayer, "(JJLjava/lang/String;)V"),
+        MAKE_NATIVE_METHOD(nativeSetLayerProperties, "(J[Ljava/lang/String;[I[I[Ljava/lang/String;[Ljava/lang/Object;)V"),
         MAKE_NATIVE_METHOD(nativeRemoveLayerById, "(JLjava/lang/String;)V"),
         MAKE_NATIVE_METHOD(nativeRemoveLayer, "(JJ)V"),
         MAKE_NATIVE_METHOD(nativeGetSource, "(JLjava/lang/String;)Lcom/mapbox/mapboxsdk/style/sources/Source;"),
         MAKE_NATIVE_METHOD(nativeAddSource, "(JJ)V"),
         MAKE_NATIVE_METHOD(nativeRemoveSourceById, "(JLjava/lang/String;)V"),
         MAKE_NATIVE_METHOD(nativeRemoveSource, "(JJ)V"),
-        MAKE_NATIVE_METHOD(nativeAddImage, "(JLjava/lang/String;IIF[B)V"),
+        MAKE_NATIVE_METHOD(nativeCommitStyleTransaction, "(J[I[J[Ljava/lang/String;)V"),
+        MAKE_NATIVE_METHOD(nativeAddImage, "(JLjava/lang/String;FLandroid/graphics/Bitmap;)V"),
+        MAKE_NATIVE_METHOD(nativeAddImages, "(J[Ljava/lang/String;[F[Landroid/graphics/Bitmap;)V"),
         MAKE_NATIVE_METHOD(nativeRemoveImage, "(JLjava/lang/String;)V"),
         MAKE_NATIVE_METHOD(nativeSetContentPadding, "(JDDDD)V"),
         MAKE_NATIVE_METHOD(nativeScheduleTakeSnapshot, "(J)V"),
@@ -0,0 +1,51 @@
+#include "compiled_filter.hpp"
+#include "../android_conversion.hpp"
+#include "../value.hpp"
+
+#include <mbgl/style/conversion.hpp>
+#include <mbgl/style/conversion/filter.hpp>
+
+#include <string>
+
+namespace mbgl {
+namespace android {
+
+    CompiledFilter::CompiledFilter(jni::JNIEnv& env, jni::Array<jni::Object<>> jfilter)
+        : filter(convertFilter(env, jfilter)) {
+    }
+
+    mbgl::style::Filter CompiledFilter::convertFilter(jni::JNIEnv& env, jni::Array<jni::Object<>> jfilter) {
+        using namespace mbgl::style;
+        using namespace mbgl::style::conversion;
+
+        Result<Filter> converted = convert<Filter>(Value(env, jfilter));
+        if (!converted) {
+            jni::ThrowNew(env, jni::FindClass(env, "java/lang/IllegalArgumentException"),
+                          ("Error compiling filter: " + converted.error().message).c_str());
+            throw jni::PendingJavaException();
+        }
+        return std::move(*converted);
+    }
+
+    const mbgl::style::Filter& CompiledFilter::getFilter(jni::JNIEnv& env, jni::Object<CompiledFilter> jfilter) {
+        static auto nativePtr = CompiledFilter::javaClass.GetField<jni::jlong>(env, "nativePtr");
+        return reinterpret_cast<CompiledFilter*>(jfilter.Get(env, nativePtr))->filter;
+    }
+
+    jni::Class<CompiledFilter> CompiledFilter::javaClass;
+
+    void CompiledFilter::registerNative(jni::JNIEnv& env) {
+        //Lookup the class
+        CompiledFilter::javaClass = *jni::Class<CompiledFilter>::Find(env).NewGlobalRef(env).release();
+
+        //Register the peer
+        jni::RegisterNativePeer<CompiledFilter>(
+            env, CompiledFilter::javaClass, "nativePtr",
+            std::make_unique<CompiledFilter, JNIEnv&, jni::Array<jni::Object<>>>,
+            "initialize",
+            "finalize"
+        );
+    }
+
+} // namespace android
+} // namespace mbgl
@@ -0,0 +1,41 @@
+#pragma once
+
+#include <mbgl/util/noncopyable.hpp>
+#include <mbgl/style/filter.hpp>
+
+#include <jni/jni.hpp>
+
+namespace mbgl {
+namespace android {
+
+/*
+ * Peer of a converted filter, applied to layers without converting the filter again
+ */
+class CompiledFilter : private mbgl::util::noncopyable {
+public:
+
+    static constexpr auto Name() { return "com/mapbox/mapboxsdk/style/layers/CompiledFilter"; };
+
+    static jni::Class<CompiledFilter> javaClass;
+
+    static void registerNative(jni::JNIEnv&);
+
+    /*
+     * Throws an IllegalArgumentException on the jvm side when the filter can't be converted
+     */
+    CompiledFilter(jni::JNIEnv&, jni::Array<jni::Object<>>);
+
+    /*
+     * The filter of a Java CompiledFilter, the caller's reference keeps the peer alive
+     */
+    static const mbgl::style::Filter& getFilter(jni::JNIEnv&, jni::Object<CompiledFilter>);
+
+    const mbgl::style::Filter filter;
+
+private:
+    static mbgl::style::Filter convertFilter(jni::JNIEnv&, jni::Array<jni::Object<>>);
+
+};
+
+} // namespace android
+} // namespace mbgl
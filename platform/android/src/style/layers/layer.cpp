@@ -45,6 +45,10 @@ namespace android {
         this->map = &_map;
     }
 
+    bool Layer::ownsLayer() const {
+        return ownedLayer != nullptr;
+    }
+
     void Layer::setLayer(std::unique_ptr<mbgl::style::Layer> sourceLayer) {
         this->ownedLayer = std::move(sourceLayer);
     }
@@ -84,19 +88,52 @@ namespace android {
         }
     }
 
+    void Layer::setProperties(jni::JNIEnv& env, jni::Array<jni::String> jnames, jni::Array<jni::Object<>> jvalues, jni::jint layoutCount) {
+        applyProperties(env, layer, jnames, jvalues, 0, jnames.Length(env), layoutCount);
+    }
+
+    void Layer::applyProperties(jni::JNIEnv& env, mbgl::style::Layer& coreLayer, jni::Array<jni::String> jnames, jni::Array<jni::Object<>> jvalues,
+                                jni::jsize offset, jni::jsize count, jni::jsize layoutCount) {
+        using namespace mbgl::style::conversion;
+
+        for (jni::jsize i = 0; i < count; i++) {
+            jni::String jname = jnames.Get(env, offset + i);
+            std::string name = jni::Make<std::string>(env, jname);
+            jni::DeleteLocalRef(env, jname.Get());
+
+            // releases the local reference to the value once applied
+            Value value(env, jvalues.Get(env, offset + i));
+
+            optional<Error> error = i < layoutCount
+                ? setLayoutProperty(coreLayer, name, value)
+                : setPaintProperty(coreLayer, name, value, mbgl::optional<std::string>());
+            if (error) {
+                mbgl::Log::Error(mbgl::Event::JNI, "Error setting property: " + name + " " + error->message);
+            }
+        }
+    }
+
     void Layer::setFilter(jni::JNIEnv& env, jni::Array<jni::Object<>> jfilter) {
         using namespace mbgl::style;
         using namespace mbgl::style::conversion;
 
         Value wrapped(env, jfilter);
-        Filter filter;
 
         Result<Filter> converted = convert<Filter>(wrapped);
         if (!converted) {
             mbgl::Log::Error(mbgl::Event::JNI, "Error setting filter: " + converted.error().message);
             return;
         }
-        filter = std::move(*converted);
+
+        applyFilter(*converted);
+    }
+
+    void Layer::setCompiledFilter(jni::JNIEnv& env, jni::Object<CompiledFilter> jfilter) {
+        applyFilter(CompiledFilter::getFilter(env, jfilter));
+    }
+
+    void Layer::applyFilter(const mbgl::style::Filter& filter) {
+        using namespace mbgl::style;
 
         if (layer.is<FillLayer>()) {
             layer.as<FillLayer>()->setFilter(filter);
@@ -163,7 +200,9 @@ namespace android {
             METHOD(&Layer::getId, "nativeGetId"),
             METHOD(&Layer::setLayoutProperty, "nativeSetLayoutProperty"),
             METHOD(&Layer::setPaintProperty, "nativeSetPaintProperty"),
+            METHOD(&Layer::setProperties, "nativeSetProperties"),
             METHOD(&Layer::setFilter, "nativeSetFilter"),
+            METHOD(&Layer::setCompiledFilter, "nativeSetCompiledFilter"),
             METHOD(&Layer::setSourceLayer, "nativeSetSourceLayer"),
             METHOD(&Layer::getMinZoom, "nativeGetMinZoom"),
             METHOD(&Layer::getMaxZoom, "nativeGetMaxZoom"),
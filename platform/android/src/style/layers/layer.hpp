@@ -3,8 +3,10 @@
 #include <mbgl/util/noncopyable.hpp>
 #include <mbgl/map/map.hpp>
 #include <mbgl/style/layer.hpp>
+#include <mbgl/style/filter.hpp>
 
 #include "../value.hpp"
+#include "compiled_filter.hpp"
 
 #include <jni/jni.hpp>
 
@@ -41,6 +43,11 @@ public:
 
     void addToMap(mbgl::Map&, mbgl::optional<std::string>);
 
+    /**
+     * Whether the peer owns its core layer, ie it can be added to a map
+     */
+    bool ownsLayer() const;
+
     jni::String getId(jni::JNIEnv&);
 
     style::Layer& get();
@@ -49,6 +56,14 @@ public:
 
     void setPaintProperty(jni::JNIEnv&, jni::String, jni::Object<> value);
 
+    void setProperties(jni::JNIEnv&, jni::Array<jni::String> names, jni::Array<jni::Object<>> values, jni::jint layoutCount);
+
+    /**
+     * Applies a range of properties to a core layer, the layout properties of the range come first
+     */
+    static void applyProperties(jni::JNIEnv&, mbgl::style::Layer&, jni::Array<jni::String> names, jni::Array<jni::Object<>> values,
+                                jni::jsize offset, jni::jsize count, jni::jsize layoutCount);
+
     //Zoom
 
     jni::jfloat getMinZoom(jni::JNIEnv&);
@@ -63,6 +78,8 @@ public:
 
     void setFilter(jni::JNIEnv& env, jni::Array<jni::Object<>> jfilter);
 
+    void setCompiledFilter(jni::JNIEnv& env, jni::Object<CompiledFilter> jfilter);
+
     void setSourceLayer(jni::JNIEnv& env, jni::String sourceLayer);
 
     //Property getters
@@ -70,6 +87,9 @@ public:
     jni::Object<jni::ObjectTag> getVisibility(jni::JNIEnv&);
 
 protected:
+    //Set the filter on layer types that support filters
+    void applyFilter(const mbgl::style::Filter&);
+
     //Release the owned view and return it
     std::unique_ptr<mbgl::style::Layer> releaseCoreLayer();
 
@@ -10,6 +10,7 @@
 
 #include "background_layer.hpp"
 #include "circle_layer.hpp"
+#include "compiled_filter.hpp"
 #include "fill_layer.hpp"
 #include "line_layer.hpp"
 #include "raster_layer.hpp"
@@ -58,6 +59,7 @@ void registerNativeLayers(jni::JNIEnv& env) {
     RasterLayer::registerNative(env);
     SymbolLayer::registerNative(env);
     CustomLayer::registerNative(env);
+    CompiledFilter::registerNative(env);
 }
 
 } //android
@@ -43,6 +43,10 @@ namespace android {
         return jni::Make<jni::String>(env, source.getID());
     }
 
+    bool Source::ownsSource() const {
+        return ownedSource != nullptr;
+    }
+
     void Source::addToMap(mbgl::Map& _map) {
         //Check to see if we own the source first
         if (!ownedSource) {
@@ -41,6 +41,11 @@ public:
 
     void addToMap(mbgl::Map&);
 
+    /**
+     * Whether the peer owns its core source, ie it can be added to a map
+     */
+    bool ownsSource() const;
+
     virtual jni::jobject* createJavaPeer(jni::JNIEnv&) = 0;
 
     jni::String getId(jni::JNIEnv&);
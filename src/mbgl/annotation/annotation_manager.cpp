@@ -52,6 +52,21 @@ Update AnnotationManager::updateAnnotation(const AnnotationID& id, const Annotat
     });
 }
 
+Update AnnotationManager::extendLineAnnotation(const AnnotationID& id, const LineString<double>& points) {
+    auto it = shapeAnnotations.find(id);
+    if (it == shapeAnnotations.end()) {
+        assert(false); // Attempt to extend a non-existent shape annotation
+        return Update::Nothing;
+    }
+    auto line = dynamic_cast<LineAnnotationImpl*>(it->second.get());
+    if (!line || !line->extend(points)) {
+        assert(false); // Attempt to extend a shape annotation that isn't a line string
+        return Update::Nothing;
+    }
+    // the layer and its style are unchanged, only the tiles need to be regenerated
+    return Update::AnnotationData;
+}
+
 void AnnotationManager::removeAnnotation(const AnnotationID& id) {
     if (symbolAnnotations.find(id) != symbolAnnotations.end()) {
         symbolTree.remove(symbolAnnotations.at(id));
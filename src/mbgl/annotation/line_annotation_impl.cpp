@@ -32,4 +32,15 @@ const ShapeAnnotationGeometry& LineAnnotationImpl::geometry() const {
     return annotation.geometry;
 }
 
+bool LineAnnotationImpl::extend(const LineString<double>& points) {
+    if (!annotation.geometry.is<LineString<double>>()) {
+        return false;
+    }
+    auto& line = annotation.geometry.get<LineString<double>>();
+    line.insert(line.end(), points.begin(), points.end());
+    // the tiler holds a copy of the previous geometry, it is recreated for the next tile request
+    shapeTiler.reset();
+    return true;
+}
+
 } // namespace mbgl
@@ -12,8 +12,11 @@ public:
     void updateStyle(style::Style&) const final;
     const ShapeAnnotationGeometry& geometry() const final;
 
+    // Appends points to a line string geometry in place, returns false for other geometries.
+    bool extend(const LineString<double>&);
+
 private:
-    const LineAnnotation annotation;
+    LineAnnotation annotation;
 };
 
 } // namespace mbgl
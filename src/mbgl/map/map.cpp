@@ -93,6 +93,8 @@ public:
     std::string styleJSON;
     bool styleMutated = false;
     bool cameraMutated = false;
+    // Whether the loaded style is kept until the requested style arrives, to be patched in place
+    bool stylePatchPending = false;
 
     std::unique_ptr<AsyncRequest> styleRequest;
 
@@ -335,10 +337,16 @@ void Map::setStyleURL(const std::string& url) {
 
     impl->styleRequest = nullptr;
     impl->styleURL = url;
-    impl->styleJSON.clear();
-    impl->styleMutated = false;
 
-    impl->style = std::make_unique<Style>(impl->fileSource, impl->pixelRatio);
+    // Keep a loaded style so it can be patched once the new style arrives. The patch is computed
+    // from the style documents, so a style that was changed at runtime is loaded from scratch.
+    impl->stylePatchPending = impl->style && impl->style->loaded && !impl->styleJSON.empty()
+        && !impl->styleMutated;
+    impl->styleMutated = false;
+    if (!impl->stylePatchPending) {
+        impl->styleJSON.clear();
+        impl->style = std::make_unique<Style>(impl->fileSource, impl->pixelRatio);
+    }
 
     impl->styleRequest = impl->fileSource.request(Resource::style(impl->styleURL), [this](Response res) {
         // Once we get a fresh style, or the style is mutated, stop revalidating.
@@ -347,11 +355,16 @@ void Map::setStyleURL(const std::string& url) {
         }
 
         // Don't allow a loaded, mutated style to be overwritten with a new version.
-        if (impl->styleMutated && impl->style->loaded) {
+        if (impl->styleMutated && impl->style->loaded && !impl->stylePatchPending) {
             return;
         }
 
         if (res.error) {
+            if (impl->stylePatchPending) {
+                impl->stylePatchPending = false;
+                impl->styleJSON.clear();
+                impl->style = std::make_unique<Style>(impl->fileSource, impl->pixelRatio);
+            }
             if (res.error->reason == Response::Error::Reason::NotFound &&
                 util::mapbox::isMapboxURL(impl->styleURL)) {
                 Log::Error(Event::Setup, "style %s could not be found or is an incompatible legacy map or style", impl->styleURL.c_str());
@@ -378,15 +391,46 @@ void Map::setStyleJSON(const std::string& json) {
     impl->backend.notifyMapChange(MapChangeWillStartLoadingMap);
 
     impl->styleURL.clear();
-    impl->styleJSON.clear();
-    impl->styleMutated = false;
+    impl->styleRequest = nullptr;
+    impl->stylePatchPending = false;
 
-    impl->style = std::make_unique<Style>(impl->fileSource, impl->pixelRatio);
+    // Keep a loaded style that wasn't changed at runtime so it can be patched
+    if (!impl->style || !impl->style->loaded || impl->styleJSON.empty() || impl->styleMutated) {
+        impl->styleJSON.clear();
+        impl->style = std::make_unique<Style>(impl->fileSource, impl->pixelRatio);
+    }
+    impl->styleMutated = false;
 
     impl->loadStyleJSON(json);
 }
 
 void Map::Impl::loadStyleJSON(const std::string& json) {
+    stylePatchPending = false;
+
+    if (!styleJSON.empty()) {
+        // Update the loaded style in place, keeping the sources, tiles, glyphs and sprite that
+        // didn't change. The camera isn't reset to the defaults of the new style. The style may
+        // have been changed at runtime while the new style was requested, the diff of the
+        // documents wouldn't undo those changes.
+        bool patched = false;
+        if (!styleMutated) {
+            backend.activate();
+            patched = style->patchJSON(styleJSON, json);
+            backend.deactivate();
+        }
+
+        if (patched) {
+            styleJSON = json;
+            updateFlags |= Update::Classes | Update::RecalculateStyle;
+            asyncUpdate.send();
+            onStyleLoaded();
+            return;
+        }
+
+        style = std::make_unique<Style>(fileSource, pixelRatio);
+        styleMutated = false;
+    }
+
     style->setObserver(this);
     style->setJSON(json);
     styleJSON = json;
@@ -763,6 +807,14 @@ LatLng Map::latLngForPixel(const ScreenCoordinate& pixel) const {
     return impl->transform.screenCoordinateToLatLng(pixel);
 }
 
+std::vector<ScreenCoordinate> Map::pixelsForLatLngs(const std::vector<LatLng>& latLngs) const {
+    return impl->transform.latLngsToScreenCoordinates(latLngs);
+}
+
+std::vector<LatLng> Map::latLngsForPixels(const std::vector<ScreenCoordinate>& pixels) const {
+    return impl->transform.screenCoordinatesToLatLngs(pixels);
+}
+
 #pragma mark - Annotations
 
 void Map::addAnnotationIcon(const std::string& name, std::shared_ptr<const SpriteImage> sprite) {
@@ -787,6 +839,10 @@ void Map::updateAnnotation(AnnotationID id, const Annotation& annotation) {
     impl->onUpdate(impl->annotationManager->updateAnnotation(id, annotation, getMaxZoom()));
 }
 
+void Map::extendLineAnnotation(AnnotationID id, const LineString<double>& points) {
+    impl->onUpdate(impl->annotationManager->extendLineAnnotation(id, points));
+}
+
 void Map::removeAnnotation(AnnotationID annotation) {
     impl->annotationManager->removeAnnotation(annotation);
     impl->onUpdate(Update::AnnotationStyle | Update::AnnotationData);
@@ -659,4 +659,35 @@ LatLng Transform::screenCoordinateToLatLng(const ScreenCoordinate& point) const
     return state.screenCoordinateToLatLng(flippedPoint).wrapped();
 }
 
+std::vector<ScreenCoordinate> Transform::latLngsToScreenCoordinates(const std::vector<LatLng>& latLngs) const {
+    LatLng center = getLatLng();
+    std::vector<LatLng> unwrappedLatLngs;
+    unwrappedLatLngs.reserve(latLngs.size());
+    for (const auto& latLng : latLngs) {
+        // see latLngToScreenCoordinate
+        LatLng unwrappedLatLng = latLng.wrapped();
+        unwrappedLatLng.unwrapForShortestPath(center);
+        unwrappedLatLngs.push_back(unwrappedLatLng);
+    }
+
+    std::vector<ScreenCoordinate> points = state.latLngsToScreenCoordinates(unwrappedLatLngs);
+    for (auto& point : points) {
+        point.y = state.size.height - point.y;
+    }
+    return points;
+}
+
+std::vector<LatLng> Transform::screenCoordinatesToLatLngs(const std::vector<ScreenCoordinate>& points) const {
+    std::vector<ScreenCoordinate> flippedPoints(points);
+    for (auto& point : flippedPoints) {
+        point.y = state.size.height - point.y;
+    }
+
+    std::vector<LatLng> latLngs = state.screenCoordinatesToLatLngs(flippedPoints);
+    for (auto& latLng : latLngs) {
+        latLng.wrap();
+    }
+    return latLngs;
+}
+
 } // namespace mbgl
@@ -161,6 +161,8 @@ public:
     // Conversion and projection
     ScreenCoordinate latLngToScreenCoordinate(const LatLng&) const;
     LatLng screenCoordinateToLatLng(const ScreenCoordinate&) const;
+    std::vector<ScreenCoordinate> latLngsToScreenCoordinates(const std::vector<LatLng>&) const;
+    std::vector<LatLng> screenCoordinatesToLatLngs(const std::vector<ScreenCoordinate>&) const;
 
 private:
     std::function<void(MapChange)> callback;
@@ -211,12 +211,22 @@ ScreenCoordinate TransformState::latLngToScreenCoordinate(const LatLng& latLng)
         return {};
     }
 
+    return latLngToScreenCoordinate(latLng, coordinatePointMatrix(getZoom()));
+}
+
+std::vector<ScreenCoordinate> TransformState::latLngsToScreenCoordinates(const std::vector<LatLng>& latLngs) const {
+    if (!size) {
+        return std::vector<ScreenCoordinate>(latLngs.size());
+    }
+
+    // the matrix only depends on the state, compute it once for all coordinates
     mat4 mat = coordinatePointMatrix(getZoom());
-    vec4 p;
-    Point<double> pt = Projection::project(latLng, scale) / double(util::tileSize);
-    vec4 c = {{ pt.x, pt.y, 0, 1 }};
-    matrix::transformMat4(p, c, mat);
-    return { p[0] / p[3], size.height - p[1] / p[3] };
+    std::vector<ScreenCoordinate> points;
+    points.reserve(latLngs.size());
+    for (const auto& latLng : latLngs) {
+        points.push_back(latLngToScreenCoordinate(latLng, mat));
+    }
+    return points;
 }
 
 LatLng TransformState::screenCoordinateToLatLng(const ScreenCoordinate& point, LatLng::WrapMode wrapMode) const {
@@ -224,14 +234,34 @@ LatLng TransformState::screenCoordinateToLatLng(const ScreenCoordinate& point, L
         return {};
     }
 
-    float targetZ = 0;
-    mat4 mat = coordinatePointMatrix(getZoom());
+    return screenCoordinateToLatLng(point, invertedCoordinatePointMatrix(), wrapMode);
+}
 
-    mat4 inverted;
-    bool err = matrix::invert(inverted, mat);
+std::vector<LatLng> TransformState::screenCoordinatesToLatLngs(const std::vector<ScreenCoordinate>& points, LatLng::WrapMode wrapMode) const {
+    if (!size) {
+        return std::vector<LatLng>(points.size());
+    }
 
-    if (err) throw std::runtime_error("failed to invert coordinatePointMatrix");
+    // the matrix only depends on the state, invert it once for all points
+    mat4 inverted = invertedCoordinatePointMatrix();
+    std::vector<LatLng> latLngs;
+    latLngs.reserve(points.size());
+    for (const auto& point : points) {
+        latLngs.push_back(screenCoordinateToLatLng(point, inverted, wrapMode));
+    }
+    return latLngs;
+}
+
+ScreenCoordinate TransformState::latLngToScreenCoordinate(const LatLng& latLng, const mat4& mat) const {
+    vec4 p;
+    Point<double> pt = Projection::project(latLng, scale) / double(util::tileSize);
+    vec4 c = {{ pt.x, pt.y, 0, 1 }};
+    matrix::transformMat4(p, c, mat);
+    return { p[0] / p[3], size.height - p[1] / p[3] };
+}
 
+LatLng TransformState::screenCoordinateToLatLng(const ScreenCoordinate& point, const mat4& inverted, LatLng::WrapMode wrapMode) const {
+    float targetZ = 0;
     double flippedY = size.height - point.y;
 
     // since we don't know the correct projected z value for the point,
@@ -258,6 +288,16 @@ LatLng TransformState::screenCoordinateToLatLng(const ScreenCoordinate& point, L
     return Projection::unproject(util::interpolate(p0, p1, t), scale / util::tileSize, wrapMode);
 }
 
+mat4 TransformState::invertedCoordinatePointMatrix() const {
+    mat4 mat = coordinatePointMatrix(getZoom());
+    mat4 inverted;
+    bool err = matrix::invert(inverted, mat);
+
+    if (err) throw std::runtime_error("failed to invert coordinatePointMatrix");
+
+    return inverted;
+}
+
 mat4 TransformState::coordinatePointMatrix(double z) const {
     mat4 proj;
     getProjMatrix(proj);
@@ -11,6 +11,7 @@
 #include <cstdint>
 #include <array>
 #include <limits>
+#include <vector>
 
 namespace mbgl {
 
@@ -69,6 +70,8 @@ public:
     // Conversion
     ScreenCoordinate latLngToScreenCoordinate(const LatLng&) const;
     LatLng screenCoordinateToLatLng(const ScreenCoordinate&, LatLng::WrapMode = LatLng::Unwrapped) const;
+    std::vector<ScreenCoordinate> latLngsToScreenCoordinates(const std::vector<LatLng>&) const;
+    std::vector<LatLng> screenCoordinatesToLatLngs(const std::vector<ScreenCoordinate>&, LatLng::WrapMode = LatLng::Unwrapped) const;
 
     double zoomScale(double zoom) const;
     double scaleZoom(double scale) const;
@@ -87,8 +90,12 @@ private:
     Size size;
 
     mat4 coordinatePointMatrix(double z) const;
+    mat4 invertedCoordinatePointMatrix() const;
     mat4 getPixelMatrix() const;
 
+    ScreenCoordinate latLngToScreenCoordinate(const LatLng&, const mat4& coordinatePointMatrix) const;
+    LatLng screenCoordinateToLatLng(const ScreenCoordinate&, const mat4& invertedCoordinatePointMatrix, LatLng::WrapMode) const;
+
     /** Recenter the map so that the given coordinate is located at the given
         point on screen. */
     void moveLatLng(const LatLng&, const ScreenCoordinate&);
@@ -14,6 +14,9 @@
 #include <mbgl/style/layers/raster_layer.hpp>
 #include <mbgl/style/layer_impl.hpp>
 #include <mbgl/style/parser.hpp>
+#include <mbgl/style/style_diff.hpp>
+#include <mbgl/style/rapidjson_conversion.hpp>
+#include <mbgl/style/conversion/layer.hpp>
 #include <mbgl/style/query_parameters.hpp>
 #include <mbgl/style/transition_options.hpp>
 #include <mbgl/style/class_dictionary.hpp>
@@ -31,6 +34,8 @@
 #include <mbgl/math/minmax.hpp>
 
 #include <algorithm>
+#include <unordered_map>
+#include <unordered_set>
 
 namespace mbgl {
 namespace style {
@@ -136,6 +141,127 @@ void Style::setJSON(const std::string& json) {
     observer->onStyleLoaded();
 }
 
+bool Style::patchJSON(const std::string& from, const std::string& to) {
+    if (!loaded) {
+        return false;
+    }
+
+    JSDocument fromDocument;
+    fromDocument.Parse<0>(from.c_str());
+    JSDocument toDocument;
+    toDocument.Parse<0>(to.c_str());
+    if (fromDocument.HasParseError() || toDocument.HasParseError()) {
+        return false;
+    }
+
+    optional<StyleDiff> diff = diffStyles(fromDocument, toDocument);
+    if (!diff) {
+        return false;
+    }
+
+    Parser parser;
+    if (parser.parse(to)) {
+        // Reloading reports the error
+        return false;
+    }
+
+    std::unordered_map<std::string, std::unique_ptr<Source>> newSources;
+    for (auto& source : parser.sources) {
+        newSources.emplace(source->getID(), std::move(source));
+    }
+    std::unordered_map<std::string, std::unique_ptr<Layer>> newLayers;
+    for (auto& layer : parser.layers) {
+        newLayers.emplace(layer->getID(), std::move(layer));
+    }
+
+    // Layers added on top of the document layers at runtime, like annotations, stay on top
+    optional<std::string> top;
+    {
+        std::unordered_set<std::string> documentLayers(diff->layerOrder.begin(), diff->layerOrder.end());
+        documentLayers.insert(diff->removedLayers.begin(), diff->removedLayers.end());
+        for (auto it = layers.rbegin(); it != layers.rend(); ++it) {
+            if (documentLayers.count((*it)->getID())) {
+                break;
+            }
+            top = (*it)->getID();
+        }
+    }
+
+    for (const auto& id : diff->removedLayers) {
+        if (getLayer(id)) {
+            removeLayer(id);
+        }
+    }
+
+    for (const auto& id : diff->removedSources) {
+        if (getSource(id)) {
+            removeSource(id);
+        }
+    }
+
+    for (const auto& id : diff->addedSources) {
+        auto it = newSources.find(id);
+        if (it != newSources.end() && !getSource(id)) {
+            addSource(std::move(it->second));
+        }
+    }
+
+    // Walk the document from the top so every added layer can be placed below its successor
+    std::unordered_set<std::string> addedLayers(diff->addedLayers.begin(), diff->addedLayers.end());
+    optional<std::string> before = top;
+    for (auto id = diff->layerOrder.rbegin(); id != diff->layerOrder.rend(); ++id) {
+        auto it = newLayers.find(*id);
+        bool exists = getLayer(*id) != nullptr;
+        if (it == newLayers.end()) {
+            // Invalid in the new document, skipped by the parser
+            if (exists) {
+                removeLayer(*id);
+            }
+            continue;
+        }
+        if (addedLayers.count(*id) || !exists) {
+            if (exists) {
+                removeLayer(*id);
+            }
+            addLayer(std::move(it->second), before);
+        }
+        before = *id;
+    }
+
+    for (const auto& id : diff->zoomChangedLayers) {
+        Layer* layer = getLayer(id);
+        auto it = newLayers.find(id);
+        if (layer && it != newLayers.end() && it->second) {
+            layer->setMinZoom(it->second->getMinZoom());
+            layer->setMaxZoom(it->second->getMaxZoom());
+        }
+    }
+
+    const JSValue null;
+    for (const auto& change : diff->propertyChanges) {
+        Layer* layer = getLayer(change.layer);
+        if (!layer) {
+            continue;
+        }
+        // A null value resets the property to its default
+        const JSValue& value = change.value ? *change.value : null;
+        optional<conversion::Error> error = change.paint
+            ? conversion::setPaintProperty(*layer, change.name, value, change.klass)
+            : conversion::setLayoutProperty(*layer, change.name, value);
+        if (error) {
+            Log::Warning(Event::ParseStyle, "%s", error->message.c_str());
+        }
+    }
+
+    name = parser.name;
+    defaultLatLng = parser.latLng;
+    defaultZoom = parser.zoom;
+    defaultBearing = parser.bearing;
+    defaultPitch = parser.pitch;
+
+    return true;
+}
+
 void Style::addSource(std::unique_ptr<Source> source) {
     //Guard against duplicate source ids
     auto it = std::find_if(sources.begin(), sources.end(), [&](const auto& existing) {
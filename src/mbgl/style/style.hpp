@@ -46,6 +46,11 @@ public:
 
     void setJSON(const std::string&);
 
+    // Updates the style loaded from the first document to the second by diffing the documents,
+    // keeping the sources and layers that didn't change. Returns false, leaving the style
+    // untouched, when the documents can't be diffed and the style has to be reloaded instead.
+    bool patchJSON(const std::string& from, const std::string& to);
+
     void setObserver(Observer*);
 
     bool isLoaded() const;
@@ -0,0 +1,291 @@
+#include <mbgl/style/style_diff.hpp>
+
+#include <algorithm>
+#include <unordered_map>
+#include <unordered_set>
+
+namespace mbgl {
+namespace style {
+
+namespace {
+
+// Layer members that can't be changed on an existing layer
+const char* const structuralMembers[] = { "type", "source", "source-layer", "filter" };
+
+// Top level members that require a reload when changed
+const char* const reloadMembers[] = { "version", "sprite", "glyphs" };
+
+const JSValue* member(const JSValue& object, const char* name) {
+    if (!object.IsObject() || !object.HasMember(name)) {
+        return nullptr;
+    }
+    return &object[name];
+}
+
+bool equal(const JSValue* a, const JSValue* b) {
+    if (!a || !b) {
+        return a == b;
+    }
+    return *a == *b;
+}
+
+std::string toString(const JSValue& value) {
+    return { value.GetString(), value.GetStringLength() };
+}
+
+class Sources {
+public:
+    std::vector<std::string> ids;
+    std::unordered_map<std::string, const JSValue*> values;
+};
+
+Sources sourcesOf(const JSValue& document) {
+    Sources result;
+    const JSValue* sources = member(document, "sources");
+    if (sources && sources->IsObject()) {
+        for (const auto& property : sources->GetObject()) {
+            std::string id = toString(property.name);
+            result.ids.push_back(id);
+            result.values.emplace(id, &property.value);
+        }
+    }
+    return result;
+}
+
+class LayerEntry {
+public:
+    std::string id;
+    const JSValue* value;
+    // The referenced layer when the layer has a ref, the layer itself otherwise
+    const JSValue* base;
+};
+
+// Returns false when the layers can't be diffed, ie. duplicate ids or dangling refs
+bool layersOf(const JSValue& document, std::vector<LayerEntry>& result) {
+    const JSValue* layers = member(document, "layers");
+    if (!layers || !layers->IsArray()) {
+        return true;
+    }
+
+    std::unordered_map<std::string, const JSValue*> values;
+    for (const auto& layer : layers->GetArray()) {
+        const JSValue* id = member(layer, "id");
+        if (!id || !id->IsString()) {
+            // Skipped by the parser as well
+            continue;
+        }
+        std::string layerID = toString(*id);
+        if (!values.emplace(layerID, &layer).second) {
+            return false;
+        }
+        result.push_back({ layerID, &layer, &layer });
+    }
+
+    for (auto& entry : result) {
+        const JSValue* ref = member(*entry.value, "ref");
+        if (!ref) {
+            continue;
+        }
+        auto it = ref->IsString() ? values.find(toString(*ref)) : values.end();
+        if (it == values.end()) {
+            return false;
+        }
+        entry.base = it->second;
+    }
+    return true;
+}
+
+// Indices into `values` of the longest increasing subsequence of `values`
+std::vector<std::size_t> longestIncreasingSubsequence(const std::vector<std::size_t>& values) {
+    std::vector<std::size_t> tails;
+    std::vector<std::size_t> previous(values.size());
+    for (std::size_t i = 0; i < values.size(); i++) {
+        auto it = std::lower_bound(tails.begin(), tails.end(), values[i], [&](std::size_t index, std::size_t value) {
+            return values[index] < value;
+        });
+        previous[i] = it == tails.begin() ? values.size() : *(it - 1);
+        if (it == tails.end()) {
+            tails.push_back(i);
+        } else {
+            *it = i;
+        }
+    }
+
+    std::vector<std::size_t> result(tails.size());
+    std::size_t index = tails.empty() ? values.size() : tails.back();
+    for (std::size_t i = result.size(); i > 0; i--) {
+        result[i - 1] = index;
+        index = previous[index];
+    }
+    return result;
+}
+
+void diffProperties(const std::string& layer, const JSValue* from, const JSValue* to, bool paint,
+                    const optional<std::string>& klass, std::vector<StyleDiff::PropertyChange>& changes) {
+    if (to && to->IsObject()) {
+        for (const auto& property : to->GetObject()) {
+            std::string name = toString(property.name);
+            if (!equal(from ? member(*from, name.c_str()) : nullptr, &property.value)) {
+                changes.push_back({ layer, name, paint, klass, &property.value });
+            }
+        }
+    }
+    if (from && from->IsObject()) {
+        for (const auto& property : from->GetObject()) {
+            std::string name = toString(property.name);
+            if (!to || !member(*to, name.c_str())) {
+                changes.push_back({ layer, name, paint, klass, nullptr });
+            }
+        }
+    }
+}
+
+// The paint members of a layer, "paint" and "paint.<class>"
+std::unordered_map<std::string, const JSValue*> paintsOf(const JSValue& layer) {
+    std::unordered_map<std::string, const JSValue*> result;
+    for (const auto& property : layer.GetObject()) {
+        std::string name = toString(property.name);
+        if (name.compare(0, 5, "paint") == 0) {
+            result.emplace(name, &property.value);
+        }
+    }
+    return result;
+}
+
+void diffPaint(const std::string& layer, const JSValue& from, const JSValue& to,
+               std::vector<StyleDiff::PropertyChange>& changes) {
+    auto fromPaints = paintsOf(from);
+    auto toPaints = paintsOf(to);
+
+    std::unordered_set<std::string> names;
+    for (const auto& paint : fromPaints) {
+        names.insert(paint.first);
+    }
+    for (const auto& paint : toPaints) {
+        names.insert(paint.first);
+    }
+
+    for (const auto& name : names) {
+        optional<std::string> klass;
+        if (name.compare(0, 6, "paint.") == 0) {
+            klass = name.substr(6);
+        }
+        auto fromPaint = fromPaints.find(name);
+        auto toPaint = toPaints.find(name);
+        diffProperties(layer,
+                       fromPaint != fromPaints.end() ? fromPaint->second : nullptr,
+                       toPaint != toPaints.end() ? toPaint->second : nullptr,
+                       true, klass, changes);
+    }
+}
+
+} // namespace
+
+bool StyleDiff::empty() const {
+    return removedLayers.empty() && removedSources.empty() && addedSources.empty() &&
+           addedLayers.empty() && zoomChangedLayers.empty() && propertyChanges.empty();
+}
+
+optional<StyleDiff> diffStyles(const JSValue& from, const JSValue& to) {
+    if (!from.IsObject() || !to.IsObject()) {
+        return {};
+    }
+
+    for (const char* name : reloadMembers) {
+        if (!equal(member(from, name), member(to, name))) {
+            return {};
+        }
+    }
+
+    std::vector<LayerEntry> fromLayers;
+    std::vector<LayerEntry> toLayers;
+    if (!layersOf(from, fromLayers) || !layersOf(to, toLayers)) {
+        return {};
+    }
+
+    StyleDiff diff;
+
+    // Sources
+
+    Sources fromSources = sourcesOf(from);
+    Sources toSources = sourcesOf(to);
+
+    for (const auto& id : fromSources.ids) {
+        auto it = toSources.values.find(id);
+        if (it == toSources.values.end()) {
+            diff.removedSources.push_back(id);
+        } else if (!equal(fromSources.values[id], it->second)) {
+            diff.removedSources.push_back(id);
+            diff.addedSources.push_back(id);
+        }
+    }
+
+    for (const auto& id : toSources.ids) {
+        if (!fromSources.values.count(id)) {
+            diff.addedSources.push_back(id);
+        }
+    }
+
+    // Layers present in both documents that can be updated in place, in target order
+
+    std::unordered_map<std::string, std::size_t> fromIndices;
+    for (std::size_t i = 0; i < fromLayers.size(); i++) {
+        fromIndices.emplace(fromLayers[i].id, i);
+    }
+
+    std::vector<std::size_t> candidates;
+    std::vector<std::size_t> candidateIndices;
+    for (std::size_t i = 0; i < toLayers.size(); i++) {
+        const LayerEntry& layer = toLayers[i];
+        diff.layerOrder.push_back(layer.id);
+
+        auto it = fromIndices.find(layer.id);
+        if (it == fromIndices.end()) {
+            continue;
+        }
+
+        const LayerEntry& previous = fromLayers[it->second];
+        bool compatible = equal(member(*previous.value, "ref"), member(*layer.value, "ref"));
+        for (const char* name : structuralMembers) {
+            compatible = compatible && equal(member(*previous.base, name), member(*layer.base, name));
+        }
+        if (compatible) {
+            candidates.push_back(i);
+            candidateIndices.push_back(it->second);
+        }
+    }
+
+    // Keep the largest set of layers that are already in the right order, move the others
+    std::unordered_set<std::string> kept;
+    for (std::size_t index : longestIncreasingSubsequence(candidateIndices)) {
+        const LayerEntry& layer = toLayers[candidates[index]];
+        const LayerEntry& previous = fromLayers[candidateIndices[index]];
+        kept.insert(layer.id);
+
+        if (!equal(member(*previous.base, "minzoom"), member(*layer.base, "minzoom")) ||
+            !equal(member(*previous.base, "maxzoom"), member(*layer.base, "maxzoom"))) {
+            diff.zoomChangedLayers.push_back(layer.id);
+        }
+
+        diffProperties(layer.id, member(*previous.base, "layout"), member(*layer.base, "layout"),
+                       false, {}, diff.propertyChanges);
+        diffPaint(layer.id, *previous.value, *layer.value, diff.propertyChanges);
+    }
+
+    for (const auto& layer : fromLayers) {
+        if (!kept.count(layer.id)) {
+            diff.removedLayers.push_back(layer.id);
+        }
+    }
+
+    for (const auto& layer : toLayers) {
+        if (!kept.count(layer.id)) {
+            diff.addedLayers.push_back(layer.id);
+        }
+    }
+
+    return diff;
+}
+
+} // namespace style
+} // namespace mbgl
@@ -0,0 +1,54 @@
+#pragma once
+
+#include <mbgl/util/rapidjson.hpp>
+#include <mbgl/util/optional.hpp>
+
+#include <string>
+#include <vector>
+
+namespace mbgl {
+namespace style {
+
+// The operations turning the style loaded from one style document into the style of another.
+// Values point into the target document, which has to outlive the diff.
+class StyleDiff {
+public:
+    class PropertyChange {
+    public:
+        std::string layer;
+        std::string name;
+        bool paint;
+        optional<std::string> klass;
+        // Null when the property was removed and has to be reset to its default
+        const JSValue* value;
+    };
+
+    // Layers that were removed, changed structurally (type, source, source-layer, filter or
+    // ref) or moved. Changed and moved layers are added back.
+    std::vector<std::string> removedLayers;
+
+    // Sources that were removed or changed. Changed sources are added back.
+    std::vector<std::string> removedSources;
+
+    std::vector<std::string> addedSources;
+
+    // Layers to add, in the order of the target document
+    std::vector<std::string> addedLayers;
+
+    // The ids of all layers of the target document, in order
+    std::vector<std::string> layerOrder;
+
+    // Layers of which the minimum or maximum zoom changed
+    std::vector<std::string> zoomChangedLayers;
+
+    std::vector<PropertyChange> propertyChanges;
+
+    bool empty() const;
+};
+
+// Compares two style documents. Returns nothing when the documents can't be diffed, for
+// example because their sprite or glyphs differ, in which case the style has to be reloaded.
+optional<StyleDiff> diffStyles(const JSValue& from, const JSValue& to);
+
+} // namespace style
+} // namespace mbgl
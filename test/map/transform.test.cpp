@@ -437,6 +437,39 @@ TEST(Transform, Antimeridian) {
     ASSERT_NEAR(coordinateWaikiri.longitude, coordinateFromPixel.longitude, 0.000001);
 }
 
+TEST(Transform, BatchConversion) {
+    Transform transform;
+    transform.resize({ 1000, 1000 });
+    transform.setScale(2 << 9);
+    transform.setPitch(0.9);
+    transform.setAngle(0.5);
+    transform.setLatLng(LatLng(38, -77));
+
+    const std::vector<LatLng> latLngs {
+        { 38, -77 }, { 38.74661326302018, -77.59198961199148 }, { 37.692872969426375, -76.75823239205641 }, { 38, 283 }
+    };
+    const std::vector<ScreenCoordinate> points = transform.latLngsToScreenCoordinates(latLngs);
+    ASSERT_EQ(latLngs.size(), points.size());
+    for (std::size_t i = 0; i < latLngs.size(); i++) {
+        ScreenCoordinate point = transform.latLngToScreenCoordinate(latLngs[i]);
+        ASSERT_DOUBLE_EQ(point.x, points[i].x);
+        ASSERT_DOUBLE_EQ(point.y, points[i].y);
+    }
+
+    const std::vector<LatLng> unprojected = transform.screenCoordinatesToLatLngs(points);
+    ASSERT_EQ(points.size(), unprojected.size());
+    for (std::size_t i = 0; i < points.size(); i++) {
+        LatLng latLng = transform.screenCoordinateToLatLng(points[i]);
+        ASSERT_DOUBLE_EQ(latLng.latitude, unprojected[i].latitude);
+        ASSERT_DOUBLE_EQ(latLng.longitude, unprojected[i].longitude);
+        ASSERT_NEAR(latLngs[i].wrapped().latitude, unprojected[i].latitude, 0.0001);
+        ASSERT_NEAR(latLngs[i].wrapped().longitude, unprojected[i].longitude, 0.0001);
+    }
+
+    ASSERT_TRUE(transform.latLngsToScreenCoordinates({}).empty());
+    ASSERT_TRUE(transform.screenCoordinatesToLatLngs({}).empty());
+}
+
 TEST(Transform, Camera) {
     Transform transform;
     transform.resize({ 1000, 1000 });
@@ -0,0 +1,258 @@
+#include <mbgl/test/util.hpp>
+#include <mbgl/test/stub_file_source.hpp>
+
+#include <mbgl/style/style.hpp>
+#include <mbgl/style/style_diff.hpp>
+#include <mbgl/style/source.hpp>
+#include <mbgl/style/layer.hpp>
+#include <mbgl/style/layers/background_layer.hpp>
+#include <mbgl/style/layers/background_layer_impl.hpp>
+#include <mbgl/style/layers/circle_layer_impl.hpp>
+#include <mbgl/style/layers/fill_extrusion_layer_impl.hpp>
+#include <mbgl/style/layers/fill_layer_impl.hpp>
+#include <mbgl/style/layers/line_layer.hpp>
+#include <mbgl/style/layers/line_layer_impl.hpp>
+#include <mbgl/style/layers/raster_layer_impl.hpp>
+#include <mbgl/style/layers/symbol_layer_impl.hpp>
+#include <mbgl/util/ignore.hpp>
+#include <mbgl/util/io.hpp>
+#include <mbgl/util/run_loop.hpp>
+
+#include <dirent.h>
+
+#include <algorithm>
+#include <memory>
+#include <typeinfo>
+
+using namespace mbgl;
+using namespace mbgl::style;
+
+namespace {
+
+JSDocument parse(const std::string& json) {
+    JSDocument document;
+    document.Parse<0>(json.c_str());
+    return document;
+}
+
+std::vector<std::string> layerIDs(Style& style) {
+    std::vector<std::string> result;
+    for (const auto layer : style.getLayers()) {
+        result.push_back(layer->getID());
+    }
+    return result;
+}
+
+std::vector<std::string> sourceIDs(Style& style) {
+    std::vector<std::string> result;
+    for (const auto source : style.getSources()) {
+        result.push_back(source->getID());
+    }
+    std::sort(result.begin(), result.end());
+    return result;
+}
+
+template <class... Ps>
+bool samePaint(const PaintProperties<Ps...>& a, const PaintProperties<Ps...>& b, const optional<std::string>& klass) {
+    bool result = true;
+    util::ignore({ (result = result && a.template get<Ps>(klass) == b.template get<Ps>(klass))... });
+    return result;
+}
+
+template <class... Ps>
+bool sameLayout(const LayoutProperties<Ps...>& a, const LayoutProperties<Ps...>& b) {
+    return a.unevaluated == b.unevaluated;
+}
+
+// Compares the paint properties of the default and of the fixtures' classes
+template <class L>
+bool samePaint(const Layer& a, const Layer& b) {
+    const auto& lhs = a.as<L>()->impl->paint;
+    const auto& rhs = b.as<L>()->impl->paint;
+    return samePaint(lhs, rhs, {}) && samePaint(lhs, rhs, std::string("visible"));
+}
+
+template <class L>
+bool sameLayout(const Layer& a, const Layer& b) {
+    return sameLayout(a.as<L>()->impl->layout, b.as<L>()->impl->layout);
+}
+
+bool sameProperties(const Layer& a, const Layer& b) {
+    if (a.is<BackgroundLayer>()) {
+        return samePaint<BackgroundLayer>(a, b);
+    } else if (a.is<CircleLayer>()) {
+        return samePaint<CircleLayer>(a, b);
+    } else if (a.is<FillLayer>()) {
+        return samePaint<FillLayer>(a, b);
+    } else if (a.is<FillExtrusionLayer>()) {
+        return samePaint<FillExtrusionLayer>(a, b);
+    } else if (a.is<LineLayer>()) {
+        return samePaint<LineLayer>(a, b) && sameLayout<LineLayer>(a, b);
+    } else if (a.is<RasterLayer>()) {
+        return samePaint<RasterLayer>(a, b);
+    } else if (a.is<SymbolLayer>()) {
+        return samePaint<SymbolLayer>(a, b) && sameLayout<SymbolLayer>(a, b);
+    }
+    return true;
+}
+
+// The styles of the test fixtures, diffed against each other
+std::vector<std::string> corpus() {
+    std::vector<std::string> result = {
+        "test/fixtures/resources/style_vector.json",
+        "test/fixtures/resources/style_raster.json",
+        "test/fixtures/resources/style-unused-sources.json",
+        "test/fixtures/api/annotation.json",
+        "test/fixtures/api/empty.json",
+        "test/fixtures/api/icon_style.json",
+        "test/fixtures/api/query_style.json",
+        "test/fixtures/api/water.json",
+        "test/fixtures/style_diff/day.json",
+        "test/fixtures/style_diff/night.json",
+    };
+
+    const std::string directory = "test/fixtures/style_parser/";
+    DIR *dir = opendir(directory.c_str());
+    if (dir != nullptr) {
+        for (dirent *dp = nullptr; (dp = readdir(dir)) != nullptr;) {
+            const std::string name = dp->d_name;
+            if (name.length() >= 11 && name.compare(name.length() - 11, 11, ".style.json") == 0) {
+                result.push_back(directory + name);
+            }
+        }
+        closedir(dir);
+    }
+    return result;
+}
+
+} // namespace
+
+TEST(StyleDiff, Identical) {
+    const std::string json = util::read_file("test/fixtures/resources/style_vector.json");
+    JSDocument from = parse(json);
+    JSDocument to = parse(json);
+
+    optional<StyleDiff> diff = diffStyles(from, to);
+    ASSERT_TRUE(bool(diff));
+    EXPECT_TRUE(diff->empty());
+}
+
+TEST(StyleDiff, ReloadOnSpriteChange) {
+    JSDocument from = parse(R"({ "version": 8, "sprite": "a", "sources": {}, "layers": [] })");
+    JSDocument to = parse(R"({ "version": 8, "sprite": "b", "sources": {}, "layers": [] })");
+    EXPECT_FALSE(bool(diffStyles(from, to)));
+}
+
+TEST(StyleDiff, ThemeSwitch) {
+    JSDocument from = parse(util::read_file("test/fixtures/style_diff/day.json"));
+    JSDocument to = parse(util::read_file("test/fixtures/style_diff/night.json"));
+
+    optional<StyleDiff> diff = diffStyles(from, to);
+    ASSERT_TRUE(bool(diff));
+
+    EXPECT_TRUE(diff->removedSources.empty());
+    EXPECT_TRUE(diff->addedSources.empty());
+
+    // Either "road" or "road-casing" has to move, "poi-halo" is new
+    EXPECT_EQ(std::vector<std::string>({ "road-casing" }), diff->removedLayers);
+    EXPECT_EQ(std::vector<std::string>({ "road-casing", "poi-halo" }), diff->addedLayers);
+    EXPECT_EQ(std::vector<std::string>({ "poi" }), diff->zoomChangedLayers);
+
+    std::vector<std::string> changes;
+    for (const auto& change : diff->propertyChanges) {
+        changes.push_back(change.layer + " " + change.name);
+    }
+    std::sort(changes.begin(), changes.end());
+    EXPECT_EQ(std::vector<std::string>({
+        "background background-color",
+        "poi circle-color",
+        "road line-cap",
+        "road line-color",
+    }), changes);
+}
+
+TEST(StyleDiff, PatchKeepsSources) {
+    util::RunLoop loop;
+
+    StubFileSource fileSource;
+    Style style { fileSource, 1.0 };
+
+    const std::string day = util::read_file("test/fixtures/style_diff/day.json");
+    const std::string night = util::read_file("test/fixtures/style_diff/night.json");
+    style.setJSON(day);
+
+    Source* points = style.getSource("points");
+    Layer* background = style.getLayer("background");
+
+    ASSERT_TRUE(style.patchJSON(day, night));
+
+    EXPECT_EQ(points, style.getSource("points"));
+    EXPECT_EQ(background, style.getLayer("background"));
+    EXPECT_EQ(std::vector<std::string>({ "background", "road-casing", "road", "poi", "poi-halo" }), layerIDs(style));
+    EXPECT_EQ(12, style.getLayer("poi")->getMinZoom());
+    EXPECT_EQ("Night", style.getName());
+
+    // The layout property removed from "road" is back at its default
+    EXPECT_TRUE(style.getLayer("road")->as<LineLayer>()->getLineCap().isUndefined());
+}
+
+TEST(StyleDiff, PatchKeepsRuntimeLayersOnTop) {
+    util::RunLoop loop;
+
+    StubFileSource fileSource;
+    Style style { fileSource, 1.0 };
+
+    const std::string day = util::read_file("test/fixtures/style_diff/day.json");
+    const std::string night = util::read_file("test/fixtures/style_diff/night.json");
+    style.setJSON(day);
+    style.addLayer(std::make_unique<BackgroundLayer>("runtime"));
+
+    ASSERT_TRUE(style.patchJSON(day, night));
+    EXPECT_EQ("runtime", layerIDs(style).back());
+}
+
+TEST(StyleDiff, Corpus) {
+    util::RunLoop loop;
+
+    StubFileSource fileSource;
+    const std::vector<std::string> files = corpus();
+
+    for (const auto& fromFile : files) {
+        const std::string from = util::read_file(fromFile);
+        for (const auto& toFile : files) {
+            SCOPED_TRACE(fromFile + " -> " + toFile);
+            const std::string to = util::read_file(toFile);
+
+            Style expected { fileSource, 1.0 };
+            expected.setJSON(to);
+
+            Style patched { fileSource, 1.0 };
+            patched.setJSON(from);
+            if (!patched.patchJSON(from, to)) {
+                // Documents that can't be diffed are reloaded
+                continue;
+            }
+
+            EXPECT_EQ(layerIDs(expected), layerIDs(patched));
+            EXPECT_EQ(sourceIDs(expected), sourceIDs(patched));
+
+            for (const auto layer : expected.getLayers()) {
+                const Layer* patchedLayer = patched.getLayer(layer->getID());
+                ASSERT_TRUE(patchedLayer);
+                ASSERT_TRUE(typeid(*layer) == typeid(*patchedLayer));
+                EXPECT_EQ(layer->getVisibility(), patchedLayer->getVisibility());
+                EXPECT_EQ(layer->getMinZoom(), patchedLayer->getMinZoom());
+                EXPECT_EQ(layer->getMaxZoom(), patchedLayer->getMaxZoom());
+                EXPECT_TRUE(sameProperties(*layer, *patchedLayer)) << layer->getID();
+            }
+
+            // Patching a style with its own document changes nothing
+            if (fromFile == toFile) {
+                JSDocument document = parse(from);
+                JSDocument same = parse(from);
+                optional<StyleDiff> diff = diffStyles(document, same);
+                EXPECT_TRUE(!diff || diff->empty());
+            }
+        }
+    }
+}